@@ -20,11 +20,13 @@ import fr.xephi.authme.listener.PlayerListener19;
 import fr.xephi.authme.listener.PlayerListener19Spigot;
 import fr.xephi.authme.listener.ServerListener;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.security.HashingExecutor;
 import fr.xephi.authme.security.crypts.Sha256;
 import fr.xephi.authme.service.BackupService;
 import fr.xephi.authme.service.BukkitService;
 import fr.xephi.authme.service.MigrationService;
 import fr.xephi.authme.service.bungeecord.BungeeReceiver;
+import fr.xephi.authme.service.bungeecord.BungeeSender;
 import fr.xephi.authme.service.yaml.YamlParseException;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.SettingsWarner;
@@ -308,6 +310,12 @@ public class AuthMe extends JavaPlugin {
             onShutdownPlayerSaver.saveAllPlayers();
         }
 
+        // Send the pending account changes to the other servers
+        BungeeSender bungeeSender = injector == null ? null : injector.getIfAvailable(BungeeSender.class);
+        if (bungeeSender != null) {
+            bungeeSender.closePeerMesh();
+        }
+
         // Do backup on stop if enabled
         if (backupService != null) {
             backupService.doBackup(BackupService.BackupCause.STOP);
@@ -316,6 +324,11 @@ public class AuthMe extends JavaPlugin {
         // Wait for tasks and close data source
         new TaskCloser(this, database).run();
 
+        HashingExecutor hashingExecutor = injector == null ? null : injector.getIfAvailable(HashingExecutor.class);
+        if (hashingExecutor != null) {
+            hashingExecutor.shutdown();
+        }
+
         // Disabled correctly
         Consumer<String> infoLogMethod = logger == null ? getLogger()::info : logger::info;
         infoLogMethod.accept("AuthMe " + this.getDescription().getVersion() + " disabled!");
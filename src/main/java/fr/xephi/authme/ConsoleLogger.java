@@ -1,24 +1,16 @@
 package fr.xephi.authme;
 
 import com.google.common.base.Throwables;
+import fr.xephi.authme.output.AsyncLogWriter;
 import fr.xephi.authme.output.LogLevel;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.PluginSettings;
 import fr.xephi.authme.settings.properties.SecuritySettings;
 import fr.xephi.authme.util.ExceptionUtils;
 
-import java.io.Closeable;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
 import java.util.function.Supplier;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -26,20 +18,12 @@ import java.util.logging.Logger;
  */
 public final class ConsoleLogger {
 
-    private static final String NEW_LINE = System.getProperty("line.separator");
-    /** Formatter which formats dates to something like "[08-16 21:18:46]" for any given LocalDateTime. */
-    private static final DateTimeFormatter DATE_FORMAT = new DateTimeFormatterBuilder()
-        .appendLiteral('[')
-        .appendPattern("MM-dd HH:mm:ss")
-        .appendLiteral(']')
-        .toFormatter();
-
     // Outside references
     private static File logFile;
     private static Logger logger;
 
     // Shared state
-    private static OutputStreamWriter fileWriter;
+    private static volatile AsyncLogWriter fileWriter;
 
     // Individual state
     private final String name;
@@ -71,7 +55,7 @@ public final class ConsoleLogger {
     public static void initializeSharedSettings(Settings settings) {
         boolean useLogging = settings.getProperty(SecuritySettings.USE_LOGGING);
         if (useLogging) {
-            initializeFileWriter();
+            initializeFileWriter(settings);
         } else {
             closeFileWriter();
         }
@@ -225,63 +209,49 @@ public final class ConsoleLogger {
     // --------
 
     /**
-     * Closes the file writer.
+     * Writes all pending messages to the log file and closes the file writer.
      */
-    public static void closeFileWriter() {
-        if (fileWriter != null) {
-            try {
-                fileWriter.flush();
-            } catch (IOException ignored) {
-            } finally {
-                closeSafely(fileWriter);
-                fileWriter = null;
-            }
+    public static synchronized void closeFileWriter() {
+        AsyncLogWriter writer = fileWriter;
+        fileWriter = null;
+        if (writer != null) {
+            writer.close();
         }
     }
 
     /**
-     * Write a message into the log file with a TimeStamp if enabled.
+     * Queues a message to be written into the log file with a timestamp if enabled.
+     * The message is written by a background thread, so this method never blocks.
      *
      * @param message The message to write to the log
      */
     private static void writeLog(String message) {
-        if (fileWriter != null) {
-            String dateTime = DATE_FORMAT.format(LocalDateTime.now());
-            try {
-                fileWriter.write(dateTime);
-                fileWriter.write(": ");
-                fileWriter.write(message);
-                fileWriter.write(NEW_LINE);
-                fileWriter.flush();
-            } catch (IOException ignored) {
-            }
-        }
-    }
-
-    private static void closeSafely(Closeable closeable) {
-        if (closeable != null) {
-            try {
-                closeable.close();
-            } catch (IOException e) {
-                logger.log(Level.SEVERE, "Failed to close resource", e);
-            }
+        AsyncLogWriter writer = fileWriter;
+        if (writer != null) {
+            writer.write(message);
         }
     }
 
     /**
-     * Populates the {@link #fileWriter} field if it is null, handling any exceptions that might
-     * arise during its creation.
+     * Starts the {@link #fileWriter} if it is null, or updates its flush and rotation options.
+     * The buffer size is only applied when the writer is started.
+     *
+     * @param settings the settings to read from
      */
-    private static void initializeFileWriter() {
-        if (fileWriter == null) {
-            FileOutputStream fos = null;
-            try {
-                fos = new FileOutputStream(logFile, true);
-                fileWriter = new OutputStreamWriter(fos, StandardCharsets.UTF_8);
-            } catch (Exception e) {
-                closeSafely(fos);
-                logger.log(Level.SEVERE, "Failed to create writer to AuthMe log file", e);
+    private static synchronized void initializeFileWriter(Settings settings) {
+        AsyncLogWriter writer = fileWriter;
+        if (writer == null) {
+            if (logFile == null) {
+                return;
             }
+            writer = new AsyncLogWriter(logFile, logger, settings.getProperty(SecuritySettings.LOG_BUFFER_SIZE));
+        }
+        writer.configure(settings.getProperty(SecuritySettings.LOG_FLUSH_INTERVAL),
+            settings.getProperty(SecuritySettings.LOG_MAX_FILE_SIZE) * 1024L * 1024L,
+            settings.getProperty(SecuritySettings.LOG_ROTATE_DAILY));
+        if (fileWriter == null) {
+            writer.start();
+            fileWriter = writer;
         }
     }
 }
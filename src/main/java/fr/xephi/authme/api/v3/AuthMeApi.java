@@ -229,7 +229,7 @@ public class AuthMeApi {
      * @return true if the password is correct, false otherwise
      */
     public boolean checkPassword(String playerName, String passwordToCheck) {
-        return passwordSecurity.comparePassword(passwordToCheck, playerName);
+        return passwordSecurity.comparePasswordWithoutRejection(passwordToCheck, playerName);
     }
 
     /**
@@ -245,7 +245,7 @@ public class AuthMeApi {
         if (isRegistered(name)) {
             return false;
         }
-        HashedPassword result = passwordSecurity.computeHash(password, name);
+        HashedPassword result = passwordSecurity.computeHashWithoutRejection(password, name);
         PlayerAuth auth = PlayerAuth.builder()
             .name(name)
             .password(result)
@@ -330,7 +330,7 @@ public class AuthMeApi {
      */
     public List<String> getRegisteredNames() {
         List<String> registeredNames = new ArrayList<>();
-        dataSource.getAllAuths().forEach(auth -> registeredNames.add(auth.getNickname()));
+        dataSource.forEachName((name, realName) -> registeredNames.add(name));
         return registeredNames;
     }
 
@@ -341,10 +341,22 @@ public class AuthMeApi {
      */
     public List<String> getRegisteredRealNames() {
         List<String> registeredNames = new ArrayList<>();
-        dataSource.getAllAuths().forEach(auth -> registeredNames.add(auth.getRealName()));
+        dataSource.forEachName((name, realName) -> registeredNames.add(realName));
         return registeredNames;
     }
 
+    /**
+     * Get the registered real-names (original case) which start with the given prefix, ignoring case.
+     * Useful for tab completion.
+     *
+     * @param prefix the prefix to look for
+     * @param limit the maximum number of names to return
+     * @return registered real-names starting with the prefix, sorted alphabetically
+     */
+    public List<String> getRegisteredRealNamesStartingWith(String prefix, int limit) {
+        return dataSource.getRealNamesStartingWith(prefix, limit);
+    }
+
     /**
      * Get the country code of the given IP address.
      *
@@ -31,11 +31,11 @@ public class PurgeLastPositionCommand implements ExecutableCommand {
         String playerName = arguments.isEmpty() ? sender.getName() : arguments.get(0);
 
         if ("*".equals(playerName)) {
-            for (PlayerAuth auth : dataSource.getAllAuths()) {
+            dataSource.forEachAuth(auth -> {
                 resetLastPosition(auth);
                 dataSource.updateQuitLoc(auth);
                 bungeeSender.sendAuthMeBungeecordMessage(MessageType.REFRESH_QUITLOC, playerName);
-            }
+            });
             sender.sendMessage("All players last position locations are now reset");
         } else {
             // Get the user auth and make sure the user exists
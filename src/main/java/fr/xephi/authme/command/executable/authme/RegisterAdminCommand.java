@@ -6,6 +6,7 @@ import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.message.MessageKey;
+import fr.xephi.authme.security.HashingBusyException;
 import fr.xephi.authme.security.PasswordSecurity;
 import fr.xephi.authme.security.crypts.HashedPassword;
 import fr.xephi.authme.service.BukkitService;
@@ -59,7 +60,13 @@ public class RegisterAdminCommand implements ExecutableCommand {
                 commonService.send(sender, MessageKey.NAME_ALREADY_REGISTERED);
                 return;
             }
-            HashedPassword hashedPassword = passwordSecurity.computeHash(playerPass, playerNameLowerCase);
+            HashedPassword hashedPassword;
+            try {
+                hashedPassword = passwordSecurity.computeHash(playerPass, playerNameLowerCase);
+            } catch (HashingBusyException e) {
+                commonService.send(sender, MessageKey.HASHING_BUSY);
+                return;
+            }
             PlayerAuth auth = PlayerAuth.builder()
                 .name(playerNameLowerCase)
                 .realName(playerName)
@@ -1,16 +1,24 @@
 package fr.xephi.authme.command.executable.authme.debug;
 
 import ch.jalu.injector.factory.SingletonStore;
+import com.google.common.cache.CacheStats;
 import fr.xephi.authme.data.auth.PlayerCache;
 import fr.xephi.authme.data.limbo.LimboService;
+import fr.xephi.authme.data.limbo.persistence.LimboPersistence;
+import fr.xephi.authme.data.limbo.persistence.WriteBehindPersistenceHandler;
 import fr.xephi.authme.datasource.CacheDataSource;
 import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.datasource.RegisteredNameFilter;
+import fr.xephi.authme.datasource.WriteBehindQueue;
 import fr.xephi.authme.initialization.HasCleanup;
 import fr.xephi.authme.initialization.Reloadable;
 import fr.xephi.authme.initialization.SettingsDependent;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.permission.DebugSectionPermissions;
 import fr.xephi.authme.permission.PermissionNode;
+import fr.xephi.authme.security.HashingExecutor;
+import fr.xephi.authme.service.AntiBotService;
+import fr.xephi.authme.service.JoinRateTracker;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 
@@ -31,9 +39,18 @@ class DataStatistics implements DebugSection {
     @Inject
     private LimboService limboService;
 
+    @Inject
+    private LimboPersistence limboPersistence;
+
     @Inject
     private DataSource dataSource;
 
+    @Inject
+    private HashingExecutor hashingExecutor;
+
+    @Inject
+    private AntiBotService antiBotService;
+
     @Inject
     private SingletonStore<Object> singletonStore;
 
@@ -52,8 +69,11 @@ class DataStatistics implements DebugSection {
         sender.sendMessage(ChatColor.BLUE + "AuthMe statistics");
         sender.sendMessage("LimboPlayers in memory: " + applyToLimboPlayersMap(limboService, Map::size));
         sender.sendMessage("PlayerCache size: " + playerCache.getLogged() + " (= logged in players)");
+        outputLimboPersistenceStats(sender);
 
         outputDatabaseStats(sender);
+        outputHashingStats(sender);
+        outputAntiBotStats(sender);
         outputInjectorStats(sender);
         sender.sendMessage("Total logger instances: " + ConsoleLoggerFactory.getTotalLoggers());
     }
@@ -68,6 +88,60 @@ class DataStatistics implements DebugSection {
         if (dataSource instanceof CacheDataSource) {
             CacheDataSource cacheDataSource = (CacheDataSource) this.dataSource;
             sender.sendMessage("Cached PlayerAuth objects: " + cacheDataSource.getCachedAuths().size());
+            CacheStats cacheStats = cacheDataSource.getCachedAuths().stats();
+            sender.sendMessage(String.format("Auth cache: %.1f%% hit rate, %d loads, load time (ms): avg %.2f",
+                cacheStats.hitRate() * 100, cacheStats.loadCount(), cacheStats.averageLoadPenalty() / 1_000_000.0));
+            sender.sendMessage(String.format("Cache loader: %d threads, %d active, %d queued, %d rejected",
+                cacheDataSource.getLoaderThreads(), cacheDataSource.getActiveLoaderCount(),
+                cacheDataSource.getQueuedLoaderCount(), cacheDataSource.getRejectedReloadCount()));
+            RegisteredNameFilter nameFilter = cacheDataSource.getNameFilter();
+            if (nameFilter != null) {
+                sender.sendMessage(String.format("Name filter: %d names (%d removed), %d KiB, %d hash functions, "
+                    + "%.3f%% false positives, %d lookups answered without database",
+                    nameFilter.getNameCount(), nameFilter.getRemovedNameCount(), nameFilter.getMemoryBytes() / 1024,
+                    nameFilter.getHashFunctions(), nameFilter.getExpectedFalsePositiveRate() * 100,
+                    nameFilter.getDefiniteMissCount()));
+            }
+            WriteBehindQueue writeBehindQueue = cacheDataSource.getWriteBehindQueue();
+            if (writeBehindQueue != null) {
+                sender.sendMessage(String.format("Write-behind queue: %d pending, %d written in %d flushes",
+                    writeBehindQueue.getPendingCount(), writeBehindQueue.getFlushedUpdateCount(),
+                    writeBehindQueue.getFlushCount()));
+                sender.sendMessage(String.format("Flush time (ms): last %.2f / avg %.2f / max %.2f",
+                    writeBehindQueue.getLastFlushMillis(), writeBehindQueue.getAverageFlushMillis(),
+                    writeBehindQueue.getMaxFlushMillis()));
+            }
+        }
+    }
+
+    private void outputLimboPersistenceStats(CommandSender sender) {
+        WriteBehindPersistenceHandler writeBehindHandler = limboPersistence.getWriteBehindHandler();
+        if (writeBehindHandler != null) {
+            sender.sendMessage(String.format("Limbo write-behind: %d pending, %d written in %d flushes, %d skipped",
+                writeBehindHandler.getPendingCount(), writeBehindHandler.getFlushedWriteCount(),
+                writeBehindHandler.getFlushCount(), writeBehindHandler.getSkippedWriteCount()));
+            sender.sendMessage(String.format("Limbo flush time (ms): last %.2f / avg %.2f",
+                writeBehindHandler.getLastFlushMillis(), writeBehindHandler.getAverageFlushMillis()));
+        }
+    }
+
+    private void outputHashingStats(CommandSender sender) {
+        sender.sendMessage(String.format("Hashing: %d threads, %d active, %d queued, %d done, %d rejected",
+            hashingExecutor.getWorkerThreads(), hashingExecutor.getActiveTaskCount(),
+            hashingExecutor.getQueuedTaskCount(), hashingExecutor.getCompletedTaskCount(),
+            hashingExecutor.getRejectedTaskCount()));
+        sender.sendMessage(String.format("Hashing wait (ms): avg %.2f / max %.2f; hash time (ms): avg %.2f / max %.2f",
+            hashingExecutor.getAverageWaitMillis(), hashingExecutor.getMaxWaitMillis(),
+            hashingExecutor.getAverageHashMillis(), hashingExecutor.getMaxHashMillis()));
+    }
+
+    private void outputAntiBotStats(CommandSender sender) {
+        JoinRateTracker joinRateTracker = antiBotService.getJoinRateTracker();
+        if (joinRateTracker != null) {
+            sender.sendMessage(String.format("Adaptive AntiBot: %d subnets/countries tracked, %d joins throttled",
+                joinRateTracker.getTrackedBucketCount(), joinRateTracker.getThrottledJoinCount()));
+            joinRateTracker.getHighestRates(3).forEach((bucket, rate) ->
+                sender.sendMessage(String.format("- %s: %.1f joins/min", bucket, rate)));
         }
     }
 
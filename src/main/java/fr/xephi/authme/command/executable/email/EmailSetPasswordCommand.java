@@ -5,6 +5,7 @@ import fr.xephi.authme.command.PlayerCommand;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.message.MessageKey;
+import fr.xephi.authme.security.HashingBusyException;
 import fr.xephi.authme.security.PasswordSecurity;
 import fr.xephi.authme.security.crypts.HashedPassword;
 import fr.xephi.authme.service.CommonService;
@@ -46,7 +47,13 @@ public class EmailSetPasswordCommand extends PlayerCommand {
 
             ValidationResult result = validationService.validatePassword(password, name);
             if (!result.hasError()) {
-                HashedPassword hashedPassword = passwordSecurity.computeHash(password, name);
+                HashedPassword hashedPassword;
+                try {
+                    hashedPassword = passwordSecurity.computeHash(password, name);
+                } catch (HashingBusyException e) {
+                    commonService.send(player, MessageKey.HASHING_BUSY);
+                    return;
+                }
                 dataSource.updatePassword(name, hashedPassword);
                 recoveryService.removeFromSuccessfulRecovery(player);
                 logger.info("Player '" + name + "' has changed their password from recovery");
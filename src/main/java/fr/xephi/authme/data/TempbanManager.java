@@ -8,7 +8,7 @@ import fr.xephi.authme.service.BukkitService;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.SecuritySettings;
 import fr.xephi.authme.util.PlayerUtils;
-import fr.xephi.authme.util.expiring.TimedCounter;
+import fr.xephi.authme.util.expiring.SlidingWindowCounterMap;
 import org.bukkit.entity.Player;
 
 import javax.inject.Inject;
@@ -24,7 +24,7 @@ import static fr.xephi.authme.util.Utils.MILLIS_PER_MINUTE;
  */
 public class TempbanManager implements SettingsDependent, HasCleanup {
 
-    private final Map<String, TimedCounter<String>> ipLoginFailureCounts;
+    private final Map<String, SlidingWindowCounterMap<String>> ipLoginFailureCounts;
     private final BukkitService bukkitService;
     private final Messages messages;
 
@@ -50,8 +50,8 @@ public class TempbanManager implements SettingsDependent, HasCleanup {
      */
     public void increaseCount(String address, String name) {
         if (isEnabled) {
-            TimedCounter<String> countsByName = ipLoginFailureCounts.computeIfAbsent(
-                address, k -> new TimedCounter<>(resetThreshold, TimeUnit.MINUTES));
+            SlidingWindowCounterMap<String> countsByName = ipLoginFailureCounts.computeIfAbsent(
+                address, k -> new SlidingWindowCounterMap<>(resetThreshold, TimeUnit.MINUTES));
             countsByName.increment(name);
         }
     }
@@ -64,7 +64,7 @@ public class TempbanManager implements SettingsDependent, HasCleanup {
      */
     public void resetCount(String address, String name) {
         if (isEnabled) {
-            TimedCounter<String> counter = ipLoginFailureCounts.get(address);
+            SlidingWindowCounterMap<String> counter = ipLoginFailureCounts.get(address);
             if (counter != null) {
                 counter.remove(name);
             }
@@ -79,7 +79,7 @@ public class TempbanManager implements SettingsDependent, HasCleanup {
      */
     public boolean shouldTempban(String address) {
         if (isEnabled) {
-            TimedCounter<String> countsByName = ipLoginFailureCounts.get(address);
+            SlidingWindowCounterMap<String> countsByName = ipLoginFailureCounts.get(address);
             if (countsByName != null) {
                 return countsByName.total() >= threshold;
             }
@@ -130,7 +130,7 @@ public class TempbanManager implements SettingsDependent, HasCleanup {
 
     @Override
     public void performCleanup() {
-        for (TimedCounter<String> countsByIp : ipLoginFailureCounts.values()) {
+        for (SlidingWindowCounterMap<String> countsByIp : ipLoginFailureCounts.values()) {
             countsByIp.removeExpiredEntries();
         }
         ipLoginFailureCounts.entrySet().removeIf(e -> e.getValue().isEmpty());
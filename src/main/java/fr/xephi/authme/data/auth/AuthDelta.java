@@ -0,0 +1,282 @@
+package fr.xephi.authme.data.auth;
+
+import fr.xephi.authme.security.crypts.HashedPassword;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Change of a player's account made on one server, which other servers apply to their cached
+ * {@link PlayerAuth} instead of reading the account from the database again.
+ * <p>
+ * Deltas carry a version based on the sending server's clock: receivers don't apply deltas which are
+ * older than the last one they applied for the same player, so deltas may arrive out of order. As the
+ * clocks of the servers may differ, such a delta makes the receiver read the account from the database.
+ */
+public final class AuthDelta {
+
+    /** Fields which can be carried by a delta. */
+    public static final Set<PlayerAuth.Field> SUPPORTED_FIELDS = Collections.unmodifiableSet(EnumSet.of(
+        PlayerAuth.Field.REAL_NAME, PlayerAuth.Field.PASSWORD, PlayerAuth.Field.EMAIL,
+        PlayerAuth.Field.LAST_IP, PlayerAuth.Field.LAST_LOGIN, PlayerAuth.Field.QUIT_LOCATION));
+
+    private final Kind kind;
+    private final String name;
+    private final long version;
+    private final Set<PlayerAuth.Field> fields;
+    private final PlayerAuth values;
+
+    private AuthDelta(Kind kind, String name, long version, Set<PlayerAuth.Field> fields, PlayerAuth values) {
+        this.kind = kind;
+        this.name = name.toLowerCase();
+        this.version = version;
+        this.fields = fields;
+        this.values = values;
+    }
+
+    /**
+     * Creates a delta with the given fields of the auth. The values are copied, so later changes to
+     * the auth are not reflected in the delta.
+     *
+     * @param auth the auth to take the values from
+     * @param fields the fields which have changed
+     * @param version the version of the change
+     * @return the delta
+     */
+    public static AuthDelta update(PlayerAuth auth, Set<PlayerAuth.Field> fields, long version) {
+        if (!SUPPORTED_FIELDS.containsAll(fields)) {
+            throw new IllegalArgumentException("Unsupported fields in " + fields);
+        }
+        PlayerAuth values = PlayerAuth.builder()
+            .name(auth.getNickname())
+            .realName(auth.getRealName())
+            .password(auth.getPassword())
+            .email(auth.getEmail())
+            .lastIp(auth.getLastIp())
+            .lastLogin(auth.getLastLogin())
+            .locX(auth.getQuitLocX()).locY(auth.getQuitLocY()).locZ(auth.getQuitLocZ())
+            .locWorld(auth.getWorld()).locYaw(auth.getYaw()).locPitch(auth.getPitch())
+            .build();
+        return new AuthDelta(Kind.UPDATE, auth.getNickname(), version, EnumSet.copyOf(fields), values);
+    }
+
+    /**
+     * Creates a delta telling receivers to reload the account, e.g. after it has been registered.
+     *
+     * @param name the player name
+     * @param version the version of the change
+     * @return the delta
+     */
+    public static AuthDelta reload(String name, long version) {
+        return new AuthDelta(Kind.RELOAD, name, version, EnumSet.noneOf(PlayerAuth.Field.class), null);
+    }
+
+    /**
+     * Creates a delta telling receivers that the account has been removed.
+     *
+     * @param name the player name
+     * @param version the version of the change
+     * @return the delta
+     */
+    public static AuthDelta remove(String name, long version) {
+        return new AuthDelta(Kind.REMOVE, name, version, EnumSet.noneOf(PlayerAuth.Field.class), null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the player name in lowercase
+     */
+    public String getName() {
+        return name;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Set<PlayerAuth.Field> getFields() {
+        return Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Returns the auth holding the new values of the delta's fields. Other fields of the returned auth
+     * must not be used. Only available for deltas of kind {@link Kind#UPDATE}.
+     *
+     * @return the auth with the new values
+     */
+    public PlayerAuth getValues() {
+        return values;
+    }
+
+    /**
+     * Combines this delta with a subsequent delta of the same player, so that only one delta needs to be sent.
+     *
+     * @param next the subsequent delta
+     * @return the combined delta
+     */
+    public AuthDelta merge(AuthDelta next) {
+        if (!name.equals(next.name)) {
+            throw new IllegalArgumentException("Cannot merge deltas of '" + name + "' and '" + next.name + "'");
+        }
+        long mergedVersion = Math.max(version, next.version);
+        if (kind == Kind.UPDATE && next.kind == Kind.UPDATE) {
+            Set<PlayerAuth.Field> mergedFields = EnumSet.copyOf(fields);
+            mergedFields.addAll(next.fields);
+            PlayerAuth mergedValues = update(values, SUPPORTED_FIELDS, 0).values;
+            mergedValues.copyFields(next.values, next.fields);
+            return new AuthDelta(Kind.UPDATE, name, mergedVersion, mergedFields, mergedValues);
+        } else if (kind == Kind.RELOAD && next.kind == Kind.UPDATE) {
+            // The receivers reload the whole account anyway
+            return new AuthDelta(Kind.RELOAD, name, mergedVersion, fields, null);
+        }
+        return new AuthDelta(next.kind, name, mergedVersion, next.fields, next.values);
+    }
+
+    /**
+     * Writes the delta to the given output.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output could not be written to
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(kind.ordinal());
+        out.writeUTF(name);
+        out.writeLong(version);
+        if (kind != Kind.UPDATE) {
+            return;
+        }
+        out.writeByte(fields.size());
+        for (PlayerAuth.Field field : fields) {
+            out.writeUTF(field.name());
+            switch (field) {
+                case REAL_NAME:
+                    out.writeUTF(values.getRealName());
+                    break;
+                case PASSWORD:
+                    out.writeUTF(values.getPassword().getHash());
+                    writeNullableString(out, values.getPassword().getSalt());
+                    break;
+                case EMAIL:
+                    writeNullableString(out, values.getEmail());
+                    break;
+                case LAST_IP:
+                    writeNullableString(out, values.getLastIp());
+                    break;
+                case LAST_LOGIN:
+                    out.writeLong(values.getLastLogin() == null ? -1 : values.getLastLogin());
+                    break;
+                case QUIT_LOCATION:
+                    out.writeDouble(values.getQuitLocX());
+                    out.writeDouble(values.getQuitLocY());
+                    out.writeDouble(values.getQuitLocZ());
+                    out.writeUTF(values.getWorld());
+                    out.writeFloat(values.getYaw());
+                    out.writeFloat(values.getPitch());
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled field '" + field + "'");
+            }
+        }
+    }
+
+    /**
+     * Reads a delta written with {@link #writeTo}.
+     *
+     * @param in the input to read from
+     * @return the delta
+     * @throws IOException if the input could not be read or does not contain a valid delta
+     */
+    public static AuthDelta readFrom(DataInput in) throws IOException {
+        int kindOrdinal = in.readUnsignedByte();
+        if (kindOrdinal >= Kind.values().length) {
+            throw new IOException("Unknown delta kind " + kindOrdinal);
+        }
+        Kind kind = Kind.values()[kindOrdinal];
+        String name = in.readUTF();
+        long version = in.readLong();
+        if (kind != Kind.UPDATE) {
+            return new AuthDelta(kind, name, version, EnumSet.noneOf(PlayerAuth.Field.class), null);
+        }
+
+        int fieldCount = in.readUnsignedByte();
+        Set<PlayerAuth.Field> fields = EnumSet.noneOf(PlayerAuth.Field.class);
+        PlayerAuth.Builder values = PlayerAuth.builder().name(name);
+        for (int i = 0; i < fieldCount; ++i) {
+            PlayerAuth.Field field = readField(in);
+            fields.add(field);
+            switch (field) {
+                case REAL_NAME:
+                    values.realName(in.readUTF());
+                    break;
+                case PASSWORD:
+                    values.password(new HashedPassword(in.readUTF(), readNullableString(in)));
+                    break;
+                case EMAIL:
+                    values.email(readNullableString(in));
+                    break;
+                case LAST_IP:
+                    values.lastIp(readNullableString(in));
+                    break;
+                case LAST_LOGIN:
+                    long lastLogin = in.readLong();
+                    values.lastLogin(lastLogin < 0 ? null : lastLogin);
+                    break;
+                case QUIT_LOCATION:
+                    values.locX(in.readDouble()).locY(in.readDouble()).locZ(in.readDouble())
+                        .locWorld(in.readUTF()).locYaw(in.readFloat()).locPitch(in.readFloat());
+                    break;
+                default:
+                    throw new IOException("Unsupported field '" + field + "'");
+            }
+        }
+        return new AuthDelta(kind, name, version, fields, values.build());
+    }
+
+    private static PlayerAuth.Field readField(DataInput in) throws IOException {
+        String fieldName = in.readUTF();
+        try {
+            return PlayerAuth.Field.valueOf(fieldName);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown field '" + fieldName + "'", e);
+        }
+    }
+
+    private static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthDelta{kind=" + kind + ", name='" + name + "', version=" + version + ", fields=" + fields + "}";
+    }
+
+    /**
+     * Kind of change.
+     */
+    public enum Kind {
+
+        /** Fields of the account have changed. */
+        UPDATE,
+
+        /** The account must be reloaded, e.g. because it has been registered. */
+        RELOAD,
+
+        /** The account has been removed. */
+        REMOVE
+
+    }
+}
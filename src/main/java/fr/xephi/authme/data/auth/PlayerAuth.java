@@ -3,8 +3,11 @@ package fr.xephi.authme.data.auth;
 import fr.xephi.authme.security.crypts.HashedPassword;
 import org.bukkit.Location;
 
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -43,6 +46,8 @@ public class PlayerAuth {
     private float yaw;
     private float pitch;
     private UUID uuid;
+    /** Fields changed by setters since the auth was created or its changes were last persisted. */
+    private final Set<Field> changedFields = EnumSet.noneOf(Field.class);
 
     /**
      * Hidden constructor.
@@ -67,6 +72,7 @@ public class PlayerAuth {
 
     public void setRealName(String realName) {
         this.realName = realName;
+        markAsChanged(Field.REAL_NAME);
     }
 
     public int getGroupId() {
@@ -78,6 +84,7 @@ public class PlayerAuth {
         y = location.getBlockY();
         z = location.getBlockZ();
         world = location.getWorld().getName();
+        markAsChanged(Field.QUIT_LOCATION);
     }
 
     public double getQuitLocX() {
@@ -86,6 +93,7 @@ public class PlayerAuth {
 
     public void setQuitLocX(double d) {
         this.x = d;
+        markAsChanged(Field.QUIT_LOCATION);
     }
 
     public double getQuitLocY() {
@@ -94,6 +102,7 @@ public class PlayerAuth {
 
     public void setQuitLocY(double d) {
         this.y = d;
+        markAsChanged(Field.QUIT_LOCATION);
     }
 
     public double getQuitLocZ() {
@@ -102,6 +111,7 @@ public class PlayerAuth {
 
     public void setQuitLocZ(double d) {
         this.z = d;
+        markAsChanged(Field.QUIT_LOCATION);
     }
 
     public String getWorld() {
@@ -110,22 +120,34 @@ public class PlayerAuth {
 
     public void setWorld(String world) {
         this.world = world;
+        markAsChanged(Field.QUIT_LOCATION);
     }
 
     public float getYaw() {
         return yaw;
     }
 
+    public void setYaw(float yaw) {
+        this.yaw = yaw;
+        markAsChanged(Field.QUIT_LOCATION);
+    }
+
     public float getPitch() {
         return pitch;
     }
 
+    public void setPitch(float pitch) {
+        this.pitch = pitch;
+        markAsChanged(Field.QUIT_LOCATION);
+    }
+
     public String getLastIp() {
         return lastIp;
     }
 
     public void setLastIp(String lastIp) {
         this.lastIp = lastIp;
+        markAsChanged(Field.LAST_IP);
     }
 
     public Long getLastLogin() {
@@ -134,6 +156,7 @@ public class PlayerAuth {
 
     public void setLastLogin(long lastLogin) {
         this.lastLogin = lastLogin;
+        markAsChanged(Field.LAST_LOGIN);
     }
 
     public String getEmail() {
@@ -142,6 +165,7 @@ public class PlayerAuth {
 
     public void setEmail(String email) {
         this.email = email;
+        markAsChanged(Field.EMAIL);
     }
 
     public HashedPassword getPassword() {
@@ -150,6 +174,7 @@ public class PlayerAuth {
 
     public void setPassword(HashedPassword password) {
         this.password = password;
+        markAsChanged(Field.PASSWORD);
     }
 
     public String getRegistrationIp() {
@@ -162,6 +187,7 @@ public class PlayerAuth {
 
     public void setRegistrationDate(long registrationDate) {
         this.registrationDate = registrationDate;
+        markAsChanged(Field.REGISTRATION_DATE);
     }
 
     public String getTotpKey() {
@@ -170,6 +196,7 @@ public class PlayerAuth {
 
     public void setTotpKey(String totpKey) {
         this.totpKey = totpKey;
+        markAsChanged(Field.TOTP_KEY);
     }
 
     public UUID getUuid() {
@@ -178,6 +205,100 @@ public class PlayerAuth {
 
     public void setUuid(UUID uuid) {
         this.uuid = uuid;
+        markAsChanged(Field.UUID);
+    }
+
+    /**
+     * Marks the given fields as changed so that they are written by the next call to
+     * {@link fr.xephi.authme.datasource.DataSource#persistChanges(PlayerAuth)}. Setters mark their
+     * field automatically.
+     *
+     * @param fields the fields to mark as changed
+     */
+    public void markAsChanged(Field... fields) {
+        synchronized (changedFields) {
+            for (Field field : fields) {
+                changedFields.add(field);
+            }
+        }
+    }
+
+    /**
+     * @return true if any field has been changed since the changes were last persisted
+     */
+    public boolean hasChanges() {
+        synchronized (changedFields) {
+            return !changedFields.isEmpty();
+        }
+    }
+
+    /**
+     * @return a copy of the fields which have been changed since the changes were last persisted
+     */
+    public Set<Field> getChangedFields() {
+        synchronized (changedFields) {
+            return changedFields.isEmpty() ? EnumSet.noneOf(Field.class) : EnumSet.copyOf(changedFields);
+        }
+    }
+
+    /**
+     * Unmarks the given fields, typically after they have been written to the database.
+     *
+     * @param fields the fields to unmark
+     */
+    public void clearChanges(Collection<Field> fields) {
+        synchronized (changedFields) {
+            changedFields.removeAll(fields);
+        }
+    }
+
+    /**
+     * Sets the given fields to the values of another auth.
+     *
+     * @param from the auth to copy the values from
+     * @param fields the fields to copy
+     */
+    public void copyFields(PlayerAuth from, Collection<Field> fields) {
+        for (Field field : fields) {
+            switch (field) {
+                case REAL_NAME:
+                    setRealName(from.getRealName());
+                    break;
+                case PASSWORD:
+                    setPassword(from.getPassword());
+                    break;
+                case TOTP_KEY:
+                    setTotpKey(from.getTotpKey());
+                    break;
+                case EMAIL:
+                    setEmail(from.getEmail());
+                    break;
+                case LAST_IP:
+                    setLastIp(from.getLastIp());
+                    break;
+                case LAST_LOGIN:
+                    if (from.getLastLogin() != null) {
+                        setLastLogin(from.getLastLogin());
+                    }
+                    break;
+                case REGISTRATION_DATE:
+                    setRegistrationDate(from.getRegistrationDate());
+                    break;
+                case UUID:
+                    setUuid(from.getUuid());
+                    break;
+                case QUIT_LOCATION:
+                    setQuitLocX(from.getQuitLocX());
+                    setQuitLocY(from.getQuitLocY());
+                    setQuitLocZ(from.getQuitLocZ());
+                    setWorld(from.getWorld());
+                    setYaw(from.getYaw());
+                    setPitch(from.getPitch());
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled field '" + field + "'");
+            }
+        }
     }
 
     @Override
@@ -212,6 +333,33 @@ public class PlayerAuth {
         return new Builder();
     }
 
+    /**
+     * Fields of an auth whose changes are tracked, each corresponding to one or more database columns.
+     * The nickname is not tracked as it identifies the account.
+     */
+    public enum Field {
+
+        REAL_NAME,
+
+        PASSWORD,
+
+        TOTP_KEY,
+
+        EMAIL,
+
+        LAST_IP,
+
+        LAST_LOGIN,
+
+        REGISTRATION_DATE,
+
+        UUID,
+
+        /** The quit location, i.e. the coordinates, world, yaw and pitch. */
+        QUIT_LOCATION
+
+    }
+
     public static final class Builder {
         private String name;
         private String realName;
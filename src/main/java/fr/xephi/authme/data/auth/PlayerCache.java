@@ -1,7 +1,9 @@
 package fr.xephi.authme.data.auth;
 
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -10,6 +12,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public class PlayerCache {
 
     private final Map<String, PlayerAuth> cache = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> loggedInNamesByIp = new ConcurrentHashMap<>();
+    private final Map<String, String> indexedIpByName = new ConcurrentHashMap<>();
 
     PlayerCache() {
     }
@@ -20,7 +24,19 @@ public class PlayerCache {
      * @param auth the player auth object to save
      */
     public void updatePlayer(PlayerAuth auth) {
-        cache.put(auth.getNickname().toLowerCase(), auth);
+        String name = auth.getNickname().toLowerCase();
+        String ip = auth.getLastIp() == null ? null : auth.getLastIp().toLowerCase();
+        // The auth may be modified in place later on, so the IP is remembered as it was indexed
+        indexedIpByName.compute(name, (k, previousIp) -> {
+            cache.put(name, auth);
+            if (previousIp != null) {
+                removeFromIpIndex(previousIp, name);
+            }
+            if (ip != null) {
+                addToIpIndex(ip, name);
+            }
+            return ip;
+        });
     }
 
     /**
@@ -29,7 +45,14 @@ public class PlayerCache {
      * @param user name of the player to remove
      */
     public void removePlayer(String user) {
-        cache.remove(user.toLowerCase());
+        String name = user.toLowerCase();
+        indexedIpByName.compute(name, (k, indexedIp) -> {
+            cache.remove(name);
+            if (indexedIp != null) {
+                removeFromIpIndex(indexedIp, name);
+            }
+            return null;
+        });
     }
 
     /**
@@ -54,6 +77,21 @@ public class PlayerCache {
         return cache.get(user.toLowerCase());
     }
 
+    /**
+     * Returns the names (lowercase) of all logged in players whose last IP is the given address.
+     *
+     * @param ip the IP address to look up
+     *
+     * @return read-only view of the names logged in from the IP address
+     */
+    public Set<String> getLoggedInNamesByIp(String ip) {
+        if (ip == null) {
+            return Collections.emptySet();
+        }
+        Set<String> names = loggedInNamesByIp.get(ip.toLowerCase());
+        return names == null ? Collections.emptySet() : Collections.unmodifiableSet(names);
+    }
+
     /**
      * @return number of logged in players
      */
@@ -70,4 +108,19 @@ public class PlayerCache {
         return this.cache;
     }
 
+    private void addToIpIndex(String ip, String name) {
+        loggedInNamesByIp.compute(ip, (k, names) -> {
+            Set<String> result = names == null ? ConcurrentHashMap.newKeySet() : names;
+            result.add(name);
+            return result;
+        });
+    }
+
+    private void removeFromIpIndex(String ip, String name) {
+        loggedInNamesByIp.computeIfPresent(ip, (k, names) -> {
+            names.remove(name);
+            return names.isEmpty() ? null : names;
+        });
+    }
+
 }
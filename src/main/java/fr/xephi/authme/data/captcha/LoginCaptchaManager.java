@@ -4,7 +4,7 @@ import fr.xephi.authme.initialization.HasCleanup;
 import fr.xephi.authme.initialization.SettingsDependent;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.SecuritySettings;
-import fr.xephi.authme.util.expiring.TimedCounter;
+import fr.xephi.authme.util.expiring.SlidingWindowCounterMap;
 import org.bukkit.entity.Player;
 
 import javax.inject.Inject;
@@ -15,7 +15,7 @@ import java.util.concurrent.TimeUnit;
  */
 public class LoginCaptchaManager implements CaptchaManager, SettingsDependent, HasCleanup {
 
-    private final TimedCounter<String> playerCounts;
+    private SlidingWindowCounterMap<String> playerCounts;
     private final CaptchaCodeStorage captchaCodeStorage;
 
     private boolean isEnabled;
@@ -25,7 +25,6 @@ public class LoginCaptchaManager implements CaptchaManager, SettingsDependent, H
     LoginCaptchaManager(Settings settings) {
         // Note: Proper values are set in reload()
         this.captchaCodeStorage = new CaptchaCodeStorage(30, 4);
-        this.playerCounts = new TimedCounter<>(9, TimeUnit.MINUTES);
         reload(settings);
     }
 
@@ -80,7 +79,10 @@ public class LoginCaptchaManager implements CaptchaManager, SettingsDependent, H
         captchaCodeStorage.setCaptchaLength(captchaLength);
 
         int countTimeout = settings.getProperty(SecuritySettings.CAPTCHA_COUNT_MINUTES_BEFORE_RESET);
-        playerCounts.setExpiration(countTimeout, TimeUnit.MINUTES);
+        // Counts are kept unless the window changes, in which case they are discarded
+        if (playerCounts == null || playerCounts.getWindowMillis() != TimeUnit.MINUTES.toMillis(countTimeout)) {
+            playerCounts = new SlidingWindowCounterMap<>(countTimeout, TimeUnit.MINUTES);
+        }
 
         isEnabled = settings.getProperty(SecuritySettings.ENABLE_LOGIN_FAILURE_CAPTCHA);
         threshold = settings.getProperty(SecuritySettings.MAX_LOGIN_TRIES_BEFORE_CAPTCHA);
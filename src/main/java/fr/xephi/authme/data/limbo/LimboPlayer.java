@@ -1,8 +1,8 @@
 package fr.xephi.authme.data.limbo;
 
 import fr.xephi.authme.task.MessageTask;
+import fr.xephi.authme.task.TimeoutTask;
 import org.bukkit.Location;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.Collection;
 
@@ -21,7 +21,7 @@ public class LimboPlayer {
     private final Location loc;
     private final float walkSpeed;
     private final float flySpeed;
-    private BukkitTask timeoutTask = null;
+    private TimeoutTask timeoutTask = null;
     private MessageTask messageTask = null;
     private LimboPlayerState state = LimboPlayerState.PASSWORD_REQUIRED;
 
@@ -80,7 +80,7 @@ public class LimboPlayer {
      *
      * @return The timeout task associated to the player
      */
-    public BukkitTask getTimeoutTask() {
+    public TimeoutTask getTimeoutTask() {
         return timeoutTask;
     }
 
@@ -90,7 +90,7 @@ public class LimboPlayer {
      *
      * @param timeoutTask The task to set
      */
-    public void setTimeoutTask(BukkitTask timeoutTask) {
+    public void setTimeoutTask(TimeoutTask timeoutTask) {
         if (this.timeoutTask != null) {
             this.timeoutTask.cancel();
         }
@@ -4,24 +4,27 @@ import fr.xephi.authme.data.auth.PlayerCache;
 import fr.xephi.authme.data.captcha.RegistrationCaptchaManager;
 import fr.xephi.authme.message.MessageKey;
 import fr.xephi.authme.message.Messages;
-import fr.xephi.authme.service.BukkitService;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.RegistrationSettings;
 import fr.xephi.authme.settings.properties.RestrictionSettings;
 import fr.xephi.authme.task.MessageTask;
 import fr.xephi.authme.task.TimeoutTask;
+import fr.xephi.authme.task.TimingWheel;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 
 import javax.inject.Inject;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static fr.xephi.authme.service.BukkitService.TICKS_PER_SECOND;
 
 /**
- * Registers tasks associated with a LimboPlayer.
+ * Registers tasks associated with a LimboPlayer. All tasks are run by the shared {@link TimingWheel}.
  */
 class LimboPlayerTaskManager {
 
+    /** Delay in ticks before the first message is shown to a player. */
+    private static final int MESSAGE_DELAY = 2 * TICKS_PER_SECOND;
+
     @Inject
     private Messages messages;
 
@@ -29,7 +32,7 @@ class LimboPlayerTaskManager {
     private Settings settings;
 
     @Inject
-    private BukkitService bukkitService;
+    private TimingWheel timingWheel;
 
     @Inject
     private PlayerCache playerCache;
@@ -37,6 +40,8 @@ class LimboPlayerTaskManager {
     @Inject
     private RegistrationCaptchaManager registrationCaptchaManager;
 
+    private final AtomicInteger messageTaskCount = new AtomicInteger();
+
     LimboPlayerTaskManager() {
     }
 
@@ -53,7 +58,8 @@ class LimboPlayerTaskManager {
         if (interval > 0) {
             String[] joinMessage = messages.retrieveSingle(player, result.messageKey, result.args).split("\n");
             MessageTask messageTask = new MessageTask(player, joinMessage);
-            bukkitService.runTaskTimer(messageTask, 2 * TICKS_PER_SECOND, interval * TICKS_PER_SECOND);
+            long period = (long) interval * TICKS_PER_SECOND;
+            timingWheel.scheduleRepeating(messageTask, MESSAGE_DELAY + getMessageOffset(period), period);
             limbo.setMessageTask(messageTask);
         }
     }
@@ -68,11 +74,24 @@ class LimboPlayerTaskManager {
         final int timeout = settings.getProperty(RestrictionSettings.TIMEOUT) * TICKS_PER_SECOND;
         if (timeout > 0) {
             String message = messages.retrieveSingle(player, MessageKey.LOGIN_TIMEOUT_ERROR);
-            BukkitTask task = bukkitService.runTaskLater(new TimeoutTask(player, message, playerCache), timeout);
+            TimeoutTask task = new TimeoutTask(player, message, playerCache);
+            timingWheel.schedule(task, timeout);
             limbo.setTimeoutTask(task);
         }
     }
 
+    /**
+     * Returns the number of ticks to delay a new message task by, so that the messages of players
+     * joining at the same time are spread over up to one second instead of all being sent in one tick.
+     *
+     * @param period the interval of the message task in ticks
+     * @return the additional delay in ticks
+     */
+    private long getMessageOffset(long period) {
+        long spread = Math.min(period, TICKS_PER_SECOND);
+        return Math.floorMod(messageTaskCount.getAndIncrement(), spread);
+    }
+
     /**
      * Null-safe method to set the muted flag on a message task.
      *
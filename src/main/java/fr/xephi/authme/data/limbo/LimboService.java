@@ -11,11 +11,15 @@ import org.bukkit.entity.Player;
 import javax.inject.Inject;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static fr.xephi.authme.settings.properties.LimboSettings.RESTORE_ALLOW_FLIGHT;
 import static fr.xephi.authme.settings.properties.LimboSettings.RESTORE_FLY_SPEED;
 import static fr.xephi.authme.settings.properties.LimboSettings.RESTORE_WALK_SPEED;
+import static fr.xephi.authme.settings.properties.RestrictionSettings.ALLOWED_MOVEMENT_RADIUS;
+import static fr.xephi.authme.settings.properties.RestrictionSettings.ALLOW_UNAUTHED_MOVEMENT;
+import static fr.xephi.authme.settings.properties.RestrictionSettings.NO_TELEPORT;
 
 /**
  * Service for managing players that are in "limbo," a temporary state players are
@@ -26,6 +30,8 @@ public class LimboService {
     private final ConsoleLogger logger = ConsoleLoggerFactory.get(LimboService.class);
 
     private final Map<String, LimboPlayer> entries = new ConcurrentHashMap<>();
+    /** Movement anchors of limbo players who may move within a radius around the spawn, by UUID. */
+    private final Map<UUID, MovementAnchor> movementAnchors = new ConcurrentHashMap<>();
 
     @Inject
     private Settings settings;
@@ -79,6 +85,7 @@ public class LimboService {
         authGroupHandler.setGroup(player, limboPlayer,
             isRegistered ? AuthGroupType.REGISTERED_UNAUTHENTICATED : AuthGroupType.UNREGISTERED);
         entries.put(name, limboPlayer);
+        updateMovementAnchor(player);
         persistence.saveLimboPlayer(player, limboPlayer);
     }
 
@@ -92,6 +99,17 @@ public class LimboService {
         return entries.get(name.toLowerCase());
     }
 
+    /**
+     * Returns the movement anchor of the given player, computed when the player was put into limbo.
+     * Only available if unauthenticated players may move within a radius around the spawn.
+     *
+     * @param player the player to retrieve the anchor for
+     * @return the player's movement anchor, or null if none available
+     */
+    public MovementAnchor getMovementAnchor(Player player) {
+        return movementAnchors.isEmpty() ? null : movementAnchors.get(player.getUniqueId());
+    }
+
     /**
      * Returns whether there is a limbo player for the given name.
      *
@@ -113,6 +131,9 @@ public class LimboService {
     public void restoreData(Player player) {
         String lowerName = player.getName().toLowerCase();
         LimboPlayer limbo = entries.remove(lowerName);
+        if (!movementAnchors.isEmpty()) {
+            movementAnchors.remove(player.getUniqueId());
+        }
 
         if (limbo == null) {
             logger.debug("No LimboPlayer found for `{0}` - cannot restore", lowerName);
@@ -170,6 +191,25 @@ public class LimboService {
             .ifPresent(limbo -> LimboPlayerTaskManager.setMuted(limbo.getMessageTask(), false));
     }
 
+    /**
+     * Computes the movement anchor of the given player if the player may move within a radius around the spawn.
+     *
+     * @param player the player to process
+     */
+    private void updateMovementAnchor(Player player) {
+        if (settings.getProperty(ALLOW_UNAUTHED_MOVEMENT) && !settings.getProperty(NO_TELEPORT)) {
+            int radius = settings.getProperty(ALLOWED_MOVEMENT_RADIUS);
+            Location spawn = radius > 0 ? spawnLoader.getSpawnLocation(player) : null;
+            if (spawn != null && spawn.getWorld() != null) {
+                movementAnchors.put(player.getUniqueId(), new MovementAnchor(spawn, radius));
+                return;
+            }
+        }
+        if (!movementAnchors.isEmpty()) {
+            movementAnchors.remove(player.getUniqueId());
+        }
+    }
+
     /**
      * Returns the limbo player for the given player or logs an error.
      *
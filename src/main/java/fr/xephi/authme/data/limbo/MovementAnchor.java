@@ -0,0 +1,56 @@
+package fr.xephi.authme.data.limbo;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Spawn location and allowed movement radius of a player in limbo, kept as primitives so that
+ * movements can be checked without creating locations or computing square roots.
+ */
+public final class MovementAnchor {
+
+    private final Location spawn;
+    private final World world;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final double radiusSquared;
+
+    /**
+     * Constructor.
+     *
+     * @param spawn the location the player may not move away from
+     * @param radius the allowed distance to the spawn
+     */
+    public MovementAnchor(Location spawn, int radius) {
+        this.spawn = spawn.clone();
+        this.world = spawn.getWorld();
+        this.x = spawn.getX();
+        this.y = spawn.getY();
+        this.z = spawn.getZ();
+        this.radiusSquared = (double) radius * radius;
+    }
+
+    /**
+     * Returns whether the given location is in the spawn's world and within the allowed radius.
+     *
+     * @param location the location to check
+     * @return true if the player may be at the location, false if the player should be teleported to the spawn
+     */
+    public boolean isWithinRadius(Location location) {
+        if (!world.equals(location.getWorld())) {
+            return false;
+        }
+        double dx = location.getX() - x;
+        double dy = location.getY() - y;
+        double dz = location.getZ() - z;
+        return dx * dx + dy * dy + dz * dz <= radiusSquared;
+    }
+
+    /**
+     * @return the location to teleport the player to if the player leaves the radius
+     */
+    public Location getSpawn() {
+        return spawn.clone();
+    }
+}
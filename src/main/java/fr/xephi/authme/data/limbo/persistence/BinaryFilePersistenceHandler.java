@@ -0,0 +1,152 @@
+package fr.xephi.authme.data.limbo.persistence;
+
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.data.limbo.LimboPlayer;
+import fr.xephi.authme.initialization.DataFolder;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.service.BukkitService;
+import fr.xephi.authme.util.FileUtils;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistence handler for LimboPlayer objects which stores the limbo players as compact binary records
+ * in one memory-mapped file (see {@link MappedRecordStore}). Saving or removing a limbo player only
+ * writes the affected record instead of rewriting a whole file.
+ */
+class BinaryFilePersistenceHandler implements LimboPersistenceHandler, Closeable {
+
+    private static final int RECORD_VERSION = 1;
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(BinaryFilePersistenceHandler.class);
+    private final BukkitService bukkitService;
+    private final MappedRecordStore store;
+
+    @Inject
+    BinaryFilePersistenceHandler(@DataFolder File dataFolder, BukkitService bukkitService) {
+        this.bukkitService = bukkitService;
+        File cacheFolder = new File(dataFolder, "playerdata");
+        FileUtils.createDirectory(cacheFolder);
+        try {
+            store = new MappedRecordStore(cacheFolder);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open limbo store in '" + cacheFolder + "'", e);
+        }
+        logger.debug("Limbo: Opened binary store with {0} players", store.size());
+    }
+
+    @Override
+    public synchronized LimboPlayer getLimboPlayer(Player player) {
+        byte[] record = store.get(player.getUniqueId());
+        if (record == null) {
+            return null;
+        }
+        try {
+            return readLimboPlayer(record);
+        } catch (IOException e) {
+            logger.logException("Could not read limbo record of '" + player.getName() + "':", e);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void saveLimboPlayer(Player player, LimboPlayer limbo) {
+        try {
+            store.put(player.getUniqueId(), writeLimboPlayer(limbo));
+        } catch (IOException e) {
+            logger.logException("Failed to write limbo record of '" + player.getName() + "':", e);
+        }
+    }
+
+    @Override
+    public synchronized void removeLimboPlayer(Player player) {
+        store.remove(player.getUniqueId());
+    }
+
+    @Override
+    public LimboPersistenceType getType() {
+        return LimboPersistenceType.BINARY_FILE;
+    }
+
+    /**
+     * Writes all changes to disk and releases the store file. The handler may not be used afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        store.close();
+    }
+
+    private static byte[] writeLimboPlayer(LimboPlayer limbo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_VERSION);
+
+        Location loc = limbo.getLocation();
+        boolean hasLocation = loc != null && loc.getWorld() != null;
+        out.writeBoolean(hasLocation);
+        if (hasLocation) {
+            out.writeUTF(loc.getWorld().getName());
+            out.writeDouble(loc.getX());
+            out.writeDouble(loc.getY());
+            out.writeDouble(loc.getZ());
+            out.writeFloat(loc.getYaw());
+            out.writeFloat(loc.getPitch());
+        }
+
+        Collection<String> groups = limbo.getGroups();
+        out.writeShort(groups.size());
+        for (String group : groups) {
+            out.writeUTF(group);
+        }
+        out.writeBoolean(limbo.isOperator());
+        out.writeBoolean(limbo.isCanFly());
+        out.writeFloat(limbo.getWalkSpeed());
+        out.writeFloat(limbo.getFlySpeed());
+        return bytes.toByteArray();
+    }
+
+    private LimboPlayer readLimboPlayer(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        int version = in.readUnsignedByte();
+        if (version != RECORD_VERSION) {
+            throw new IOException("Unsupported record version " + version);
+        }
+
+        Location loc = null;
+        if (in.readBoolean()) {
+            World world = bukkitService.getWorld(in.readUTF());
+            double x = in.readDouble();
+            double y = in.readDouble();
+            double z = in.readDouble();
+            float yaw = in.readFloat();
+            float pitch = in.readFloat();
+            if (world != null) {
+                loc = new Location(world, x, y, z, yaw, pitch);
+            }
+        }
+
+        int groupCount = in.readUnsignedShort();
+        List<String> groups = new ArrayList<>(groupCount);
+        for (int i = 0; i < groupCount; ++i) {
+            groups.add(in.readUTF());
+        }
+        boolean operator = in.readBoolean();
+        boolean canFly = in.readBoolean();
+        float walkSpeed = in.readFloat();
+        float flySpeed = in.readFloat();
+        return new LimboPlayer(loc, operator, groups, canFly, walkSpeed, flySpeed);
+    }
+}
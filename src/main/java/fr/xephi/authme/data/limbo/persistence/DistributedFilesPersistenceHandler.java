@@ -21,10 +21,16 @@ import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 
 /**
  * Persistence handler for LimboPlayer objects by distributing the objects to store
@@ -96,6 +102,33 @@ class DistributedFilesPersistenceHandler implements LimboPersistenceHandler {
         }
     }
 
+    @Override
+    public void saveAndRemoveLimboPlayers(Map<Player, LimboPlayer> limbosToSave,
+                                          Collection<Player> playersToRemove) {
+        Map<String, LimboPlayer> limbosByUuid = new HashMap<>();
+        limbosToSave.forEach((player, limbo) -> limbosByUuid.put(player.getUniqueId().toString(), limbo));
+        Map<String, Map<String, LimboPlayer>> limbosBySegment = groupBySegment(limbosByUuid);
+        Map<String, Set<String>> removalsBySegment = new HashMap<>();
+        for (Player player : playersToRemove) {
+            String uuid = player.getUniqueId().toString();
+            removalsBySegment.computeIfAbsent(segmentNameBuilder.createSegmentName(uuid), s -> new HashSet<>())
+                .add(uuid);
+        }
+
+        Set<String> segments = new HashSet<>(limbosBySegment.keySet());
+        segments.addAll(removalsBySegment.keySet());
+        for (String segment : segments) {
+            File file = getSegmentFile(segment);
+            Map<String, LimboPlayer> entries = Optional.ofNullable(readLimboPlayers(file)).orElseGet(HashMap::new);
+            boolean isChanged = entries.keySet().removeAll(removalsBySegment.getOrDefault(segment, emptySet()));
+            Map<String, LimboPlayer> limbosOfSegment = limbosBySegment.getOrDefault(segment, emptyMap());
+            entries.putAll(limbosOfSegment);
+            if (isChanged || !limbosOfSegment.isEmpty()) {
+                saveEntries(entries, file);
+            }
+        }
+    }
+
     @Override
     public LimboPersistenceType getType() {
         return LimboPersistenceType.DISTRIBUTED_FILES;
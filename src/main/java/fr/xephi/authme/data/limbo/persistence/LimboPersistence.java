@@ -10,6 +10,8 @@ import fr.xephi.authme.settings.properties.LimboSettings;
 import org.bukkit.entity.Player;
 
 import javax.inject.Inject;
+import java.io.Closeable;
+import java.io.IOException;
 
 /**
  * Handles the persistence of LimboPlayers.
@@ -21,6 +23,7 @@ public class LimboPersistence implements SettingsDependent {
     private final Factory<LimboPersistenceHandler> handlerFactory;
 
     private LimboPersistenceHandler handler;
+    private WriteBehindPersistenceHandler writeBehindHandler;
 
     @Inject
     LimboPersistence(Settings settings, Factory<LimboPersistenceHandler> handlerFactory) {
@@ -77,6 +80,48 @@ public class LimboPersistence implements SettingsDependent {
         if (handler != null && handler.getType() != persistenceType) {
             logger.info("Limbo persistence type has changed! Note that the data is not converted.");
         }
+        // Write any queued changes with the previous handler before replacing it
+        close();
+        closeHandler();
         handler = handlerFactory.newInstance(persistenceType.getImplementationClass());
+        if (persistenceType != LimboPersistenceType.DISABLED
+            && settings.getProperty(LimboSettings.USE_WRITE_BEHIND)) {
+            writeBehindHandler = WriteBehindPersistenceHandler.create(handler,
+                settings.getProperty(LimboSettings.WRITE_BEHIND_FLUSH_INTERVAL));
+            handler = writeBehindHandler;
+        }
+    }
+
+    /**
+     * Writes all queued changes to disk and stops the asynchronous writing. Changes made afterwards
+     * are written immediately.
+     */
+    public void close() {
+        if (writeBehindHandler != null) {
+            WriteBehindPersistenceHandler previousHandler = writeBehindHandler;
+            handler = previousHandler.getDelegate();
+            writeBehindHandler = null;
+            previousHandler.close();
+        }
+    }
+
+    /**
+     * Releases the resources of the current handler, such as the file of the binary store.
+     */
+    private void closeHandler() {
+        if (handler instanceof Closeable) {
+            try {
+                ((Closeable) handler).close();
+            } catch (IOException e) {
+                logger.logException("Could not close limbo persistence handler:", e);
+            }
+        }
+    }
+
+    /**
+     * @return the write-behind handler if LimboPlayers are written asynchronously, otherwise null
+     */
+    public WriteBehindPersistenceHandler getWriteBehindHandler() {
+        return writeBehindHandler;
     }
 }
@@ -3,6 +3,9 @@ package fr.xephi.authme.data.limbo.persistence;
 import fr.xephi.authme.data.limbo.LimboPlayer;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Handles I/O for storing LimboPlayer objects.
  */
@@ -31,6 +34,19 @@ interface LimboPersistenceHandler {
      */
     void removeLimboPlayer(Player player);
 
+    /**
+     * Saves and removes the limbo players of multiple players at once. Handlers which store
+     * multiple players in one file should override this to write each file only once.
+     *
+     * @param limbosToSave the limbo players to save, by player
+     * @param playersToRemove the players whose limbo player should be removed
+     */
+    default void saveAndRemoveLimboPlayers(Map<Player, LimboPlayer> limbosToSave,
+                                           Collection<Player> playersToRemove) {
+        limbosToSave.forEach(this::saveLimboPlayer);
+        playersToRemove.forEach(this::removeLimboPlayer);
+    }
+
     /**
      * @return the type of the limbo persistence implementation
      */
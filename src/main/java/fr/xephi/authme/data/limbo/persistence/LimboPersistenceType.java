@@ -11,6 +11,9 @@ public enum LimboPersistenceType {
     /** Store LimboPlayers distributed in a configured number of files. */
     DISTRIBUTED_FILES(DistributedFilesPersistenceHandler.class),
 
+    /** Store LimboPlayers as binary records in one memory-mapped file. */
+    BINARY_FILE(BinaryFilePersistenceHandler.class),
+
     /** No persistence to disk. */
     DISABLED(NoOpPersistenceHandler.class);
 
@@ -0,0 +1,442 @@
+package fr.xephi.authme.data.limbo.persistence;
+
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.util.FileUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Stores binary records by UUID in a memory-mapped file. The file consists of a header, an index
+ * of fixed-size slots (open addressing by UUID) and a data region to which records are appended:
+ * <pre>
+ * header: magic (int), format version (int), slot count (int), reserved (int), data end (long)
+ * slot:   UUID most significant bits (long), least significant bits (long),
+ *         record offset (long; 0 = empty, -1 = deleted), record length (int), record CRC32 (int)
+ * </pre>
+ * An upsert appends the record, points a free slot to it and only then marks the player's previous
+ * slot as deleted, and a delete marks the slot as deleted, so neither rewrites the file. Each of these
+ * steps is forced to disk before the next one, so a live slot never points to a record which has not
+ * been written, and a crash in the middle of an upsert leaves the previous slot intact. If a crash
+ * leaves two live slots for the same UUID, the newer valid record is kept when the file is opened.
+ * The CRC of a record is verified on every read. The space of overwritten and deleted records is
+ * reclaimed by writing the live records to
+ * a new file of the next generation ({@code limbo-<generation>.bin}), whose magic is written last.
+ * The new file also grows the index or data region if needed.
+ * <p>
+ * This class is not thread-safe.
+ */
+class MappedRecordStore implements Closeable {
+
+    private static final int MAGIC = 0x414D4C42; // "AMLB"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int SLOT_SIZE = 32;
+    private static final int DATA_END_POSITION = 16;
+    private static final long EMPTY = 0;
+    private static final long DELETED = -1;
+
+    static final int MIN_SLOT_COUNT = 256;
+    static final int MIN_DATA_CAPACITY = 64 * 1024;
+
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("limbo-(\\d+)\\.bin");
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(MappedRecordStore.class);
+    private final File folder;
+
+    private File file;
+    private long generation;
+    private MappedByteBuffer buffer;
+    private int slotCount;
+    private long dataStart;
+    private long dataEnd;
+    private int liveSlots;
+    private int deletedSlots;
+    private long liveBytes;
+
+    /**
+     * Opens the store in the given folder, creating it if no valid store file exists.
+     *
+     * @param folder the folder to keep the store file in
+     * @throws IOException if the store could not be opened or created
+     */
+    MappedRecordStore(File folder) throws IOException {
+        this.folder = folder;
+        File[] storeFiles = listStoreFiles();
+        for (File candidate : storeFiles) {
+            if (buffer == null && open(candidate)) {
+                continue;
+            }
+            // Older generations and files of an interrupted compaction
+            FileUtils.delete(candidate);
+        }
+        if (buffer == null) {
+            rewrite(Collections.emptyMap(), MIN_SLOT_COUNT, MIN_DATA_CAPACITY);
+        } else if (getWastedBytes() > liveBytes + MIN_DATA_CAPACITY) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the record stored for the given UUID.
+     *
+     * @param uuid the UUID to look up
+     * @return the record, or null if none is stored or it is corrupt
+     */
+    byte[] get(UUID uuid) {
+        int slot = findSlot(uuid);
+        return slot < 0 ? null : readRecord(slot);
+    }
+
+    /**
+     * Stores the given record for the UUID, replacing any previous record.
+     *
+     * @param uuid the UUID to store the record for
+     * @param record the record to store
+     * @throws IOException if the file had to be compacted or grown and this failed
+     */
+    void put(UUID uuid, byte[] record) throws IOException {
+        if (dataEnd + record.length > buffer.capacity()
+            || (liveSlots + deletedSlots + 1) * 4L > slotCount * 3L) {
+            Map<UUID, byte[]> records = readAll();
+            records.put(uuid, record);
+            rewrite(records, computeSlotCount(records.size()), computeDataCapacity(records));
+            return;
+        }
+
+        long offset = appendRecord(record);
+        // The record must be on disk before any slot points to it
+        buffer.force();
+        int previousSlot = findSlot(uuid);
+        addSlot(uuid, offset, record);
+        if (previousSlot >= 0) {
+            // Only drop the previous slot once the new one is on disk
+            buffer.force();
+            deleteSlot(previousSlot);
+        }
+        buffer.force();
+    }
+
+    /**
+     * Removes the record of the given UUID.
+     *
+     * @param uuid the UUID whose record should be removed
+     * @return true if a record was removed, false if none was stored
+     */
+    boolean remove(UUID uuid) {
+        int slot = findSlot(uuid);
+        if (slot < 0) {
+            return false;
+        }
+        deleteSlot(slot);
+        buffer.force();
+        return true;
+    }
+
+    /**
+     * Writes the live records to a new file, dropping the space of replaced and removed records.
+     *
+     * @throws IOException if the new file could not be written
+     */
+    void compact() throws IOException {
+        Map<UUID, byte[]> records = readAll();
+        rewrite(records, computeSlotCount(records.size()), computeDataCapacity(records));
+    }
+
+    /**
+     * @return the number of stored records
+     */
+    int size() {
+        return liveSlots;
+    }
+
+    /**
+     * @return the number of bytes in the data region taken up by replaced or removed records
+     */
+    long getWastedBytes() {
+        return dataEnd - dataStart - liveBytes;
+    }
+
+    /**
+     * @return the file the store currently writes to
+     */
+    File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+    }
+
+    private boolean open(File candidate) {
+        try (RandomAccessFile raf = new RandomAccessFile(candidate, "rw");
+             FileChannel channel = raf.getChannel()) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                return false;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            int count = mapped.getInt(8);
+            long start = HEADER_SIZE + (long) count * SLOT_SIZE;
+            long end = mapped.getLong(DATA_END_POSITION);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION
+                || count <= 0 || start > length || end < start || end > length) {
+                logger.warning("Ignoring invalid limbo store file '" + candidate + "'");
+                return false;
+            }
+            setBuffer(candidate, mapped, count, end);
+            return true;
+        } catch (IOException e) {
+            logger.logException("Could not open limbo store file '" + candidate + "':", e);
+            return false;
+        }
+    }
+
+    private void rewrite(Map<UUID, byte[]> records, int newSlotCount, long dataCapacity) throws IOException {
+        File newFile = new File(folder, "limbo-" + (generation + 1) + ".bin");
+        long newDataStart = HEADER_SIZE + (long) newSlotCount * SLOT_SIZE;
+        MappedByteBuffer mapped;
+        try (RandomAccessFile raf = new RandomAccessFile(newFile, "rw");
+             FileChannel channel = raf.getChannel()) {
+            raf.setLength(0);
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, newDataStart + dataCapacity);
+        } catch (IOException e) {
+            FileUtils.delete(newFile);
+            throw e;
+        }
+        mapped.putInt(4, FORMAT_VERSION);
+        mapped.putInt(8, newSlotCount);
+        mapped.putLong(DATA_END_POSITION, newDataStart);
+
+        File oldFile = file;
+        setBuffer(newFile, mapped, newSlotCount, newDataStart);
+        for (Map.Entry<UUID, byte[]> entry : records.entrySet()) {
+            byte[] record = entry.getValue();
+            addSlot(entry.getKey(), appendRecord(record), record);
+        }
+        mapped.force();
+        // The file is only valid once everything else has been written
+        mapped.putInt(0, MAGIC);
+        mapped.force();
+        if (oldFile != null) {
+            FileUtils.delete(oldFile);
+        }
+    }
+
+    private void setBuffer(File file, MappedByteBuffer mapped, int slotCount, long dataEnd) {
+        this.file = file;
+        this.generation = parseGeneration(file);
+        this.buffer = mapped;
+        this.slotCount = slotCount;
+        this.dataStart = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+        this.dataEnd = dataEnd;
+        liveSlots = 0;
+        deletedSlots = 0;
+        liveBytes = 0;
+        Map<UUID, Integer> slotsByUuid = new HashMap<>();
+        for (int slot = 0; slot < slotCount; ++slot) {
+            long offset = readOffset(slot);
+            if (offset == DELETED) {
+                ++deletedSlots;
+            } else if (offset != EMPTY) {
+                ++liveSlots;
+                liveBytes += buffer.getInt(slotPosition(slot) + 24);
+                UUID uuid = readUuid(slot);
+                Integer otherSlot = slotsByUuid.put(uuid, slot);
+                if (otherSlot != null) {
+                    // Upsert was interrupted before the previous slot could be deleted
+                    int staleSlot = selectStaleSlot(slot, otherSlot);
+                    slotsByUuid.put(uuid, staleSlot == slot ? otherSlot : slot);
+                    deleteSlot(staleSlot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns which of two live slots of the same UUID should be dropped: the one with an invalid
+     * record, or else the one with the older (= lower offset) record.
+     */
+    private int selectStaleSlot(int slot1, int slot2) {
+        boolean isValid1 = readRecord(slot1) != null;
+        boolean isValid2 = readRecord(slot2) != null;
+        if (isValid1 != isValid2) {
+            return isValid1 ? slot2 : slot1;
+        }
+        return readOffset(slot1) < readOffset(slot2) ? slot1 : slot2;
+    }
+
+    private Map<UUID, byte[]> readAll() {
+        Map<UUID, byte[]> records = new LinkedHashMap<>();
+        for (int slot = 0; slot < slotCount; ++slot) {
+            long offset = readOffset(slot);
+            if (offset != EMPTY && offset != DELETED) {
+                byte[] record = readRecord(slot);
+                if (record != null) {
+                    records.put(readUuid(slot), record);
+                }
+            }
+        }
+        return records;
+    }
+
+    private byte[] readRecord(int slot) {
+        int position = slotPosition(slot);
+        long offset = buffer.getLong(position + 16);
+        int length = buffer.getInt(position + 24);
+        if (offset < dataStart || length < 0 || offset + length > dataEnd) {
+            logger.warning("Ignoring limbo record with invalid bounds in '" + file + "'");
+            return null;
+        }
+        byte[] record = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) offset);
+        view.get(record);
+        if (crc(record) != buffer.getInt(position + 28)) {
+            logger.warning("Ignoring corrupt limbo record in '" + file + "'");
+            return null;
+        }
+        return record;
+    }
+
+    private long appendRecord(byte[] record) {
+        long offset = dataEnd;
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) offset);
+        view.put(record);
+        dataEnd += record.length;
+        buffer.putLong(DATA_END_POSITION, dataEnd);
+        return offset;
+    }
+
+    private void addSlot(UUID uuid, long offset, byte[] record) {
+        int slot = findFreeSlot(uuid);
+        if (readOffset(slot) == DELETED) {
+            --deletedSlots;
+        }
+        writeSlot(slot, uuid, offset, record);
+        ++liveSlots;
+        liveBytes += record.length;
+    }
+
+    private void deleteSlot(int slot) {
+        liveBytes -= buffer.getInt(slotPosition(slot) + 24);
+        buffer.putLong(slotPosition(slot) + 16, DELETED);
+        --liveSlots;
+        ++deletedSlots;
+    }
+
+    private void writeSlot(int slot, UUID uuid, long offset, byte[] record) {
+        int position = slotPosition(slot);
+        // The slot is free until its offset is written, so the offset comes last
+        buffer.putInt(position + 24, record.length);
+        buffer.putInt(position + 28, crc(record));
+        buffer.putLong(position, uuid.getMostSignificantBits());
+        buffer.putLong(position + 8, uuid.getLeastSignificantBits());
+        buffer.putLong(position + 16, offset);
+    }
+
+    private int findSlot(UUID uuid) {
+        int slot = initialSlot(uuid);
+        for (int i = 0; i < slotCount; ++i) {
+            long offset = readOffset(slot);
+            if (offset == EMPTY) {
+                return -1;
+            } else if (offset != DELETED && hasUuid(slot, uuid)) {
+                return slot;
+            }
+            slot = (slot + 1) % slotCount;
+        }
+        return -1;
+    }
+
+    private int findFreeSlot(UUID uuid) {
+        int slot = initialSlot(uuid);
+        while (readOffset(slot) != EMPTY && readOffset(slot) != DELETED) {
+            slot = (slot + 1) % slotCount;
+        }
+        return slot;
+    }
+
+    private int initialSlot(UUID uuid) {
+        long bits = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        return (int) ((bits ^ (bits >>> 32)) & 0x7FFFFFFF) % slotCount;
+    }
+
+    private boolean hasUuid(int slot, UUID uuid) {
+        int position = slotPosition(slot);
+        return buffer.getLong(position) == uuid.getMostSignificantBits()
+            && buffer.getLong(position + 8) == uuid.getLeastSignificantBits();
+    }
+
+    private UUID readUuid(int slot) {
+        int position = slotPosition(slot);
+        return new UUID(buffer.getLong(position), buffer.getLong(position + 8));
+    }
+
+    private long readOffset(int slot) {
+        return buffer.getLong(slotPosition(slot) + 16);
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static int computeSlotCount(int records) {
+        // Keeps the index at most half full after a rewrite
+        return Math.max(MIN_SLOT_COUNT, Integer.highestOneBit(Math.max(1, records) * 4));
+    }
+
+    private static long computeDataCapacity(Map<UUID, byte[]> records) {
+        long bytes = records.values().stream().mapToLong(r -> r.length).sum();
+        return Math.max(MIN_DATA_CAPACITY, Long.highestOneBit(Math.max(1, bytes)) * 4);
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @return the store files in the folder, highest generation first
+     */
+    private File[] listStoreFiles() {
+        File[] files = folder.listFiles((dir, name) -> FILE_NAME_PATTERN.matcher(name).matches());
+        if (files == null) {
+            logger.warning("Could not get files of '" + folder + "'");
+            return new File[0];
+        }
+        Arrays.sort(files, Comparator.comparingLong(MappedRecordStore::parseGeneration).reversed());
+        return files;
+    }
+
+    private static long parseGeneration(File file) {
+        Matcher matcher = FILE_NAME_PATTERN.matcher(file.getName());
+        try {
+            return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
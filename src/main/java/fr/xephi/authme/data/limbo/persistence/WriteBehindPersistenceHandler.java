@@ -0,0 +1,272 @@
+package fr.xephi.authme.data.limbo.persistence;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.data.limbo.LimboPlayer;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind layer in front of another persistence handler: saves and removals are coalesced per
+ * player (the last one wins) and passed to the handler in batches on a separate thread. A save which
+ * is followed by a removal before it has been written never reaches the handler.
+ */
+public class WriteBehindPersistenceHandler implements LimboPersistenceHandler {
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(WriteBehindPersistenceHandler.class);
+
+    private final LimboPersistenceHandler delegate;
+    private final ScheduledExecutorService executor;
+    private final Map<UUID, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    private volatile Map<UUID, PendingWrite> inFlightWrites = Collections.emptyMap();
+    /** Players whose LimboPlayer is known not to be stored by the delegate. */
+    private final Set<UUID> absentFromDelegate = ConcurrentHashMap.newKeySet();
+    private final Object flushLock = new Object();
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedWrites = new AtomicLong();
+    private final AtomicLong skippedWrites = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate the handler to pass the writes to
+     * @param executor the executor to run flushes on
+     */
+    @VisibleForTesting
+    WriteBehindPersistenceHandler(LimboPersistenceHandler delegate, ScheduledExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a write-behind handler which flushes its writes periodically on its own thread.
+     *
+     * @param delegate the handler to pass the writes to
+     * @param flushIntervalMillis interval in milliseconds between flushes
+     * @return the created handler
+     */
+    static WriteBehindPersistenceHandler create(LimboPersistenceHandler delegate, int flushIntervalMillis) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("AuthMe-LimboWriteBehind")
+            .build());
+        WriteBehindPersistenceHandler handler = new WriteBehindPersistenceHandler(delegate, executor);
+        long interval = Math.max(10, flushIntervalMillis);
+        executor.scheduleWithFixedDelay(handler::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+        return handler;
+    }
+
+    @Override
+    public LimboPlayer getLimboPlayer(Player player) {
+        UUID uuid = player.getUniqueId();
+        PendingWrite write = getPendingWrite(uuid);
+        if (write != null) {
+            return write.limbo;
+        }
+        synchronized (flushLock) {
+            write = getPendingWrite(uuid);
+            if (write != null) {
+                return write.limbo;
+            }
+            LimboPlayer limbo = delegate.getLimboPlayer(player);
+            if (limbo == null) {
+                absentFromDelegate.add(uuid);
+            } else {
+                absentFromDelegate.remove(uuid);
+            }
+            return limbo;
+        }
+    }
+
+    @Override
+    public void saveLimboPlayer(Player player, LimboPlayer limbo) {
+        if (pendingWrites.put(player.getUniqueId(), new PendingWrite(player, limbo)) != null) {
+            skippedWrites.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void removeLimboPlayer(Player player) {
+        pendingWrites.compute(player.getUniqueId(), (uuid, previous) -> {
+            if (previous != null) {
+                skippedWrites.incrementAndGet();
+            }
+            if (absentFromDelegate.remove(uuid)) {
+                // Nothing to remove from the delegate, and any pending save can be dropped
+                skippedWrites.incrementAndGet();
+                return null;
+            }
+            return new PendingWrite(player, null);
+        });
+    }
+
+    @Override
+    public void saveAndRemoveLimboPlayers(Map<Player, LimboPlayer> limbosToSave,
+                                          Collection<Player> playersToRemove) {
+        limbosToSave.forEach(this::saveLimboPlayer);
+        playersToRemove.forEach(this::removeLimboPlayer);
+    }
+
+    @Override
+    public LimboPersistenceType getType() {
+        return delegate.getType();
+    }
+
+    /**
+     * Passes all pending writes to the delegate handler as one batch.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+            Map<UUID, PendingWrite> batch = new ConcurrentHashMap<>();
+            // Publish the batch before draining so a write is always visible in one of the two maps
+            inFlightWrites = batch;
+            for (UUID uuid : pendingWrites.keySet()) {
+                pendingWrites.computeIfPresent(uuid, (key, write) -> {
+                    batch.put(key, write);
+                    if (write.limbo != null) {
+                        absentFromDelegate.remove(key);
+                    }
+                    return null;
+                });
+            }
+
+            Map<Player, LimboPlayer> limbosToSave = new HashMap<>();
+            List<Player> playersToRemove = new ArrayList<>();
+            for (PendingWrite write : batch.values()) {
+                if (write.limbo == null) {
+                    playersToRemove.add(write.player);
+                } else {
+                    limbosToSave.put(write.player, write.limbo);
+                }
+            }
+
+            long start = System.nanoTime();
+            try {
+                delegate.saveAndRemoveLimboPlayers(limbosToSave, playersToRemove);
+            } finally {
+                inFlightWrites = Collections.emptyMap();
+                recordFlush(System.nanoTime() - start, batch.size());
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic flushing and passes all remaining writes to the delegate handler.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            logger.logException("Could not stop limbo write-behind executor:", e);
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return the handler the writes are passed to
+     */
+    LimboPersistenceHandler getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return number of players with a save or removal which has not been written yet
+     */
+    public int getPendingCount() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * @return number of flushes that have been performed
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * @return total number of saves and removals which have been passed to the delegate handler
+     */
+    public long getFlushedWriteCount() {
+        return flushedWrites.get();
+    }
+
+    /**
+     * @return number of saves and removals which never had to be written thanks to coalescing
+     */
+    public long getSkippedWriteCount() {
+        return skippedWrites.get();
+    }
+
+    /**
+     * @return duration of the last flush in milliseconds
+     */
+    public double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return average duration of a flush in milliseconds
+     */
+    public double getAverageFlushMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / flushes;
+    }
+
+    private PendingWrite getPendingWrite(UUID uuid) {
+        PendingWrite write = pendingWrites.get(uuid);
+        return write == null ? inFlightWrites.get(uuid) : write;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.logException("Error while writing queued LimboPlayers:", e);
+        }
+    }
+
+    private void recordFlush(long durationNanos, int writes) {
+        flushCount.incrementAndGet();
+        flushedWrites.addAndGet(writes);
+        totalFlushNanos.addAndGet(durationNanos);
+        lastFlushNanos = durationNanos;
+    }
+
+    /**
+     * Save or removal of a player's LimboPlayer which has not been written yet.
+     */
+    private static final class PendingWrite {
+
+        private final Player player;
+        /** The LimboPlayer to save, or null if it should be removed. */
+        private final LimboPlayer limbo;
+
+        PendingWrite(Player player, LimboPlayer limbo) {
+            this.player = player;
+            this.limbo = limbo;
+        }
+    }
+}
@@ -4,14 +4,32 @@ import ch.jalu.datasourcecolumns.data.DataSourceValue;
 import ch.jalu.datasourcecolumns.data.DataSourceValueImpl;
 import ch.jalu.datasourcecolumns.data.DataSourceValues;
 import ch.jalu.datasourcecolumns.predicate.AlwaysTruePredicate;
+import com.google.common.collect.Maps;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.columnshandler.AuthMeColumns;
 import fr.xephi.authme.datasource.columnshandler.AuthMeColumnsHandler;
+import fr.xephi.authme.datasource.columnshandler.PlayerAuthColumn;
+import fr.xephi.authme.datasource.mysqlextensions.MySqlExtension;
 import fr.xephi.authme.security.crypts.HashedPassword;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static ch.jalu.datasourcecolumns.data.UpdateValues.with;
 import static ch.jalu.datasourcecolumns.predicate.StandardPredicates.eq;
@@ -19,12 +37,26 @@ import static ch.jalu.datasourcecolumns.predicate.StandardPredicates.eqIgnoreCas
 import static fr.xephi.authme.datasource.SqlDataSourceUtils.logSqlException;
 
 /**
- * Common type for SQL-based data sources. Classes implementing this
- * must ensure that {@link #columnsHandler} is initialized on creation.
+ * Common type for SQL-based data sources. Classes implementing this must ensure that
+ * {@link #columnsHandler}, {@link #tableName} and {@link #col} are initialized on creation.
  */
 public abstract class AbstractSqlDataSource implements DataSource {
 
+    private static final int UPDATE_LOGGED = 1;
+    private static final int UPDATE_SESSION = 2;
+    private static final int UPDATE_SESSION_DATA = 4;
+    /** Maximum number of names to look up with one query. */
+    private static final int NAME_LOOKUP_CHUNK_SIZE = 500;
+    /** Number of accounts to read per query when iterating over all accounts. */
+    private static final int READ_PAGE_SIZE = 1000;
+
     protected AuthMeColumnsHandler columnsHandler;
+    protected String tableName;
+    protected Columns col;
+    /** Other columns to save the real name of new accounts to. */
+    protected List<String> columnOthers = Collections.emptyList();
+    /** Extension for the website's data; not used by SQLite. */
+    protected MySqlExtension sqlExtension;
 
     @Override
     public boolean isAuthAvailable(String user) {
@@ -158,6 +190,23 @@ public abstract class AbstractSqlDataSource implements DataSource {
         return columnsHandler.update(user, AuthMeColumns.NICK_NAME, realName);
     }
 
+    @Override
+    public boolean persistChanges(PlayerAuth auth) {
+        Set<PlayerAuth.Field> changes = auth.getChangedFields();
+        if (changes.isEmpty()) {
+            return true;
+        }
+        List<PlayerAuthColumn<?>> columns = new ArrayList<>();
+        for (PlayerAuth.Field field : changes) {
+            columns.addAll(getColumns(field));
+        }
+        if (columnsHandler.update(auth, columns.toArray(new PlayerAuthColumn<?>[0]))) {
+            auth.clearChanges(changes);
+            return true;
+        }
+        return false;
+    }
+
     @Override
     public DataSourceValue<String> getEmail(String user) {
         try {
@@ -167,4 +216,591 @@ public abstract class AbstractSqlDataSource implements DataSource {
             return DataSourceValueImpl.unknownRow();
         }
     }
+
+    @Override
+    public boolean forEachAuth(Consumer<PlayerAuth> action) {
+        return forEachRow("*", (rs, con) -> {
+            PlayerAuth auth = buildAuthFromResultSet(rs);
+            sqlExtension.extendAuth(auth, rs.getInt(col.ID), con);
+            return auth;
+        }, action);
+    }
+
+    @Override
+    public boolean forEachName(BiConsumer<String, String> action) {
+        return forEachRow(col.NAME + ", " + col.REAL_NAME,
+            (rs, con) -> Maps.immutableEntry(rs.getString(col.NAME), rs.getString(col.REAL_NAME)),
+            entry -> action.accept(entry.getKey(), entry.getValue()));
+    }
+
+    @Override
+    public List<String> getRealNamesStartingWith(String prefix, int limit) {
+        try {
+            return runQuery(con -> selectRealNamesStartingWith(con, tableName, col, prefix, limit));
+        } catch (SQLException ex) {
+            logSqlException(ex);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Saves the real name to the additional columns and lets the extension save its data.
+     *
+     * @param auth the saved account
+     * @param con the connection to use
+     * @throws SQLException .
+     */
+    protected void saveAdditionalData(PlayerAuth auth, Connection con) throws SQLException {
+        for (String column : columnOthers) {
+            try (PreparedStatement pst = con.prepareStatement(
+                "UPDATE " + tableName + " SET " + column + "=? WHERE " + col.NAME + "=?;")) {
+                pst.setString(1, auth.getRealName());
+                pst.setString(2, auth.getNickname());
+                pst.executeUpdate();
+            }
+        }
+        sqlExtension.saveAuth(auth, con);
+    }
+
+    /**
+     * Runs the given query on a connection of the data source.
+     *
+     * @param query the query to run
+     * @param <T> the result type
+     * @return the query result
+     * @throws SQLException if the query fails
+     */
+    protected abstract <T> T runQuery(SqlQuery<T> query) throws SQLException;
+
+    /**
+     * Returns the column to read all rows by in {@link #forEachRow}. Its values must be unique and not null.
+     *
+     * @return the column to page by
+     */
+    protected String getPagingColumn() {
+        return col.ID;
+    }
+
+    /**
+     * Passes all rows of the AuthMe table to the given action. The rows are read page by page in the order of
+     * the {@link #getPagingColumn paging column}, each page with its own {@link #runQuery} call; the action is
+     * only invoked between the queries, so that no connection or lock is held while it runs.
+     *
+     * @param columns the columns to select
+     * @param reader creates the object to pass to the action for the current row
+     * @param action the action to perform with each row
+     * @param <T> the type of the objects created from the rows
+     * @return true if all rows could be read, false if an error occurred
+     */
+    protected <T> boolean forEachRow(String columns, RowReader<T> reader, Consumer<T> action) {
+        String pagingColumn = getPagingColumn();
+        String sql = "SELECT " + columns + ", " + pagingColumn + " FROM " + tableName + " WHERE " + pagingColumn
+            + " > ? ORDER BY " + pagingColumn + " LIMIT " + READ_PAGE_SIZE + ";";
+        try {
+            long lastKey = Long.MIN_VALUE;
+            while (true) {
+                long previousKey = lastKey;
+                List<T> rows = new ArrayList<>(READ_PAGE_SIZE);
+                lastKey = runQuery(con -> {
+                    long key = previousKey;
+                    try (PreparedStatement pst = con.prepareStatement(sql)) {
+                        pst.setLong(1, previousKey);
+                        try (ResultSet rs = pst.executeQuery()) {
+                            int keyIndex = rs.getMetaData().getColumnCount();
+                            while (rs.next()) {
+                                key = rs.getLong(keyIndex);
+                                rows.add(reader.read(rs, con));
+                            }
+                        }
+                    }
+                    return key;
+                });
+                rows.forEach(action);
+                if (rows.size() < READ_PAGE_SIZE) {
+                    return true;
+                }
+            }
+        } catch (SQLException ex) {
+            logSqlException(ex);
+        }
+        return false;
+    }
+
+    /**
+     * Creates a {@link PlayerAuth} object with the data from the provided result set.
+     *
+     * @param row the result set to read from
+     * @return generated player auth object with the data from the result set
+     * @throws SQLException .
+     */
+    protected abstract PlayerAuth buildAuthFromResultSet(ResultSet row) throws SQLException;
+
+    /**
+     * Returns the columns in which the given field of a player auth is stored.
+     *
+     * @param field the field to process
+     * @return the field's columns
+     */
+    private static List<PlayerAuthColumn<?>> getColumns(PlayerAuth.Field field) {
+        switch (field) {
+            case REAL_NAME:
+                return Collections.singletonList(AuthMeColumns.NICK_NAME);
+            case PASSWORD:
+                return Arrays.asList(AuthMeColumns.PASSWORD, AuthMeColumns.SALT);
+            case TOTP_KEY:
+                return Collections.singletonList(AuthMeColumns.TOTP_KEY);
+            case EMAIL:
+                return Collections.singletonList(AuthMeColumns.EMAIL);
+            case LAST_IP:
+                return Collections.singletonList(AuthMeColumns.LAST_IP);
+            case LAST_LOGIN:
+                return Collections.singletonList(AuthMeColumns.LAST_LOGIN);
+            case REGISTRATION_DATE:
+                return Collections.singletonList(AuthMeColumns.REGISTRATION_DATE);
+            case UUID:
+                return Collections.singletonList(AuthMeColumns.UUID);
+            case QUIT_LOCATION:
+                return Arrays.asList(AuthMeColumns.LOCATION_X, AuthMeColumns.LOCATION_Y, AuthMeColumns.LOCATION_Z,
+                    AuthMeColumns.LOCATION_WORLD, AuthMeColumns.LOCATION_YAW, AuthMeColumns.LOCATION_PITCH);
+            default:
+                throw new IllegalStateException("Unhandled field '" + field + "'");
+        }
+    }
+
+    /**
+     * Writes the given new password hashes as one JDBC batch within a transaction. Each hash is only
+     * saved if the account's current hash is still the old hash of the update.
+     *
+     * @param con the connection to use (not closed by this method)
+     * @param tableName the name of the AuthMe table
+     * @param col the column names
+     * @param rehashes the new hashes to write
+     * @return the number of updated accounts
+     * @throws SQLException .
+     */
+    protected static int writeRehashedPasswords(Connection con, String tableName, Columns col,
+                                                Collection<RehashedPassword> rehashes) throws SQLException {
+        if (rehashes.isEmpty()) {
+            return 0;
+        }
+        boolean hasSaltColumn = !col.SALT.isEmpty();
+        String sql = "UPDATE " + tableName + " SET " + col.PASSWORD + "=?"
+            + (hasSaltColumn ? ", " + col.SALT + "=?" : "")
+            + " WHERE " + col.NAME + "=? AND " + col.PASSWORD + "=?;";
+
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            for (RehashedPassword rehash : rehashes) {
+                int index = 1;
+                pst.setString(index++, rehash.getNewPassword().getHash());
+                if (hasSaltColumn) {
+                    pst.setString(index++, rehash.getNewPassword().getSalt());
+                }
+                pst.setString(index++, rehash.getName());
+                pst.setString(index, rehash.getOldPassword().getHash());
+                pst.addBatch();
+            }
+            int updated = 0;
+            for (int result : pst.executeBatch()) {
+                if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                    ++updated;
+                }
+            }
+            con.commit();
+            return updated;
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Returns the names among the given ones which are present in the table. The names are looked
+     * up in chunks with one query per chunk.
+     *
+     * @param con the connection to use (not closed by this method)
+     * @param tableName the name of the AuthMe table
+     * @param col the column names
+     * @param names the names to look up
+     * @return the lowercase names which exist in the table
+     * @throws SQLException .
+     */
+    protected static Set<String> selectRegisteredNames(Connection con, String tableName, Columns col,
+                                                       Collection<String> names) throws SQLException {
+        Set<String> registeredNames = new HashSet<>();
+        List<String> lowercaseNames = new ArrayList<>(names.size());
+        for (String name : names) {
+            lowercaseNames.add(name.toLowerCase());
+        }
+        for (int start = 0; start < lowercaseNames.size(); start += NAME_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = lowercaseNames.subList(start,
+                Math.min(start + NAME_LOOKUP_CHUNK_SIZE, lowercaseNames.size()));
+            String sql = "SELECT " + col.NAME + " FROM " + tableName + " WHERE " + col.NAME + " IN ("
+                + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ");";
+            try (PreparedStatement pst = con.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); ++i) {
+                    pst.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) {
+                        registeredNames.add(rs.getString(1).toLowerCase());
+                    }
+                }
+            }
+        }
+        return registeredNames;
+    }
+
+    /**
+     * Returns the real names of the accounts whose name starts with the given prefix. Only the name columns
+     * are read, and the lookup can use the index on the name column.
+     *
+     * @param con the connection to use (not closed by this method)
+     * @param tableName the name of the AuthMe table
+     * @param col the column names
+     * @param prefix the prefix to look for (case-insensitive)
+     * @param limit the maximum number of names to return
+     * @return the real names, sorted by name
+     * @throws SQLException .
+     */
+    protected static List<String> selectRealNamesStartingWith(Connection con, String tableName, Columns col,
+                                                              String prefix, int limit) throws SQLException {
+        List<String> realNames = new ArrayList<>();
+        if (limit <= 0) {
+            return realNames;
+        }
+        String pattern = prefix.toLowerCase().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        String sql = "SELECT " + col.NAME + ", " + col.REAL_NAME + " FROM " + tableName
+            + " WHERE " + col.NAME + " LIKE ? ESCAPE '!' ORDER BY " + col.NAME + " LIMIT " + limit + ";";
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setString(1, pattern);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    String realName = rs.getString(2);
+                    realNames.add(realName == null ? rs.getString(1) : realName);
+                }
+            }
+        }
+        return realNames;
+    }
+
+    /**
+     * Returns the names of all accounts whose last login and registration date are before the given
+     * time. Unlike comparing {@code GREATEST(COALESCE(lastlogin, 0), COALESCE(regdate, 0))}, each condition
+     * only involves one column, so the query can use the indexes created by {@link #createPurgeIndexes}.
+     *
+     * @param con the connection to use (not closed by this method)
+     * @param tableName the name of the AuthMe table
+     * @param col the column names
+     * @param until the timestamp (positive) before which accounts are selected
+     * @return the names of the accounts to purge
+     * @throws SQLException .
+     */
+    protected static Set<String> selectRecordsToPurge(Connection con, String tableName, Columns col,
+                                                      long until) throws SQLException {
+        Set<String> names = new HashSet<>();
+        String sql = "SELECT " + col.NAME + " FROM " + tableName
+            + " WHERE (" + col.LAST_LOGIN + " < ? OR " + col.LAST_LOGIN + " IS NULL)"
+            + " AND (" + col.REGISTRATION_DATE + " < ? OR " + col.REGISTRATION_DATE + " IS NULL);";
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setLong(1, until);
+            pst.setLong(2, until);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Deletes the accounts with the given names, with one {@code DELETE ... IN (...)} statement per chunk
+     * of names. Each chunk is committed on its own so that locks are only held briefly.
+     *
+     * @param con the connection to use (not closed by this method)
+     * @param tableName the name of the AuthMe table
+     * @param col the column names
+     * @param names the names of the accounts to delete
+     * @return the number of deleted accounts
+     * @throws SQLException .
+     */
+    protected static int deleteAuths(Connection con, String tableName, Columns col,
+                                     Collection<String> names) throws SQLException {
+        List<String> lowercaseNames = new ArrayList<>(names.size());
+        for (String name : names) {
+            lowercaseNames.add(name.toLowerCase());
+        }
+
+        int deleted = 0;
+        for (int start = 0; start < lowercaseNames.size(); start += NAME_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = lowercaseNames.subList(start,
+                Math.min(start + NAME_LOOKUP_CHUNK_SIZE, lowercaseNames.size()));
+            String sql = "DELETE FROM " + tableName + " WHERE " + col.NAME + " IN ("
+                + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ");";
+            try (PreparedStatement pst = con.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); ++i) {
+                    pst.setString(i + 1, chunk.get(i));
+                }
+                deleted += pst.executeUpdate();
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Creates the indexes on the last login and registration date columns used when selecting accounts
+     * to purge, if they don't exist yet.
+     *
+     * @param con the connection to use (not closed by this method)
+     * @param tableName the name of the AuthMe table
+     * @param col the column names
+     * @throws SQLException .
+     */
+    protected static void createPurgeIndexes(Connection con, String tableName, Columns col) throws SQLException {
+        DatabaseMetaData metaData = con.getMetaData();
+        try (Statement st = con.createStatement()) {
+            for (String column : Arrays.asList(col.LAST_LOGIN, col.REGISTRATION_DATE)) {
+                String indexName = tableName + "_" + column + "_idx";
+                if (SqlDataSourceUtils.isIndexMissing(metaData, tableName, indexName)) {
+                    st.executeUpdate("CREATE INDEX " + indexName + " ON " + tableName + " (" + column + ");");
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the given accounts with all their data as one JDBC batch within a transaction.
+     * If any insert fails, the transaction is rolled back and no account is saved.
+     *
+     * @param con the connection to use (not closed by this method)
+     * @param tableName the name of the AuthMe table
+     * @param col the column names
+     * @param auths the accounts to insert
+     * @param additionalData saves data of an inserted account to other columns or tables, in the same transaction
+     * @return the number of inserted accounts
+     * @throws SQLException .
+     */
+    protected static int insertAuths(Connection con, String tableName, Columns col, Collection<PlayerAuth> auths,
+                                     AdditionalAuthData additionalData) throws SQLException {
+        if (auths.isEmpty()) {
+            return 0;
+        }
+        List<String> columns = new ArrayList<>(Arrays.asList(col.NAME, col.REAL_NAME, col.PASSWORD));
+        if (!col.SALT.isEmpty()) {
+            columns.add(col.SALT);
+        }
+        columns.addAll(Arrays.asList(col.TOTP_KEY, col.EMAIL, col.REGISTRATION_DATE, col.REGISTRATION_IP,
+            col.LAST_LOGIN, col.LAST_IP, col.LASTLOC_X, col.LASTLOC_Y, col.LASTLOC_Z, col.LASTLOC_WORLD,
+            col.LASTLOC_YAW, col.LASTLOC_PITCH));
+        if (!col.PLAYER_UUID.isEmpty()) {
+            columns.add(col.PLAYER_UUID);
+        }
+        String sql = "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES ("
+            + String.join(", ", Collections.nCopies(columns.size(), "?")) + ");";
+
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            try (PreparedStatement pst = con.prepareStatement(sql)) {
+                for (PlayerAuth auth : auths) {
+                    setInsertParameters(pst, col, auth);
+                    pst.addBatch();
+                }
+                pst.executeBatch();
+            }
+            for (PlayerAuth auth : auths) {
+                additionalData.save(auth, con);
+            }
+            con.commit();
+            return auths.size();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void setInsertParameters(PreparedStatement pst, Columns col,
+                                            PlayerAuth auth) throws SQLException {
+        int index = 1;
+        pst.setString(index++, auth.getNickname());
+        pst.setString(index++, auth.getRealName());
+        pst.setString(index++, auth.getPassword().getHash());
+        if (!col.SALT.isEmpty()) {
+            pst.setString(index++, auth.getPassword().getSalt());
+        }
+        pst.setString(index++, auth.getTotpKey());
+        pst.setString(index++, auth.getEmail());
+        pst.setLong(index++, auth.getRegistrationDate());
+        pst.setString(index++, auth.getRegistrationIp());
+        if (auth.getLastLogin() == null) {
+            pst.setNull(index++, Types.BIGINT);
+        } else {
+            pst.setLong(index++, auth.getLastLogin());
+        }
+        pst.setString(index++, auth.getLastIp());
+        pst.setDouble(index++, auth.getQuitLocX());
+        pst.setDouble(index++, auth.getQuitLocY());
+        pst.setDouble(index++, auth.getQuitLocZ());
+        pst.setString(index++, auth.getWorld());
+        pst.setFloat(index++, auth.getYaw());
+        pst.setFloat(index++, auth.getPitch());
+        if (!col.PLAYER_UUID.isEmpty()) {
+            pst.setString(index, auth.getUuid() == null ? null : auth.getUuid().toString());
+        }
+    }
+
+    /**
+     * Writes the given pending updates as JDBC batches within one transaction. Updates which
+     * change the same set of columns share one prepared statement.
+     *
+     * @param con the connection to use (not closed by this method)
+     * @param tableName the name of the AuthMe table
+     * @param col the column names
+     * @param updates the updates to write
+     * @throws SQLException .
+     */
+    protected static void writePendingUpdates(Connection con, String tableName, Columns col,
+                                              Collection<PendingAccountUpdate> updates) throws SQLException {
+        Map<Integer, List<PendingAccountUpdate>> updatesByColumns = new LinkedHashMap<>();
+        for (PendingAccountUpdate update : updates) {
+            int columns = getUpdatedColumns(update);
+            if (columns != 0) {
+                updatesByColumns.computeIfAbsent(columns, k -> new ArrayList<>()).add(update);
+            }
+        }
+        if (updatesByColumns.isEmpty()) {
+            return;
+        }
+
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            for (Map.Entry<Integer, List<PendingAccountUpdate>> entry : updatesByColumns.entrySet()) {
+                String sql = buildPendingUpdateSql(tableName, col, entry.getKey());
+                try (PreparedStatement pst = con.prepareStatement(sql)) {
+                    for (PendingAccountUpdate update : entry.getValue()) {
+                        setPendingUpdateParameters(pst, update);
+                        pst.addBatch();
+                    }
+                    pst.executeBatch();
+                }
+            }
+            con.commit();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static int getUpdatedColumns(PendingAccountUpdate update) {
+        int columns = 0;
+        if (update.getLogged() != null) {
+            columns |= UPDATE_LOGGED;
+        }
+        if (update.getSession() != null) {
+            columns |= UPDATE_SESSION;
+        }
+        if (update.hasSessionData()) {
+            columns |= UPDATE_SESSION_DATA;
+        }
+        return columns;
+    }
+
+    private static String buildPendingUpdateSql(String tableName, Columns col, int columns) {
+        List<String> assignments = new ArrayList<>();
+        if ((columns & UPDATE_LOGGED) != 0) {
+            assignments.add(col.IS_LOGGED + "=?");
+        }
+        if ((columns & UPDATE_SESSION) != 0) {
+            assignments.add(col.HAS_SESSION + "=?");
+        }
+        if ((columns & UPDATE_SESSION_DATA) != 0) {
+            assignments.add(col.LAST_IP + "=?");
+            assignments.add(col.LAST_LOGIN + "=?");
+            assignments.add(col.REAL_NAME + "=?");
+        }
+        return "UPDATE " + tableName + " SET " + String.join(", ", assignments) + " WHERE " + col.NAME + "=?;";
+    }
+
+    private static void setPendingUpdateParameters(PreparedStatement pst,
+                                                   PendingAccountUpdate update) throws SQLException {
+        int index = 1;
+        if (update.getLogged() != null) {
+            pst.setInt(index++, update.getLogged() ? 1 : 0);
+        }
+        if (update.getSession() != null) {
+            pst.setInt(index++, update.getSession() ? 1 : 0);
+        }
+        if (update.hasSessionData()) {
+            pst.setString(index++, update.getLastIp());
+            if (update.getLastLogin() == null) {
+                pst.setNull(index++, Types.BIGINT);
+            } else {
+                pst.setLong(index++, update.getLastLogin());
+            }
+            pst.setString(index++, update.getRealName());
+        }
+        pst.setString(index, update.getName());
+    }
+
+    /**
+     * Saves data of a newly inserted account which is not stored in the main columns.
+     */
+    @FunctionalInterface
+    protected interface AdditionalAuthData {
+
+        /**
+         * Saves the additional data of the given account.
+         *
+         * @param auth the inserted account
+         * @param con the connection of the insert's transaction
+         * @throws SQLException .
+         */
+        void save(PlayerAuth auth, Connection con) throws SQLException;
+    }
+
+    /**
+     * Query to run on a connection.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    protected interface SqlQuery<T> {
+
+        /**
+         * Runs the query.
+         *
+         * @param connection the connection to use
+         * @return the result
+         * @throws SQLException if the query fails
+         */
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Creates an object from the current row of a result set.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    protected interface RowReader<T> {
+
+        /**
+         * Reads the current row.
+         *
+         * @param rs the result set, positioned on the row to read
+         * @param connection the connection the result set belongs to
+         * @return the object created from the row
+         * @throws SQLException .
+         */
+        T read(ResultSet rs, Connection connection) throws SQLException;
+    }
 }
@@ -2,14 +2,18 @@ package fr.xephi.authme.datasource;
 
 import ch.jalu.datasourcecolumns.data.DataSourceValue;
 import ch.jalu.datasourcecolumns.data.DataSourceValueImpl;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.data.auth.AuthDelta;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.data.auth.PlayerCache;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
@@ -17,21 +21,59 @@ import fr.xephi.authme.security.crypts.HashedPassword;
 import fr.xephi.authme.util.Utils;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class CacheDataSource implements DataSource {
 
+    /** Default number of threads which reload cached auths in the background. */
+    public static final int DEFAULT_LOADER_THREADS = 4;
+    /** Maximum number of queued reloads; further reloads are skipped and keep the cached value. */
+    private static final int LOADER_QUEUE_SIZE = 1000;
+    /** Fields written by {@link #updateSession}. */
+    private static final Set<PlayerAuth.Field> SESSION_FIELDS =
+        EnumSet.of(PlayerAuth.Field.REAL_NAME, PlayerAuth.Field.LAST_IP, PlayerAuth.Field.LAST_LOGIN);
+    /** False positive rate of the registered name filter. */
+    private static final double NAME_FILTER_FALSE_POSITIVE_RATE = 0.01;
+    /** Minimum number of names the registered name filter is sized for. */
+    private static final int MIN_NAME_FILTER_SIZE = 10_000;
+
     private final ConsoleLogger logger = ConsoleLoggerFactory.get(CacheDataSource.class);
 
     private final DataSource source;
     private final PlayerCache playerCache;
     private final LoadingCache<String, Optional<PlayerAuth>> cachedAuths;
+    private final ThreadPoolExecutor loaderExecutor;
     private final ListeningExecutorService executorService;
+    private final AtomicLong rejectedReloads = new AtomicLong();
+    private final WriteBehindQueue writeBehindQueue;
+    private final Cache<String, Boolean> loggedFlags;
+    private final Cache<String, Boolean> sessionFlags;
+    /** Version of the last change from another server applied per player. */
+    private final Cache<String, Long> deltaVersions = CacheBuilder.newBuilder()
+        .expireAfterAccess(15, TimeUnit.MINUTES)
+        .build();
+    private volatile RegisteredNameIndex nameIndex;
+    private volatile boolean isNameFilterEnabled;
+    /** Filter used to answer lookups of unregistered names; null until it has been loaded. */
+    private volatile RegisteredNameFilter nameFilter;
+    /** Filter which is being loaded to replace the current one, or null. */
+    private volatile RegisteredNameFilter loadingNameFilter;
+    private final AtomicBoolean isNameFilterLoading = new AtomicBoolean();
 
     /**
      * Constructor for CacheDataSource.
@@ -40,27 +82,68 @@ public class CacheDataSource implements DataSource {
      * @param playerCache the player cache
      */
     public CacheDataSource(DataSource source, PlayerCache playerCache) {
+        this(source, playerCache, null, 0);
+    }
+
+    /**
+     * Constructor for CacheDataSource with optional write-behind of login state and session updates
+     * and optional caching of the logged in and session flags.
+     *
+     * @param source the source
+     * @param playerCache the player cache
+     * @param writeBehindQueue the queue to write updates with, or null to write them immediately
+     * @param loginStateCacheSeconds seconds for which the logged in and session flags are cached,
+     *                               0 to always read them from the source
+     */
+    public CacheDataSource(DataSource source, PlayerCache playerCache, WriteBehindQueue writeBehindQueue,
+                           long loginStateCacheSeconds) {
+        this(source, playerCache, writeBehindQueue, loginStateCacheSeconds, DEFAULT_LOADER_THREADS);
+    }
+
+    /**
+     * Constructor for CacheDataSource with a custom number of threads reloading cached auths.
+     *
+     * @param source the source
+     * @param playerCache the player cache
+     * @param writeBehindQueue the queue to write updates with, or null to write them immediately
+     * @param loginStateCacheSeconds seconds for which the logged in and session flags are cached,
+     *                               0 to always read them from the source
+     * @param loaderThreads maximum number of threads reloading cached auths in the background
+     */
+    public CacheDataSource(DataSource source, PlayerCache playerCache, WriteBehindQueue writeBehindQueue,
+                           long loginStateCacheSeconds, int loaderThreads) {
         this.source = source;
         this.playerCache = playerCache;
-
-        executorService = MoreExecutors.listeningDecorator(
-            Executors.newCachedThreadPool(new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setNameFormat("AuthMe-CacheLoader")
-                .build())
-        );
+        this.writeBehindQueue = writeBehindQueue;
+        this.loggedFlags = createFlagCache(loginStateCacheSeconds);
+        this.sessionFlags = createFlagCache(loginStateCacheSeconds);
+
+        int threads = Math.max(1, loaderThreads);
+        loaderExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(LOADER_QUEUE_SIZE),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("AuthMe-CacheLoader-%d").build(),
+            new ThreadPoolExecutor.AbortPolicy());
+        loaderExecutor.allowCoreThreadTimeOut(true);
+        executorService = MoreExecutors.listeningDecorator(loaderExecutor);
         cachedAuths = CacheBuilder.newBuilder()
             .refreshAfterWrite(5, TimeUnit.MINUTES)
             .expireAfterAccess(15, TimeUnit.MINUTES)
+            .recordStats()
             .build(new CacheLoader<String, Optional<PlayerAuth>>() {
                 @Override
                 public Optional<PlayerAuth> load(String key) {
-                    return Optional.ofNullable(source.getAuth(key));
+                    return Optional.ofNullable(applyPendingSessionData(source.getAuth(key)));
                 }
 
                 @Override
                 public ListenableFuture<Optional<PlayerAuth>> reload(final String key, Optional<PlayerAuth> oldValue) {
-                    return executorService.submit(() -> load(key));
+                    try {
+                        return executorService.submit(() -> load(key));
+                    } catch (RejectedExecutionException e) {
+                        // Keep the current value, it will be reloaded on a later access
+                        rejectedReloads.incrementAndGet();
+                        return Futures.immediateFuture(oldValue);
+                    }
                 }
             });
     }
@@ -69,9 +152,172 @@ public class CacheDataSource implements DataSource {
         return cachedAuths;
     }
 
+    /**
+     * Keeps the names of all registered players in memory, so that names can be listed and looked up
+     * by prefix without querying the source. The names are loaded in the background; the source is
+     * used until they have been loaded.
+     */
+    public void enableNameIndex() {
+        nameIndex = new RegisteredNameIndex();
+        loadNameIndex();
+    }
+
+    @VisibleForTesting
+    RegisteredNameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    private void loadNameIndex() {
+        RegisteredNameIndex index = nameIndex;
+        try {
+            executorService.execute(() -> {
+                if (index.load(source)) {
+                    logger.info("Loaded " + index.size() + " registered names into memory");
+                } else {
+                    logger.warning("Could not load the registered names; they will be read from the database");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warning("Could not schedule loading the registered names; they will be read from the database");
+        }
+    }
+
+    /**
+     * Keeps a Bloom filter of the names of all registered players in memory, so that lookups of names
+     * which are not registered can be answered without querying the source. The filter is built in the
+     * background; the source is used until it has been built.
+     */
+    public void enableNameFilter() {
+        isNameFilterEnabled = true;
+        loadNameFilter();
+    }
+
+    /**
+     * @return the filter of registered names, or null if it is disabled or has not been loaded yet
+     */
+    public RegisteredNameFilter getNameFilter() {
+        return nameFilter;
+    }
+
+    /**
+     * Builds a new filter of registered names in the background, unless one is being built already.
+     * The current filter is used until the new one has been loaded.
+     */
+    private void loadNameFilter() {
+        if (!isNameFilterLoading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executorService.execute(() -> {
+                try {
+                    // Leave room for new registrations so that the filter doesn't need to be rebuilt soon
+                    int expectedNames = Math.max(MIN_NAME_FILTER_SIZE, 2 * source.getAccountsRegistered());
+                    RegisteredNameFilter filter = new RegisteredNameFilter(expectedNames,
+                        NAME_FILTER_FALSE_POSITIVE_RATE);
+                    loadingNameFilter = filter;
+                    if (filter.load(source)) {
+                        nameFilter = filter;
+                        logger.info("Loaded " + filter.getNameCount() + " registered names into the name filter ("
+                            + filter.getMemoryBytes() / 1024 + " KiB)");
+                    } else {
+                        nameFilter = null;
+                        logger.warning("Could not load the name filter; names will be looked up in the database");
+                    }
+                } finally {
+                    loadingNameFilter = null;
+                    isNameFilterLoading.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            isNameFilterLoading.set(false);
+            logger.warning("Could not schedule loading the name filter");
+        }
+    }
+
+    private void addToNameFilter(String name) {
+        RegisteredNameFilter filter = nameFilter;
+        if (filter != null) {
+            filter.add(name);
+            if (filter.needsRebuild()) {
+                loadNameFilter();
+            }
+        }
+        RegisteredNameFilter loadingFilter = loadingNameFilter;
+        if (loadingFilter != null) {
+            loadingFilter.add(name);
+        }
+    }
+
+    private void recordRemovalsInNameFilter(int removedNames) {
+        RegisteredNameFilter filter = nameFilter;
+        if (filter != null && removedNames > 0) {
+            for (int i = 0; i < removedNames; ++i) {
+                filter.recordRemoval();
+            }
+            if (filter.needsRebuild()) {
+                loadNameFilter();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given name is definitely not registered according to the name filter.
+     *
+     * @param name the lowercase name to check
+     * @return true if the name is not registered, false if it might be registered or if there is no filter
+     */
+    private boolean isDefinitelyUnregistered(String name) {
+        RegisteredNameFilter filter = nameFilter;
+        return filter != null && !filter.mightContain(name);
+    }
+
+    /**
+     * @return number of threads which reload cached auths
+     */
+    public int getLoaderThreads() {
+        return loaderExecutor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return number of auths currently being reloaded
+     */
+    public int getActiveLoaderCount() {
+        return loaderExecutor.getActiveCount();
+    }
+
+    /**
+     * @return number of reloads waiting for a free loader thread
+     */
+    public int getQueuedLoaderCount() {
+        return loaderExecutor.getQueue().size();
+    }
+
+    /**
+     * @return total number of reloads which were skipped because the loader queue was full
+     */
+    public long getRejectedReloadCount() {
+        return rejectedReloads.get();
+    }
+
+    /**
+     * @return the write-behind queue, or null if updates are written immediately
+     */
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+
     @Override
     public void reload() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
         source.reload();
+        if (nameIndex != null) {
+            loadNameIndex();
+        }
+        if (isNameFilterEnabled) {
+            loadNameFilter();
+        }
     }
 
     @Override
@@ -87,6 +333,9 @@ public class CacheDataSource implements DataSource {
     @Override
     public HashedPassword getPassword(String user) {
         user = user.toLowerCase();
+        if (isDefinitelyUnregistered(user)) {
+            return null;
+        }
         Optional<PlayerAuth> pAuthOpt = cachedAuths.getIfPresent(user);
         if (pAuthOpt != null && pAuthOpt.isPresent()) {
             return pAuthOpt.get().getPassword();
@@ -97,6 +346,9 @@ public class CacheDataSource implements DataSource {
     @Override
     public PlayerAuth getAuth(String user) {
         user = user.toLowerCase();
+        if (isDefinitelyUnregistered(user)) {
+            return null;
+        }
         return cachedAuths.getUnchecked(user).orElse(null);
     }
 
@@ -104,16 +356,52 @@ public class CacheDataSource implements DataSource {
     public boolean saveAuth(PlayerAuth auth) {
         boolean result = source.saveAuth(auth);
         if (result) {
-            cachedAuths.refresh(auth.getNickname());
+            // The new row may contain database defaults, so it is loaded on the next access
+            cachedAuths.invalidate(auth.getNickname());
+            addToNameFilter(auth.getNickname());
+            if (nameIndex != null) {
+                nameIndex.add(auth.getNickname(), auth.getRealName());
+            }
         }
         return result;
     }
 
+    @Override
+    public int saveAuths(Collection<PlayerAuth> auths) {
+        int saved = source.saveAuths(auths);
+        if (saved > 0) {
+            // Invalidate instead of refresh so that a large import doesn't reload every account
+            for (PlayerAuth auth : auths) {
+                cachedAuths.invalidate(auth.getNickname());
+                // Accounts which were not saved are only false positives of the filter
+                addToNameFilter(auth.getNickname());
+            }
+            if (nameIndex != null) {
+                addToNameIndex(auths, saved == auths.size());
+            }
+        }
+        return saved;
+    }
+
+    private void addToNameIndex(Collection<PlayerAuth> auths, boolean isAllSaved) {
+        for (PlayerAuth auth : auths) {
+            // Check with the source if some accounts could not be saved, e.g. as they were already registered
+            if (isAllSaved || source.isAuthAvailable(auth.getNickname())) {
+                nameIndex.add(auth.getNickname(), auth.getRealName());
+            }
+        }
+    }
+
+    @Override
+    public Set<String> filterRegisteredNames(Collection<String> names) {
+        return source.filterRegisteredNames(names);
+    }
+
     @Override
     public boolean updatePassword(PlayerAuth auth) {
         boolean result = source.updatePassword(auth);
         if (result) {
-            cachedAuths.refresh(auth.getNickname());
+            updateCachedAuth(auth, EnumSet.of(PlayerAuth.Field.PASSWORD));
         }
         return result;
     }
@@ -123,16 +411,38 @@ public class CacheDataSource implements DataSource {
         user = user.toLowerCase();
         boolean result = source.updatePassword(user, password);
         if (result) {
-            cachedAuths.refresh(user);
+            updateCachedAuth(user, EnumSet.of(PlayerAuth.Field.PASSWORD), auth -> auth.setPassword(password));
         }
         return result;
     }
 
+    @Override
+    public int updateRehashedPasswords(Collection<RehashedPassword> rehashes) {
+        int updated = source.updateRehashedPasswords(rehashes);
+        if (updated > 0) {
+            // Update cached auths in place instead of reloading each account
+            for (RehashedPassword rehash : rehashes) {
+                updateCachedAuth(rehash.getName(), EnumSet.of(PlayerAuth.Field.PASSWORD), auth -> {
+                    if (auth.getPassword() != null
+                        && auth.getPassword().getHash().equals(rehash.getOldPassword().getHash())) {
+                        auth.setPassword(rehash.getNewPassword());
+                    }
+                });
+            }
+        }
+        return updated;
+    }
+
     @Override
     public boolean updateSession(PlayerAuth auth) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.enqueue(auth.getNickname(), update -> update.withSessionData(auth));
+            updateCachedAuth(auth, SESSION_FIELDS);
+            return true;
+        }
         boolean result = source.updateSession(auth);
         if (result) {
-            cachedAuths.refresh(auth.getNickname());
+            updateCachedAuth(auth, SESSION_FIELDS);
         }
         return result;
     }
@@ -141,7 +451,28 @@ public class CacheDataSource implements DataSource {
     public boolean updateQuitLoc(final PlayerAuth auth) {
         boolean result = source.updateQuitLoc(auth);
         if (result) {
-            cachedAuths.refresh(auth.getNickname());
+            updateCachedAuth(auth, EnumSet.of(PlayerAuth.Field.QUIT_LOCATION));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean persistChanges(PlayerAuth auth) {
+        Set<PlayerAuth.Field> changes = auth.getChangedFields();
+        if (writeBehindQueue != null && !Collections.disjoint(changes, SESSION_FIELDS)) {
+            // Queue the session data like updateSession does; the queue writes none of the other fields,
+            // so the remaining changes can be written directly without flushing it
+            writeBehindQueue.enqueue(auth.getNickname(), update -> update.withSessionData(auth));
+            updateCachedAuth(auth, SESSION_FIELDS);
+            auth.clearChanges(SESSION_FIELDS);
+            changes.removeAll(SESSION_FIELDS);
+            if (changes.isEmpty()) {
+                return true;
+            }
+        }
+        boolean result = source.persistChanges(auth);
+        if (result && !changes.isEmpty()) {
+            updateCachedAuth(auth, changes);
         }
         return result;
     }
@@ -154,15 +485,26 @@ public class CacheDataSource implements DataSource {
     @Override
     public boolean removeAuth(String name) {
         name = name.toLowerCase();
+        if (writeBehindQueue != null) {
+            writeBehindQueue.discard(name);
+        }
         boolean result = source.removeAuth(name);
         if (result) {
             cachedAuths.invalidate(name);
+            invalidateFlags(name);
+            recordRemovalsInNameFilter(1);
+            if (nameIndex != null) {
+                nameIndex.remove(name);
+            }
         }
         return result;
     }
 
     @Override
     public void closeConnection() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.close();
+        }
         executorService.shutdown();
         try {
             executorService.awaitTermination(5, TimeUnit.SECONDS);
@@ -177,7 +519,7 @@ public class CacheDataSource implements DataSource {
     public boolean updateEmail(final PlayerAuth auth) {
         boolean result = source.updateEmail(auth);
         if (result) {
-            cachedAuths.refresh(auth.getNickname());
+            updateCachedAuth(auth, EnumSet.of(PlayerAuth.Field.EMAIL));
         }
         return result;
     }
@@ -193,9 +535,18 @@ public class CacheDataSource implements DataSource {
     }
 
     @Override
-    public void purgeRecords(Collection<String> banned) {
-        source.purgeRecords(banned);
+    public int purgeRecords(Collection<String> banned) {
+        if (writeBehindQueue != null) {
+            banned.forEach(writeBehindQueue::discard);
+        }
+        int deleted = source.purgeRecords(banned);
         cachedAuths.invalidateAll(banned);
+        banned.forEach(this::invalidateFlags);
+        recordRemovalsInNameFilter(deleted);
+        if (nameIndex != null) {
+            banned.forEach(nameIndex::remove);
+        }
+        return deleted;
     }
 
     @Override
@@ -205,38 +556,64 @@ public class CacheDataSource implements DataSource {
 
     @Override
     public boolean isLogged(String user) {
-        return source.isLogged(user);
+        return getFlag(loggedFlags, user, PendingAccountUpdate::getLogged, source::isLogged);
     }
 
     @Override
     public void setLogged(final String user) {
-        source.setLogged(user.toLowerCase());
+        putFlag(loggedFlags, user, true);
+        if (writeBehindQueue != null) {
+            writeBehindQueue.enqueue(user, update -> update.withLogged(true));
+        } else {
+            source.setLogged(user.toLowerCase());
+        }
     }
 
     @Override
     public void setUnlogged(final String user) {
-        source.setUnlogged(user.toLowerCase());
+        putFlag(loggedFlags, user, false);
+        if (writeBehindQueue != null) {
+            writeBehindQueue.enqueue(user, update -> update.withLogged(false));
+        } else {
+            source.setUnlogged(user.toLowerCase());
+        }
     }
 
     @Override
     public boolean hasSession(final String user) {
-        return source.hasSession(user);
+        return getFlag(sessionFlags, user, PendingAccountUpdate::getSession, source::hasSession);
     }
 
     @Override
     public void grantSession(final String user) {
-        source.grantSession(user);
+        putFlag(sessionFlags, user, true);
+        if (writeBehindQueue != null) {
+            writeBehindQueue.enqueue(user, update -> update.withSession(true));
+        } else {
+            source.grantSession(user);
+        }
     }
 
     @Override
     public void revokeSession(final String user) {
-        source.revokeSession(user);
+        putFlag(sessionFlags, user, false);
+        if (writeBehindQueue != null) {
+            writeBehindQueue.enqueue(user, update -> update.withSession(false));
+        } else {
+            source.revokeSession(user);
+        }
     }
 
     @Override
     public void purgeLogged() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
         source.purgeLogged();
         cachedAuths.invalidateAll();
+        if (loggedFlags != null) {
+            loggedFlags.invalidateAll();
+        }
     }
 
     @Override
@@ -248,7 +625,7 @@ public class CacheDataSource implements DataSource {
     public boolean updateRealName(String user, String realName) {
         boolean result = source.updateRealName(user, realName);
         if (result) {
-            cachedAuths.refresh(user);
+            updateCachedAuth(user, EnumSet.of(PlayerAuth.Field.REAL_NAME), auth -> auth.setRealName(realName));
         }
         return result;
     }
@@ -265,6 +642,30 @@ public class CacheDataSource implements DataSource {
         return source.getAllAuths();
     }
 
+    @Override
+    public boolean forEachAuth(Consumer<PlayerAuth> action) {
+        return source.forEachAuth(action);
+    }
+
+    @Override
+    public boolean forEachName(BiConsumer<String, String> action) {
+        RegisteredNameIndex index = nameIndex;
+        if (index != null && index.isLoaded()) {
+            index.forEach(action);
+            return true;
+        }
+        return source.forEachName(action);
+    }
+
+    @Override
+    public List<String> getRealNamesStartingWith(String prefix, int limit) {
+        RegisteredNameIndex index = nameIndex;
+        if (index != null && index.isLoaded()) {
+            return index.getRealNamesStartingWith(prefix, limit);
+        }
+        return source.getRealNamesStartingWith(prefix, limit);
+    }
+
     @Override
     public List<String> getLoggedPlayersWithEmptyMail() {
         return playerCache.getCache().values().stream()
@@ -282,21 +683,180 @@ public class CacheDataSource implements DataSource {
     public boolean setTotpKey(String user, String totpKey) {
         boolean result = source.setTotpKey(user, totpKey);
         if (result) {
-            cachedAuths.refresh(user);
+            updateCachedAuth(user, EnumSet.of(PlayerAuth.Field.TOTP_KEY), auth -> auth.setTotpKey(totpKey));
         }
         return result;
     }
 
     @Override
     public void invalidateCache(String playerName) {
+        // Note: the login state flags are kept as they are updated by this server (e.g. on quit)
+        // and can be reused on the next join; they are invalidated on refresh or by their expiration
         cachedAuths.invalidate(playerName);
     }
 
     @Override
     public void refreshCache(String playerName) {
+        // The account may have been registered by another server
+        addToNameFilter(playerName);
+        invalidateFlags(playerName);
         if (cachedAuths.getIfPresent(playerName) != null) {
             cachedAuths.refresh(playerName);
         }
     }
 
+    @Override
+    public void applyDelta(AuthDelta delta) {
+        String name = delta.getName();
+        if (deltaVersions.asMap().merge(name, delta.getVersion(), Math::max) != delta.getVersion()) {
+            // A change with a higher version has already been applied. Versions are based on the clock of the
+            // sending server, so with clocks out of sync this change may be newer nonetheless: read the account
+            // from the database instead of dropping the change
+            refreshCache(name);
+            return;
+        }
+        switch (delta.getKind()) {
+            case UPDATE:
+                addToNameFilter(name);
+                invalidateFlags(name);
+                Optional<PlayerAuth> cachedAuth = cachedAuths.getIfPresent(name);
+                if (cachedAuth != null && !cachedAuth.isPresent()) {
+                    // Cached as unregistered, so there is nothing to update
+                    cachedAuths.refresh(name);
+                } else {
+                    updateCachedAuth(name, delta.getFields(),
+                        auth -> auth.copyFields(delta.getValues(), delta.getFields()));
+                }
+                break;
+            case RELOAD:
+                refreshCache(name);
+                break;
+            case REMOVE:
+                invalidateCache(name);
+                break;
+            default:
+                throw new IllegalStateException("Unhandled delta kind '" + delta.getKind() + "'");
+        }
+    }
+
+    /**
+     * Returns the value of a login state flag: from the cache if present, otherwise from the
+     * queued updates or the source.
+     *
+     * @param flags the flag cache (null if disabled)
+     * @param user the player name
+     * @param pendingValueGetter gets the flag's value from a queued update
+     * @param sourceGetter gets the flag's value from the source
+     * @return the value of the flag
+     */
+    private boolean getFlag(Cache<String, Boolean> flags, String user,
+                            Function<PendingAccountUpdate, Boolean> pendingValueGetter,
+                            Predicate<String> sourceGetter) {
+        String name = user.toLowerCase();
+        if (flags != null) {
+            Boolean cachedValue = flags.getIfPresent(name);
+            if (cachedValue != null) {
+                return cachedValue;
+            }
+        }
+
+        PendingAccountUpdate pendingUpdate = getPendingUpdate(name);
+        Boolean value = pendingUpdate == null ? null : pendingValueGetter.apply(pendingUpdate);
+        if (value == null) {
+            value = sourceGetter.test(name);
+        }
+        if (flags != null) {
+            // Don't overwrite a value that has been set by a concurrent write in the meantime
+            Boolean concurrentValue = flags.asMap().putIfAbsent(name, value);
+            return concurrentValue == null ? value : concurrentValue;
+        }
+        return value;
+    }
+
+    private static void putFlag(Cache<String, Boolean> flags, String user, boolean value) {
+        if (flags != null) {
+            flags.put(user.toLowerCase(), value);
+        }
+    }
+
+    private void invalidateFlags(String user) {
+        if (loggedFlags != null) {
+            String name = user.toLowerCase();
+            loggedFlags.invalidate(name);
+            sessionFlags.invalidate(name);
+        }
+    }
+
+    private static Cache<String, Boolean> createFlagCache(long expirationSeconds) {
+        if (expirationSeconds <= 0) {
+            return null;
+        }
+        return CacheBuilder.newBuilder()
+            .expireAfterWrite(expirationSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * Applies the given fields of the provided auth to the cached auth of the player, if present.
+     *
+     * @param auth the auth whose values have been written
+     * @param fields the fields to apply
+     */
+    private void updateCachedAuth(PlayerAuth auth, Set<PlayerAuth.Field> fields) {
+        updateCachedAuth(auth.getNickname(), fields, cachedAuth -> {
+            if (cachedAuth != auth) {
+                cachedAuth.copyFields(auth, fields);
+            }
+        });
+    }
+
+    /**
+     * Updates the cached auth of the player, if present, with values which have been written to the source
+     * (or queued to be written), so that it does not need to be reloaded. The given fields are then unmarked
+     * as changed on the cached auth since they don't need to be persisted again.
+     *
+     * @param user the player name
+     * @param fields the fields which are updated
+     * @param update the update to perform on the cached auth
+     */
+    private void updateCachedAuth(String user, Set<PlayerAuth.Field> fields, Consumer<PlayerAuth> update) {
+        Optional<PlayerAuth> cachedAuth = cachedAuths.getIfPresent(user.toLowerCase());
+        if (cachedAuth != null && cachedAuth.isPresent()) {
+            update.accept(cachedAuth.get());
+            cachedAuth.get().clearChanges(fields);
+        }
+    }
+
+    private PendingAccountUpdate getPendingUpdate(String user) {
+        return writeBehindQueue == null ? null : writeBehindQueue.getPendingUpdate(user);
+    }
+
+    /**
+     * Applies the session data of the account's queued update (if any) to the given auth, so that
+     * loading an auth from the source does not revert changes which have not been written yet.
+     *
+     * @param auth the auth loaded from the source (nullable)
+     * @return the provided auth
+     */
+    private PlayerAuth applyPendingSessionData(PlayerAuth auth) {
+        if (auth != null) {
+            PendingAccountUpdate pendingUpdate = getPendingUpdate(auth.getNickname());
+            if (pendingUpdate != null && pendingUpdate.hasSessionData()) {
+                applySessionData(auth,
+                    pendingUpdate.getLastIp(), pendingUpdate.getLastLogin(), pendingUpdate.getRealName());
+                // The session data is written by the queue
+                auth.clearChanges(SESSION_FIELDS);
+            }
+        }
+        return auth;
+    }
+
+    private static void applySessionData(PlayerAuth auth, String lastIp, Long lastLogin, String realName) {
+        auth.setLastIp(lastIp);
+        if (lastLogin != null) {
+            auth.setLastLogin(lastLogin);
+        }
+        auth.setRealName(realName);
+    }
+
 }
@@ -1,13 +1,19 @@
 package fr.xephi.authme.datasource;
 
 import ch.jalu.datasourcecolumns.data.DataSourceValue;
+import fr.xephi.authme.data.auth.AuthDelta;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.initialization.Reloadable;
 import fr.xephi.authme.security.crypts.HashedPassword;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Interface for manipulating {@link PlayerAuth} objects from a data source.
@@ -92,8 +98,9 @@ public interface DataSource extends Reloadable {
      * Purge the given players from the database.
      *
      * @param toPurge The players to purge
+     * @return the number of deleted accounts
      */
-    void purgeRecords(Collection<String> toPurge);
+    int purgeRecords(Collection<String> toPurge);
 
     /**
      * Remove a user record from the database.
@@ -235,6 +242,48 @@ public interface DataSource extends Reloadable {
      */
     List<PlayerAuth> getAllAuths();
 
+    /**
+     * Passes all players of the database to the given action, always in the same order. Data sources
+     * supporting it should stream the accounts instead of loading all of them into memory at once.
+     *
+     * @param action the action to perform for each player
+     * @return true if all players were read, false if reading failed
+     */
+    default boolean forEachAuth(Consumer<PlayerAuth> action) {
+        getAllAuths().forEach(action);
+        return true;
+    }
+
+    /**
+     * Passes the name and the real name of all players of the database to the given action, without
+     * loading the other data of the accounts. Data sources supporting it should stream the names instead
+     * of loading all of them into memory at once.
+     *
+     * @param action the action to perform with the lowercase name and the real name of each player
+     * @return true if all players were read, false if reading failed
+     */
+    default boolean forEachName(BiConsumer<String, String> action) {
+        return forEachAuth(auth -> action.accept(auth.getNickname(), auth.getRealName()));
+    }
+
+    /**
+     * Returns the real names of the players whose name starts with the given prefix, ignoring case.
+     *
+     * @param prefix the prefix to look for
+     * @param limit the maximum number of names to return
+     * @return the real names, sorted by name
+     */
+    default List<String> getRealNamesStartingWith(String prefix, int limit) {
+        String lowercasePrefix = prefix.toLowerCase();
+        TreeMap<String, String> matches = new TreeMap<>();
+        forEachName((name, realName) -> {
+            if (name.startsWith(lowercasePrefix)) {
+                matches.put(name, realName);
+            }
+        });
+        return matches.values().stream().limit(Math.max(0, limit)).collect(Collectors.toList());
+    }
+
     /**
      * Returns the last ten players who have recently logged in (first ten players with highest last login date).
      *
@@ -261,6 +310,136 @@ public interface DataSource extends Reloadable {
         return setTotpKey(user, null);
     }
 
+    /**
+     * Writes the fields of the given account which have been changed since it was loaded or since its
+     * changes were last persisted, and unmarks them once they have been written. Data sources supporting
+     * it should write all changed columns with one update.
+     *
+     * @param auth the account whose changes should be saved
+     * @return True upon success (including if nothing has changed), false upon failure
+     * @see PlayerAuth#getChangedFields()
+     */
+    default boolean persistChanges(PlayerAuth auth) {
+        Set<PlayerAuth.Field> changes = auth.getChangedFields();
+        boolean result = true;
+        if (changes.contains(PlayerAuth.Field.REAL_NAME) || changes.contains(PlayerAuth.Field.LAST_IP)
+            || changes.contains(PlayerAuth.Field.LAST_LOGIN)) {
+            result = updateSession(auth);
+        }
+        if (changes.contains(PlayerAuth.Field.PASSWORD)) {
+            result &= updatePassword(auth);
+        }
+        if (changes.contains(PlayerAuth.Field.EMAIL)) {
+            result &= updateEmail(auth);
+        }
+        if (changes.contains(PlayerAuth.Field.TOTP_KEY)) {
+            result &= setTotpKey(auth.getNickname(), auth.getTotpKey());
+        }
+        if (changes.contains(PlayerAuth.Field.QUIT_LOCATION)) {
+            result &= updateQuitLoc(auth);
+        }
+        // There are no dedicated update methods for the registration date and the UUID
+        if (changes.contains(PlayerAuth.Field.REGISTRATION_DATE) || changes.contains(PlayerAuth.Field.UUID)) {
+            result = false;
+        }
+        if (result) {
+            auth.clearChanges(changes);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the given queued changes to the data source. Data sources supporting it should
+     * write all updates in as few round trips as possible.
+     *
+     * @param updates the updates to persist (at most one per account)
+     * @return True upon success, false upon failure
+     */
+    default boolean applyPendingUpdates(Collection<PendingAccountUpdate> updates) {
+        for (PendingAccountUpdate update : updates) {
+            if (update.hasSessionData()) {
+                updateSession(PlayerAuth.builder()
+                    .name(update.getName())
+                    .realName(update.getRealName())
+                    .lastIp(update.getLastIp())
+                    .lastLogin(update.getLastLogin())
+                    .build());
+            }
+            if (update.getLogged() != null) {
+                if (update.getLogged()) {
+                    setLogged(update.getName());
+                } else {
+                    setUnlogged(update.getName());
+                }
+            }
+            if (update.getSession() != null) {
+                if (update.getSession()) {
+                    grantSession(update.getName());
+                } else {
+                    revokeSession(update.getName());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Saves the new hashes of the given accounts, skipping accounts whose password no longer
+     * matches the old hash. Data sources supporting it should write all hashes in one batch.
+     *
+     * @param rehashes the new hashes to save
+     * @return the number of accounts whose password was updated
+     */
+    default int updateRehashedPasswords(Collection<RehashedPassword> rehashes) {
+        int updated = 0;
+        for (RehashedPassword rehash : rehashes) {
+            HashedPassword currentPassword = getPassword(rehash.getName());
+            if (currentPassword != null
+                && currentPassword.getHash().equals(rehash.getOldPassword().getHash())
+                && updatePassword(rehash.getName(), rehash.getNewPassword())) {
+                ++updated;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Returns which of the given names have an account. Data sources supporting it should
+     * look up all names with as few queries as possible.
+     *
+     * @param names the names to check
+     * @return the lowercase names of the given players which are registered
+     */
+    default Set<String> filterRegisteredNames(Collection<String> names) {
+        Set<String> registeredNames = new HashSet<>();
+        for (String name : names) {
+            if (isAuthAvailable(name)) {
+                registeredNames.add(name.toLowerCase());
+            }
+        }
+        return registeredNames;
+    }
+
+    /**
+     * Saves the given new accounts with all their data, including session and location data.
+     * Data sources supporting it should save all accounts in one batch within a transaction.
+     *
+     * @param auths the accounts to save, none of which may be registered yet
+     * @return the number of saved accounts
+     */
+    default int saveAuths(Collection<PlayerAuth> auths) {
+        int saved = 0;
+        for (PlayerAuth auth : auths) {
+            if (saveAuth(auth)) {
+                auth.markAsChanged(PlayerAuth.Field.LAST_IP, PlayerAuth.Field.LAST_LOGIN,
+                    PlayerAuth.Field.TOTP_KEY, PlayerAuth.Field.QUIT_LOCATION);
+                persistChanges(auth);
+                ++saved;
+            }
+        }
+        return saved;
+    }
+
     /**
      * Reload the data source.
      */
@@ -283,4 +462,12 @@ public interface DataSource extends Reloadable {
     default void refreshCache(String playerName) {
     }
 
+    /**
+     * Update any cached data related to the player with a change made by another server.
+     *
+     * @param delta the change to apply
+     */
+    default void applyDelta(AuthDelta delta) {
+    }
+
 }
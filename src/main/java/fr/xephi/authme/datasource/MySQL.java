@@ -6,7 +6,6 @@ import com.zaxxer.hikari.pool.HikariPool.PoolInitializationException;
 import fr.xephi.authme.ConsoleLogger;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.columnshandler.AuthMeColumnsHandler;
-import fr.xephi.authme.datasource.mysqlextensions.MySqlExtension;
 import fr.xephi.authme.datasource.mysqlextensions.MySqlExtensionsFactory;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.settings.Settings;
@@ -21,11 +20,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static fr.xephi.authme.datasource.SqlDataSourceUtils.getNullableLong;
 import static fr.xephi.authme.datasource.SqlDataSourceUtils.logSqlException;
@@ -35,6 +38,7 @@ import static fr.xephi.authme.datasource.SqlDataSourceUtils.logSqlException;
  */
 @SuppressWarnings({"checkstyle:AbbreviationAsWordInName"}) // Justification: Class name cannot be changed anymore
 public class MySQL extends AbstractSqlDataSource {
+
     private final ConsoleLogger logger = ConsoleLoggerFactory.get(MySQL.class);
 
     private boolean useSsl;
@@ -44,12 +48,8 @@ public class MySQL extends AbstractSqlDataSource {
     private String username;
     private String password;
     private String database;
-    private String tableName;
     private int poolSize;
     private int maxLifetime;
-    private List<String> columnOthers;
-    private Columns col;
-    private MySqlExtension sqlExtension;
     private HikariDataSource ds;
 
     public MySQL(Settings settings, MySqlExtensionsFactory extensionsFactory) throws SQLException {
@@ -167,6 +167,13 @@ public class MySQL extends AbstractSqlDataSource {
         return ds.getConnection();
     }
 
+    @Override
+    protected <T> T runQuery(SqlQuery<T> query) throws SQLException {
+        try (Connection con = getConnection()) {
+            return query.run(con);
+        }
+    }
+
     /**
      * Creates the table or any of its required columns if they don't exist.
      */
@@ -277,6 +284,8 @@ public class MySQL extends AbstractSqlDataSource {
                 st.executeUpdate("ALTER TABLE " + tableName
                     + " ADD COLUMN " + col.PLAYER_UUID + " VARCHAR(36)");
             }
+
+            createPurgeIndexes(con, tableName, col);
         }
         logger.info("MySQL setup finished");
     }
@@ -309,48 +318,109 @@ public class MySQL extends AbstractSqlDataSource {
 
     @Override
     public boolean saveAuth(PlayerAuth auth) {
-        super.saveAuth(auth);
-
+        long start = System.nanoTime();
         try (Connection con = getConnection()) {
-            if (!columnOthers.isEmpty()) {
-                for (String column : columnOthers) {
-                    try (PreparedStatement pst = con.prepareStatement(
-                        "UPDATE " + tableName + " SET " + column + "=? WHERE " + col.NAME + "=?;")) {
-                        pst.setString(1, auth.getRealName());
-                        pst.setString(2, auth.getNickname());
-                        pst.executeUpdate();
-                    }
+            long connected = System.nanoTime();
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                OptionalInt id = insertAuth(auth, con);
+                long inserted = System.nanoTime();
+                if (id.isPresent()) {
+                    sqlExtension.saveAuth(auth, id.getAsInt(), con);
+                } else {
+                    sqlExtension.saveAuth(auth, con);
                 }
+                long extended = System.nanoTime();
+                con.commit();
+                long committed = System.nanoTime();
+                logger.debug(() -> "Saved account `" + auth.getNickname() + "` in " + toMillis(committed - start)
+                    + " ms (connection: " + toMillis(connected - start) + " ms, insert: "
+                    + toMillis(inserted - connected) + " ms, extension: " + toMillis(extended - inserted)
+                    + " ms, commit: " + toMillis(committed - extended) + " ms)");
+                return true;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
             }
-
-            sqlExtension.saveAuth(auth, con);
-            return true;
         } catch (SQLException ex) {
             logSqlException(ex);
         }
         return false;
     }
 
-    @Override
-    public Set<String> getRecordsToPurge(long until) {
-        Set<String> list = new HashSet<>();
-        String select = "SELECT " + col.NAME + " FROM " + tableName + " WHERE GREATEST("
-            + " COALESCE(" + col.LAST_LOGIN + ", 0),"
-            + " COALESCE(" + col.REGISTRATION_DATE + ", 0)"
-            + ") < ?;";
-        try (Connection con = getConnection();
-             PreparedStatement selectPst = con.prepareStatement(select)) {
-            selectPst.setLong(1, until);
-            try (ResultSet rs = selectPst.executeQuery()) {
-                while (rs.next()) {
-                    list.add(rs.getString(col.NAME));
-                }
+    /**
+     * Inserts a new account with a single statement, including the configured other username columns.
+     *
+     * @param auth the account to insert
+     * @param con the connection to use
+     * @return the id of the new row, empty if the driver did not return it
+     * @throws SQLException .
+     */
+    private OptionalInt insertAuth(PlayerAuth auth, Connection con) throws SQLException {
+        List<String> columns = new ArrayList<>(Arrays.asList(col.NAME, col.REAL_NAME, col.PASSWORD));
+        List<String> values = new ArrayList<>(Arrays.asList(
+            auth.getNickname(), auth.getRealName(), auth.getPassword().getHash()));
+        if (!col.SALT.isEmpty()) {
+            columns.add(col.SALT);
+            values.add(auth.getPassword().getSalt());
+        }
+        // Let the database use the default value of the email column if there is no email
+        if (auth.getEmail() != null) {
+            columns.add(col.EMAIL);
+            values.add(auth.getEmail());
+        }
+        columns.add(col.REGISTRATION_IP);
+        values.add(auth.getRegistrationIp());
+        if (!col.PLAYER_UUID.isEmpty()) {
+            columns.add(col.PLAYER_UUID);
+            values.add(auth.getUuid() == null ? null : auth.getUuid().toString());
+        }
+        for (String column : columnOthers) {
+            columns.add(column);
+            values.add(auth.getRealName());
+        }
+        columns.add(col.REGISTRATION_DATE);
+
+        String sql = "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES ("
+            + String.join(", ", Collections.nCopies(columns.size(), "?")) + ");";
+        try (PreparedStatement pst = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            int index = 1;
+            for (String value : values) {
+                pst.setString(index++, value);
             }
+            pst.setLong(index, auth.getRegistrationDate());
+            pst.executeUpdate();
+            try (ResultSet rs = pst.getGeneratedKeys()) {
+                return rs.next() ? OptionalInt.of(rs.getInt(1)) : OptionalInt.empty();
+            }
+        }
+    }
+
+    @Override
+    public int saveAuths(Collection<PlayerAuth> auths) {
+        try (Connection con = getConnection()) {
+            return insertAuths(con, tableName, col, auths, this::saveAdditionalData);
         } catch (SQLException ex) {
             logSqlException(ex);
         }
+        return 0;
+    }
 
-        return list;
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public Set<String> getRecordsToPurge(long until) {
+        try (Connection con = getConnection()) {
+            return selectRecordsToPurge(con, tableName, col, until);
+        } catch (SQLException ex) {
+            logSqlException(ex);
+        }
+        return new HashSet<>();
     }
 
     @Override
@@ -376,16 +446,44 @@ public class MySQL extends AbstractSqlDataSource {
     }
 
     @Override
-    public void purgeRecords(Collection<String> toPurge) {
-        String sql = "DELETE FROM " + tableName + " WHERE " + col.NAME + "=?;";
-        try (Connection con = getConnection(); PreparedStatement pst = con.prepareStatement(sql)) {
-            for (String name : toPurge) {
-                pst.setString(1, name.toLowerCase());
-                pst.executeUpdate();
-            }
+    public int purgeRecords(Collection<String> toPurge) {
+        try (Connection con = getConnection()) {
+            return deleteAuths(con, tableName, col, toPurge);
         } catch (SQLException ex) {
             logSqlException(ex);
         }
+        return 0;
+    }
+
+    @Override
+    public boolean applyPendingUpdates(Collection<PendingAccountUpdate> updates) {
+        try (Connection con = getConnection()) {
+            writePendingUpdates(con, tableName, col, updates);
+            return true;
+        } catch (SQLException e) {
+            logSqlException(e);
+        }
+        return false;
+    }
+
+    @Override
+    public int updateRehashedPasswords(Collection<RehashedPassword> rehashes) {
+        try (Connection con = getConnection()) {
+            return writeRehashedPasswords(con, tableName, col, rehashes);
+        } catch (SQLException e) {
+            logSqlException(e);
+        }
+        return 0;
+    }
+
+    @Override
+    public Set<String> filterRegisteredNames(Collection<String> names) {
+        try (Connection con = getConnection()) {
+            return selectRegisteredNames(con, tableName, col, names);
+        } catch (SQLException e) {
+            logSqlException(e);
+        }
+        return Collections.emptySet();
     }
 
     @Override
@@ -457,14 +555,8 @@ public class MySQL extends AbstractSqlDataSource {
         return false;
     }
 
-    /**
-     * Creates a {@link PlayerAuth} object with the data from the provided result set.
-     *
-     * @param row the result set to read from
-     * @return generated player auth object with the data from the result set
-     * @throws SQLException .
-     */
-    private PlayerAuth buildAuthFromResultSet(ResultSet row) throws SQLException {
+    @Override
+    protected PlayerAuth buildAuthFromResultSet(ResultSet row) throws SQLException {
         String salt = col.SALT.isEmpty() ? null : row.getString(col.SALT);
         int group = col.GROUP.isEmpty() ? -1 : row.getInt(col.GROUP);
         UUID uuid = col.PLAYER_UUID.isEmpty()
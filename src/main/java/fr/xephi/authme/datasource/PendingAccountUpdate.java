@@ -0,0 +1,135 @@
+package fr.xephi.authme.datasource;
+
+import fr.xephi.authme.data.auth.PlayerAuth;
+
+/**
+ * Immutable set of column changes for one account which have been queued by the write-behind
+ * mode of {@link CacheDataSource}. Only the values which have been set are written to the database;
+ * later changes to the same column overwrite earlier ones.
+ */
+public final class PendingAccountUpdate {
+
+    private final String name;
+    private final Boolean logged;
+    private final Boolean session;
+    private final boolean hasSessionData;
+    private final String lastIp;
+    private final Long lastLogin;
+    private final String realName;
+
+    private PendingAccountUpdate(String name, Boolean logged, Boolean session, boolean hasSessionData,
+                                 String lastIp, Long lastLogin, String realName) {
+        this.name = name;
+        this.logged = logged;
+        this.session = session;
+        this.hasSessionData = hasSessionData;
+        this.lastIp = lastIp;
+        this.lastLogin = lastLogin;
+        this.realName = realName;
+    }
+
+    /**
+     * Creates an update without any changes for the given account.
+     *
+     * @param name the name of the account
+     * @return new update for the account
+     */
+    public static PendingAccountUpdate forName(String name) {
+        return new PendingAccountUpdate(name.toLowerCase(), null, null, false, null, null, null);
+    }
+
+    /**
+     * Returns a copy of this update which sets the logged in flag to the given value.
+     *
+     * @param isLogged the new value of the logged in flag
+     * @return updated copy
+     */
+    public PendingAccountUpdate withLogged(boolean isLogged) {
+        return new PendingAccountUpdate(name, isLogged, session, hasSessionData, lastIp, lastLogin, realName);
+    }
+
+    /**
+     * Returns a copy of this update which sets the session flag to the given value.
+     *
+     * @param hasSession the new value of the session flag
+     * @return updated copy
+     */
+    public PendingAccountUpdate withSession(boolean hasSession) {
+        return new PendingAccountUpdate(name, logged, hasSession, hasSessionData, lastIp, lastLogin, realName);
+    }
+
+    /**
+     * Returns a copy of this update which sets the session data (last IP, last login and real name)
+     * to the values of the given auth, like {@link DataSource#updateSession}.
+     *
+     * @param auth the auth to take the values from
+     * @return updated copy
+     */
+    public PendingAccountUpdate withSessionData(PlayerAuth auth) {
+        return new PendingAccountUpdate(name, logged, session, true,
+            auth.getLastIp(), auth.getLastLogin(), auth.getRealName());
+    }
+
+    /**
+     * Merges the given, more recent update into this one. Values set in the newer update take precedence.
+     *
+     * @param newer the more recent update for the same account
+     * @return merged update
+     */
+    public PendingAccountUpdate mergeWith(PendingAccountUpdate newer) {
+        boolean newerHasSessionData = newer.hasSessionData;
+        return new PendingAccountUpdate(name,
+            newer.logged == null ? logged : newer.logged,
+            newer.session == null ? session : newer.session,
+            hasSessionData || newerHasSessionData,
+            newerHasSessionData ? newer.lastIp : lastIp,
+            newerHasSessionData ? newer.lastLogin : lastLogin,
+            newerHasSessionData ? newer.realName : realName);
+    }
+
+    /**
+     * @return the name of the account (lowercase)
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the new logged in flag, or null if it is not changed
+     */
+    public Boolean getLogged() {
+        return logged;
+    }
+
+    /**
+     * @return the new session flag, or null if it is not changed
+     */
+    public Boolean getSession() {
+        return session;
+    }
+
+    /**
+     * @return true if the last IP, last login and real name should be updated
+     */
+    public boolean hasSessionData() {
+        return hasSessionData;
+    }
+
+    public String getLastIp() {
+        return lastIp;
+    }
+
+    public Long getLastLogin() {
+        return lastLogin;
+    }
+
+    public String getRealName() {
+        return realName;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingAccountUpdate{name='" + name + "', logged=" + logged + ", session=" + session
+            + ", hasSessionData=" + hasSessionData + "}";
+    }
+}
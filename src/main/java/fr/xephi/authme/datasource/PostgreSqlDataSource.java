@@ -6,7 +6,6 @@ import com.zaxxer.hikari.pool.HikariPool.PoolInitializationException;
 import fr.xephi.authme.ConsoleLogger;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.columnshandler.AuthMeColumnsHandler;
-import fr.xephi.authme.datasource.mysqlextensions.MySqlExtension;
 import fr.xephi.authme.datasource.mysqlextensions.MySqlExtensionsFactory;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.settings.Settings;
@@ -21,6 +20,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -40,12 +40,8 @@ public class PostgreSqlDataSource extends AbstractSqlDataSource {
     private String username;
     private String password;
     private String database;
-    private String tableName;
     private int poolSize;
     private int maxLifetime;
-    private List<String> columnOthers;
-    private Columns col;
-    private MySqlExtension sqlExtension;
     private HikariDataSource ds;
 
     public PostgreSqlDataSource(Settings settings, MySqlExtensionsFactory extensionsFactory) throws SQLException {
@@ -148,6 +144,13 @@ public class PostgreSqlDataSource extends AbstractSqlDataSource {
         return ds.getConnection();
     }
 
+    @Override
+    protected <T> T runQuery(SqlQuery<T> query) throws SQLException {
+        try (Connection con = getConnection()) {
+            return query.run(con);
+        }
+    }
+
     /**
      * Creates the table or any of its required columns if they don't exist.
      */
@@ -252,6 +255,8 @@ public class PostgreSqlDataSource extends AbstractSqlDataSource {
                 st.executeUpdate("ALTER TABLE " + tableName
                     + " ADD COLUMN " + col.PLAYER_UUID + " VARCHAR(36)");
             }
+
+            createPurgeIndexes(con, tableName, col);
         }
         logger.info("PostgreSQL setup finished");
     }
@@ -287,18 +292,7 @@ public class PostgreSqlDataSource extends AbstractSqlDataSource {
         super.saveAuth(auth);
 
         try (Connection con = getConnection()) {
-            if (!columnOthers.isEmpty()) {
-                for (String column : columnOthers) {
-                    try (PreparedStatement pst = con.prepareStatement(
-                        "UPDATE " + tableName + " SET " + column + "=? WHERE " + col.NAME + "=?;")) {
-                        pst.setString(1, auth.getRealName());
-                        pst.setString(2, auth.getNickname());
-                        pst.executeUpdate();
-                    }
-                }
-            }
-
-            sqlExtension.saveAuth(auth, con);
+            saveAdditionalData(auth, con);
             return true;
         } catch (SQLException ex) {
             logSqlException(ex);
@@ -307,25 +301,23 @@ public class PostgreSqlDataSource extends AbstractSqlDataSource {
     }
 
     @Override
-    public Set<String> getRecordsToPurge(long until) {
-        Set<String> list = new HashSet<>();
-        String select = "SELECT " + col.NAME + " FROM " + tableName + " WHERE GREATEST("
-            + " COALESCE(" + col.LAST_LOGIN + ", 0),"
-            + " COALESCE(" + col.REGISTRATION_DATE + ", 0)"
-            + ") < ?;";
-        try (Connection con = getConnection();
-             PreparedStatement selectPst = con.prepareStatement(select)) {
-            selectPst.setLong(1, until);
-            try (ResultSet rs = selectPst.executeQuery()) {
-                while (rs.next()) {
-                    list.add(rs.getString(col.NAME));
-                }
-            }
+    public int saveAuths(Collection<PlayerAuth> auths) {
+        try (Connection con = getConnection()) {
+            return insertAuths(con, tableName, col, auths, this::saveAdditionalData);
         } catch (SQLException ex) {
             logSqlException(ex);
         }
+        return 0;
+    }
 
-        return list;
+    @Override
+    public Set<String> getRecordsToPurge(long until) {
+        try (Connection con = getConnection()) {
+            return selectRecordsToPurge(con, tableName, col, until);
+        } catch (SQLException ex) {
+            logSqlException(ex);
+        }
+        return new HashSet<>();
     }
 
     @Override
@@ -351,16 +343,44 @@ public class PostgreSqlDataSource extends AbstractSqlDataSource {
     }
 
     @Override
-    public void purgeRecords(Collection<String> toPurge) {
-        String sql = "DELETE FROM " + tableName + " WHERE " + col.NAME + "=?;";
-        try (Connection con = getConnection(); PreparedStatement pst = con.prepareStatement(sql)) {
-            for (String name : toPurge) {
-                pst.setString(1, name.toLowerCase());
-                pst.executeUpdate();
-            }
+    public int purgeRecords(Collection<String> toPurge) {
+        try (Connection con = getConnection()) {
+            return deleteAuths(con, tableName, col, toPurge);
         } catch (SQLException ex) {
             logSqlException(ex);
         }
+        return 0;
+    }
+
+    @Override
+    public boolean applyPendingUpdates(Collection<PendingAccountUpdate> updates) {
+        try (Connection con = getConnection()) {
+            writePendingUpdates(con, tableName, col, updates);
+            return true;
+        } catch (SQLException e) {
+            logSqlException(e);
+        }
+        return false;
+    }
+
+    @Override
+    public int updateRehashedPasswords(Collection<RehashedPassword> rehashes) {
+        try (Connection con = getConnection()) {
+            return writeRehashedPasswords(con, tableName, col, rehashes);
+        } catch (SQLException e) {
+            logSqlException(e);
+        }
+        return 0;
+    }
+
+    @Override
+    public Set<String> filterRegisteredNames(Collection<String> names) {
+        try (Connection con = getConnection()) {
+            return selectRegisteredNames(con, tableName, col, names);
+        } catch (SQLException e) {
+            logSqlException(e);
+        }
+        return Collections.emptySet();
     }
 
     @Override
@@ -432,16 +452,8 @@ public class PostgreSqlDataSource extends AbstractSqlDataSource {
         return false;
     }
 
-    /**
-     * Creates a {@link PlayerAuth} object with the data from the provided result set.
-     *
-     * @param row the result set to read from
-     *
-     * @return generated player auth object with the data from the result set
-     *
-     * @throws SQLException .
-     */
-    private PlayerAuth buildAuthFromResultSet(ResultSet row) throws SQLException {
+    @Override
+    protected PlayerAuth buildAuthFromResultSet(ResultSet row) throws SQLException {
         String salt = col.SALT.isEmpty() ? null : row.getString(col.SALT);
         int group = col.GROUP.isEmpty() ? -1 : row.getInt(col.GROUP);
         return PlayerAuth.builder()
@@ -0,0 +1,177 @@
+package fr.xephi.authme.datasource;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over the names of all registered players. Used by {@link CacheDataSource} to answer
+ * lookups of names which are definitely not registered without querying the database.
+ * <p>
+ * Names cannot be removed from a Bloom filter: names of deleted accounts remain in the filter and are
+ * looked up in the database like false positives. The filter should be rebuilt once it has too many
+ * such names or more names than it was sized for, see {@link #needsRebuild()}.
+ */
+public class RegisteredNameFilter {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final int expectedNames;
+    private final AtomicInteger names = new AtomicInteger();
+    private final AtomicInteger removedNames = new AtomicInteger();
+    private final LongAdder definiteMisses = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param expectedNames the number of names the filter should be sized for
+     * @param falsePositiveRate the false positive rate the filter should have with the expected number of names
+     */
+    RegisteredNameFilter(int expectedNames, double falsePositiveRate) {
+        this.expectedNames = Math.max(1, expectedNames);
+        long optimalBits = (long) Math.ceil(
+            -this.expectedNames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * Long.SIZE;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / this.expectedNames * Math.log(2)));
+    }
+
+    /**
+     * Adds the names of all accounts of the given data source. Names may be added while the filter is loading.
+     *
+     * @param source the data source to read the names from
+     * @return true if all names were loaded, false otherwise
+     */
+    boolean load(DataSource source) {
+        return source.forEachName((name, realName) -> add(name));
+    }
+
+    /**
+     * Adds a registered player to the filter.
+     *
+     * @param name the name of the player
+     */
+    void add(String name) {
+        ByteBuffer hash = hash(name);
+        long hash1 = hash.getLong(0);
+        long hash2 = hash.getLong(Long.BYTES);
+        boolean hasChangedBits = false;
+        for (int i = 0; i < hashFunctions; ++i) {
+            hasChangedBits |= setBit(index(hash1, hash2, i));
+        }
+        if (hasChangedBits) {
+            names.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records that a registered player has been removed. The name remains in the filter.
+     */
+    void recordRemoval() {
+        removedNames.incrementAndGet();
+    }
+
+    /**
+     * Returns whether the given name might be registered. If false is returned, the name is definitely
+     * not registered (unless it has been registered by another server in the meantime).
+     *
+     * @param name the name to look up
+     * @return true if the name might be registered, false if it is definitely not registered
+     */
+    boolean mightContain(String name) {
+        ByteBuffer hash = hash(name);
+        long hash1 = hash.getLong(0);
+        long hash2 = hash.getLong(Long.BYTES);
+        for (int i = 0; i < hashFunctions; ++i) {
+            long index = index(hash1, hash2, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                definiteMisses.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the filter has more names than it was sized for, or if many names in it have been removed
+     */
+    boolean needsRebuild() {
+        int nameCount = names.get();
+        return nameCount > expectedNames || removedNames.get() > nameCount / 4;
+    }
+
+    /**
+     * @return the approximate number of names in the filter
+     */
+    public int getNameCount() {
+        return names.get();
+    }
+
+    /**
+     * @return the number of names which were removed but are still in the filter
+     */
+    public int getRemovedNameCount() {
+        return removedNames.get();
+    }
+
+    /**
+     * @return memory used by the filter's bits in bytes
+     */
+    public long getMemoryBytes() {
+        return bitCount / Byte.SIZE;
+    }
+
+    /**
+     * @return number of hash functions per name
+     */
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * @return the probability that a name which is not registered is reported as possibly registered,
+     *         given the number of names in the filter
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashFunctions * names.get() / bitCount), hashFunctions);
+    }
+
+    /**
+     * @return total number of lookups which were answered as definitely not registered
+     */
+    public long getDefiniteMissCount() {
+        return definiteMisses.sum();
+    }
+
+    private long index(long hash1, long hash2, int i) {
+        return ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    private static ByteBuffer hash(String name) {
+        return ByteBuffer.wrap(HASH_FUNCTION.hashString(name.toLowerCase(), StandardCharsets.UTF_8).asBytes())
+            .order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
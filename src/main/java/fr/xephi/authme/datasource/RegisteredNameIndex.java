@@ -0,0 +1,124 @@
+package fr.xephi.authme.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory index of the names of all registered players, sorted by lowercase name. Used by
+ * {@link CacheDataSource} to list names and to look them up by prefix without querying the database.
+ */
+class RegisteredNameIndex {
+
+    /** Real names by lowercase name. */
+    private final ConcurrentSkipListMap<String, String> realNamesByName = new ConcurrentSkipListMap<>();
+    /** Names removed while the index is being loaded, so that the load doesn't add them back. */
+    private final Set<String> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    /** Guards the start and the end of a load against concurrent additions and removals. */
+    private final Object lock = new Object();
+    private volatile boolean isLoading;
+    private volatile boolean isLoaded;
+
+    /**
+     * Loads the names of all accounts of the given data source. Names may be added and removed while
+     * the index is loading.
+     *
+     * @param source the data source to read the names from
+     * @return true if all names were loaded, false otherwise
+     */
+    boolean load(DataSource source) {
+        synchronized (lock) {
+            isLoaded = false;
+            realNamesByName.clear();
+            removedWhileLoading.clear();
+            isLoading = true;
+        }
+        boolean isSuccessful = false;
+        try {
+            isSuccessful = source.forEachName(realNamesByName::put);
+        } finally {
+            synchronized (lock) {
+                isLoading = false;
+                removedWhileLoading.forEach(realNamesByName::remove);
+                removedWhileLoading.clear();
+                isLoaded = isSuccessful;
+            }
+        }
+        return isSuccessful;
+    }
+
+    /**
+     * @return true if the index has been loaded and can be used instead of the data source
+     */
+    boolean isLoaded() {
+        return isLoaded;
+    }
+
+    /**
+     * Adds a registered player to the index.
+     *
+     * @param name the name of the player
+     * @param realName the real name of the player
+     */
+    void add(String name, String realName) {
+        String lowercaseName = name.toLowerCase();
+        synchronized (lock) {
+            removedWhileLoading.remove(lowercaseName);
+            realNamesByName.put(lowercaseName, realName == null ? name : realName);
+        }
+    }
+
+    /**
+     * Removes a player from the index.
+     *
+     * @param name the name of the player
+     */
+    void remove(String name) {
+        String lowercaseName = name.toLowerCase();
+        synchronized (lock) {
+            if (isLoading) {
+                removedWhileLoading.add(lowercaseName);
+            }
+            realNamesByName.remove(lowercaseName);
+        }
+    }
+
+    /**
+     * Passes the name and the real name of all players in the index to the given action, sorted by name.
+     *
+     * @param action the action to perform with the lowercase name and the real name of each player
+     */
+    void forEach(BiConsumer<String, String> action) {
+        realNamesByName.forEach(action);
+    }
+
+    /**
+     * Returns the real names of the players whose name starts with the given prefix, ignoring case.
+     *
+     * @param prefix the prefix to look for
+     * @param limit the maximum number of names to return
+     * @return the real names, sorted by name
+     */
+    List<String> getRealNamesStartingWith(String prefix, int limit) {
+        String lowercasePrefix = prefix.toLowerCase();
+        List<String> realNames = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        for (String realName : realNamesByName
+            .subMap(lowercasePrefix, true, lowercasePrefix + Character.MAX_VALUE, false).values()) {
+            if (realNames.size() >= limit) {
+                break;
+            }
+            realNames.add(realName);
+        }
+        return realNames;
+    }
+
+    /**
+     * @return the number of names in the index
+     */
+    int size() {
+        return realNamesByName.size();
+    }
+}
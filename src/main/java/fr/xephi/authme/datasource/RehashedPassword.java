@@ -0,0 +1,43 @@
+package fr.xephi.authme.datasource;
+
+import fr.xephi.authme.security.crypts.HashedPassword;
+
+/**
+ * New hash of an account's password which replaces a hash with outdated parameters or algorithm.
+ * The new hash may only be saved if the account still has the old hash, i.e. if the password
+ * has not been changed in the meantime.
+ */
+public final class RehashedPassword {
+
+    private final String name;
+    private final HashedPassword oldPassword;
+    private final HashedPassword newPassword;
+
+    /**
+     * Constructor.
+     *
+     * @param name the name of the account
+     * @param oldPassword the hash the account is expected to have
+     * @param newPassword the new hash to save
+     */
+    public RehashedPassword(String name, HashedPassword oldPassword, HashedPassword newPassword) {
+        this.name = name.toLowerCase();
+        this.oldPassword = oldPassword;
+        this.newPassword = newPassword;
+    }
+
+    /**
+     * @return the name of the account (lowercase)
+     */
+    public String getName() {
+        return name;
+    }
+
+    public HashedPassword getOldPassword() {
+        return oldPassword;
+    }
+
+    public HashedPassword getNewPassword() {
+        return newPassword;
+    }
+}
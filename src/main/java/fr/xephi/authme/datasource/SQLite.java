@@ -5,6 +5,7 @@ import fr.xephi.authme.ConsoleLogger;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.columnshandler.AuthMeColumnsHandler;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.security.crypts.HashedPassword;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.DatabaseSettings;
 
@@ -18,9 +19,11 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static fr.xephi.authme.datasource.SqlDataSourceUtils.getNullableLong;
 import static fr.xephi.authme.datasource.SqlDataSourceUtils.logSqlException;
@@ -35,9 +38,13 @@ public class SQLite extends AbstractSqlDataSource {
     private final Settings settings;
     private final File dataFolder;
     private final String database;
-    private final String tableName;
-    private final Columns col;
     private Connection con;
+    private volatile SqLiteReadPool readPool;
+    /**
+     * Serializes all writes on the main connection: batches toggle auto-commit on it, so any other
+     * statement running at the same time would be committed or rolled back together with the batch.
+     */
+    private final Object writeLock = new Object();
 
     /**
      * Constructor for SQLite.
@@ -88,8 +95,23 @@ public class SQLite extends AbstractSqlDataSource {
         }
 
         logger.debug("SQLite driver loaded");
-        this.con = DriverManager.getConnection("jdbc:sqlite:plugins/AuthMe/" + database + ".db");
+        String url = "jdbc:sqlite:plugins/AuthMe/" + database + ".db";
+        this.con = DriverManager.getConnection(url);
         this.columnsHandler = AuthMeColumnsHandler.createForSqlite(con, settings);
+
+        // Swap the read pool before closing the old one: queries which still use the old pool
+        // are finished by its close(), and queries started afterwards go to the new pool
+        SqLiteReadPool oldPool = readPool;
+        if (settings.getProperty(DatabaseSettings.SQLITE_WAL_MODE)) {
+            SqLiteReadPool.configureConnection(con, false);
+            this.readPool = new SqLiteReadPool(url, settings.getProperty(DatabaseSettings.SQLITE_READ_CONNECTIONS));
+            logger.info("Using SQLite in WAL mode with " + readPool.getSize() + " read connections");
+        } else {
+            this.readPool = null;
+        }
+        if (oldPool != null) {
+            oldPool.close();
+        }
     }
 
     /**
@@ -195,7 +217,8 @@ public class SQLite extends AbstractSqlDataSource {
     }
 
     /**
-     * Migrates the database if necessary. See {@link SqLiteMigrater} for details.
+     * Migrates the database if necessary and creates the indexes for case-insensitive name lookups and purging.
+     * See {@link SqLiteMigrater} for details.
      */
     @VisibleForTesting
     void migrateIfNeeded() throws SQLException {
@@ -206,6 +229,8 @@ public class SQLite extends AbstractSqlDataSource {
             // to get an up-to-date Connection to the database
             connect();
         }
+        SqLiteMigrater.createCaseInsensitiveNameIndex(con, tableName, col);
+        createPurgeIndexes(con, tableName, col);
     }
 
     private boolean isColumnMissing(DatabaseMetaData metaData, String columnName) throws SQLException {
@@ -216,26 +241,58 @@ public class SQLite extends AbstractSqlDataSource {
 
     @Override
     public void reload() {
-        close(con);
+        synchronized (writeLock) {
+            close(con);
+            try {
+                this.connect();
+                this.setup();
+                this.migrateIfNeeded();
+            } catch (SQLException ex) {
+                logger.logException("Error while reloading SQLite:", ex);
+            }
+        }
+    }
+
+    @Override
+    public boolean isAuthAvailable(String user) {
+        if (readPool == null) {
+            return super.isAuthAvailable(user);
+        }
+        String sql = "SELECT 1 FROM " + tableName + " WHERE " + col.NAME + "=?;";
         try {
-            this.connect();
-            this.setup();
-            this.migrateIfNeeded();
+            return read(connection -> {
+                try (PreparedStatement pst = connection.prepareStatement(sql)) {
+                    pst.setString(1, user.toLowerCase());
+                    try (ResultSet rs = pst.executeQuery()) {
+                        return rs.next();
+                    }
+                }
+            });
         } catch (SQLException ex) {
-            logger.logException("Error while reloading SQLite:", ex);
+            logSqlException(ex);
         }
+        return false;
     }
 
     @Override
-    public PlayerAuth getAuth(String user) {
-        String sql = "SELECT * FROM " + tableName + " WHERE LOWER(" + col.NAME + ")=LOWER(?);";
-        try (PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setString(1, user);
-            try (ResultSet rs = pst.executeQuery()) {
-                if (rs.next()) {
-                    return buildAuthFromResultSet(rs);
+    public HashedPassword getPassword(String user) {
+        if (readPool == null) {
+            return super.getPassword(user);
+        }
+        String sql = "SELECT * FROM " + tableName + " WHERE " + col.NAME + "=?;";
+        try {
+            return read(connection -> {
+                try (PreparedStatement pst = connection.prepareStatement(sql)) {
+                    pst.setString(1, user.toLowerCase());
+                    try (ResultSet rs = pst.executeQuery()) {
+                        if (rs.next()) {
+                            String salt = !col.SALT.isEmpty() ? rs.getString(col.SALT) : null;
+                            return new HashedPassword(rs.getString(col.PASSWORD), salt);
+                        }
+                        return null;
+                    }
                 }
-            }
+            });
         } catch (SQLException ex) {
             logSqlException(ex);
         }
@@ -243,54 +300,147 @@ public class SQLite extends AbstractSqlDataSource {
     }
 
     @Override
-    public Set<String> getRecordsToPurge(long until) {
-        Set<String> list = new HashSet<>();
-        String select = "SELECT " + col.NAME + " FROM " + tableName + " WHERE MAX("
-            + " COALESCE(" + col.LAST_LOGIN + ", 0),"
-            + " COALESCE(" + col.REGISTRATION_DATE + ", 0)"
-            + ") < ?;";
-        try (PreparedStatement selectPst = con.prepareStatement(select)) {
-            selectPst.setLong(1, until);
-            try (ResultSet rs = selectPst.executeQuery()) {
-                while (rs.next()) {
-                    list.add(rs.getString(col.NAME));
+    public PlayerAuth getAuth(String user) {
+        String sql = "SELECT * FROM " + tableName + " WHERE " + col.NAME + "=? COLLATE NOCASE;";
+        try {
+            return read(connection -> {
+                try (PreparedStatement pst = connection.prepareStatement(sql)) {
+                    pst.setString(1, user);
+                    try (ResultSet rs = pst.executeQuery()) {
+                        return rs.next() ? buildAuthFromResultSet(rs) : null;
+                    }
                 }
-            }
+            });
         } catch (SQLException ex) {
             logSqlException(ex);
         }
-
-        return list;
+        return null;
     }
 
     @Override
-    public void purgeRecords(Collection<String> toPurge) {
-        String delete = "DELETE FROM " + tableName + " WHERE " + col.NAME + "=?;";
-        try (PreparedStatement deletePst = con.prepareStatement(delete)) {
-            for (String name : toPurge) {
-                deletePst.setString(1, name.toLowerCase());
-                deletePst.executeUpdate();
-            }
+    public Set<String> getRecordsToPurge(long until) {
+        try {
+            return read(connection -> selectRecordsToPurge(connection, tableName, col, until));
         } catch (SQLException ex) {
             logSqlException(ex);
         }
+        return new HashSet<>();
+    }
+
+    @Override
+    public int purgeRecords(Collection<String> toPurge) {
+        synchronized (writeLock) {
+            try {
+                return deleteAuths(con, tableName, col, toPurge);
+            } catch (SQLException ex) {
+                logSqlException(ex);
+            }
+            return 0;
+        }
     }
 
     @Override
     public boolean removeAuth(String user) {
         String sql = "DELETE FROM " + tableName + " WHERE " + col.NAME + "=?;";
-        try (PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setString(1, user.toLowerCase());
-            pst.executeUpdate();
-            return true;
-        } catch (SQLException ex) {
-            logSqlException(ex);
+        synchronized (writeLock) {
+            try (PreparedStatement pst = con.prepareStatement(sql)) {
+                pst.setString(1, user.toLowerCase());
+                pst.executeUpdate();
+                return true;
+            } catch (SQLException ex) {
+                logSqlException(ex);
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public boolean saveAuth(PlayerAuth auth) {
+        synchronized (writeLock) {
+            return super.saveAuth(auth);
+        }
+    }
+
+    @Override
+    public boolean updateSession(PlayerAuth auth) {
+        synchronized (writeLock) {
+            return super.updateSession(auth);
+        }
+    }
+
+    @Override
+    public boolean updatePassword(String user, HashedPassword password) {
+        synchronized (writeLock) {
+            return super.updatePassword(user, password);
+        }
+    }
+
+    @Override
+    public boolean updateQuitLoc(PlayerAuth auth) {
+        synchronized (writeLock) {
+            return super.updateQuitLoc(auth);
+        }
+    }
+
+    @Override
+    public boolean updateEmail(PlayerAuth auth) {
+        synchronized (writeLock) {
+            return super.updateEmail(auth);
+        }
+    }
+
+    @Override
+    public void setLogged(String user) {
+        synchronized (writeLock) {
+            super.setLogged(user);
+        }
+    }
+
+    @Override
+    public void setUnlogged(String user) {
+        synchronized (writeLock) {
+            super.setUnlogged(user);
+        }
+    }
+
+    @Override
+    public void grantSession(String user) {
+        synchronized (writeLock) {
+            super.grantSession(user);
+        }
+    }
+
+    @Override
+    public void revokeSession(String user) {
+        synchronized (writeLock) {
+            super.revokeSession(user);
+        }
+    }
+
+    @Override
+    public void purgeLogged() {
+        synchronized (writeLock) {
+            super.purgeLogged();
+        }
+    }
+
+    @Override
+    public boolean updateRealName(String user, String realName) {
+        synchronized (writeLock) {
+            return super.updateRealName(user, realName);
+        }
+    }
+
+    @Override
+    public boolean persistChanges(PlayerAuth auth) {
+        synchronized (writeLock) {
+            return super.persistChanges(auth);
         }
-        return false;
     }
 
     @Override
     public void closeConnection() {
+        closeReadPool();
         try {
             if (con != null && !con.isClosed()) {
                 con.close();
@@ -300,6 +450,53 @@ public class SQLite extends AbstractSqlDataSource {
         }
     }
 
+    @Override
+    public boolean applyPendingUpdates(Collection<PendingAccountUpdate> updates) {
+        synchronized (writeLock) {
+            try {
+                writePendingUpdates(con, tableName, col, updates);
+                return true;
+            } catch (SQLException e) {
+                logSqlException(e);
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public int updateRehashedPasswords(Collection<RehashedPassword> rehashes) {
+        synchronized (writeLock) {
+            try {
+                return writeRehashedPasswords(con, tableName, col, rehashes);
+            } catch (SQLException e) {
+                logSqlException(e);
+            }
+            return 0;
+        }
+    }
+
+    @Override
+    public int saveAuths(Collection<PlayerAuth> auths) {
+        synchronized (writeLock) {
+            try {
+                return insertAuths(con, tableName, col, auths, (auth, connection) -> { });
+            } catch (SQLException e) {
+                logSqlException(e);
+            }
+            return 0;
+        }
+    }
+
+    @Override
+    public Set<String> filterRegisteredNames(Collection<String> names) {
+        try {
+            return read(connection -> selectRegisteredNames(connection, tableName, col, names));
+        } catch (SQLException e) {
+            logSqlException(e);
+        }
+        return Collections.emptySet();
+    }
+
     @Override
     public DataSourceType getType() {
         return DataSourceType.SQLITE;
@@ -309,26 +506,42 @@ public class SQLite extends AbstractSqlDataSource {
     public List<PlayerAuth> getAllAuths() {
         List<PlayerAuth> auths = new ArrayList<>();
         String sql = "SELECT * FROM " + tableName + ";";
-        try (PreparedStatement pst = con.prepareStatement(sql); ResultSet rs = pst.executeQuery()) {
-            while (rs.next()) {
-                PlayerAuth auth = buildAuthFromResultSet(rs);
-                auths.add(auth);
-            }
+        try {
+            read(connection -> {
+                try (PreparedStatement pst = connection.prepareStatement(sql); ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) {
+                        PlayerAuth auth = buildAuthFromResultSet(rs);
+                        auths.add(auth);
+                    }
+                }
+                return auths;
+            });
         } catch (SQLException ex) {
             logSqlException(ex);
         }
         return auths;
     }
 
+    @Override
+    public boolean forEachAuth(Consumer<PlayerAuth> action) {
+        // No website extension to load the data of
+        return forEachRow("*", (rs, connection) -> buildAuthFromResultSet(rs), action);
+    }
+
     @Override
     public List<String> getLoggedPlayersWithEmptyMail() {
         List<String> players = new ArrayList<>();
         String sql = "SELECT " + col.REAL_NAME + " FROM " + tableName + " WHERE " + col.IS_LOGGED + " = 1"
             + " AND (" + col.EMAIL + " = 'your@email.com' OR " + col.EMAIL + " IS NULL);";
-        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
-            while (rs.next()) {
-                players.add(rs.getString(1));
-            }
+        try {
+            read(connection -> {
+                try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+                    while (rs.next()) {
+                        players.add(rs.getString(1));
+                    }
+                }
+                return players;
+            });
         } catch (SQLException ex) {
             logSqlException(ex);
         }
@@ -339,10 +552,15 @@ public class SQLite extends AbstractSqlDataSource {
     public List<PlayerAuth> getRecentlyLoggedInPlayers() {
         List<PlayerAuth> players = new ArrayList<>();
         String sql = "SELECT * FROM " + tableName + " ORDER BY " + col.LAST_LOGIN + " DESC LIMIT 10;";
-        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
-            while (rs.next()) {
-                players.add(buildAuthFromResultSet(rs));
-            }
+        try {
+            read(connection -> {
+                try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+                    while (rs.next()) {
+                        players.add(buildAuthFromResultSet(rs));
+                    }
+                }
+                return players;
+            });
         } catch (SQLException e) {
             logSqlException(e);
         }
@@ -353,18 +571,64 @@ public class SQLite extends AbstractSqlDataSource {
     @Override
     public boolean setTotpKey(String user, String totpKey) {
         String sql = "UPDATE " + tableName + " SET " + col.TOTP_KEY + " = ? WHERE " + col.NAME + " = ?";
-        try (PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setString(1, totpKey);
-            pst.setString(2, user.toLowerCase());
-            pst.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            logSqlException(e);
+        synchronized (writeLock) {
+            try (PreparedStatement pst = con.prepareStatement(sql)) {
+                pst.setString(1, totpKey);
+                pst.setString(2, user.toLowerCase());
+                pst.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                logSqlException(e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Runs the given query on a read connection if WAL mode is enabled, or on the main connection otherwise.
+     *
+     * @param query the query to run
+     * @param <T> the result type
+     * @return the query result
+     * @throws SQLException if the query fails
+     */
+    private <T> T read(SqlQuery<T> query) throws SQLException {
+        while (true) {
+            SqLiteReadPool pool = readPool;
+            if (pool == null) {
+                synchronized (writeLock) {
+                    return query.run(con);
+                }
+            }
+            try {
+                return pool.read(query);
+            } catch (SqLiteReadPool.PoolClosedException e) {
+                // The pool was replaced by a reload in the meantime: run the query on the current one
+            }
         }
-        return false;
     }
 
-    private PlayerAuth buildAuthFromResultSet(ResultSet row) throws SQLException {
+    @Override
+    protected <T> T runQuery(SqlQuery<T> query) throws SQLException {
+        return read(query);
+    }
+
+    // The id column is not filled for rows inserted without it, so the rows are paged by their rowid instead
+    @Override
+    protected String getPagingColumn() {
+        return "rowid";
+    }
+
+    private void closeReadPool() {
+        SqLiteReadPool pool = readPool;
+        readPool = null;
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Override
+    protected PlayerAuth buildAuthFromResultSet(ResultSet row) throws SQLException {
         String salt = !col.SALT.isEmpty() ? row.getString(col.SALT) : null;
 
         return PlayerAuth.builder()
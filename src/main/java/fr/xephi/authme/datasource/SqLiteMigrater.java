@@ -49,6 +49,34 @@ class SqLiteMigrater {
             && SqlDataSourceUtils.getColumnDefaultValue(metaData, tableName, col.LAST_IP) == null;
     }
 
+    /**
+     * Creates an index on the name column with case-insensitive collation if it doesn't exist yet.
+     * Lookups by name with {@code COLLATE NOCASE} can use this index, whereas a lookup with
+     * {@code LOWER(name)=LOWER(?)} always has to scan the entire table.
+     *
+     * @param connection the connection to the SQLite database
+     * @param tableName the table name
+     * @param col column names configuration
+     */
+    static void createCaseInsensitiveNameIndex(Connection connection, String tableName,
+                                               Columns col) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE INDEX IF NOT EXISTS " + getCaseInsensitiveNameIndex(tableName, col)
+                + " ON " + tableName + " (" + col.NAME + " COLLATE NOCASE);");
+        }
+    }
+
+    /**
+     * Returns the name of the index created by {@link #createCaseInsensitiveNameIndex}.
+     *
+     * @param tableName the table name
+     * @param col column names configuration
+     * @return the index name
+     */
+    static String getCaseInsensitiveNameIndex(String tableName, Columns col) {
+        return tableName + "_" + col.NAME + "_nocase";
+    }
+
     /**
      * Migrates the given SQLite instance.
      *
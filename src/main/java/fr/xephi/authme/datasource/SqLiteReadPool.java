@@ -0,0 +1,157 @@
+package fr.xephi.authme.datasource;
+
+import fr.xephi.authme.datasource.AbstractSqlDataSource.SqlQuery;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Pool of read-only connections to an SQLite database in WAL mode. With write-ahead logging,
+ * readers don't block each other or the writer, so queries can run in parallel on these connections
+ * while all writes go through a single other connection.
+ */
+class SqLiteReadPool {
+
+    /** Maximum size in bytes of the database file to map into memory. */
+    private static final long MMAP_SIZE = 256L * 1024 * 1024;
+    /** Page cache size per connection in KiB (negative values are KiB for SQLite). */
+    private static final int CACHE_SIZE_KIB = 16 * 1024;
+    /** Milliseconds to wait for a lock, e.g. while the WAL file is checkpointed. */
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    private final List<Connection> connections;
+    private final BlockingQueue<Connection> availableConnections;
+    /** Held shared by running queries and exclusively while closing, so no connection is closed while in use. */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean isClosed;
+
+    /**
+     * Constructor. Opens the given number of read-only connections.
+     *
+     * @param url the JDBC URL of the database
+     * @param size the number of connections to open
+     * @throws SQLException if a connection could not be opened
+     */
+    SqLiteReadPool(String url, int size) throws SQLException {
+        int poolSize = Math.max(1, size);
+        connections = new ArrayList<>(poolSize);
+        availableConnections = new ArrayBlockingQueue<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; ++i) {
+                Connection connection = DriverManager.getConnection(url);
+                connections.add(connection);
+                configureConnection(connection, true);
+                availableConnections.add(connection);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Enables WAL mode and sets the pragmas for a connection to a database in WAL mode.
+     *
+     * @param connection the connection to configure
+     * @param isReader true if the connection may only be used for reading
+     * @throws SQLException if a pragma could not be set
+     */
+    static void configureConnection(Connection connection, boolean isReader) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            if (!isReader) {
+                st.execute("PRAGMA journal_mode = WAL;");
+            }
+            // NORMAL is safe with WAL: a power loss may only roll back the latest transactions
+            st.execute("PRAGMA synchronous = NORMAL;");
+            st.execute("PRAGMA mmap_size = " + MMAP_SIZE + ";");
+            st.execute("PRAGMA cache_size = -" + CACHE_SIZE_KIB + ";");
+            st.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS + ";");
+            if (isReader) {
+                st.execute("PRAGMA query_only = true;");
+            }
+        }
+    }
+
+    /**
+     * Runs the given query on a connection of the pool, waiting for a connection to become available.
+     *
+     * @param query the query to run
+     * @param <T> the result type
+     * @return the result of the query
+     * @throws PoolClosedException if the pool has been closed
+     * @throws SQLException if the query fails or the thread is interrupted while waiting
+     */
+    <T> T read(SqlQuery<T> query) throws SQLException {
+        Lock lock = closeLock.readLock();
+        lock.lock();
+        try {
+            if (isClosed) {
+                throw new PoolClosedException();
+            }
+            Connection connection;
+            try {
+                connection = availableConnections.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a read connection", e);
+            }
+            try {
+                return query.run(connection);
+            } finally {
+                availableConnections.add(connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of connections of the pool
+     */
+    int getSize() {
+        return connections.size();
+    }
+
+    /**
+     * Closes all connections of the pool once the running queries have finished. Queries started
+     * afterwards fail with a {@link PoolClosedException}.
+     */
+    void close() {
+        Lock lock = closeLock.writeLock();
+        lock.lock();
+        try {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    SqlDataSourceUtils.logSqlException(e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Thrown when a query is run on a pool which has been closed, e.g. because it was replaced on reload.
+     */
+    static final class PoolClosedException extends SQLException {
+
+        PoolClosedException() {
+            super("The read pool has been closed");
+        }
+    }
+}
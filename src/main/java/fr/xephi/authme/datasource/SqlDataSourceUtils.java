@@ -106,4 +106,25 @@ public final class SqlDataSourceUtils {
             return rs.getInt("COLUMN_SIZE");
         }
     }
+
+    /**
+     * Returns whether the given table has no index with the given name.
+     *
+     * @param metaData the database meta data
+     * @param tableName the name of the table
+     * @param indexName the name of the index to look for
+     * @return true if the index does not exist, false otherwise
+     * @throws SQLException :)
+     */
+    public static boolean isIndexMissing(DatabaseMetaData metaData, String tableName,
+                                         String indexName) throws SQLException {
+        try (ResultSet rs = metaData.getIndexInfo(null, null, tableName, false, true)) {
+            while (rs.next()) {
+                if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
 }
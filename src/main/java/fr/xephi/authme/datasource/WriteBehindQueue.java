@@ -0,0 +1,298 @@
+package fr.xephi.authme.datasource;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Write-behind queue of {@link CacheDataSource}: account updates are coalesced per player and
+ * written to the underlying data source in batches, either periodically or once the queue has
+ * reached its maximum size.
+ */
+public class WriteBehindQueue {
+
+    /** Number of failed flushes after which an account's update is dropped. */
+    @VisibleForTesting
+    static final int MAX_WRITE_ATTEMPTS = 10;
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(WriteBehindQueue.class);
+
+    private final DataSource target;
+    private final int maxQueueSize;
+    private final ScheduledExecutorService executor;
+    private final Map<String, PendingAccountUpdate> pendingUpdates = new ConcurrentHashMap<>();
+    private volatile Map<String, PendingAccountUpdate> inFlightUpdates = Collections.emptyMap();
+    private final Map<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean isFlushRequested = new AtomicBoolean();
+    private volatile boolean isClosed;
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedUpdates = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param target the data source to write the updates to
+     * @param maxQueueSize number of queued accounts after which a flush is triggered
+     * @param executor the executor to run flushes on
+     */
+    @VisibleForTesting
+    WriteBehindQueue(DataSource target, int maxQueueSize, ScheduledExecutorService executor) {
+        this.target = target;
+        this.maxQueueSize = Math.max(1, maxQueueSize);
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a queue which flushes its updates periodically on its own thread.
+     *
+     * @param target the data source to write the updates to
+     * @param flushIntervalMillis interval in milliseconds between flushes
+     * @param maxQueueSize number of queued accounts after which a flush is triggered
+     * @return the created queue
+     */
+    public static WriteBehindQueue create(DataSource target, int flushIntervalMillis, int maxQueueSize) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("AuthMe-WriteBehind")
+            .build());
+        WriteBehindQueue queue = new WriteBehindQueue(target, maxQueueSize, executor);
+        long interval = Math.max(10, flushIntervalMillis);
+        executor.scheduleWithFixedDelay(queue::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+        return queue;
+    }
+
+    /**
+     * Queues a change for the given account, merging it with any pending changes of the same account.
+     * Once the queue has been closed, the change is written right away.
+     *
+     * @param name the name of the account
+     * @param change function applying the change to the pending update of the account
+     */
+    public void enqueue(String name, UnaryOperator<PendingAccountUpdate> change) {
+        pendingUpdates.compute(name.toLowerCase(),
+            (key, update) -> change.apply(update == null ? PendingAccountUpdate.forName(key) : update));
+        if (isClosed) {
+            // There are no more periodic flushes after close()
+            flushSafely();
+        } else if (pendingUpdates.size() >= maxQueueSize && isFlushRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    isFlushRequested.set(false);
+                    flushSafely();
+                });
+            } catch (RejectedExecutionException e) {
+                // The queue is being closed concurrently
+                isFlushRequested.set(false);
+                flushSafely();
+            }
+        }
+    }
+
+    /**
+     * Returns the changes for the given account which have not yet been written to the data source.
+     *
+     * @param name the name of the account
+     * @return the pending changes, or null if there are none
+     */
+    public PendingAccountUpdate getPendingUpdate(String name) {
+        String key = name.toLowerCase();
+        PendingAccountUpdate pending = pendingUpdates.get(key);
+        PendingAccountUpdate inFlight = inFlightUpdates.get(key);
+        if (inFlight == null) {
+            return pending;
+        }
+        return pending == null ? inFlight : inFlight.mergeWith(pending);
+    }
+
+    /**
+     * Discards any queued changes of the given account, e.g. because it has been deleted.
+     *
+     * @param name the name of the account
+     */
+    public void discard(String name) {
+        pendingUpdates.remove(name.toLowerCase());
+        failedAttempts.remove(name.toLowerCase());
+    }
+
+    /**
+     * Writes all queued changes to the data source. If a chunk of updates cannot be written, its updates
+     * are retried one by one so that one faulty account does not hold back the others. Failed updates are
+     * queued again (merged with any newer changes) and dropped after {@link #MAX_WRITE_ATTEMPTS} flushes.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (pendingUpdates.isEmpty()) {
+                return;
+            }
+            // Publish the batch before draining: an update is added to it before it leaves the pending map,
+            // so getPendingUpdate always finds it in one of the two
+            Map<String, PendingAccountUpdate> batch = new ConcurrentHashMap<>();
+            inFlightUpdates = batch;
+            for (String name : pendingUpdates.keySet()) {
+                pendingUpdates.computeIfPresent(name, (key, update) -> {
+                    batch.put(key, update);
+                    return null;
+                });
+            }
+
+            Set<String> handledNames = new HashSet<>();
+            List<PendingAccountUpdate> failedUpdates = new ArrayList<>();
+            long start = System.nanoTime();
+            try {
+                List<PendingAccountUpdate> updates = new ArrayList<>(batch.values());
+                for (List<PendingAccountUpdate> chunk : Lists.partition(updates, maxQueueSize)) {
+                    if (chunk.size() > 1 && apply(chunk)) {
+                        chunk.forEach(update -> failedAttempts.remove(update.getName()));
+                    } else {
+                        for (PendingAccountUpdate update : chunk) {
+                            if (apply(Collections.singletonList(update))) {
+                                failedAttempts.remove(update.getName());
+                            } else {
+                                failedUpdates.add(update);
+                            }
+                        }
+                    }
+                    chunk.forEach(update -> handledNames.add(update.getName()));
+                }
+            } finally {
+                // Updates which could not be attempted because of an unexpected error count as failed as well
+                for (PendingAccountUpdate update : batch.values()) {
+                    if (!handledNames.contains(update.getName())) {
+                        failedUpdates.add(update);
+                    }
+                }
+                recordFlush(System.nanoTime() - start, batch.size() - failedUpdates.size());
+                requeueFailedUpdates(failedUpdates);
+                inFlightUpdates = Collections.emptyMap();
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic flushing and writes all remaining changes to the data source. Changes
+     * queued afterwards are written immediately.
+     */
+    public void close() {
+        isClosed = true;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            logger.logException("Could not stop write-behind executor:", e);
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pendingUpdates.isEmpty()) {
+            logger.warning("Discarding " + pendingUpdates.size() + " account updates which could not be written");
+            pendingUpdates.clear();
+        }
+    }
+
+    /**
+     * @return number of accounts with changes which have not been written yet
+     */
+    public int getPendingCount() {
+        return pendingUpdates.size();
+    }
+
+    /**
+     * @return number of flushes that have been performed
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * @return total number of account updates which have been written
+     */
+    public long getFlushedUpdateCount() {
+        return flushedUpdates.get();
+    }
+
+    /**
+     * @return duration of the last flush in milliseconds
+     */
+    public double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return maximum duration of a flush in milliseconds
+     */
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * @return average duration of a flush in milliseconds
+     */
+    public double getAverageFlushMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / flushes;
+    }
+
+    private boolean apply(List<PendingAccountUpdate> updates) {
+        try {
+            return target.applyPendingUpdates(updates);
+        } catch (RuntimeException e) {
+            logger.logException("Error while writing " + updates.size() + " queued account updates:", e);
+            return false;
+        }
+    }
+
+    private void requeueFailedUpdates(List<PendingAccountUpdate> failedUpdates) {
+        int droppedUpdates = 0;
+        for (PendingAccountUpdate update : failedUpdates) {
+            if (failedAttempts.merge(update.getName(), 1, Integer::sum) >= MAX_WRITE_ATTEMPTS) {
+                failedAttempts.remove(update.getName());
+                logger.warning("Dropping queued update of '" + update.getName() + "' after "
+                    + MAX_WRITE_ATTEMPTS + " failed attempts: " + update);
+                ++droppedUpdates;
+            } else {
+                pendingUpdates.merge(update.getName(), update, (newer, failed) -> failed.mergeWith(newer));
+            }
+        }
+        if (failedUpdates.size() > droppedUpdates) {
+            logger.warning("Could not write " + (failedUpdates.size() - droppedUpdates)
+                + " queued account updates, will retry");
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.logException("Error while writing queued account updates:", e);
+        }
+    }
+
+    private void recordFlush(long durationNanos, int successfulUpdates) {
+        flushCount.incrementAndGet();
+        flushedUpdates.addAndGet(successfulUpdates);
+        totalFlushNanos.addAndGet(durationNanos);
+        maxFlushNanos.accumulateAndGet(durationNanos, Math::max);
+        lastFlushNanos = durationNanos;
+    }
+}
@@ -30,6 +30,9 @@ public final class AuthMeColumns {
     public static final PlayerAuthColumn<String> SALT = createString(
         DatabaseSettings.MYSQL_COL_SALT, auth -> auth.getPassword().getSalt(), OPTIONAL);
 
+    public static final PlayerAuthColumn<String> TOTP_KEY = createString(
+        DatabaseSettings.MYSQL_COL_TOTP_KEY, PlayerAuth::getTotpKey);
+
     public static final PlayerAuthColumn<String> EMAIL = createString(
         DatabaseSettings.MYSQL_COL_EMAIL, PlayerAuth::getEmail, DEFAULT_FOR_NULL);
 
@@ -1,14 +1,13 @@
 package fr.xephi.authme.datasource.converter;
 
 import fr.xephi.authme.ConsoleLogger;
-import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.datasource.DataSourceType;
+import fr.xephi.authme.datasource.converter.AuthImporter.ImportResult;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import org.bukkit.command.CommandSender;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.File;
 
 import static fr.xephi.authme.util.Utils.logAndSendMessage;
 
@@ -58,23 +57,22 @@ public abstract class AbstractDataSourceConverter<S extends DataSource> implemen
             return;
         }
 
-        List<String> skippedPlayers = new ArrayList<>();
-        for (PlayerAuth auth : source.getAllAuths()) {
-            if (destination.isAuthAvailable(auth.getNickname())) {
-                skippedPlayers.add(auth.getNickname());
-            } else {
-                destination.saveAuth(auth);
-                destination.updateSession(auth);
-                destination.updateQuitLoc(auth);
-            }
+        AuthImporter importer = new AuthImporter(destination, getCheckpointFile());
+        ImportResult result = importer.importAuths(sender, source::forEachAuth);
+        if (result.isComplete()) {
+            logAndSendMessage(sender, "Database successfully converted from " + source.getType()
+                + " to " + destinationType);
         }
+    }
 
-        if (!skippedPlayers.isEmpty()) {
-            logAndSendMessage(sender, "Skipped conversion for players which were already in "
-                + destinationType + ": " + String.join(", ", skippedPlayers));
-        }
-        logAndSendMessage(sender, "Database successfully converted from " + source.getType()
-            + " to " + destinationType);
+    /**
+     * Returns the file to save the progress of the conversion to, so that an interrupted conversion
+     * can be resumed. The source must return its accounts in the same order on every conversion.
+     *
+     * @return the checkpoint file, or null if the conversion cannot be resumed
+     */
+    protected File getCheckpointFile() {
+        return null;
     }
 
     /**
@@ -0,0 +1,468 @@
+package fr.xephi.authme.datasource.converter;
+
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.data.auth.PlayerAuth;
+import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static fr.xephi.authme.util.Utils.logAndSendMessage;
+import static fr.xephi.authme.util.Utils.logAndSendWarning;
+
+/**
+ * Imports accounts into a data source in chunks. The accounts are read on a separate thread, which
+ * hands them over in chunks to the calling thread. For each chunk, the registered names are looked up
+ * with one call and the new accounts are saved with {@link DataSource#saveAuths}, i.e. with one
+ * transaction on SQL data sources.
+ * <p>
+ * If a checkpoint file is given, the number of processed source accounts is saved to it after each chunk,
+ * together with a fingerprint of the names of these accounts. An interrupted import which is started again
+ * skips these accounts, so the reader must always supply the accounts in the same order. If the skipped
+ * accounts don't match the fingerprint, the checkpoint belongs to another source and the import is refused.
+ * The checkpoint file is deleted once all accounts have been imported.
+ */
+class AuthImporter {
+
+    static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /** Number of chunks the reader may be ahead of the writer. */
+    private static final int QUEUE_CAPACITY = 4;
+    private static final long PROGRESS_INTERVAL_MILLIS = 10_000;
+    /** Maximum number of skipped or failed names to list in the messages. */
+    private static final int MAX_LISTED_NAMES = 50;
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(AuthImporter.class);
+
+    private final DataSource destination;
+    private final File checkpointFile;
+    private final int chunkSize;
+
+    /**
+     * Constructor.
+     *
+     * @param destination the data source to import to
+     * @param checkpointFile the file to save the progress to, or null to not support resuming the import
+     */
+    AuthImporter(DataSource destination, File checkpointFile) {
+        this(destination, checkpointFile, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param destination the data source to import to
+     * @param checkpointFile the file to save the progress to, or null to not support resuming the import
+     * @param chunkSize the number of accounts to save at once
+     */
+    AuthImporter(DataSource destination, File checkpointFile, int chunkSize) {
+        this.destination = destination;
+        this.checkpointFile = checkpointFile;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Returns the checkpoint file to use for the given converter.
+     *
+     * @param dataFolder the data folder of the plugin
+     * @param converterClass the converter class
+     * @return the checkpoint file
+     */
+    static File getCheckpointFile(File dataFolder, Class<? extends Converter> converterClass) {
+        return new File(dataFolder, converterClass.getSimpleName() + ".checkpoint");
+    }
+
+    /**
+     * Imports all accounts supplied by the given reader, skipping accounts which are already registered.
+     * Informs the sender about the progress and about skipped or failed accounts.
+     *
+     * @param sender the sender to inform (nullable)
+     * @param reader the reader supplying the accounts to import
+     * @return the result of the import
+     */
+    ImportResult importAuths(CommandSender sender, AuthReader reader) {
+        Checkpoint checkpoint = readCheckpoint();
+        if (checkpoint.position > 0) {
+            logAndSendMessage(sender, "Resuming the previous conversion after " + checkpoint.position + " accounts");
+        }
+
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Thread readerThread = new Thread(() -> readAuths(reader, checkpoint, queue), "AuthMe-ConversionReader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        ImportResult result = new ImportResult();
+        long start = System.currentTimeMillis();
+        try {
+            writeAuths(sender, queue, result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Stops the reader if the import was aborted
+            readerThread.interrupt();
+        }
+
+        if (result.isComplete()) {
+            deleteCheckpoint();
+            logger.info("Imported " + result.getImportedCount() + " accounts in "
+                + TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - start) + " seconds");
+        } else if (result.isCheckpointMismatch) {
+            logAndSendWarning(sender, "The checkpoint file '" + checkpointFile.getName() + "' does not belong to "
+                + "this source. Delete it to start the conversion from the beginning");
+        } else {
+            logAndSendWarning(sender, "The conversion did not complete, please see the log. "
+                + "Run the converter again to resume it");
+        }
+        if (!result.skippedNames.isEmpty()) {
+            logAndSendMessage(sender, "Skipped conversion for players which were already registered: "
+                + formatNames(result.skippedNames, result.skippedCount));
+        }
+        if (!result.failedNames.isEmpty()) {
+            logAndSendWarning(sender, "Could not save the accounts of the following players: "
+                + formatNames(result.failedNames, result.failedCount));
+        }
+        return result;
+    }
+
+    /**
+     * Reads the accounts with the given reader and hands them over in chunks. Runs on the reader thread.
+     */
+    private void readAuths(AuthReader reader, Checkpoint checkpoint, BlockingQueue<Chunk> queue) {
+        ChunkCollector collector = new ChunkCollector(queue, checkpoint);
+        boolean isReadCompletely = false;
+        boolean isCheckpointMismatch = false;
+        try {
+            isReadCompletely = reader.read(collector);
+            // A source with fewer accounts than the checkpoint cannot be the one the checkpoint was made for
+            isCheckpointMismatch = isReadCompletely && collector.position < checkpoint.position;
+            collector.flush();
+        } catch (CheckpointMismatchException e) {
+            isCheckpointMismatch = true;
+        } catch (ImportAbortedException e) {
+            return;
+        } catch (Exception e) {
+            logger.logException("Could not read the accounts to convert:", e);
+        }
+
+        try {
+            queue.put(isCheckpointMismatch
+                ? Chunk.checkpointMismatch()
+                : new Chunk(null, collector.position, collector.fingerprint.getValue(), isReadCompletely));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Saves the chunks of the reader until it has reached the end of the source.
+     */
+    private void writeAuths(CommandSender sender, BlockingQueue<Chunk> queue,
+                            ImportResult result) throws InterruptedException {
+        long lastProgressMessage = System.currentTimeMillis();
+        while (true) {
+            Chunk chunk = queue.take();
+            if (chunk.auths == null) {
+                result.isReadCompletely = chunk.isReadCompletely;
+                result.isCheckpointMismatch = chunk.isCheckpointMismatch;
+                return;
+            }
+            if (!importChunk(chunk.auths, result)) {
+                logger.warning("Stopping the conversion because no account of the current chunk could be saved");
+                return;
+            }
+            writeCheckpoint(chunk.position, chunk.fingerprint);
+
+            long now = System.currentTimeMillis();
+            if (now - lastProgressMessage >= PROGRESS_INTERVAL_MILLIS) {
+                logAndSendMessage(sender, "Converted " + result.importedCount + " accounts so far ("
+                    + result.skippedCount + " skipped)");
+                lastProgressMessage = now;
+            }
+        }
+    }
+
+    /**
+     * Saves the accounts of the given chunk which aren't registered yet.
+     *
+     * @return false if no account could be saved, true otherwise
+     */
+    private boolean importChunk(List<PlayerAuth> auths, ImportResult result) {
+        List<String> names = new ArrayList<>(auths.size());
+        for (PlayerAuth auth : auths) {
+            names.add(auth.getNickname());
+        }
+        Set<String> registeredNames = destination.filterRegisteredNames(names);
+
+        List<PlayerAuth> newAuths = new ArrayList<>(auths.size());
+        Set<String> newNames = new HashSet<>();
+        for (PlayerAuth auth : auths) {
+            String name = auth.getNickname().toLowerCase();
+            if (registeredNames.contains(name) || !newNames.add(name)) {
+                result.addSkipped(auth.getNickname());
+            } else {
+                newAuths.add(auth);
+            }
+        }
+        if (newAuths.isEmpty()) {
+            return true;
+        }
+
+        int saved = destination.saveAuths(newAuths);
+        if (saved == 0 && newAuths.size() > 1) {
+            // The batch was rolled back: save the accounts one by one so only the faulty ones are lost
+            for (PlayerAuth auth : newAuths) {
+                if (destination.saveAuths(Collections.singletonList(auth)) > 0) {
+                    ++saved;
+                } else {
+                    result.addFailed(auth.getNickname());
+                }
+            }
+        } else if (saved < newAuths.size()) {
+            // Only some accounts were saved: look up which ones are missing
+            List<String> newAuthNames = new ArrayList<>(newAuths.size());
+            for (PlayerAuth auth : newAuths) {
+                newAuthNames.add(auth.getNickname());
+            }
+            Set<String> savedNames = destination.filterRegisteredNames(newAuthNames);
+            for (PlayerAuth auth : newAuths) {
+                if (!savedNames.contains(auth.getNickname().toLowerCase())) {
+                    result.addFailed(auth.getNickname());
+                }
+            }
+        }
+        result.importedCount += saved;
+        return saved > 0;
+    }
+
+    private Checkpoint readCheckpoint() {
+        if (checkpointFile == null || !checkpointFile.exists()) {
+            return Checkpoint.NONE;
+        }
+        try {
+            String content = new String(Files.readAllBytes(checkpointFile.toPath()), StandardCharsets.UTF_8);
+            String[] parts = content.trim().split(" ");
+            if (parts.length != 2) {
+                throw new NumberFormatException("Expected position and fingerprint but got '" + content + "'");
+            }
+            return new Checkpoint(Long.parseLong(parts[0]), Long.parseLong(parts[1], 16));
+        } catch (IOException | NumberFormatException e) {
+            logger.logException("Could not read checkpoint file '" + checkpointFile.getName()
+                + "', starting the conversion from the beginning:", e);
+            return Checkpoint.NONE;
+        }
+    }
+
+    private void writeCheckpoint(long position, long fingerprint) {
+        if (checkpointFile != null) {
+            String content = position + " " + Long.toHexString(fingerprint);
+            try {
+                Files.write(checkpointFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                logger.logException("Could not write checkpoint file '" + checkpointFile.getName() + "':", e);
+            }
+        }
+    }
+
+    private void deleteCheckpoint() {
+        if (checkpointFile != null && checkpointFile.exists() && !checkpointFile.delete()) {
+            logger.warning("Could not delete checkpoint file '" + checkpointFile.getName() + "'");
+        }
+    }
+
+    private static String formatNames(List<String> names, long totalCount) {
+        String list = String.join(", ", names);
+        return totalCount > names.size() ? list + " and " + (totalCount - names.size()) + " more" : list;
+    }
+
+    /**
+     * Supplies the accounts to import.
+     */
+    @FunctionalInterface
+    interface AuthReader {
+
+        /**
+         * Passes all accounts to import to the given consumer, in the same order on every call.
+         *
+         * @param consumer the consumer to pass the accounts to
+         * @return true if all accounts were read, false if reading failed
+         * @throws Exception if reading failed
+         */
+        boolean read(Consumer<PlayerAuth> consumer) throws Exception;
+    }
+
+    /**
+     * Result of an import.
+     */
+    static final class ImportResult {
+
+        private final List<String> skippedNames = new ArrayList<>();
+        private final List<String> failedNames = new ArrayList<>();
+        private long importedCount;
+        private long skippedCount;
+        private long failedCount;
+        private boolean isReadCompletely;
+        private boolean isCheckpointMismatch;
+
+        /**
+         * @return true if all accounts of the source were processed, false if the import was aborted
+         */
+        boolean isComplete() {
+            return isReadCompletely;
+        }
+
+        /**
+         * @return the number of saved accounts
+         */
+        long getImportedCount() {
+            return importedCount;
+        }
+
+        /**
+         * @return the number of accounts which were skipped because they were already registered
+         */
+        long getSkippedCount() {
+            return skippedCount;
+        }
+
+        /**
+         * @return the number of accounts which could not be saved
+         */
+        long getFailedCount() {
+            return failedCount;
+        }
+
+        private void addSkipped(String name) {
+            if (skippedNames.size() < MAX_LISTED_NAMES) {
+                skippedNames.add(name);
+            }
+            ++skippedCount;
+        }
+
+        private void addFailed(String name) {
+            if (failedNames.size() < MAX_LISTED_NAMES) {
+                failedNames.add(name);
+            }
+            ++failedCount;
+        }
+    }
+
+    /**
+     * Progress of an import as saved in the checkpoint file.
+     */
+    private static final class Checkpoint {
+
+        static final Checkpoint NONE = new Checkpoint(0, 0);
+
+        /** Number of processed source accounts. */
+        private final long position;
+        /** Fingerprint of the names of the processed source accounts. */
+        private final long fingerprint;
+
+        Checkpoint(long position, long fingerprint) {
+            this.position = position;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Accounts handed over from the reader to the writer.
+     */
+    private static final class Chunk {
+
+        /** The accounts, or null if the reader has reached the end of the source. */
+        private final List<PlayerAuth> auths;
+        /** Number of source accounts up to and including this chunk. */
+        private final long position;
+        /** Fingerprint of the names of the source accounts up to and including this chunk. */
+        private final long fingerprint;
+        private final boolean isReadCompletely;
+        private final boolean isCheckpointMismatch;
+
+        Chunk(List<PlayerAuth> auths, long position, long fingerprint, boolean isReadCompletely) {
+            this(auths, position, fingerprint, isReadCompletely, false);
+        }
+
+        private Chunk(List<PlayerAuth> auths, long position, long fingerprint, boolean isReadCompletely,
+                      boolean isCheckpointMismatch) {
+            this.auths = auths;
+            this.position = position;
+            this.fingerprint = fingerprint;
+            this.isReadCompletely = isReadCompletely;
+            this.isCheckpointMismatch = isCheckpointMismatch;
+        }
+
+        static Chunk checkpointMismatch() {
+            return new Chunk(null, 0, 0, false, true);
+        }
+    }
+
+    /**
+     * Collects the accounts of the reader into chunks, skipping the accounts before the resume position.
+     */
+    private final class ChunkCollector implements Consumer<PlayerAuth> {
+
+        private final BlockingQueue<Chunk> queue;
+        private final Checkpoint checkpoint;
+        private final CRC32 fingerprint = new CRC32();
+        private List<PlayerAuth> auths = new ArrayList<>();
+        private long position;
+
+        ChunkCollector(BlockingQueue<Chunk> queue, Checkpoint checkpoint) {
+            this.queue = queue;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        public void accept(PlayerAuth auth) {
+            ++position;
+            fingerprint.update((auth.getNickname() + "\n").getBytes(StandardCharsets.UTF_8));
+            if (position == checkpoint.position && fingerprint.getValue() != checkpoint.fingerprint) {
+                throw new CheckpointMismatchException();
+            }
+            if (position > checkpoint.position) {
+                auths.add(auth);
+                if (auths.size() >= chunkSize) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() {
+            if (!auths.isEmpty()) {
+                try {
+                    queue.put(new Chunk(auths, position, fingerprint.getValue(), true));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ImportAbortedException();
+                }
+                auths = new ArrayList<>(chunkSize);
+            }
+        }
+    }
+
+    /**
+     * Thrown on the reader thread to stop reading when the import has been aborted.
+     */
+    private static final class ImportAbortedException extends RuntimeException {
+    }
+
+    /**
+     * Thrown on the reader thread when the accounts skipped for the checkpoint don't match its fingerprint.
+     */
+    private static final class CheckpointMismatchException extends RuntimeException {
+    }
+}
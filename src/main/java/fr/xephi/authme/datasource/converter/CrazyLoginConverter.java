@@ -3,6 +3,7 @@ package fr.xephi.authme.datasource.converter;
 import fr.xephi.authme.ConsoleLogger;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.datasource.converter.AuthImporter.ImportResult;
 import fr.xephi.authme.initialization.DataFolder;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.settings.Settings;
@@ -13,7 +14,6 @@ import javax.inject.Inject;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.IOException;
 
 /**
  * Converter for CrazyLogin to AuthMe.
@@ -42,40 +42,48 @@ public class CrazyLoginConverter implements Converter {
             return;
         }
 
-        String line;
-        try (BufferedReader users = new BufferedReader(new FileReader(source))) {
-            while ((line = users.readLine()) != null) {
-                if (line.contains("|")) {
-                    migrateAccount(line);
+        AuthImporter importer = new AuthImporter(database,
+            AuthImporter.getCheckpointFile(dataFolder, CrazyLoginConverter.class));
+        ImportResult result = importer.importAuths(sender, consumer -> {
+            try (BufferedReader users = new BufferedReader(new FileReader(source))) {
+                String line;
+                while ((line = users.readLine()) != null) {
+                    if (line.contains("|")) {
+                        PlayerAuth auth = buildAuth(line);
+                        if (auth != null) {
+                            consumer.accept(auth);
+                        }
+                    }
                 }
             }
+            return true;
+        });
+        if (result.isComplete()) {
             logger.info("CrazyLogin database has been imported correctly");
-        } catch (IOException ex) {
-            logger.warning("Can't open the crazylogin database file! Does it exist?");
-            logger.logException("Encountered", ex);
         }
     }
 
     /**
-     * Moves an account from CrazyLogin to the AuthMe database.
+     * Creates the AuthMe account of a CrazyLogin account.
      *
      * @param line line read from the CrazyLogin file (one account)
+     * @return the account to save, or null if the line is not a valid account
      */
-    private void migrateAccount(String line) {
+    private static PlayerAuth buildAuth(String line) {
         String[] args = line.split("\\|");
         if (args.length < 2 || "name".equalsIgnoreCase(args[0])) {
-            return;
+            return null;
         }
         String playerName = args[0];
         String password = args[1];
-        if (password != null) {
-            PlayerAuth auth = PlayerAuth.builder()
-                .name(playerName.toLowerCase())
-                .realName(playerName)
-                .password(password, null)
-                .build();
-            database.saveAuth(auth);
+        if (password == null) {
+            return null;
         }
+        return PlayerAuth.builder()
+            .name(playerName.toLowerCase())
+            .realName(playerName)
+            .password(password, null)
+            .build();
     }
 
 }
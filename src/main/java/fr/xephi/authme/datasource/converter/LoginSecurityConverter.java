@@ -4,6 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import fr.xephi.authme.ConsoleLogger;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.datasource.converter.AuthImporter.ImportResult;
 import fr.xephi.authme.initialization.DataFolder;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.settings.Settings;
@@ -19,9 +20,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -89,26 +88,18 @@ public class LoginSecurityConverter implements Converter {
      * @param sender the command sender
      * @param resultSet result set with the account data to migrate
      */
-    private void migrateData(CommandSender sender, ResultSet resultSet) throws SQLException {
-        List<String> skippedPlayers = new ArrayList<>();
-        long successfulSaves = 0;
-        while (resultSet.next()) {
-            String name = resultSet.getString("last_name");
-            if (dataSource.isAuthAvailable(name)) {
-                skippedPlayers.add(name);
-            } else {
-                PlayerAuth auth = buildAuthFromLoginSecurity(name, resultSet);
-                dataSource.saveAuth(auth);
-                dataSource.updateSession(auth);
-                ++successfulSaves;
+    private void migrateData(CommandSender sender, ResultSet resultSet) {
+        AuthImporter importer = new AuthImporter(dataSource, null);
+        ImportResult result = importer.importAuths(sender, consumer -> {
+            while (resultSet.next()) {
+                String name = resultSet.getString("last_name");
+                consumer.accept(buildAuthFromLoginSecurity(name, resultSet));
             }
-        }
+            return true;
+        });
 
-        logAndSendMessage(sender, "Migrated " + successfulSaves + " accounts successfully from LoginSecurity");
-        if (!skippedPlayers.isEmpty()) {
-            logAndSendMessage(sender, "Skipped conversion for players which were already in AuthMe: "
-                + String.join(", ", skippedPlayers));
-        }
+        logAndSendMessage(sender, "Migrated " + result.getImportedCount()
+            + " accounts successfully from LoginSecurity");
     }
 
     /**
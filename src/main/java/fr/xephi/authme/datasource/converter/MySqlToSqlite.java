@@ -4,9 +4,11 @@ import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.datasource.DataSourceType;
 import fr.xephi.authme.datasource.MySQL;
 import fr.xephi.authme.datasource.mysqlextensions.MySqlExtensionsFactory;
+import fr.xephi.authme.initialization.DataFolder;
 import fr.xephi.authme.settings.Settings;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.sql.SQLException;
 
 /**
@@ -16,16 +18,24 @@ public class MySqlToSqlite extends AbstractDataSourceConverter<MySQL> {
 
     private final Settings settings;
     private final MySqlExtensionsFactory mySqlExtensionsFactory;
+    private final File dataFolder;
 
     @Inject
-    MySqlToSqlite(DataSource dataSource, Settings settings, MySqlExtensionsFactory mySqlExtensionsFactory) {
+    MySqlToSqlite(DataSource dataSource, Settings settings, MySqlExtensionsFactory mySqlExtensionsFactory,
+                  @DataFolder File dataFolder) {
         super(dataSource, DataSourceType.SQLITE);
         this.settings = settings;
         this.mySqlExtensionsFactory = mySqlExtensionsFactory;
+        this.dataFolder = dataFolder;
     }
 
     @Override
     protected MySQL getSource() throws SQLException {
         return new MySQL(settings, mySqlExtensionsFactory);
     }
+
+    @Override
+    protected File getCheckpointFile() {
+        return AuthImporter.getCheckpointFile(dataFolder, MySqlToSqlite.class);
+    }
 }
@@ -3,6 +3,7 @@ package fr.xephi.authme.datasource.converter;
 import fr.xephi.authme.ConsoleLogger;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.datasource.converter.AuthImporter.ImportResult;
 import fr.xephi.authme.initialization.DataFolder;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.security.PasswordSecurity;
@@ -19,7 +20,6 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * @author Xephi59
@@ -42,7 +42,6 @@ public class RakamakConverter implements Converter {
     }
 
     @Override
-    //TODO ljacqu 20151229: Restructure this into smaller portions
     public void execute(CommandSender sender) {
         boolean useIp = settings.getProperty(ConverterSettings.RAKAMAK_USE_IP);
         String fileName = settings.getProperty(ConverterSettings.RAKAMAK_FILE_NAME);
@@ -50,47 +49,46 @@ public class RakamakConverter implements Converter {
         File source = new File(pluginFolder, fileName);
         File ipFiles = new File(pluginFolder, ipFileName);
         Map<String, String> playerIp = new HashMap<>();
-        Map<String, HashedPassword> playerPassword = new HashMap<>();
-        try {
-            BufferedReader ipFile = new BufferedReader(new FileReader(ipFiles));
-            String line;
-            if (useIp) {
-                String tempLine;
-                while ((tempLine = ipFile.readLine()) != null) {
-                    if (tempLine.contains("=")) {
-                        String[] args = tempLine.split("=");
+        if (useIp) {
+            try (BufferedReader ipFile = new BufferedReader(new FileReader(ipFiles))) {
+                String line;
+                while ((line = ipFile.readLine()) != null) {
+                    if (line.contains("=")) {
+                        String[] args = line.split("=");
                         playerIp.put(args[0], args[1]);
                     }
                 }
+            } catch (IOException ex) {
+                logger.logException("Can't open the rakamak database file! Does it exist?", ex);
+                return;
             }
-            ipFile.close();
-
-            BufferedReader users = new BufferedReader(new FileReader(source));
-            while ((line = users.readLine()) != null) {
-                if (line.contains("=")) {
-                    String[] arguments = line.split("=");
-                    HashedPassword hashedPassword = passwordSecurity.computeHash(arguments[1], arguments[0]);
-                    playerPassword.put(arguments[0], hashedPassword);
+        }
 
+        // Passwords are hashed on the importer's reader thread while the previous chunk is being saved
+        AuthImporter importer = new AuthImporter(database,
+            AuthImporter.getCheckpointFile(pluginFolder, RakamakConverter.class));
+        ImportResult result = importer.importAuths(sender, consumer -> {
+            try (BufferedReader users = new BufferedReader(new FileReader(source))) {
+                String line;
+                while ((line = users.readLine()) != null) {
+                    if (line.contains("=")) {
+                        String[] arguments = line.split("=");
+                        String playerName = arguments[0];
+                        HashedPassword hashedPassword =
+                            passwordSecurity.computeHashWithoutRejection(arguments[1], playerName);
+                        consumer.accept(PlayerAuth.builder()
+                            .name(playerName)
+                            .realName(playerName)
+                            .lastIp(playerIp.get(playerName))
+                            .password(hashedPassword)
+                            .build());
+                    }
                 }
             }
-            users.close();
-            for (Entry<String, HashedPassword> m : playerPassword.entrySet()) {
-                String playerName = m.getKey();
-                HashedPassword psw = playerPassword.get(playerName);
-                String ip = playerIp.get(playerName);
-                PlayerAuth auth = PlayerAuth.builder()
-                    .name(playerName)
-                    .realName(playerName)
-                    .lastIp(ip)
-                    .password(psw)
-                    .build();
-                database.saveAuth(auth);
-                database.updateSession(auth);
-            }
+            return true;
+        });
+        if (result.isComplete()) {
             Utils.logAndSendMessage(sender, "Rakamak database has been imported successfully");
-        } catch (IOException ex) {
-            logger.logException("Can't open the rakamak database file! Does it exist?", ex);
         }
     }
 }
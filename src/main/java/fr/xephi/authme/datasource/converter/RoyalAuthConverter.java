@@ -33,27 +33,42 @@ public class RoyalAuthConverter implements Converter {
 
     @Override
     public void execute(CommandSender sender) {
-        for (OfflinePlayer player : plugin.getServer().getOfflinePlayers()) {
-            try {
-                String name = player.getName().toLowerCase();
-                File file = new File(makePath(".", "plugins", "RoyalAuth", "userdata", name + ".yml"));
-
-                if (dataSource.isAuthAvailable(name) || !file.exists()) {
-                    continue;
+        // The order of the offline players is not defined, so the import cannot be resumed
+        AuthImporter importer = new AuthImporter(dataSource, null);
+        importer.importAuths(sender, consumer -> {
+            for (OfflinePlayer player : plugin.getServer().getOfflinePlayers()) {
+                PlayerAuth auth = loadAuth(player);
+                if (auth != null) {
+                    consumer.accept(auth);
                 }
-                FileConfiguration configuration = YamlConfiguration.loadConfiguration(file);
-                PlayerAuth auth = PlayerAuth.builder()
-                    .name(name)
-                    .password(configuration.getString(PASSWORD_PATH), null)
-                    .lastLogin(configuration.getLong(LAST_LOGIN_PATH))
-                    .realName(player.getName())
-                    .build();
-
-                dataSource.saveAuth(auth);
-                dataSource.updateSession(auth);
-            } catch (Exception e) {
-                logger.logException("Error while trying to import " + player.getName() + " RoyalAuth data", e);
             }
+            return true;
+        });
+    }
+
+    /**
+     * Loads the RoyalAuth data of the given player.
+     *
+     * @param player the player to process
+     * @return the account of the player, or null if the player has no RoyalAuth data
+     */
+    private PlayerAuth loadAuth(OfflinePlayer player) {
+        try {
+            String name = player.getName().toLowerCase();
+            File file = new File(makePath(".", "plugins", "RoyalAuth", "userdata", name + ".yml"));
+            if (!file.exists()) {
+                return null;
+            }
+            FileConfiguration configuration = YamlConfiguration.loadConfiguration(file);
+            return PlayerAuth.builder()
+                .name(name)
+                .password(configuration.getString(PASSWORD_PATH), null)
+                .lastLogin(configuration.getLong(LAST_LOGIN_PATH))
+                .realName(player.getName())
+                .build();
+        } catch (Exception e) {
+            logger.logException("Error while trying to import " + player.getName() + " RoyalAuth data", e);
+            return null;
         }
     }
 
@@ -29,4 +29,9 @@ public class SqliteToSql extends AbstractDataSourceConverter<SQLite> {
     protected SQLite getSource() throws SQLException {
         return new SQLite(settings, dataFolder);
     }
+
+    @Override
+    protected File getCheckpointFile() {
+        return AuthImporter.getCheckpointFile(dataFolder, SqliteToSql.class);
+    }
 }
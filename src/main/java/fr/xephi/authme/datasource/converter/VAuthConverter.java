@@ -1,17 +1,14 @@
 package fr.xephi.authme.datasource.converter;
 
-import fr.xephi.authme.ConsoleLogger;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.initialization.DataFolder;
-import fr.xephi.authme.output.ConsoleLoggerFactory;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 
 import javax.inject.Inject;
 import java.io.File;
-import java.io.IOException;
 import java.util.Scanner;
 import java.util.UUID;
 
@@ -19,49 +16,61 @@ import static fr.xephi.authme.util.FileUtils.makePath;
 
 public class VAuthConverter implements Converter {
 
-    private final ConsoleLogger logger = ConsoleLoggerFactory.get(VAuthConverter.class);
     private final DataSource dataSource;
     private final File vAuthPasswordsFile;
+    private final File checkpointFile;
 
     @Inject
     VAuthConverter(@DataFolder File dataFolder, DataSource dataSource) {
         vAuthPasswordsFile = new File(dataFolder.getParent(), makePath("vAuth", "passwords.yml"));
+        checkpointFile = AuthImporter.getCheckpointFile(dataFolder, VAuthConverter.class);
         this.dataSource = dataSource;
     }
 
     @Override
     public void execute(CommandSender sender) {
-        try (Scanner scanner = new Scanner(vAuthPasswordsFile)) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                String name = line.split(": ")[0];
-                String password = line.split(": ")[1];
-                PlayerAuth auth;
-                if (isUuidInstance(password)) {
-                    String pname;
-                    try {
-                        pname = Bukkit.getOfflinePlayer(UUID.fromString(name)).getName();
-                    } catch (Exception | NoSuchMethodError e) {
-                        pname = getName(UUID.fromString(name));
+        AuthImporter importer = new AuthImporter(dataSource, checkpointFile);
+        importer.importAuths(sender, consumer -> {
+            try (Scanner scanner = new Scanner(vAuthPasswordsFile)) {
+                while (scanner.hasNextLine()) {
+                    PlayerAuth auth = buildAuth(scanner.nextLine());
+                    if (auth != null) {
+                        consumer.accept(auth);
                     }
-                    if (pname == null) {
-                        continue;
-                    }
-                    auth = PlayerAuth.builder()
-                        .name(pname.toLowerCase())
-                        .realName(pname)
-                        .password(password, null).build();
-                } else {
-                    auth = PlayerAuth.builder()
-                        .name(name.toLowerCase())
-                        .realName(name)
-                        .password(password, null).build();
                 }
-                dataSource.saveAuth(auth);
             }
-        } catch (IOException e) {
-            logger.logException("Error while trying to import some vAuth data", e);
+            return true;
+        });
+    }
+
+    /**
+     * Creates the account of a line of the vAuth passwords file.
+     *
+     * @param line the line to process
+     * @return the account, or null if the player of the line is unknown
+     */
+    private PlayerAuth buildAuth(String line) {
+        String name = line.split(": ")[0];
+        String password = line.split(": ")[1];
+        if (isUuidInstance(password)) {
+            String pname;
+            try {
+                pname = Bukkit.getOfflinePlayer(UUID.fromString(name)).getName();
+            } catch (Exception | NoSuchMethodError e) {
+                pname = getName(UUID.fromString(name));
+            }
+            if (pname == null) {
+                return null;
+            }
+            return PlayerAuth.builder()
+                .name(pname.toLowerCase())
+                .realName(pname)
+                .password(password, null).build();
         }
+        return PlayerAuth.builder()
+            .name(name.toLowerCase())
+            .realName(name)
+            .password(password, null).build();
     }
 
     private static boolean isUuidInstance(String s) {
@@ -25,30 +25,16 @@ class Ipb4Extension extends MySqlExtension {
 
     @Override
     public void saveAuth(PlayerAuth auth, Connection con) throws SQLException {
-        // Update player group in core_members
-        String sql = "UPDATE " + ipbPrefix + tableName
-                   + " SET " + tableName + ".member_group_id=? WHERE " + col.NAME + "=?;";
-        try (PreparedStatement pst2 = con.prepareStatement(sql)) {
-            pst2.setInt(1, ipbGroup);
-            pst2.setString(2, auth.getNickname());
-            pst2.executeUpdate();
-        }
         // Get current time without ms
         long time = System.currentTimeMillis() / 1000;
-        // update joined date
-        sql = "UPDATE " + ipbPrefix + tableName
-            + " SET " + tableName + ".joined=? WHERE " + col.NAME + "=?;";
+        // Update player group, joined date and last_visit in core_members
+        String sql = "UPDATE " + ipbPrefix + tableName + " SET " + tableName + ".member_group_id=?, "
+            + tableName + ".joined=?, " + tableName + ".last_visit=? WHERE " + col.NAME + "=?;";
         try (PreparedStatement pst2 = con.prepareStatement(sql)) {
-            pst2.setLong(1, time);
-            pst2.setString(2, auth.getNickname());
-            pst2.executeUpdate();
-        }
-        // Update last_visit
-        sql = "UPDATE " + ipbPrefix + tableName
-            + " SET " + tableName + ".last_visit=? WHERE " + col.NAME + "=?;";
-        try (PreparedStatement pst2 = con.prepareStatement(sql)) {
-            pst2.setLong(1, time);
-            pst2.setString(2, auth.getNickname());
+            pst2.setInt(1, ipbGroup);
+            pst2.setLong(2, time);
+            pst2.setLong(3, time);
+            pst2.setString(4, auth.getNickname());
             pst2.executeUpdate();
         }
     }
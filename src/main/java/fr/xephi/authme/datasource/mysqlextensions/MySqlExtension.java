@@ -37,6 +37,19 @@ public abstract class MySqlExtension {
         // extend for custom behavior
     }
 
+    /**
+     * Performs additional actions when a new player is saved, for callers which already know the database ID
+     * of the new row. Runs in the same transaction as the insert if the caller has started one.
+     *
+     * @param auth the player auth that has been saved
+     * @param id the database id of the new player auth entry
+     * @param con connection to the sql table
+     * @throws SQLException .
+     */
+    public void saveAuth(PlayerAuth auth, int id, Connection con) throws SQLException {
+        saveAuth(auth, con);
+    }
+
     /**
      * Writes properties to the given PlayerAuth object that need to be retrieved in a specific manner
      * when a PlayerAuth object is read from the table.
@@ -32,6 +32,11 @@ class PhpBbExtension extends MySqlExtension {
         }
     }
 
+    @Override
+    public void saveAuth(PlayerAuth auth, int id, Connection con) throws SQLException {
+        updateSpecificsOnSave(id, auth.getNickname(), con);
+    }
+
     private void updateSpecificsOnSave(int id, String name, Connection con) throws SQLException {
         // Insert player in phpbb_user_group
         String sql = "INSERT INTO " + phpBbPrefix
@@ -43,34 +48,17 @@ class PhpBbExtension extends MySqlExtension {
             pst.setInt(4, 0);
             pst.executeUpdate();
         }
-        // Update username_clean in phpbb_users
-        sql = "UPDATE " + tableName + " SET " + tableName + ".username_clean=? WHERE " + col.NAME + "=?;";
-        try (PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setString(1, name);
-            pst.setString(2, name);
-            pst.executeUpdate();
-        }
-        // Update player group in phpbb_users
-        sql = "UPDATE " + tableName + " SET " + tableName + ".group_id=? WHERE " + col.NAME + "=?;";
-        try (PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setInt(1, phpBbGroup);
-            pst.setString(2, name);
-            pst.executeUpdate();
-        }
         // Get current time without ms
         long time = System.currentTimeMillis() / 1000;
-        // Update user_regdate
-        sql = "UPDATE " + tableName + " SET " + tableName + ".user_regdate=? WHERE " + col.NAME + "=?;";
+        // Update username_clean, group, user_regdate and user_lastvisit in phpbb_users
+        sql = "UPDATE " + tableName + " SET " + tableName + ".username_clean=?, " + tableName + ".group_id=?, "
+            + tableName + ".user_regdate=?, " + tableName + ".user_lastvisit=? WHERE " + col.NAME + "=?;";
         try (PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setLong(1, time);
-            pst.setString(2, name);
-            pst.executeUpdate();
-        }
-        // Update user_lastvisit
-        sql = "UPDATE " + tableName + " SET " + tableName + ".user_lastvisit=? WHERE " + col.NAME + "=?;";
-        try (PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setLong(1, time);
-            pst.setString(2, name);
+            pst.setString(1, name);
+            pst.setInt(2, phpBbGroup);
+            pst.setLong(3, time);
+            pst.setLong(4, time);
+            pst.setString(5, name);
             pst.executeUpdate();
         }
         // Increment num_users
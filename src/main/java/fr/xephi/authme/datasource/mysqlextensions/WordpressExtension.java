@@ -8,6 +8,9 @@ import fr.xephi.authme.settings.properties.HooksSettings;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.OptionalInt;
 
 /**
@@ -30,6 +33,11 @@ class WordpressExtension extends MySqlExtension {
         }
     }
 
+    @Override
+    public void saveAuth(PlayerAuth auth, int id, Connection con) throws SQLException {
+        saveSpecifics(auth, id, con);
+    }
+
     /**
      * Saves the required data to Wordpress tables.
      *
@@ -39,46 +47,31 @@ class WordpressExtension extends MySqlExtension {
      * @throws SQLException .
      */
     private void saveSpecifics(PlayerAuth auth, int id, Connection con) throws SQLException {
-        String sql = "INSERT INTO " + wordpressPrefix + "usermeta (user_id, meta_key, meta_value) VALUES (?,?,?)";
-        try (PreparedStatement pst = con.prepareStatement(sql)) {
+        Map<String, String> metaRows = new LinkedHashMap<>();
+        metaRows.put("first_name", "");
+        metaRows.put("last_name", "");
+        metaRows.put("nickname", auth.getNickname());
+        metaRows.put("description", "");
+        metaRows.put("rich_editing", "true");
+        metaRows.put("comment_shortcuts", "false");
+        metaRows.put("admin_color", "fresh");
+        metaRows.put("use_ssl", "0");
+        metaRows.put("show_admin_bar_front", "true");
+        metaRows.put(wordpressPrefix + "capabilities", "a:1:{s:10:\"subscriber\";b:1;}");
+        metaRows.put(wordpressPrefix + "user_level", "0");
+        metaRows.put("default_password_nag", "");
 
-            new UserMetaBatchAdder(pst, id)
-                .addMetaRow("first_name", "")
-                .addMetaRow("last_name", "")
-                .addMetaRow("nickname", auth.getNickname())
-                .addMetaRow("description", "")
-                .addMetaRow("rich_editing", "true")
-                .addMetaRow("comment_shortcuts", "false")
-                .addMetaRow("admin_color", "fresh")
-                .addMetaRow("use_ssl", "0")
-                .addMetaRow("show_admin_bar_front", "true")
-                .addMetaRow(wordpressPrefix + "capabilities", "a:1:{s:10:\"subscriber\";b:1;}")
-                .addMetaRow(wordpressPrefix + "user_level", "0")
-                .addMetaRow("default_password_nag", "");
-
-            // Execute queries
-            pst.executeBatch();
-            pst.clearBatch();
-        }
-    }
-
-    /** Helper to add batch entries to the wrapped prepared statement. */
-    private static final class UserMetaBatchAdder {
-
-        private final PreparedStatement pst;
-        private final int userId;
-
-        UserMetaBatchAdder(PreparedStatement pst, int userId) {
-            this.pst = pst;
-            this.userId = userId;
-        }
-
-        UserMetaBatchAdder addMetaRow(String metaKey, String metaValue) throws SQLException {
-            pst.setInt(1, userId);
-            pst.setString(2, metaKey);
-            pst.setString(3, metaValue);
-            pst.addBatch();
-            return this;
+        // Insert all rows with one statement rather than one round trip per row
+        String sql = "INSERT INTO " + wordpressPrefix + "usermeta (user_id, meta_key, meta_value) VALUES "
+            + String.join(", ", Collections.nCopies(metaRows.size(), "(?,?,?)"));
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            int index = 1;
+            for (Map.Entry<String, String> metaRow : metaRows.entrySet()) {
+                pst.setInt(index++, id);
+                pst.setString(index++, metaRow.getKey());
+                pst.setString(index++, metaRow.getValue());
+            }
+            pst.executeUpdate();
         }
     }
 }
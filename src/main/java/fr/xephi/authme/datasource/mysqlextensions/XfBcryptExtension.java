@@ -36,6 +36,11 @@ class XfBcryptExtension extends MySqlExtension {
         }
     }
 
+    @Override
+    public void saveAuth(PlayerAuth auth, int id, Connection con) throws SQLException {
+        updateXenforoTablesOnSave(auth, id, con);
+    }
+
     /**
      * Updates the xenforo tables after a player auth has been saved.
      *
@@ -56,18 +61,13 @@ class XfBcryptExtension extends MySqlExtension {
             pst.setBlob(3, blob);
             pst.executeUpdate();
         }
-        // Update player group in xf_users
-        sql = "UPDATE " + tableName + " SET " + tableName + ".user_group_id=? WHERE " + col.NAME + "=?;";
-        try (PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setInt(1, xfGroup);
-            pst.setString(2, auth.getNickname());
-            pst.executeUpdate();
-        }
-        // Update player permission combination in xf_users
-        sql = "UPDATE " + tableName + " SET " + tableName + ".permission_combination_id=? WHERE " + col.NAME + "=?;";
+        // Update player group and permission combination in xf_users
+        sql = "UPDATE " + tableName + " SET " + tableName + ".user_group_id=?, "
+            + tableName + ".permission_combination_id=? WHERE " + col.NAME + "=?;";
         try (PreparedStatement pst = con.prepareStatement(sql)) {
             pst.setInt(1, xfGroup);
-            pst.setString(2, auth.getNickname());
+            pst.setInt(2, xfGroup);
+            pst.setString(3, auth.getNickname());
             pst.executeUpdate();
         }
         // Insert player privacy combination in xf_user_privacy
@@ -8,6 +8,7 @@ import fr.xephi.authme.datasource.DataSourceType;
 import fr.xephi.authme.datasource.MySQL;
 import fr.xephi.authme.datasource.PostgreSqlDataSource;
 import fr.xephi.authme.datasource.SQLite;
+import fr.xephi.authme.datasource.WriteBehindQueue;
 import fr.xephi.authme.datasource.mysqlextensions.MySqlExtensionsFactory;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.service.BukkitService;
@@ -77,7 +78,16 @@ public class DataSourceProvider implements Provider<DataSource> {
         }
 
         if (settings.getProperty(DatabaseSettings.USE_CACHING)) {
-            dataSource = new CacheDataSource(dataSource, playerCache);
+            CacheDataSource cacheDataSource = new CacheDataSource(dataSource, playerCache,
+                createWriteBehindQueue(dataSource), settings.getProperty(DatabaseSettings.LOGIN_STATE_CACHE_SECONDS),
+                settings.getProperty(DatabaseSettings.CACHE_LOADER_THREADS));
+            if (settings.getProperty(DatabaseSettings.USE_NAME_INDEX)) {
+                cacheDataSource.enableNameIndex();
+            }
+            if (settings.getProperty(DatabaseSettings.USE_NAME_FILTER)) {
+                cacheDataSource.enableNameFilter();
+            }
+            dataSource = cacheDataSource;
         }
         if (DataSourceType.SQLITE.equals(dataSourceType)) {
             checkDataSourceSize(dataSource);
@@ -85,6 +95,15 @@ public class DataSourceProvider implements Provider<DataSource> {
         return dataSource;
     }
 
+    private WriteBehindQueue createWriteBehindQueue(DataSource dataSource) {
+        if (settings.getProperty(DatabaseSettings.USE_WRITE_BEHIND)) {
+            return WriteBehindQueue.create(dataSource,
+                settings.getProperty(DatabaseSettings.WRITE_BEHIND_FLUSH_INTERVAL),
+                settings.getProperty(DatabaseSettings.WRITE_BEHIND_MAX_QUEUE_SIZE));
+        }
+        return null;
+    }
+
     private void checkDataSourceSize(DataSource dataSource) {
         bukkitService.runTaskAsynchronously(() -> {
             int accounts = dataSource.getAccountsRegistered();
@@ -3,6 +3,7 @@ package fr.xephi.authme.initialization;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.data.auth.PlayerCache;
 import fr.xephi.authme.data.limbo.LimboService;
+import fr.xephi.authme.data.limbo.persistence.LimboPersistence;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.service.BukkitService;
 import fr.xephi.authme.service.ValidationService;
@@ -38,6 +39,8 @@ public class OnShutdownPlayerSaver {
     private LimboService limboService;
     @Inject
     private BungeeSender bungeeSender;
+    @Inject
+    private LimboPersistence limboPersistence;
 
     OnShutdownPlayerSaver() {
     }
@@ -49,6 +52,7 @@ public class OnShutdownPlayerSaver {
         for (Player player : bukkitService.getOnlinePlayers()) {
             savePlayer(player);
         }
+        limboPersistence.close();
     }
 
     private void savePlayer(Player player) {
@@ -13,6 +13,9 @@ import org.bukkit.event.entity.EntityEvent;
 import org.bukkit.event.player.PlayerEvent;
 
 import javax.inject.Inject;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service class for the AuthMe listeners to determine whether an event should be canceled.
@@ -22,6 +25,8 @@ class ListenerService implements SettingsDependent {
     private final DataSource dataSource;
     private final PlayerCache playerCache;
     private final ValidationService validationService;
+    /** Restriction state of online players, computed on their first event. */
+    private final Map<UUID, RestrictionState> restrictionStates = new ConcurrentHashMap<>();
 
     private boolean isRegistrationForced;
 
@@ -77,28 +82,67 @@ class ListenerService implements SettingsDependent {
      * @return true if the associated event should be canceled, false otherwise
      */
     public boolean shouldCancelEvent(Player player) {
-        return player != null && !checkAuth(player.getName()) && !PlayerUtils.isNpc(player);
+        if (player == null) {
+            return false;
+        }
+        RestrictionState state = restrictionStates.get(player.getUniqueId());
+        if (state == null) {
+            state = createRestrictionState(player);
+            restrictionStates.put(player.getUniqueId(), state);
+        }
+        // The name is lowercase already, so checking the player cache doesn't create a new string
+        if (state.isExempt || playerCache.isAuthenticated(state.lowercaseName)) {
+            return false;
+        }
+        // The player may register or be unregistered at any time (e.g. through the API or by another server),
+        // so whether the player is registered is not part of the stored state
+        return isRegistrationForced || dataSource.isAuthAvailable(state.name);
+    }
+
+    /**
+     * Discards the restriction state of the given player, e.g. because the player has left.
+     * The state is computed again on the player's next event.
+     *
+     * @param player the player whose state should be discarded (nullable)
+     */
+    public void invalidateRestrictionState(Player player) {
+        if (player != null) {
+            restrictionStates.remove(player.getUniqueId());
+        }
     }
 
     @Override
     public void reload(Settings settings) {
         isRegistrationForced = settings.getProperty(RegistrationSettings.FORCE);
+        restrictionStates.clear();
     }
 
     /**
-     * Checks whether the player is allowed to perform actions (i.e. whether he is logged in
-     * or if other settings permit playing).
+     * Determines whether the player's events are never canceled, regardless of the player's registration,
+     * because the player's name is unrestricted or the player is an NPC.
      *
-     * @param name the name of the player to verify
-     * @return true if the player may play, false otherwise
+     * @param player the player to process
+     * @return the player's restriction state
      */
-    private boolean checkAuth(String name) {
-        if (validationService.isUnrestricted(name) || playerCache.isAuthenticated(name)) {
-            return true;
-        }
-        if (!isRegistrationForced && !dataSource.isAuthAvailable(name)) {
-            return true;
+    private RestrictionState createRestrictionState(Player player) {
+        String name = player.getName();
+        boolean isExempt = validationService.isUnrestricted(name) || PlayerUtils.isNpc(player);
+        return new RestrictionState(name, isExempt);
+    }
+
+    /**
+     * Restriction state of a player. Logging in and out is reflected by the player cache and registrations
+     * are checked with the data source, so the state only changes if the settings are reloaded.
+     */
+    private static final class RestrictionState {
+        private final String name;
+        private final String lowercaseName;
+        private final boolean isExempt;
+
+        RestrictionState(String name, boolean isExempt) {
+            this.name = name;
+            this.lowercaseName = name.toLowerCase();
+            this.isExempt = isExempt;
         }
-        return false;
     }
 }
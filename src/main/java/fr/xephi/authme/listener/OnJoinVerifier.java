@@ -68,14 +68,15 @@ public class OnJoinVerifier implements Reloadable {
      * Checks if Antibot is enabled.
      *
      * @param name            the joining player name to check
+     * @param ip              the ip address of the player
      * @param isAuthAvailable whether or not the player is registered
      * @throws FailedVerificationException if the verification fails
      */
-    public void checkAntibot(String name, boolean isAuthAvailable) throws FailedVerificationException {
+    public void checkAntibot(String name, String ip, boolean isAuthAvailable) throws FailedVerificationException {
         if (isAuthAvailable || permissionsManager.hasPermissionOffline(name, PlayerStatePermission.BYPASS_ANTIBOT)) {
             return;
         }
-        if (antiBotService.shouldKick()) {
+        if (antiBotService.shouldKick(ip)) {
             antiBotService.addPlayerKick(name);
             throw new FailedVerificationException(MessageKey.KICK_ANTIBOT);
         }
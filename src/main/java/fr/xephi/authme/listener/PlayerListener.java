@@ -2,6 +2,8 @@ package fr.xephi.authme.listener;
 
 import fr.xephi.authme.data.QuickCommandsProtectionManager;
 import fr.xephi.authme.data.auth.PlayerAuth;
+import fr.xephi.authme.data.limbo.LimboService;
+import fr.xephi.authme.data.limbo.MovementAnchor;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.message.MessageKey;
 import fr.xephi.authme.message.Messages;
@@ -81,6 +83,8 @@ public class PlayerListener implements Listener {
     @Inject
     private ListenerService listenerService;
     @Inject
+    private LimboService limboService;
+    @Inject
     private TeleportationService teleportationService;
     @Inject
     private ValidationService validationService;
@@ -141,10 +145,10 @@ public class PlayerListener implements Listener {
         try {
             final PlayerAuth auth = dataSource.getAuth(name);
             final boolean isAuthAvailable = auth != null;
+            final String ip = event.getAddress().getHostAddress();
             onJoinVerifier.checkKickNonRegistered(isAuthAvailable);
-            onJoinVerifier.checkAntibot(name, isAuthAvailable);
+            onJoinVerifier.checkAntibot(name, ip, isAuthAvailable);
             onJoinVerifier.checkNameCasing(name, auth);
-            final String ip = event.getAddress().getHostAddress();
             onJoinVerifier.checkPlayerCountry(name, ip, isAuthAvailable);
         } catch (FailedVerificationException e) {
             event.setKickMessage(messages.retrieveSingle(name, e.getReason(), e.getArgs()));
@@ -236,6 +240,7 @@ public class PlayerListener implements Listener {
                 event.setQuitMessage(null);
             }
         }
+        listenerService.invalidateRestrictionState(player);
 
         if (antiBotService.wasPlayerKicked(player.getName())) {
             return;
@@ -353,6 +358,15 @@ public class PlayerListener implements Listener {
             return;
         }
 
+        // Anchor computed when the player was put into limbo: avoids looking up the spawn on every move
+        MovementAnchor anchor = limboService.getMovementAnchor(player);
+        if (anchor != null) {
+            if (!anchor.isWithinRadius(to)) {
+                player.teleport(anchor.getSpawn());
+            }
+            return;
+        }
+
         Location spawn = spawnLoader.getSpawnLocation(player);
         if (spawn != null && spawn.getWorld() != null) {
             if (!player.getWorld().equals(spawn.getWorld())) {
@@ -149,6 +149,9 @@ public enum MessageKey {
     /** An error occurred: unresolved player hostname! **/
     KICK_UNRESOLVED_HOSTNAME("error.kick_unresolved_hostname"),
 
+    /** The server is busy, please try again in a few seconds. */
+    HASHING_BUSY("error.hashing_busy"),
+
     /** Usage: /email add &lt;email&gt; &lt;confirmEmail&gt; */
     USAGE_ADD_EMAIL("email.usage_email_add"),
 
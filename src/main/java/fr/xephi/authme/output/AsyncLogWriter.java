@@ -0,0 +1,344 @@
+package fr.xephi.authme.output;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes log messages to the AuthMe log file on a background thread.
+ * <p>
+ * Logging threads only put the message into a bounded lock-free ring buffer; if the buffer is full,
+ * the message is dropped and counted. The writer thread drains the buffer in batches, flushes the file
+ * after a configurable interval or once enough text has been written, and archives the log file when it
+ * becomes too large or when the day changes.
+ */
+public class AsyncLogWriter {
+
+    private static final String NEW_LINE = System.getProperty("line.separator");
+    /** Formatter which formats dates to something like "[08-16 21:18:46]" for any given LocalDateTime. */
+    private static final DateTimeFormatter DATE_FORMAT = new DateTimeFormatterBuilder()
+        .appendLiteral('[')
+        .appendPattern("MM-dd HH:mm:ss")
+        .appendLiteral(']')
+        .toFormatter();
+    /** Number of written characters after which the file is flushed regardless of the flush interval. */
+    private static final int FLUSH_THRESHOLD_CHARS = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    /** Time to wait after the log file could not be archived before trying again. */
+    private static final long ROTATION_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final File logFile;
+    private final Logger logger;
+    private final AtomicReferenceArray<Entry> buffer;
+    private final int capacity;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final Thread thread;
+
+    /** Position of the next entry to read, only written by the writer thread. */
+    private volatile long head;
+    private volatile boolean isRunning = true;
+    private volatile long flushIntervalMillis;
+    private volatile long maxFileSizeBytes;
+    private volatile boolean rotateDaily;
+
+    // State of the writer thread
+    private Writer writer;
+    private long fileSize;
+    private LocalDate fileDate;
+    private long nextRotationAttempt;
+    private long lastFlush;
+    private int unflushedChars;
+    private long reportedDroppedMessages;
+    private boolean hasReportedError;
+
+    /**
+     * Constructor. The writer thread is only started by {@link #start()}.
+     *
+     * @param logFile the file to write to
+     * @param logger the logger to report I/O errors to
+     * @param bufferSize the number of messages the buffer can hold (rounded up to a power of two)
+     * @throws IllegalArgumentException if the log file is a directory
+     */
+    public AsyncLogWriter(File logFile, Logger logger, int bufferSize) {
+        this.logFile = Objects.requireNonNull(logFile, "logFile");
+        if (logFile.isDirectory()) {
+            throw new IllegalArgumentException("Log file '" + logFile + "' is a directory");
+        }
+        this.logger = logger;
+        this.capacity = Integer.highestOneBit(Math.max(2, bufferSize) * 2 - 1);
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.thread = new Thread(this::run, "AuthMe-LogWriter");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Sets the flush and rotation options.
+     *
+     * @param flushIntervalMillis maximum time in milliseconds before written messages are flushed
+     * @param maxFileSizeBytes size after which the log file is rotated (0 to disable)
+     * @param rotateDaily whether the log file should be rotated when the day changes
+     */
+    public void configure(long flushIntervalMillis, long maxFileSizeBytes, boolean rotateDaily) {
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxFileSizeBytes = maxFileSizeBytes;
+        this.rotateDaily = rotateDaily;
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues the given message to be written to the log file. Never blocks.
+     *
+     * @param message the message to write
+     * @return true if the message was queued, false if it was dropped because the buffer is full
+     */
+    public boolean write(String message) {
+        Entry entry = new Entry(System.currentTimeMillis(), message);
+        long position;
+        do {
+            position = tail.get();
+            if (position - head >= capacity) {
+                droppedMessages.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+        buffer.set(index(position), entry);
+        return true;
+    }
+
+    /**
+     * Stops the writer thread after it has written all queued messages, and closes the file.
+     */
+    public void close() {
+        isRunning = false;
+        if (thread.isAlive()) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(CLOSE_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the number of messages which were dropped because the buffer was full
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    private void run() {
+        lastFlush = System.currentTimeMillis();
+        while (true) {
+            boolean isStopping = !isRunning;
+            int written;
+            try {
+                written = writeBatch();
+            } catch (RuntimeException e) {
+                // Keep the thread alive: the entries taken from the buffer so far are lost, but not the following ones
+                handleError("Unexpected error while writing AuthMe log file", e);
+                written = 0;
+            }
+            if (isStopping && written == 0 && head == tail.get()) {
+                break;
+            } else if (written == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        flush();
+        closeWriter();
+    }
+
+    /**
+     * Writes all published entries of the buffer and flushes the file if needed.
+     *
+     * @return the number of entries taken from the buffer
+     */
+    @VisibleForTesting
+    int writeBatch() {
+        int count = 0;
+        Entry entry;
+        while ((entry = buffer.get(index(head))) != null) {
+            buffer.set(index(head), null);
+            head = head + 1;
+            writeEntry(entry);
+            ++count;
+        }
+
+        long dropped = droppedMessages.get();
+        if (dropped > reportedDroppedMessages) {
+            writeEntry(new Entry(System.currentTimeMillis(), "[WARN] Dropped "
+                + (dropped - reportedDroppedMessages) + " log messages because the log buffer was full"));
+            reportedDroppedMessages = dropped;
+        }
+
+        if (unflushedChars >= FLUSH_THRESHOLD_CHARS
+            || unflushedChars > 0 && System.currentTimeMillis() - lastFlush >= flushIntervalMillis) {
+            flush();
+        }
+        return count;
+    }
+
+    private void writeEntry(Entry entry) {
+        LocalDateTime dateTime =
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestamp), ZoneId.systemDefault());
+        String line = DATE_FORMAT.format(dateTime) + ": " + entry.message + NEW_LINE;
+        try {
+            if (writer == null) {
+                openWriter();
+            }
+            if (shouldRotate(dateTime.toLocalDate())) {
+                rotate();
+            }
+            writer.write(line);
+            fileSize += line.getBytes(StandardCharsets.UTF_8).length;
+            unflushedChars += line.length();
+            hasReportedError = false;
+        } catch (IOException e) {
+            handleError("Failed to write to AuthMe log file", e);
+        }
+    }
+
+    private boolean shouldRotate(LocalDate date) {
+        return (rotateDaily && !date.equals(fileDate) || maxFileSizeBytes > 0 && fileSize >= maxFileSizeBytes)
+            && System.currentTimeMillis() >= nextRotationAttempt;
+    }
+
+    /**
+     * Archives the current log file and opens a new one. If the file cannot be moved, writing continues
+     * in the current file and archiving is only attempted again after {@link #ROTATION_RETRY_MILLIS}.
+     */
+    private void rotate() throws IOException {
+        flush();
+        closeWriter();
+        LocalDate previousFileDate = fileDate;
+        boolean isArchived = false;
+        try {
+            moveFile(logFile.toPath(), getArchiveFile(previousFileDate).toPath());
+            isArchived = true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to archive AuthMe log file, will try again in "
+                + TimeUnit.MILLISECONDS.toSeconds(ROTATION_RETRY_MILLIS) + " seconds", e);
+            nextRotationAttempt = System.currentTimeMillis() + ROTATION_RETRY_MILLIS;
+        }
+        openWriter();
+        if (!isArchived) {
+            // Keep the date of the entries in the file so it is archived under the right name later on
+            fileDate = previousFileDate;
+        }
+    }
+
+    @VisibleForTesting
+    void moveFile(Path source, Path target) throws IOException {
+        Files.move(source, target);
+    }
+
+    private void openWriter() throws IOException {
+        if (logFile.length() > 0) {
+            fileSize = logFile.length();
+            fileDate = Instant.ofEpochMilli(logFile.lastModified()).atZone(ZoneId.systemDefault()).toLocalDate();
+        } else {
+            fileSize = 0;
+            fileDate = LocalDate.now();
+        }
+        writer = new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(logFile, true), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a file to move the current log file to, e.g. "authme-2023-05-17.1.log".
+     *
+     * @param date the date of the log file
+     * @return the file to archive the log file as
+     */
+    private File getArchiveFile(LocalDate date) {
+        String name = logFile.getName();
+        int extensionIndex = name.lastIndexOf('.');
+        String baseName = extensionIndex > 0 ? name.substring(0, extensionIndex) : name;
+        String extension = extensionIndex > 0 ? name.substring(extensionIndex) : "";
+
+        File archiveFile;
+        int number = 1;
+        do {
+            archiveFile = new File(logFile.getParentFile(), baseName + "-" + date + "." + number + extension);
+            ++number;
+        } while (archiveFile.exists());
+        return archiveFile;
+    }
+
+    private void flush() {
+        lastFlush = System.currentTimeMillis();
+        if (writer != null) {
+            try {
+                writer.flush();
+                unflushedChars = 0;
+            } catch (IOException e) {
+                handleError("Failed to flush AuthMe log file", e);
+            }
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to close resource", e);
+            } finally {
+                writer = null;
+                unflushedChars = 0;
+            }
+        }
+    }
+
+    private void handleError(String message, Exception e) {
+        if (!hasReportedError) {
+            logger.log(Level.SEVERE, message, e);
+            hasReportedError = true;
+        }
+        closeWriter();
+    }
+
+    private int index(long position) {
+        return (int) (position & (capacity - 1));
+    }
+
+    private static final class Entry {
+        private final long timestamp;
+        private final String message;
+
+        Entry(long timestamp, String message) {
+            this.timestamp = timestamp;
+            this.message = message;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package fr.xephi.authme.process;
 
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.message.MessageKey;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.process.changepassword.AsyncChangePassword;
 import fr.xephi.authme.process.email.AsyncAddEmail;
 import fr.xephi.authme.process.email.AsyncChangeEmail;
@@ -11,7 +14,9 @@ import fr.xephi.authme.process.register.AsyncRegister;
 import fr.xephi.authme.process.register.executors.RegistrationMethod;
 import fr.xephi.authme.process.register.executors.RegistrationParameters;
 import fr.xephi.authme.process.unregister.AsynchronousUnregister;
+import fr.xephi.authme.security.HashingBusyException;
 import fr.xephi.authme.service.BukkitService;
+import fr.xephi.authme.service.CommonService;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
@@ -22,8 +27,12 @@ import javax.inject.Inject;
  */
 public class Management {
 
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(Management.class);
+
     @Inject
     private BukkitService bukkitService;
+    @Inject
+    private CommonService commonService;
 
     // Processes
     @Inject
@@ -50,7 +59,7 @@ public class Management {
 
 
     public void performLogin(Player player, String password) {
-        runTask(() -> asynchronousLogin.login(player, password));
+        runHashingTask(player, () -> asynchronousLogin.login(player, password));
     }
 
     public void forceLogin(Player player) {
@@ -62,11 +71,11 @@ public class Management {
     }
 
     public <P extends RegistrationParameters> void performRegister(RegistrationMethod<P> variant, P parameters) {
-        runTask(() -> asyncRegister.register(variant, parameters));
+        runHashingTask(parameters.getPlayer(), () -> asyncRegister.register(variant, parameters));
     }
 
     public void performUnregister(Player player, String password) {
-        runTask(() -> asynchronousUnregister.unregister(player, password));
+        runHashingTask(player, () -> asynchronousUnregister.unregister(player, password));
     }
 
     public void performUnregisterByAdmin(CommandSender initiator, String name, Player player) {
@@ -90,14 +99,35 @@ public class Management {
     }
 
     public void performPasswordChange(Player player, String oldPassword, String newPassword) {
-        runTask(() -> asyncChangePassword.changePassword(player, oldPassword, newPassword));
+        runHashingTask(player, () -> asyncChangePassword.changePassword(player, oldPassword, newPassword));
     }
 
     public void performPasswordChangeAsAdmin(CommandSender sender, String playerName, String newPassword) {
-        runTask(() -> asyncChangePassword.changePasswordAsAdmin(sender, playerName, newPassword));
+        runHashingTask(sender, () -> asyncChangePassword.changePasswordAsAdmin(sender, playerName, newPassword));
     }
 
     private void runTask(Runnable runnable) {
         bukkitService.runTaskOptionallyAsync(runnable);
     }
+
+    /**
+     * Runs a task which hashes or checks a password. If the hashing queue is full,
+     * the sender is asked to try again later.
+     *
+     * @param sender the sender to inform if the task cannot be processed (nullable)
+     * @param runnable the task to run
+     */
+    private void runHashingTask(CommandSender sender, Runnable runnable) {
+        runTask(() -> {
+            try {
+                runnable.run();
+            } catch (HashingBusyException e) {
+                if (sender == null) {
+                    logger.warning("Could not process a request of another plugin: the hashing queue is full");
+                } else {
+                    commonService.send(sender, MessageKey.HASHING_BUSY);
+                }
+            }
+        });
+    }
 }
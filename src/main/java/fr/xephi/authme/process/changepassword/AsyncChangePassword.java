@@ -85,7 +85,10 @@ public class AsyncChangePassword implements AsynchronousProcess {
             return;
         }
 
-        HashedPassword hashedPassword = passwordSecurity.computeHash(newPassword, lowerCaseName);
+        // Other plugins can't be asked to try again later, so their calls wait for the hash
+        HashedPassword hashedPassword = sender == null
+            ? passwordSecurity.computeHashWithoutRejection(newPassword, lowerCaseName)
+            : passwordSecurity.computeHash(newPassword, lowerCaseName);
         if (dataSource.updatePassword(lowerCaseName, hashedPassword)) {
             bungeeSender.sendAuthMeBungeecordMessage(MessageType.REFRESH_PASSWORD, lowerCaseName);
             if (sender != null) {
@@ -40,6 +40,7 @@ import org.bukkit.entity.Player;
 import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Asynchronous task for a player login.
@@ -334,14 +335,10 @@ public class AsynchronousLogin implements AsynchronousProcess {
         }
 
         // Count logged in players with same IP address
-        final String name = player.getName();
-        int count = 0;
-        for (Player onlinePlayer : bukkitService.getOnlinePlayers()) {
-            if (ip.equalsIgnoreCase(PlayerUtils.getPlayerIp(onlinePlayer))
-                && !onlinePlayer.getName().equals(name)
-                && dataSource.isLogged(onlinePlayer.getName().toLowerCase())) {
-                ++count;
-            }
+        Set<String> loggedInNames = playerCache.getLoggedInNamesByIp(ip);
+        int count = loggedInNames.size();
+        if (loggedInNames.contains(player.getName().toLowerCase())) {
+            --count;
         }
         return count >= service.getProperty(RestrictionSettings.MAX_LOGIN_PER_IP);
     }
@@ -58,13 +58,16 @@ public class AsynchronousLogout implements AsynchronousProcess {
         }
 
         PlayerAuth auth = playerCache.getAuth(name);
-        database.updateSession(auth);
-        bungeeSender.sendAuthMeBungeecordMessage(MessageType.REFRESH_SESSION, name);
-        if (service.getProperty(RestrictionSettings.SAVE_QUIT_LOCATION)) {
+        auth.markAsChanged(PlayerAuth.Field.REAL_NAME, PlayerAuth.Field.LAST_IP, PlayerAuth.Field.LAST_LOGIN);
+        boolean saveQuitLocation = service.getProperty(RestrictionSettings.SAVE_QUIT_LOCATION);
+        if (saveQuitLocation) {
             auth.setQuitLocation(player.getLocation());
-            database.updateQuitLoc(auth);
-            bungeeSender.sendAuthMeBungeecordMessage(MessageType.REFRESH_QUITLOC, name);
         }
+        // Write the session data and the quit location with one update
+        database.persistChanges(auth);
+        // The quit location message also carries the session data
+        bungeeSender.sendAuthMeBungeecordMessage(
+            saveQuitLocation ? MessageType.REFRESH_QUITLOC : MessageType.REFRESH_SESSION, name);
 
         playerCache.removePlayer(name);
         codeManager.unverify(name);
@@ -16,7 +16,6 @@ import fr.xephi.authme.settings.SpawnLoader;
 import fr.xephi.authme.settings.properties.PluginSettings;
 import fr.xephi.authme.settings.properties.RestrictionSettings;
 import fr.xephi.authme.util.PlayerUtils;
-import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import javax.inject.Inject;
@@ -72,22 +71,23 @@ public class AsynchronousQuit implements AsynchronousProcess {
         final boolean wasLoggedIn = playerCache.isAuthenticated(name);
 
         if (wasLoggedIn) {
-            if (service.getProperty(RestrictionSettings.SAVE_QUIT_LOCATION)) {
-                Location loc = spawnLoader.getPlayerLocationOrSpawn(player);
-                PlayerAuth auth = PlayerAuth.builder()
-                    .name(name).location(loc)
-                    .realName(player.getName()).build();
-                database.updateQuitLoc(auth);
-            }
-
             final String ip = PlayerUtils.getPlayerIp(player);
-            PlayerAuth auth = PlayerAuth.builder()
+            PlayerAuth.Builder builder = PlayerAuth.builder()
                 .name(name)
                 .realName(player.getName())
                 .lastIp(ip)
-                .lastLogin(System.currentTimeMillis())
-                .build();
-            database.updateSession(auth);
+                .lastLogin(System.currentTimeMillis());
+            boolean saveQuitLocation = service.getProperty(RestrictionSettings.SAVE_QUIT_LOCATION);
+            if (saveQuitLocation) {
+                builder.location(spawnLoader.getPlayerLocationOrSpawn(player));
+            }
+            PlayerAuth auth = builder.build();
+            auth.markAsChanged(PlayerAuth.Field.REAL_NAME, PlayerAuth.Field.LAST_IP, PlayerAuth.Field.LAST_LOGIN);
+            if (saveQuitLocation) {
+                auth.markAsChanged(PlayerAuth.Field.QUIT_LOCATION);
+            }
+            // Write the session data and the quit location with one update
+            database.persistChanges(auth);
             bungeeSender.sendAuthMeBungeecordMessage(MessageType.REFRESH_QUITLOC, name);
         }
 
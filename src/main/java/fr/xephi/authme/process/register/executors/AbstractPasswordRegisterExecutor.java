@@ -61,11 +61,23 @@ abstract class AbstractPasswordRegisterExecutor<P extends AbstractPasswordRegist
 
     @Override
     public PlayerAuth buildPlayerAuth(P params) {
-        HashedPassword hashedPassword = passwordSecurity.computeHash(params.getPassword(), params.getPlayerName());
+        HashedPassword hashedPassword = isRejectedIfHashingIsBusy()
+            ? passwordSecurity.computeHash(params.getPassword(), params.getPlayerName())
+            : passwordSecurity.computeHashWithoutRejection(params.getPassword(), params.getPlayerName());
         params.setHashedPassword(hashedPassword);
         return createPlayerAuthObject(params);
     }
 
+    /**
+     * Returns whether the registration is rejected if the hashing queue is full, in which case the
+     * player is asked to try again later.
+     *
+     * @return true if the registration may be rejected, false if it should wait for the hash
+     */
+    protected boolean isRejectedIfHashingIsBusy() {
+        return true;
+    }
+
     /**
      * Creates the PlayerAuth object to store into the database, based on the registration parameters.
      *
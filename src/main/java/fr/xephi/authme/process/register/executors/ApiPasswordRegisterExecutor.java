@@ -13,6 +13,12 @@ class ApiPasswordRegisterExecutor extends AbstractPasswordRegisterExecutor<ApiPa
             .createPlayerAuth(params.getPlayer(), params.getHashedPassword(), null);
     }
 
+    @Override
+    protected boolean isRejectedIfHashingIsBusy() {
+        // The plugin calling the API can't be asked to try again
+        return false;
+    }
+
     @Override
     protected boolean performLoginAfterRegister(ApiPasswordRegisterParams params) {
         return params.getLoginAfterRegister();
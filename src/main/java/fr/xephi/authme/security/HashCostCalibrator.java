@@ -0,0 +1,179 @@
+package fr.xephi.authme.security;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import ch.jalu.configme.properties.Property;
+import com.google.common.annotations.VisibleForTesting;
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.security.crypts.Argon2;
+import fr.xephi.authme.security.crypts.BCryptHasher;
+import fr.xephi.authme.settings.Settings;
+import fr.xephi.authme.settings.properties.HooksSettings;
+import fr.xephi.authme.settings.properties.SecuritySettings;
+
+import javax.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Benchmarks the host and chooses the cost parameters of BCrypt or Argon2 such that one hash takes
+ * about the configured target time. The configured parameters are used as a minimum, so calibration
+ * can only raise them: a slow or busy host never weakens the hashes. The chosen parameters are written
+ * to the in-memory settings before the encryption method is created. Hashes generated with other
+ * parameters remain valid since BCrypt and Argon2 store their parameters in the hash.
+ */
+public class HashCostCalibrator {
+
+    @VisibleForTesting
+    static final int REFERENCE_BCRYPT_COST = 8;
+    private static final int MIN_BCRYPT_COST = 4;
+    private static final int MAX_BCRYPT_COST = 16;
+    private static final int MAX_ARGON2_TIME_COST = 10;
+    private static final int BENCHMARK_RUNS = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(HashCostCalibrator.class);
+
+    @Inject
+    private Settings settings;
+
+    private final Map<Property<Integer>, Integer> calibratedValues = new LinkedHashMap<>();
+    private HashAlgorithm calibratedAlgorithm;
+    private int calibratedTargetMillis;
+
+    HashCostCalibrator() {
+    }
+
+    /**
+     * Calibrates the cost parameters of the given algorithm if enabled in the settings and sets
+     * them in the settings. The benchmark is only run once per algorithm and target; afterwards
+     * the previously determined values are applied again (e.g. after the settings were reloaded).
+     *
+     * @param algorithm the hash algorithm to calibrate
+     */
+    public void applyCalibration(HashAlgorithm algorithm) {
+        if (!settings.getProperty(SecuritySettings.CALIBRATE_HASH_COST)
+            || (algorithm != HashAlgorithm.BCRYPT && algorithm != HashAlgorithm.ARGON2)) {
+            return;
+        }
+
+        int targetMillis = Math.max(1, settings.getProperty(SecuritySettings.CALIBRATION_TARGET_MILLIS));
+        if (algorithm != calibratedAlgorithm || targetMillis != calibratedTargetMillis) {
+            calibratedValues.clear();
+            calibratedAlgorithm = null;
+            try {
+                if (algorithm == HashAlgorithm.BCRYPT) {
+                    calibrateBCrypt(targetMillis);
+                } else {
+                    calibrateArgon2(targetMillis);
+                }
+            } catch (RuntimeException | LinkageError e) {
+                logger.logException("Could not calibrate the cost of " + algorithm + ", using configured values:", e);
+                calibratedValues.clear();
+                return;
+            }
+            calibratedAlgorithm = algorithm;
+            calibratedTargetMillis = targetMillis;
+        }
+        // The configured values may have been raised since the calibration, e.g. by a reload
+        calibratedValues.forEach((property, value) ->
+            settings.setProperty(property, Math.max(value, settings.getProperty(property))));
+    }
+
+    private void calibrateBCrypt(int targetMillis) {
+        int configuredCost = settings.getProperty(HooksSettings.BCRYPT_LOG2_ROUND);
+        BCryptHasher hasher = new BCryptHasher(BCrypt.Version.VERSION_2A, REFERENCE_BCRYPT_COST);
+        double millis = measureMillis(() -> hasher.hash(SAMPLE_PASSWORD));
+        int cost = chooseBCryptCost(millis, targetMillis);
+        if (cost < configuredCost) {
+            logger.warning("Hashing with the configured BCrypt cost factor " + configuredCost + " takes longer than "
+                + targetMillis + " ms on this server; keeping the configured cost factor");
+            cost = configuredCost;
+        }
+        calibratedValues.put(HooksSettings.BCRYPT_LOG2_ROUND, cost);
+        logger.info("Calibrated BCrypt cost factor to " + cost + " (" + String.format("%.1f", millis)
+            + " ms per hash at cost " + REFERENCE_BCRYPT_COST + ", target " + targetMillis + " ms)");
+    }
+
+    private void calibrateArgon2(int targetMillis) {
+        int configuredTimeCost = positiveOrDefault(
+            settings.getProperty(SecuritySettings.ARGON2_TIME_COST), Argon2.DEFAULT_TIME_COST);
+        // The memory cost is kept as configured and only the number of iterations is calibrated
+        int memoryCost = positiveOrDefault(
+            settings.getProperty(SecuritySettings.ARGON2_MEMORY_COST), Argon2.DEFAULT_MEMORY_COST_KIB);
+        int parallelism = positiveOrDefault(
+            settings.getProperty(SecuritySettings.ARGON2_PARALLELISM), Argon2.DEFAULT_PARALLELISM);
+
+        double millisPerIteration = measureArgon2(memoryCost, parallelism);
+        int timeCost = chooseArgon2TimeCost(millisPerIteration, targetMillis);
+        if (timeCost < configuredTimeCost) {
+            logger.warning("Hashing with the configured Argon2 time cost " + configuredTimeCost + " takes longer than "
+                + targetMillis + " ms on this server; keeping the configured time cost");
+            timeCost = configuredTimeCost;
+        }
+
+        calibratedValues.put(SecuritySettings.ARGON2_TIME_COST, timeCost);
+        logger.info("Calibrated Argon2 to " + timeCost + " iterations with " + memoryCost + " KiB ("
+            + String.format("%.1f", millisPerIteration) + " ms per iteration, target " + targetMillis + " ms)");
+    }
+
+    private double measureArgon2(int memoryCost, int parallelism) {
+        Argon2 argon2 = new Argon2(1, memoryCost, parallelism);
+        return measureMillis(() -> argon2.computeHash(SAMPLE_PASSWORD));
+    }
+
+    /**
+     * Returns the BCrypt cost factor whose hashing time is closest to, but not above the target.
+     * Each increment of the cost factor doubles the hashing time.
+     *
+     * @param millisAtReferenceCost hashing time at {@link #REFERENCE_BCRYPT_COST}
+     * @param targetMillis the target hashing time
+     * @return the cost factor to use
+     */
+    @VisibleForTesting
+    static int chooseBCryptCost(double millisAtReferenceCost, int targetMillis) {
+        if (millisAtReferenceCost <= 0) {
+            return MAX_BCRYPT_COST;
+        }
+        int cost = REFERENCE_BCRYPT_COST
+            + (int) Math.floor(Math.log(targetMillis / millisAtReferenceCost) / Math.log(2));
+        return Math.max(MIN_BCRYPT_COST, Math.min(MAX_BCRYPT_COST, cost));
+    }
+
+    /**
+     * Returns the number of Argon2 iterations which fit into the target hashing time.
+     *
+     * @param millisPerIteration hashing time with one iteration
+     * @param targetMillis the target hashing time
+     * @return the number of iterations to use
+     */
+    @VisibleForTesting
+    static int chooseArgon2TimeCost(double millisPerIteration, int targetMillis) {
+        if (millisPerIteration <= 0) {
+            return MAX_ARGON2_TIME_COST;
+        }
+        int timeCost = (int) Math.floor(targetMillis / millisPerIteration);
+        return Math.max(1, Math.min(MAX_ARGON2_TIME_COST, timeCost));
+    }
+
+    /**
+     * Runs the given hash computation a few times after a warm-up run and returns the fastest time.
+     *
+     * @param hashComputation the hash computation to measure
+     * @return the time in milliseconds
+     */
+    private static double measureMillis(Runnable hashComputation) {
+        hashComputation.run();
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < BENCHMARK_RUNS; ++i) {
+            long start = System.nanoTime();
+            hashComputation.run();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        return bestNanos / 1_000_000.0;
+    }
+
+    private static int positiveOrDefault(int value, int defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
+}
@@ -0,0 +1,12 @@
+package fr.xephi.authme.security;
+
+/**
+ * Thrown by {@link PasswordSecurity} if a password cannot be hashed or checked because
+ * all hashing threads are busy and the hashing queue is full.
+ */
+public class HashingBusyException extends RuntimeException {
+
+    public HashingBusyException(String message) {
+        super(message);
+    }
+}
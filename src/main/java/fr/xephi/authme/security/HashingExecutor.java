@@ -0,0 +1,271 @@
+package fr.xephi.authme.security;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.initialization.SettingsDependent;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.security.crypts.Argon2;
+import fr.xephi.authme.settings.Settings;
+import fr.xephi.authme.settings.properties.SecuritySettings;
+
+import javax.inject.Inject;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs password hash computations and checks on a bounded pool of dedicated threads. The number of
+ * threads is limited by the configured memory budget for memory-hard algorithms; once all threads
+ * are busy and the queue is full, new requests are rejected with a {@link HashingBusyException}.
+ */
+public class HashingExecutor implements SettingsDependent {
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(HashingExecutor.class);
+
+    private volatile ThreadPoolExecutor executor;
+    private int workerThreads;
+
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    @Inject
+    HashingExecutor(Settings settings) {
+        reload(settings);
+    }
+
+    /**
+     * Runs the given hashing task on the hashing threads and waits for its result.
+     *
+     * @param task the task to run
+     * @param <T> the result type
+     * @return the result of the task
+     * @throws HashingBusyException if the task cannot be queued because the queue is full
+     */
+    public <T> T execute(Callable<T> task) {
+        long submitTime = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> runTimed(task, submitTime));
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.incrementAndGet();
+            throw new HashingBusyException("Hashing queue is full");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for hashing task", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Hashing task failed", cause);
+        }
+    }
+
+    /**
+     * Runs the given hashing task like {@link #execute}, but runs it on the calling thread instead of
+     * rejecting it if the queue is full. For callers which cannot ask the user to try again later,
+     * such as the API and converters.
+     *
+     * @param task the task to run
+     * @param <T> the result type
+     * @return the result of the task
+     */
+    public <T> T executeWithoutRejection(Callable<T> task) {
+        try {
+            return execute(task);
+        } catch (HashingBusyException e) {
+            try {
+                return runTimed(task, System.nanoTime());
+            } catch (RuntimeException runtimeException) {
+                throw runtimeException;
+            } catch (Exception exception) {
+                throw new IllegalStateException("Hashing task failed", exception);
+            }
+        }
+    }
+
+    /**
+     * Queues the given hashing task without waiting for its completion.
+     *
+     * @param task the task to run
+     * @return true if the task was queued, false if it was rejected because the queue is full
+     */
+    public boolean submit(Runnable task) {
+        long submitTime = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    runTimed(Executors.callable(task), submitTime);
+                } catch (Exception e) {
+                    logger.logException("Error during background hashing task:", e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.incrementAndGet();
+            return false;
+        }
+    }
+
+    @Override
+    public void reload(Settings settings) {
+        int queueSize = Math.max(1, settings.getProperty(SecuritySettings.HASHING_QUEUE_SIZE));
+        workerThreads = calculateWorkerThreads(settings);
+
+        ThreadPoolExecutor oldExecutor = executor;
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("AuthMe-Hashing-%d").build(),
+            new ThreadPoolExecutor.AbortPolicy());
+        if (oldExecutor != null) {
+            // Already queued tasks are still processed
+            oldExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Stops the hashing threads after all queued tasks have been processed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return number of hashing threads
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    /**
+     * @return number of tasks waiting for a free hashing thread
+     */
+    public int getQueuedTaskCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return number of tasks currently being processed
+     */
+    public int getActiveTaskCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return total number of processed tasks
+     */
+    public long getCompletedTaskCount() {
+        return completedTasks.get();
+    }
+
+    /**
+     * @return total number of tasks which were rejected because the queue was full
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * @return average time in milliseconds a task waited in the queue
+     */
+    public double getAverageWaitMillis() {
+        return average(totalWaitNanos);
+    }
+
+    /**
+     * @return maximum time in milliseconds a task waited in the queue
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * @return average time in milliseconds to process a task
+     */
+    public double getAverageHashMillis() {
+        return average(totalHashNanos);
+    }
+
+    /**
+     * @return maximum time in milliseconds to process a task
+     */
+    public double getMaxHashMillis() {
+        return maxHashNanos.get() / 1_000_000.0;
+    }
+
+    private <T> T runTimed(Callable<T> task, long submitTime) throws Exception {
+        long start = System.nanoTime();
+        record(totalWaitNanos, maxWaitNanos, start - submitTime);
+        try {
+            return task.call();
+        } finally {
+            record(totalHashNanos, maxHashNanos, System.nanoTime() - start);
+            completedTasks.incrementAndGet();
+        }
+    }
+
+    private static void record(AtomicLong total, AtomicLong max, long nanos) {
+        total.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private double average(AtomicLong totalNanos) {
+        long tasks = completedTasks.get();
+        return tasks == 0 ? 0 : totalNanos.get() / 1_000_000.0 / tasks;
+    }
+
+    /**
+     * Returns the number of threads to use: the configured number, limited such that the
+     * parallel hash computations stay within the memory budget.
+     *
+     * @param settings the settings
+     * @return number of threads to use
+     */
+    @VisibleForTesting
+    int calculateWorkerThreads(Settings settings) {
+        int configuredThreads = settings.getProperty(SecuritySettings.HASHING_WORKER_THREADS);
+        int threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+
+        int memoryPerHashMb = getMemoryPerHashMb(settings);
+        if (memoryPerHashMb > 0) {
+            int memoryBudgetMb = settings.getProperty(SecuritySettings.HASHING_MEMORY_BUDGET_MB);
+            int maxThreads = Math.max(1, memoryBudgetMb / memoryPerHashMb);
+            if (threads > maxThreads) {
+                logger.info("Limiting hashing threads to " + maxThreads + " to stay within the memory budget of "
+                    + memoryBudgetMb + " MB (" + memoryPerHashMb + " MB per hash)");
+                threads = maxThreads;
+            }
+        }
+        return threads;
+    }
+
+    private static int getMemoryPerHashMb(Settings settings) {
+        Set<HashAlgorithm> algorithms = EnumSet.of(settings.getProperty(SecuritySettings.PASSWORD_HASH));
+        algorithms.addAll(settings.getProperty(SecuritySettings.LEGACY_HASHES));
+        if (!algorithms.contains(HashAlgorithm.ARGON2)) {
+            return 0;
+        }
+        int memoryCostKib = settings.getProperty(SecuritySettings.ARGON2_MEMORY_COST);
+        return Math.max(1, (memoryCostKib > 0 ? memoryCostKib : Argon2.DEFAULT_MEMORY_COST_KIB) / 1024);
+    }
+}
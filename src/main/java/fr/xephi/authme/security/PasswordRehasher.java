@@ -0,0 +1,98 @@
+package fr.xephi.authme.security;
+
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.datasource.RehashedPassword;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.security.crypts.EncryptionMethod;
+import fr.xephi.authme.security.crypts.HashedPassword;
+import fr.xephi.authme.service.BukkitService;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces password hashes with outdated parameters or algorithm after a successful password check.
+ * New hashes are computed in the background on the {@link HashingExecutor} and saved in batches.
+ * <p>
+ * Rehashing is best effort: if the hashing queue is full or the server stops before the batch is
+ * saved, the password is simply rehashed on a later login.
+ */
+public class PasswordRehasher {
+
+    /** Delay in ticks after the first rehash before the batch is saved. */
+    private static final long SAVE_DELAY_TICKS = 20;
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(PasswordRehasher.class);
+
+    private final DataSource dataSource;
+    private final BukkitService bukkitService;
+    private final HashingExecutor hashingExecutor;
+
+    private final Map<String, RehashedPassword> pendingRehashes = new ConcurrentHashMap<>();
+    private final AtomicBoolean isSaveScheduled = new AtomicBoolean();
+    private final AtomicLong savedRehashes = new AtomicLong();
+
+    @Inject
+    PasswordRehasher(DataSource dataSource, BukkitService bukkitService, HashingExecutor hashingExecutor) {
+        this.dataSource = dataSource;
+        this.bukkitService = bukkitService;
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    /**
+     * Computes a new hash of the given password in the background and saves it.
+     *
+     * @param playerName the name of the player (lowercase)
+     * @param password the clear-text password, which matches the old hash
+     * @param oldPassword the current hash of the player
+     * @param method the encryption method to hash the password with
+     */
+    public void rehash(String playerName, String password, HashedPassword oldPassword, EncryptionMethod method) {
+        boolean isQueued = hashingExecutor.submit(() -> {
+            HashedPassword newPassword = method.computeHash(password, playerName);
+            queueSave(new RehashedPassword(playerName, oldPassword, newPassword));
+        });
+        if (!isQueued) {
+            logger.debug("Hashing queue is full, not rehashing password of {0} for now", playerName);
+        }
+    }
+
+    /**
+     * Saves all computed hashes to the data source.
+     */
+    public void savePendingRehashes() {
+        isSaveScheduled.set(false);
+        List<RehashedPassword> rehashes = new ArrayList<>();
+        for (String name : pendingRehashes.keySet()) {
+            RehashedPassword rehash = pendingRehashes.remove(name);
+            if (rehash != null) {
+                rehashes.add(rehash);
+            }
+        }
+        if (!rehashes.isEmpty()) {
+            int updated = dataSource.updateRehashedPasswords(rehashes);
+            savedRehashes.addAndGet(updated);
+            logger.fine("Updated " + updated + " of " + rehashes.size() + " password hashes to the current settings");
+        }
+    }
+
+    /**
+     * @return number of accounts whose hash has been replaced
+     */
+    public long getSavedRehashCount() {
+        return savedRehashes.get();
+    }
+
+    private void queueSave(RehashedPassword rehash) {
+        pendingRehashes.put(rehash.getName(), rehash);
+        if (isSaveScheduled.compareAndSet(false, true)) {
+            bukkitService.runTaskLaterAsynchronously(this::savePendingRehashes, SAVE_DELAY_TICKS);
+        }
+    }
+}
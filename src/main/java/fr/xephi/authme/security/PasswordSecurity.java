@@ -13,6 +13,9 @@ import org.bukkit.plugin.PluginManager;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 /**
  * Manager class for password-related operations.
@@ -31,8 +34,17 @@ public class PasswordSecurity implements Reloadable {
     @Inject
     private Factory<EncryptionMethod> encryptionMethodFactory;
 
+    @Inject
+    private HashingExecutor hashingExecutor;
+
+    @Inject
+    private HashCostCalibrator hashCostCalibrator;
+
+    @Inject
+    private PasswordRehasher passwordRehasher;
+
     private EncryptionMethod encryptionMethod;
-    private Collection<HashAlgorithm> legacyAlgorithms;
+    private Collection<EncryptionMethod> legacyMethods;
 
     /**
      * Load or reload the configuration.
@@ -41,8 +53,12 @@ public class PasswordSecurity implements Reloadable {
     @Override
     public void reload() {
         HashAlgorithm algorithm = settings.getProperty(SecuritySettings.PASSWORD_HASH);
+        hashCostCalibrator.applyCalibration(algorithm);
         this.encryptionMethod = initializeEncryptionMethodWithEvent(algorithm);
-        this.legacyAlgorithms = settings.getProperty(SecuritySettings.LEGACY_HASHES);
+        this.legacyMethods = settings.getProperty(SecuritySettings.LEGACY_HASHES).stream()
+            .map(this::initializeEncryptionMethod)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 
     /**
@@ -52,10 +68,23 @@ public class PasswordSecurity implements Reloadable {
      * @param playerName The player's name
      *
      * @return The password hash
+     * @throws HashingBusyException if the hashing queue is full
      */
     public HashedPassword computeHash(String password, String playerName) {
-        String playerLowerCase = playerName.toLowerCase();
-        return encryptionMethod.computeHash(password, playerLowerCase);
+        return hashingExecutor.execute(createHashTask(password, playerName));
+    }
+
+    /**
+     * Compute the hash of the configured algorithm for the given password and username. Unlike
+     * {@link #computeHash}, the hash is computed on the calling thread if the hashing queue is full.
+     *
+     * @param password The password to hash
+     * @param playerName The player's name
+     *
+     * @return The password hash
+     */
+    public HashedPassword computeHashWithoutRejection(String password, String playerName) {
+        return hashingExecutor.executeWithoutRejection(createHashTask(password, playerName));
     }
 
     /**
@@ -65,10 +94,25 @@ public class PasswordSecurity implements Reloadable {
      * @param playerName The player to check for
      *
      * @return True if the password is correct, false otherwise
+     * @throws HashingBusyException if the hashing queue is full
      */
     public boolean comparePassword(String password, String playerName) {
         HashedPassword auth = dataSource.getPassword(playerName);
-        return auth != null && comparePassword(password, auth, playerName);
+        return auth != null && hashingExecutor.execute(createCompareTask(password, auth, playerName));
+    }
+
+    /**
+     * Check if the given password matches the player's stored password. Unlike {@link #comparePassword},
+     * the password is checked on the calling thread if the hashing queue is full.
+     *
+     * @param password The password to check
+     * @param playerName The player to check for
+     *
+     * @return True if the password is correct, false otherwise
+     */
+    public boolean comparePasswordWithoutRejection(String password, String playerName) {
+        HashedPassword auth = dataSource.getPassword(playerName);
+        return auth != null && hashingExecutor.executeWithoutRejection(createCompareTask(password, auth, playerName));
     }
 
     /**
@@ -79,17 +123,36 @@ public class PasswordSecurity implements Reloadable {
      * @param playerName The player to check for
      *
      * @return True if the password matches, false otherwise
+     * @throws HashingBusyException if the hashing queue is full
      */
     public boolean comparePassword(String password, HashedPassword hashedPassword, String playerName) {
+        return hashingExecutor.execute(createCompareTask(password, hashedPassword, playerName));
+    }
+
+    private Callable<HashedPassword> createHashTask(String password, String playerName) {
+        String playerLowerCase = playerName.toLowerCase();
+        EncryptionMethod method = encryptionMethod;
+        return () -> method.computeHash(password, playerLowerCase);
+    }
+
+    private Callable<Boolean> createCompareTask(String password, HashedPassword hashedPassword, String playerName) {
         String playerLowerCase = playerName.toLowerCase();
-        return methodMatches(encryptionMethod, password, hashedPassword, playerLowerCase)
-            || compareWithLegacyHashes(password, hashedPassword, playerLowerCase);
+        EncryptionMethod method = encryptionMethod;
+        return () -> {
+            if (methodMatches(method, password, hashedPassword, playerLowerCase)) {
+                if (method.needsRehash(hashedPassword)) {
+                    passwordRehasher.rehash(playerLowerCase, password, hashedPassword, method);
+                }
+                return true;
+            }
+            return compareWithLegacyHashes(password, hashedPassword, playerLowerCase);
+        };
     }
 
     /**
      * Compare the given hash with the configured legacy encryption methods to support
      * the migration to a new encryption method. Upon a successful match, the password
-     * will be hashed with the new encryption method and persisted.
+     * will be hashed with the new encryption method and persisted in the background.
      *
      * @param password       The clear-text password to check
      * @param hashedPassword The encrypted password to test the clear-text password against
@@ -98,10 +161,11 @@ public class PasswordSecurity implements Reloadable {
      * @return True if there was a password match with a configured legacy encryption method, false otherwise
      */
     private boolean compareWithLegacyHashes(String password, HashedPassword hashedPassword, String playerName) {
-        for (HashAlgorithm algorithm : legacyAlgorithms) {
-            EncryptionMethod method = initializeEncryptionMethod(algorithm);
+        for (EncryptionMethod method : legacyMethods) {
             if (methodMatches(method, password, hashedPassword, playerName)) {
-                hashAndSavePasswordWithNewAlgorithm(password, playerName);
+                if (encryptionMethod != null) {
+                    passwordRehasher.rehash(playerName, password, hashedPassword, encryptionMethod);
+                }
                 return true;
             }
         }
@@ -155,9 +219,4 @@ public class PasswordSecurity implements Reloadable {
         return encryptionMethodFactory.newInstance(algorithm.getClazz());
     }
 
-    private void hashAndSavePasswordWithNewAlgorithm(String password, String playerName) {
-        HashedPassword hashedPassword = encryptionMethod.computeHash(password, playerName);
-        dataSource.updatePassword(playerName, hashedPassword);
-    }
-
 }
@@ -1,5 +1,6 @@
 package fr.xephi.authme.security.crypts;
 
+import com.google.common.primitives.Ints;
 import de.mkammerer.argon2.Argon2Constants;
 import de.mkammerer.argon2.Argon2Factory;
 import fr.xephi.authme.ConsoleLogger;
@@ -8,6 +9,12 @@ import fr.xephi.authme.security.crypts.description.HasSalt;
 import fr.xephi.authme.security.crypts.description.Recommendation;
 import fr.xephi.authme.security.crypts.description.SaltType;
 import fr.xephi.authme.security.crypts.description.Usage;
+import fr.xephi.authme.settings.Settings;
+import fr.xephi.authme.settings.properties.SecuritySettings;
+
+import javax.inject.Inject;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Recommendation(Usage.RECOMMENDED)
 @HasSalt(value = SaltType.TEXT, length = Argon2Constants.DEFAULT_SALT_LENGTH)
@@ -15,12 +22,43 @@ import fr.xephi.authme.security.crypts.description.Usage;
 // and isn't exposed to the outside, so we treat it as an unsalted implementation
 public class Argon2 extends UnsaltedMethod {
 
+    public static final int DEFAULT_TIME_COST = 2;
+    public static final int DEFAULT_MEMORY_COST_KIB = 65536;
+    public static final int DEFAULT_PARALLELISM = 1;
+
+    private static final Pattern PARAMETERS_PATTERN = Pattern.compile("m=(\\d+),t=(\\d+),p=\\d+");
+
     private static ConsoleLogger logger = ConsoleLoggerFactory.get(Argon2.class);
 
     private de.mkammerer.argon2.Argon2 argon2;
+    private final int timeCost;
+    private final int memoryCostKib;
+    private final int parallelism;
 
     public Argon2() {
-        argon2 = Argon2Factory.create();
+        this(DEFAULT_TIME_COST, DEFAULT_MEMORY_COST_KIB, DEFAULT_PARALLELISM);
+    }
+
+    @Inject
+    Argon2(Settings settings) {
+        this(positiveOrDefault(settings.getProperty(SecuritySettings.ARGON2_TIME_COST), DEFAULT_TIME_COST),
+            positiveOrDefault(settings.getProperty(SecuritySettings.ARGON2_MEMORY_COST), DEFAULT_MEMORY_COST_KIB),
+            positiveOrDefault(settings.getProperty(SecuritySettings.ARGON2_PARALLELISM), DEFAULT_PARALLELISM));
+    }
+
+    /**
+     * Constructor. The parameters are stored in each generated hash, so hashes created
+     * with other parameters can still be verified.
+     *
+     * @param timeCost number of iterations
+     * @param memoryCostKib memory to use per hash, in KiB
+     * @param parallelism number of lanes
+     */
+    public Argon2(int timeCost, int memoryCostKib, int parallelism) {
+        this.argon2 = Argon2Factory.create();
+        this.timeCost = timeCost;
+        this.memoryCostKib = memoryCostKib;
+        this.parallelism = parallelism;
     }
 
     /**
@@ -41,11 +79,33 @@ public class Argon2 extends UnsaltedMethod {
 
     @Override
     public String computeHash(String password) {
-        return argon2.hash(2, 65536, 1, password);
+        return argon2.hash(timeCost, memoryCostKib, parallelism, password);
     }
 
     @Override
     public boolean comparePassword(String password, HashedPassword hashedPassword, String name) {
         return argon2.verify(hashedPassword.getHash(), password);
     }
+
+    @Override
+    public boolean needsRehash(HashedPassword hashedPassword) {
+        // Format: $argon2i$v=19$m=65536,t=2,p=1$salt$hash
+        String[] parts = hashedPassword.getHash().split("\\$");
+        if (parts.length != 6) {
+            return false;
+        }
+        // Only hashes with a lower memory or time cost are weaker; the parallelism doesn't change the strength
+        Matcher matcher = PARAMETERS_PATTERN.matcher(parts[3]);
+        if (!matcher.matches()) {
+            return false;
+        }
+        Integer storedMemoryCost = Ints.tryParse(matcher.group(1));
+        Integer storedTimeCost = Ints.tryParse(matcher.group(2));
+        return storedMemoryCost != null && storedTimeCost != null
+            && (storedMemoryCost < memoryCostKib || storedTimeCost < timeCost);
+    }
+
+    private static int positiveOrDefault(int value, int defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
 }
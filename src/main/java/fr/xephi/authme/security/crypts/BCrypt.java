@@ -11,13 +11,21 @@ import javax.inject.Inject;
  */
 public class BCrypt extends BCryptBasedHash {
 
+    private final int costFactor;
+
     @Inject
     public BCrypt(Settings settings) {
-        super(createHasher(settings));
+        this(settings.getProperty(HooksSettings.BCRYPT_LOG2_ROUND));
+    }
+
+    private BCrypt(int costFactor) {
+        super(new BCryptHasher(Version.VERSION_2A, costFactor));
+        this.costFactor = costFactor;
     }
 
-    private static BCryptHasher createHasher(Settings settings) {
-        int bCryptLog2Rounds = settings.getProperty(HooksSettings.BCRYPT_LOG2_ROUND);
-        return new BCryptHasher(Version.VERSION_2A, bCryptLog2Rounds);
+    @Override
+    public boolean needsRehash(HashedPassword hashedPassword) {
+        // Hashes with a higher cost factor are kept: rehashing them would only weaken them
+        return BCryptHasher.getCostFactor(hashedPassword.getHash()) < costFactor;
     }
 }
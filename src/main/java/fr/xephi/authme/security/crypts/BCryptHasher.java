@@ -55,6 +55,24 @@ public class BCryptHasher {
         return false;
     }
 
+    /**
+     * Returns the cost factor a BCrypt hash was created with.
+     *
+     * @param hash the hash to process
+     * @return the cost factor, or -1 if the hash is not a valid BCrypt hash
+     */
+    public static int getCostFactor(String hash) {
+        // Format: $2a$10$ followed by the salt and the hash
+        if (HashUtils.isValidBcryptHash(hash) && hash.charAt(6) == '$') {
+            try {
+                return Integer.parseInt(hash.substring(4, 6));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Generates a salt for usage in BCrypt. The returned salt is not yet encoded.
      * <p>
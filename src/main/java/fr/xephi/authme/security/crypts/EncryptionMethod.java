@@ -58,4 +58,17 @@ public interface EncryptionMethod {
      */
     boolean hasSeparateSalt();
 
+    /**
+     * Return whether the given hash, which has been verified to match the password, was created with
+     * weaker parameters than the currently configured ones (e.g. a lower cost factor) and should be
+     * replaced by a new hash of the password. Hashes with stronger parameters are never reported, so
+     * that lowering a cost does not weaken existing hashes.
+     *
+     * @param hashedPassword The hash to check
+     *
+     * @return True if the password should be hashed again, false otherwise
+     */
+    default boolean needsRehash(HashedPassword hashedPassword) {
+        return false;
+    }
 }
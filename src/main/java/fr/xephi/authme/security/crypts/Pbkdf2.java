@@ -54,6 +54,13 @@ public class Pbkdf2 extends HexSaltedMethod {
         return engine.verifyKey(password);
     }
 
+    @Override
+    public boolean needsRehash(HashedPassword hashedPassword) {
+        String[] line = hashedPassword.getHash().split("\\$");
+        Integer iterations = line.length == 4 ? Ints.tryParse(line[1]) : null;
+        return iterations != null && iterations < numberOfRounds;
+    }
+
     @Override
     public int getSaltLength() {
         return 16;
@@ -1,5 +1,6 @@
 package fr.xephi.authme.service;
 
+import fr.xephi.authme.initialization.HasCleanup;
 import fr.xephi.authme.initialization.SettingsDependent;
 import fr.xephi.authme.message.MessageKey;
 import fr.xephi.authme.message.Messages;
@@ -7,13 +8,15 @@ import fr.xephi.authme.permission.AdminPermission;
 import fr.xephi.authme.permission.PermissionsManager;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.ProtectionSettings;
-import fr.xephi.authme.util.AtomicIntervalCounter;
+import fr.xephi.authme.util.expiring.SlidingWindowCounter;
 import org.bukkit.scheduler.BukkitTask;
 
 import javax.inject.Inject;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static fr.xephi.authme.service.BukkitService.TICKS_PER_MINUTE;
 import static fr.xephi.authme.service.BukkitService.TICKS_PER_SECOND;
@@ -21,28 +24,33 @@ import static fr.xephi.authme.service.BukkitService.TICKS_PER_SECOND;
 /**
  * The AntiBot Service Management class.
  */
-public class AntiBotService implements SettingsDependent {
+public class AntiBotService implements SettingsDependent, HasCleanup {
 
     // Instances
     private final Messages messages;
     private final PermissionsManager permissionsManager;
     private final BukkitService bukkitService;
-    private final CopyOnWriteArrayList<String> antibotKicked = new CopyOnWriteArrayList<>();
+    private final GeoIpService geoIpService;
+    private final Set<String> antibotKicked = ConcurrentHashMap.newKeySet();
     // Settings
     private int duration;
     // Service status
     private AntiBotStatus antiBotStatus;
     private boolean startup;
     private BukkitTask disableTask;
-    private AtomicIntervalCounter flaggedCounter;
+    private SlidingWindowCounter flaggedCounter;
+    private int sensibility;
+    /** Join rates per subnet and country if the adaptive mode is enabled, null otherwise. */
+    private JoinRateTracker joinRateTracker;
 
     @Inject
     AntiBotService(Settings settings, Messages messages, PermissionsManager permissionsManager,
-                   BukkitService bukkitService) {
+                   BukkitService bukkitService, GeoIpService geoIpService) {
         // Instances
         this.messages = messages;
         this.permissionsManager = permissionsManager;
         this.bukkitService = bukkitService;
+        this.geoIpService = geoIpService;
         // Initial status
         disableTask = null;
         antiBotStatus = AntiBotStatus.DISABLED;
@@ -55,9 +63,16 @@ public class AntiBotService implements SettingsDependent {
     public void reload(Settings settings) {
         // Load settings
         duration = settings.getProperty(ProtectionSettings.ANTIBOT_DURATION);
-        int sensibility = settings.getProperty(ProtectionSettings.ANTIBOT_SENSIBILITY);
+        sensibility = settings.getProperty(ProtectionSettings.ANTIBOT_SENSIBILITY);
         int interval = settings.getProperty(ProtectionSettings.ANTIBOT_INTERVAL);
-        flaggedCounter = new AtomicIntervalCounter(sensibility, interval);
+        flaggedCounter = new SlidingWindowCounter(interval, TimeUnit.SECONDS);
+        joinRateTracker = settings.getProperty(ProtectionSettings.ENABLE_ADAPTIVE_ANTIBOT)
+            ? new JoinRateTracker(geoIpService,
+                TimeUnit.SECONDS.toMillis(settings.getProperty(ProtectionSettings.ADAPTIVE_ANTIBOT_HALF_LIFE)),
+                settings.getProperty(ProtectionSettings.ADAPTIVE_ANTIBOT_SUBNET_RATE),
+                settings.getProperty(ProtectionSettings.ADAPTIVE_ANTIBOT_COUNTRY_RATE),
+                System::currentTimeMillis)
+            : null;
 
         // Stop existing protection
         stopProtection();
@@ -151,18 +166,26 @@ public class AntiBotService implements SettingsDependent {
     }
 
     /**
-     * Returns if a player should be kicked due to antibot service.
+     * Returns if a player should be kicked due to antibot service. In the adaptive mode, only players
+     * from subnets or countries with too many joins are kicked while the service is listening.
      *
+     * @param ip the IP address of the joining player
      * @return if the player should be kicked
      */
-    public boolean shouldKick() {
+    public boolean shouldKick(String ip) {
         if (antiBotStatus == AntiBotStatus.DISABLED) {
             return false;
         } else if (antiBotStatus == AntiBotStatus.ACTIVE) {
             return true;
         }
 
-        if (flaggedCounter.handle()) {
+        JoinRateTracker tracker = joinRateTracker;
+        if (tracker != null) {
+            return tracker.recordJoin(ip);
+        }
+        flaggedCounter.increment();
+        if (flaggedCounter.get() > sensibility) {
+            flaggedCounter.reset();
             startProtection();
             return true;
         }
@@ -188,7 +211,26 @@ public class AntiBotService implements SettingsDependent {
      * @param name the name to add
      */
     public void addPlayerKick(String name) {
-        antibotKicked.addIfAbsent(name.toLowerCase());
+        antibotKicked.add(name.toLowerCase());
+    }
+
+    /**
+     * Returns the join rates per subnet and country of the adaptive mode.
+     *
+     * @return the join rate tracker, or null if the adaptive mode is disabled
+     */
+    public JoinRateTracker getJoinRateTracker() {
+        return joinRateTracker;
+    }
+
+    @Override
+    public void performCleanup() {
+        JoinRateTracker tracker = joinRateTracker;
+        if (tracker != null) {
+            tracker.removeIdleBuckets();
+            // Players are only kicked for a short time in the adaptive mode
+            antibotKicked.clear();
+        }
     }
 
     public enum AntiBotStatus {
@@ -0,0 +1,139 @@
+package fr.xephi.authme.service;
+
+import com.google.common.net.InetAddresses;
+import fr.xephi.authme.util.InternetProtocolUtils;
+import fr.xephi.authme.util.expiring.DecayingRate;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks the rate of joins per /24 (IPv4) or /48 (IPv6) subnet and per country, so that the
+ * {@link AntiBotService} can throttle the joins of offending subnets and countries only.
+ */
+public class JoinRateTracker {
+
+    /** Rates below this value are dropped by {@link #removeIdleBuckets()}. */
+    private static final double IDLE_RATE_PER_MINUTE = 0.01;
+
+    private final Map<String, DecayingRate> ratesByBucket = new ConcurrentHashMap<>();
+    private final LongAdder throttledJoins = new LongAdder();
+    private final GeoIpService geoIpService;
+    private final long halfLifeMillis;
+    private final double maxSubnetRate;
+    private final double maxCountryRate;
+    private final LongSupplier clock;
+
+    /**
+     * Constructor.
+     *
+     * @param geoIpService the GeoIP service to look up countries with
+     * @param halfLifeMillis the half-life of the rates in milliseconds
+     * @param maxSubnetRate the max joins per minute of a subnet
+     * @param maxCountryRate the max joins per minute of a country, or 0 to not track countries
+     * @param clock supplier of the current time in milliseconds
+     */
+    JoinRateTracker(GeoIpService geoIpService, long halfLifeMillis, double maxSubnetRate, double maxCountryRate,
+                    LongSupplier clock) {
+        this.geoIpService = geoIpService;
+        this.halfLifeMillis = halfLifeMillis;
+        this.maxSubnetRate = maxSubnetRate;
+        this.maxCountryRate = maxCountryRate;
+        this.clock = clock;
+    }
+
+    /**
+     * Records a join from the given IP address and returns whether the join should be throttled
+     * because the rate of its subnet or its country is too high.
+     *
+     * @param ip the IP address of the joining player
+     * @return true if the join should be denied, false otherwise
+     */
+    boolean recordJoin(String ip) {
+        // Players joining through a proxy all have a local address
+        if (InternetProtocolUtils.isLocalAddress(ip)) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        boolean isThrottled = false;
+        String subnet = getSubnet(ip);
+        if (subnet != null && record(subnet, now) > maxSubnetRate) {
+            isThrottled = true;
+        }
+        if (maxCountryRate > 0 && record("country " + geoIpService.getCountryCode(ip), now) > maxCountryRate) {
+            isThrottled = true;
+        }
+        if (isThrottled) {
+            throttledJoins.increment();
+        }
+        return isThrottled;
+    }
+
+    /**
+     * Removes the rates of subnets and countries without recent joins.
+     */
+    void removeIdleBuckets() {
+        long now = clock.getAsLong();
+        ratesByBucket.values().removeIf(rate -> rate.getRatePerMinute(now) < IDLE_RATE_PER_MINUTE);
+    }
+
+    /**
+     * Returns the subnets and countries with the highest join rates, e.g. "203.0.113.0/24" or "country US".
+     *
+     * @param limit the maximum number of entries to return
+     * @return the join rates per minute, highest first
+     */
+    public Map<String, Double> getHighestRates(int limit) {
+        long now = clock.getAsLong();
+        Map<String, Double> rates = new HashMap<>();
+        ratesByBucket.forEach((bucket, rate) -> rates.put(bucket, rate.getRatePerMinute(now)));
+        return rates.entrySet().stream()
+            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+            .limit(limit)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * @return the number of subnets and countries whose join rate is being tracked
+     */
+    public int getTrackedBucketCount() {
+        return ratesByBucket.size();
+    }
+
+    /**
+     * @return the total number of joins which were throttled
+     */
+    public long getThrottledJoinCount() {
+        return throttledJoins.sum();
+    }
+
+    private double record(String bucket, long now) {
+        return ratesByBucket.computeIfAbsent(bucket, k -> new DecayingRate(halfLifeMillis)).record(now);
+    }
+
+    /**
+     * Returns the /24 subnet of an IPv4 address or the /48 subnet of an IPv6 address.
+     *
+     * @param ip the IP address
+     * @return the subnet in CIDR notation, or null if the address is invalid
+     */
+    static String getSubnet(String ip) {
+        if (!InetAddresses.isInetAddress(ip)) {
+            return null;
+        }
+        InetAddress address = InetAddresses.forString(ip);
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            return (bytes[0] & 0xFF) + "." + (bytes[1] & 0xFF) + "." + (bytes[2] & 0xFF) + ".0/24";
+        }
+        return String.format("%x:%x:%x::/48", ((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF),
+            ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF), ((bytes[4] & 0xFF) << 8) | (bytes[5] & 0xFF));
+    }
+}
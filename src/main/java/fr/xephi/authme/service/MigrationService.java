@@ -1,7 +1,6 @@
 package fr.xephi.authme.service;
 
 import fr.xephi.authme.ConsoleLogger;
-import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.security.HashAlgorithm;
@@ -10,7 +9,7 @@ import fr.xephi.authme.security.crypts.Sha256;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.SecuritySettings;
 
-import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Migrations to perform during the initialization of AuthMe.
@@ -35,8 +34,9 @@ public final class MigrationService {
             logger.warning("Your HashAlgorithm has been detected as plaintext and is now deprecated;"
                 + " it will be changed and hashed now to the AuthMe default hashing method");
             logger.warning("Don't stop your server; wait for the conversion to have been completed!");
-            List<PlayerAuth> allAuths = dataSource.getAllAuths();
-            for (PlayerAuth auth : allAuths) {
+            AtomicInteger accountCount = new AtomicInteger();
+            dataSource.forEachAuth(auth -> {
+                accountCount.incrementAndGet();
                 String hash = auth.getPassword().getHash();
                 if (hash.startsWith("$SHA$")) {
                     logger.warning("Skipping conversion for " + auth.getNickname() + "; detected SHA hash");
@@ -45,10 +45,10 @@ public final class MigrationService {
                     auth.setPassword(hashedPassword);
                     dataSource.updatePassword(auth);
                 }
-            }
+            });
             settings.setProperty(SecuritySettings.PASSWORD_HASH, HashAlgorithm.SHA256);
             settings.save();
-            logger.info("Migrated " + allAuths.size() + " accounts from plaintext to SHA256");
+            logger.info("Migrated " + accountCount.get() + " accounts from plaintext to SHA256");
         }
     }
 }
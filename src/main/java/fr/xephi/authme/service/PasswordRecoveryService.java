@@ -8,6 +8,7 @@ import fr.xephi.authme.output.ConsoleLoggerFactory;
 import fr.xephi.authme.mail.EmailService;
 import fr.xephi.authme.message.MessageKey;
 import fr.xephi.authme.message.Messages;
+import fr.xephi.authme.security.HashingBusyException;
 import fr.xephi.authme.security.PasswordSecurity;
 import fr.xephi.authme.security.crypts.HashedPassword;
 import fr.xephi.authme.settings.properties.SecuritySettings;
@@ -96,7 +97,13 @@ public class PasswordRecoveryService implements Reloadable, HasCleanup {
 
         String name = player.getName();
         String thePass = RandomStringUtils.generate(commonService.getProperty(RECOVERY_PASSWORD_LENGTH));
-        HashedPassword hashNew = passwordSecurity.computeHash(thePass, name);
+        HashedPassword hashNew;
+        try {
+            hashNew = passwordSecurity.computeHash(thePass, name);
+        } catch (HashingBusyException e) {
+            commonService.send(player, MessageKey.HASHING_BUSY);
+            return;
+        }
 
         logger.info("Generating new password for '" + name + "'");
 
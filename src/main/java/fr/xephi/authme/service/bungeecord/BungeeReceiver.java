@@ -4,6 +4,7 @@ import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteStreams;
 import fr.xephi.authme.AuthMe;
 import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.data.auth.AuthDelta;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.initialization.SettingsDependent;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
@@ -16,6 +17,8 @@ import org.bukkit.plugin.messaging.Messenger;
 import org.bukkit.plugin.messaging.PluginMessageListener;
 
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Optional;
 
 public class BungeeReceiver implements PluginMessageListener, SettingsDependent {
@@ -61,7 +64,8 @@ public class BungeeReceiver implements PluginMessageListener, SettingsDependent
         final short dataLength = in.readShort();
         final byte[] dataBytes = new byte[dataLength];
         in.readFully(dataBytes);
-        final ByteArrayDataInput dataIn = ByteStreams.newDataInput(dataBytes);
+        final ByteArrayInputStream dataStream = new ByteArrayInputStream(dataBytes);
+        final ByteArrayDataInput dataIn = ByteStreams.newDataInput(dataStream);
 
         // Parse type
         final String typeId = dataIn.readUTF();
@@ -81,8 +85,23 @@ public class BungeeReceiver implements PluginMessageListener, SettingsDependent
             return;
         }
 
+        // Apply the changes carried by the message, if sent by a server which supports it
+        if (type.get().getDeltaKind() == AuthDelta.Kind.UPDATE && dataStream.available() > 0) {
+            try {
+                dataSource.applyDelta(AuthDelta.readFrom(dataIn));
+                return;
+            } catch (IOException | IllegalStateException e) {
+                logger.warning("Received invalid changes in forwarded plugin message of type "
+                    + type.get().name() + ": " + e.getMessage());
+            }
+        }
+
         // Handle type
         switch (type.get()) {
+            case REGISTER:
+                // The name may be known as unregistered on this server
+                dataSource.refreshCache(argument);
+                break;
             case UNREGISTER:
                 dataSource.invalidateCache(argument);
                 break;
@@ -4,6 +4,8 @@ import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
 import fr.xephi.authme.AuthMe;
 import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.data.auth.AuthDelta;
+import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.initialization.SettingsDependent;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
@@ -14,6 +16,9 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.messaging.Messenger;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class BungeeSender implements SettingsDependent {
 
@@ -21,9 +26,13 @@ public class BungeeSender implements SettingsDependent {
     private final AuthMe plugin;
     private final BukkitService bukkitService;
     private final DataSource dataSource;
+    /** Version of the last change sent to the other servers, based on the current time. */
+    private final AtomicLong lastDeltaVersion = new AtomicLong();
 
     private boolean isEnabled;
     private String destinationServerOnLogin;
+    /** Transport of the changes to accounts if the peer mesh is enabled, null otherwise. */
+    private volatile PeerMeshTransport peerMesh;
 
     /*
      * Constructor.
@@ -48,6 +57,51 @@ public class BungeeSender implements SettingsDependent {
                 messenger.registerOutgoingPluginChannel(plugin, "BungeeCord");
             }
         }
+        reloadPeerMesh(settings);
+    }
+
+    private void reloadPeerMesh(final Settings settings) {
+        closePeerMesh();
+        if (settings.getProperty(HooksSettings.CACHE_SYNC_TRANSPORT) != CacheSyncTransport.PEER_MESH) {
+            return;
+        }
+        final String secret = settings.getProperty(HooksSettings.CACHE_SYNC_SECRET);
+        if (secret.isEmpty()) {
+            logger.warning("The peer mesh requires a secret, account changes will be sent with plugin messages");
+            return;
+        }
+        PeerMeshTransport transport = null;
+        try {
+            transport = new PeerMeshTransport(settings.getProperty(HooksSettings.CACHE_SYNC_BIND_ADDRESS),
+                settings.getProperty(HooksSettings.CACHE_SYNC_PEERS), secret,
+                settings.getProperty(HooksSettings.CACHE_SYNC_FLUSH_INTERVAL), dataSource::applyDelta);
+            transport.start();
+            peerMesh = transport;
+        } catch (IOException | IllegalArgumentException e) {
+            if (transport != null) {
+                transport.close();
+            }
+            logger.logException("Could not start the peer mesh, account changes will be sent with plugin messages:",
+                e);
+        }
+    }
+
+    /**
+     * Sends the pending account changes to the other servers and stops the peer mesh, if enabled.
+     */
+    public void closePeerMesh() {
+        final PeerMeshTransport transport = peerMesh;
+        if (transport != null) {
+            peerMesh = null;
+            transport.close();
+        }
+    }
+
+    /**
+     * @return the peer mesh transport, or null if the peer mesh is disabled
+     */
+    public PeerMeshTransport getPeerMesh() {
+        return peerMesh;
     }
 
     public boolean isEnabled() {
@@ -62,7 +116,7 @@ public class BungeeSender implements SettingsDependent {
         bukkitService.sendBungeeMessage(out.toByteArray());
     }
 
-    private void sendForwardedBungeecordMessage(final String subChannel, final String... data) {
+    private void sendForwardedBungeecordMessage(final String subChannel, final AuthDelta delta, final String... data) {
         final ByteArrayDataOutput out = ByteStreams.newDataOutput();
         out.writeUTF("Forward");
         out.writeUTF("ONLINE");
@@ -71,6 +125,14 @@ public class BungeeSender implements SettingsDependent {
         for (final String element : data) {
             dataOut.writeUTF(element);
         }
+        if (delta != null) {
+            // Servers which don't know deltas ignore the additional data
+            try {
+                delta.writeTo(dataOut);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         final byte[] dataBytes = dataOut.toByteArray();
         out.writeShort(dataBytes.length);
         out.write(dataBytes);
@@ -97,6 +159,14 @@ public class BungeeSender implements SettingsDependent {
      * @param playerName the player related to the message
      */
     public void sendAuthMeBungeecordMessage(final MessageType type, final String playerName) {
+        final PeerMeshTransport transport = peerMesh;
+        if (transport != null && type.getDeltaKind() != null) {
+            // The peer mesh doesn't need the plugin to be enabled, so changes on shutdown are sent as well
+            if (!type.isRequiresCaching() || dataSource.isCached()) {
+                transport.publish(createDelta(type, playerName));
+            }
+            return;
+        }
         if (isEnabled) {
             if (!plugin.isEnabled()) {
                 logger.debug("Tried to send a " + type + " bungeecord message but the plugin was disabled!");
@@ -106,11 +176,39 @@ public class BungeeSender implements SettingsDependent {
                 return;
             }
             if (type.isBroadcast()) {
-                sendForwardedBungeecordMessage("AuthMe.v2.Broadcast", type.getId(), playerName.toLowerCase());
+                final AuthDelta delta = type.getDeltaKind() == AuthDelta.Kind.UPDATE
+                    ? createDelta(type, playerName)
+                    : null;
+                sendForwardedBungeecordMessage("AuthMe.v2.Broadcast", delta, type.getId(), playerName.toLowerCase());
             } else {
                 sendBungeecordMessage("AuthMe.v2", type.getId(), playerName.toLowerCase());
             }
         }
     }
 
+    /**
+     * Creates the delta of the given message type with the current values of the player's account,
+     * which are cached since the player's account has just been updated.
+     *
+     * @param type the message type
+     * @param playerName the player whose account has changed
+     * @return the delta to send to the other servers
+     */
+    private AuthDelta createDelta(final MessageType type, final String playerName) {
+        final long version = lastDeltaVersion.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+        switch (type.getDeltaKind()) {
+            case UPDATE:
+                final PlayerAuth auth = dataSource.getAuth(playerName);
+                return auth == null
+                    ? AuthDelta.reload(playerName, version)
+                    : AuthDelta.update(auth, type.getDeltaFields(), version);
+            case RELOAD:
+                return AuthDelta.reload(playerName, version);
+            case REMOVE:
+                return AuthDelta.remove(playerName, version);
+            default:
+                throw new IllegalStateException("Unhandled delta kind '" + type.getDeltaKind() + "'");
+        }
+    }
+
 }
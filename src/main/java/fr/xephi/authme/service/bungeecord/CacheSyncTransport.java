@@ -0,0 +1,14 @@
+package fr.xephi.authme.service.bungeecord;
+
+/**
+ * Transport over which changes to accounts are sent to the other servers.
+ */
+public enum CacheSyncTransport {
+
+    /** Plugin messages forwarded by BungeeCord; requires a player to be online on the servers. */
+    PLUGIN_MESSAGE,
+
+    /** Direct TCP connections between the servers, see {@link PeerMeshTransport}. */
+    PEER_MESH
+
+}
@@ -1,15 +1,25 @@
 package fr.xephi.authme.service.bungeecord;
 
+import fr.xephi.authme.data.auth.AuthDelta;
+import fr.xephi.authme.data.auth.PlayerAuth;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Set;
 
 public enum MessageType {
-    REFRESH_PASSWORD("refresh.password", true, true),
-    REFRESH_SESSION("refresh.session", true, true),
-    REFRESH_QUITLOC("refresh.quitloc", true, true),
-    REFRESH_EMAIL("refresh.email", true, true),
-    REFRESH("refresh", true, true),
-    REGISTER("register", true),
-    UNREGISTER("unregister", true),
+    REFRESH_PASSWORD("refresh.password", true, true, AuthDelta.Kind.UPDATE, PlayerAuth.Field.PASSWORD),
+    REFRESH_SESSION("refresh.session", true, true, AuthDelta.Kind.UPDATE,
+        PlayerAuth.Field.REAL_NAME, PlayerAuth.Field.LAST_IP, PlayerAuth.Field.LAST_LOGIN),
+    // Sent when a player leaves, so it also carries the session data written along with the quit location
+    REFRESH_QUITLOC("refresh.quitloc", true, true, AuthDelta.Kind.UPDATE, PlayerAuth.Field.QUIT_LOCATION,
+        PlayerAuth.Field.REAL_NAME, PlayerAuth.Field.LAST_IP, PlayerAuth.Field.LAST_LOGIN),
+    REFRESH_EMAIL("refresh.email", true, true, AuthDelta.Kind.UPDATE, PlayerAuth.Field.EMAIL),
+    REFRESH("refresh", true, true, AuthDelta.Kind.RELOAD),
+    REGISTER("register", true, false, AuthDelta.Kind.RELOAD),
+    UNREGISTER("unregister", true, false, AuthDelta.Kind.REMOVE),
     LOGIN("login", true),
     LOGOUT("logout", true),
     PERFORM_LOGIN("perform.login", false);
@@ -17,15 +27,21 @@ public enum MessageType {
     private final String id;
     private final boolean broadcast;
     private final boolean requiresCaching;
+    private final AuthDelta.Kind deltaKind;
+    private final Set<PlayerAuth.Field> deltaFields;
 
-    MessageType(final String id, final boolean broadcast, final boolean requiresCaching) {
+    MessageType(final String id, final boolean broadcast, final boolean requiresCaching,
+                final AuthDelta.Kind deltaKind, final PlayerAuth.Field... deltaFields) {
         this.id = id;
         this.broadcast = broadcast;
         this.requiresCaching = requiresCaching;
+        this.deltaKind = deltaKind;
+        this.deltaFields = EnumSet.noneOf(PlayerAuth.Field.class);
+        this.deltaFields.addAll(Arrays.asList(deltaFields));
     }
 
     MessageType(final String id, final boolean broadcast) {
-        this(id, broadcast, false);
+        this(id, broadcast, false, null);
     }
 
     public String getId() {
@@ -40,6 +56,21 @@ public enum MessageType {
         return requiresCaching;
     }
 
+    /**
+     * @return the kind of change to the cached account the message stands for, null if the message
+     *         does not concern the cache
+     */
+    public AuthDelta.Kind getDeltaKind() {
+        return deltaKind;
+    }
+
+    /**
+     * @return the fields of the account changed by a message of kind {@link AuthDelta.Kind#UPDATE}
+     */
+    public Set<PlayerAuth.Field> getDeltaFields() {
+        return Collections.unmodifiableSet(deltaFields);
+    }
+
     /**
      * Returns the MessageType with the given ID.
      *
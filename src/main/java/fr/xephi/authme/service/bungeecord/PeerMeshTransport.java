@@ -0,0 +1,468 @@
+package fr.xephi.authme.service.bungeecord;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.data.auth.AuthDelta;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Sends changes to accounts directly to the other AuthMe instances over TCP, without a BungeeCord
+ * proxy or online players. Each instance listens on its own address and connects to all configured peers.
+ * <p>
+ * Changes are collected for the flush interval and changes to the same player are combined, so a burst
+ * of updates results in one delta per player. Frames are signed with the shared secret and frames with
+ * an invalid signature close the connection. Deltas which cannot be sent because a peer is unreachable
+ * are dropped: the peer's cache reloads accounts periodically anyway.
+ * <p>
+ * Each signed frame carries the sending instance's sequence number and clock time, so that recorded frames
+ * cannot be replayed: frames which are not newer than the last frame of the same instance, or whose time
+ * differs from the local clock by more than a minute, are rejected. The clocks of the servers must
+ * therefore be synchronized. A connection must start with a signed frame within five seconds, and the
+ * number of incoming connections is limited.
+ */
+public class PeerMeshTransport implements Closeable {
+
+    private static final int MAGIC = 0x41754D65;
+    private static final int PROTOCOL_VERSION = 2;
+    private static final int MAX_FRAME_BYTES = 1 << 20;
+    private static final int MAX_DELTAS_PER_FRAME = 1000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    private static final long MAX_CLOCK_SKEW_MILLIS = 60_000;
+    private static final int MAX_INBOUND_CONNECTIONS = 32;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 32;
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(PeerMeshTransport.class);
+
+    private final Map<String, AuthDelta> pendingDeltas = new ConcurrentHashMap<>();
+    private final Set<Socket> inboundSockets = ConcurrentHashMap.newKeySet();
+    /** Last frame received from each instance, by instance id. */
+    private final Map<Long, ReceivedFrame> lastFrames = new ConcurrentHashMap<>();
+    private final long instanceId = new SecureRandom().nextLong();
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final AtomicLong sentDeltas = new AtomicLong();
+    private final AtomicLong receivedDeltas = new AtomicLong();
+    private final HostAndPort bindAddress;
+    private final List<Peer> peers;
+    private final SecretKeySpec secret;
+    private final long flushIntervalMillis;
+    private final Consumer<AuthDelta> deltaHandler;
+    private final ScheduledExecutorService flushExecutor;
+    private final ExecutorService readerExecutor;
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * Constructor. Call {@link #start()} to listen for and send deltas.
+     *
+     * @param bindAddress the address to listen on, e.g. "10.0.0.1:25590"; port 0 picks a free port
+     * @param peerAddresses the addresses of the other instances
+     * @param secret the secret shared by all instances
+     * @param flushIntervalMillis the time in milliseconds during which deltas are collected before sending them
+     * @param deltaHandler handler of the deltas received from other instances, called on a reader thread
+     */
+    public PeerMeshTransport(String bindAddress, List<String> peerAddresses, String secret,
+                             long flushIntervalMillis, Consumer<AuthDelta> deltaHandler) {
+        if (secret.isEmpty()) {
+            throw new IllegalArgumentException("A secret is required to sign the messages between servers");
+        }
+        this.bindAddress = HostAndPort.fromString(bindAddress);
+        this.peers = peerAddresses.stream()
+            .map(address -> new Peer(HostAndPort.fromString(address)))
+            .collect(Collectors.toList());
+        this.secret = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.deltaHandler = deltaHandler;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("AuthMe-PeerMesh-Flush").build());
+        // One thread accepts connections, the others read from the incoming connections
+        this.readerExecutor = new ThreadPoolExecutor(0, MAX_INBOUND_CONNECTIONS + 1, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("AuthMe-PeerMesh-Reader-%d").build());
+    }
+
+    /**
+     * Starts listening for connections of other instances and schedules the sending of deltas.
+     *
+     * @throws IOException if the address could not be bound
+     */
+    public void start() throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(bindAddress.getHost(), bindAddress.getPortOrDefault(0)));
+        serverSocket = socket;
+        readerExecutor.execute(this::acceptConnections);
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a delta to be sent to all peers with the next flush. A queued delta of the same player is
+     * merged with the given delta.
+     *
+     * @param delta the delta to send
+     */
+    public void publish(AuthDelta delta) {
+        pendingDeltas.merge(delta.getName(), delta, AuthDelta::merge);
+    }
+
+    /**
+     * @return the port the transport listens on, or -1 if it has not been started
+     */
+    public int getLocalPort() {
+        ServerSocket socket = serverSocket;
+        return socket == null ? -1 : socket.getLocalPort();
+    }
+
+    public long getSentDeltaCount() {
+        return sentDeltas.get();
+    }
+
+    public long getReceivedDeltaCount() {
+        return receivedDeltas.get();
+    }
+
+    /**
+     * Sends the queued deltas and stops the transport.
+     */
+    @Override
+    public void close() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        peers.forEach(Peer::disconnect);
+        closeQuietly(serverSocket);
+        inboundSockets.forEach(PeerMeshTransport::closeQuietly);
+        readerExecutor.shutdownNow();
+    }
+
+    /**
+     * Sends all queued deltas to the peers.
+     */
+    @VisibleForTesting
+    synchronized void flush() {
+        List<AuthDelta> batch = new ArrayList<>();
+        for (Iterator<String> it = pendingDeltas.keySet().iterator(); it.hasNext(); ) {
+            AuthDelta delta = pendingDeltas.remove(it.next());
+            if (delta != null) {
+                batch.add(delta);
+            }
+            if (batch.size() == MAX_DELTAS_PER_FRAME || !it.hasNext()) {
+                sendToPeers(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendToPeers(List<AuthDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Connect first: a new connection starts with a frame, which must have a lower sequence number
+        peers.forEach(Peer::connectIfNeeded);
+        byte[] frame = createFrame(deltas);
+        for (Peer peer : peers) {
+            if (peer.send(frame)) {
+                sentDeltas.addAndGet(deltas.size());
+            }
+        }
+    }
+
+    /**
+     * Creates a signed frame with the given deltas and the next sequence number of this instance.
+     *
+     * @param deltas the deltas to send (may be empty)
+     * @return the frame
+     */
+    @VisibleForTesting
+    byte[] createFrame(List<AuthDelta> deltas) {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeLong(instanceId);
+            payload.writeLong(lastSequence.incrementAndGet());
+            payload.writeLong(System.currentTimeMillis());
+            payload.writeInt(deltas.size());
+            for (AuthDelta delta : deltas) {
+                delta.writeTo(payload);
+            }
+
+            ByteArrayOutputStream frameBytes = new ByteArrayOutputStream();
+            DataOutputStream frame = new DataOutputStream(frameBytes);
+            frame.writeInt(payloadBytes.size());
+            payloadBytes.writeTo(frame);
+            frame.write(sign(payloadBytes.toByteArray()));
+            return frameBytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void acceptConnections() {
+        ServerSocket socket = serverSocket;
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                if (inboundSockets.size() >= MAX_INBOUND_CONNECTIONS) {
+                    logger.warning("Closing connection of " + connection.getRemoteSocketAddress()
+                        + ": too many connections of peers");
+                    closeQuietly(connection);
+                    continue;
+                }
+                inboundSockets.add(connection);
+                try {
+                    readerExecutor.execute(() -> readFrames(connection));
+                } catch (RejectedExecutionException e) {
+                    inboundSockets.remove(connection);
+                    closeQuietly(connection);
+                }
+            } catch (SocketException e) {
+                // Server socket has been closed
+            } catch (IOException e) {
+                logger.logException("Could not accept connection of peer:", e);
+            }
+        }
+    }
+
+    private void readFrames(Socket connection) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()))) {
+            // Peers start with a signed frame right away, so don't let other connections wait for data forever
+            connection.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            if (in.readInt() != MAGIC || in.readInt() != PROTOCOL_VERSION) {
+                logger.warning("Closing connection of " + connection.getRemoteSocketAddress()
+                    + ": not an AuthMe peer or a different protocol version");
+                return;
+            }
+            boolean isHandshakeDone = false;
+            while (true) {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                byte[] signature = new byte[MAC_BYTES];
+                in.readFully(signature);
+                if (!MessageDigest.isEqual(signature, sign(payload))) {
+                    logger.warning("Closing connection of " + connection.getRemoteSocketAddress()
+                        + ": invalid signature, is the same secret configured on all servers?");
+                    return;
+                }
+                if (!handlePayload(payload)) {
+                    logger.warning("Closing connection of " + connection.getRemoteSocketAddress()
+                        + ": replayed or outdated frame, are the clocks of the servers synchronized?");
+                    return;
+                }
+                if (!isHandshakeDone) {
+                    connection.setSoTimeout(0);
+                    isHandshakeDone = true;
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Connection of peer {0} closed: {1}", connection.getRemoteSocketAddress(), e.getMessage());
+        } finally {
+            inboundSockets.remove(connection);
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Processes the payload of a frame with a valid signature.
+     *
+     * @param payload the payload to process
+     * @return false if the frame was rejected because it is not newer than the last frame of its sender
+     *         or because its time is too far from the local time, true otherwise
+     * @throws IOException if the payload cannot be read
+     */
+    private boolean handlePayload(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long sender = in.readLong();
+        long sequence = in.readLong();
+        long timestamp = in.readLong();
+        if (sender == instanceId) {
+            return true; // Sent by this instance, e.g. because it is listed as its own peer
+        }
+        if (!acceptFrame(sender, sequence, timestamp)) {
+            return false;
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; ++i) {
+            AuthDelta delta = AuthDelta.readFrom(in);
+            receivedDeltas.incrementAndGet();
+            try {
+                deltaHandler.accept(delta);
+            } catch (RuntimeException e) {
+                logger.logException("Could not apply " + delta + ":", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a frame is recent and newer than the last frame of the same instance, and records it.
+     *
+     * @param sender the id of the instance which sent the frame
+     * @param sequence the sequence number of the frame
+     * @param timestamp the time at which the frame was created
+     * @return true if the frame should be processed, false if it is replayed or outdated
+     */
+    private boolean acceptFrame(long sender, long sequence, long timestamp) {
+        long now = System.currentTimeMillis();
+        if (Math.abs(now - timestamp) > MAX_CLOCK_SKEW_MILLIS) {
+            return false;
+        }
+        // Frames of instances which have been silent for a while can only be accepted if they are recent
+        lastFrames.values().removeIf(frame -> frame.receivedAt < now - 2 * MAX_CLOCK_SKEW_MILLIS);
+        ReceivedFrame frame = new ReceivedFrame(sequence, now);
+        return lastFrames.merge(sender, frame, (last, next) -> next.sequence > last.sequence ? next : last) == frame;
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(secret);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign message", e);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignore) {
+                // Closing anyway
+            }
+        }
+    }
+
+    /**
+     * Outgoing connection to another instance. Only used by the flush thread.
+     */
+    private final class Peer {
+
+        private final HostAndPort address;
+        private Socket socket;
+        private DataOutputStream out;
+        private long nextConnectAttempt;
+
+        Peer(HostAndPort address) {
+            this.address = address;
+        }
+
+        /**
+         * Connects to the peer if it is not connected and the last failed attempt is long enough ago.
+         */
+        void connectIfNeeded() {
+            if (socket != null || System.currentTimeMillis() < nextConnectAttempt) {
+                return;
+            }
+            try {
+                connect();
+            } catch (IOException e) {
+                logger.warning("Could not connect to " + address + " to send account changes: " + e.getMessage());
+                nextConnectAttempt = System.currentTimeMillis() + RECONNECT_DELAY_MILLIS;
+            }
+        }
+
+        boolean send(byte[] frame) {
+            if (socket == null) {
+                return false;
+            }
+            try {
+                out.write(frame);
+                out.flush();
+                return true;
+            } catch (IOException e) {
+                logger.warning("Could not send account changes to " + address + ": " + e.getMessage());
+                disconnect();
+                nextConnectAttempt = System.currentTimeMillis() + RECONNECT_DELAY_MILLIS;
+                return false;
+            }
+        }
+
+        private void connect() throws IOException {
+            Socket newSocket = new Socket();
+            try {
+                newSocket.setTcpNoDelay(true);
+                newSocket.connect(new InetSocketAddress(address.getHost(), address.getPort()), CONNECT_TIMEOUT_MILLIS);
+                out = new DataOutputStream(new BufferedOutputStream(newSocket.getOutputStream()));
+                out.writeInt(MAGIC);
+                out.writeInt(PROTOCOL_VERSION);
+                // Authenticate the connection right away with an empty signed frame
+                out.write(createFrame(Collections.emptyList()));
+                out.flush();
+            } catch (IOException e) {
+                closeQuietly(newSocket);
+                out = null;
+                throw e;
+            }
+            socket = newSocket;
+        }
+
+        void disconnect() {
+            closeQuietly(socket);
+            socket = null;
+            out = null;
+        }
+    }
+
+    /**
+     * Sequence number of the last frame received from an instance.
+     */
+    private static final class ReceivedFrame {
+
+        private final long sequence;
+        private final long receivedAt;
+
+        ReceivedFrame(long sequence, long receivedAt) {
+            this.sequence = sequence;
+            this.receivedAt = receivedAt;
+        }
+    }
+}
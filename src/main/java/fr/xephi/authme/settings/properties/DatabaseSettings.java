@@ -19,6 +19,30 @@ public final class DatabaseSettings implements SettingsHolder {
     public static final Property<Boolean> USE_CACHING =
         newProperty("DataSource.caching", true);
 
+    @Comment({"Number of seconds for which the logged in and session flags of players are cached",
+        "when caching is enabled. Changes by other servers or websites may only be seen after",
+        "this time, so keep it low; set to 0 to always read them from the database."})
+    public static final Property<Integer> LOGIN_STATE_CACHE_SECONDS =
+        newProperty("DataSource.loginStateCacheSeconds", 5);
+
+    @Comment({"Maximum number of threads reloading cached player data in the background when caching",
+        "is enabled. Reloads beyond the threads' queue are skipped and keep the cached data."})
+    public static final Property<Integer> CACHE_LOADER_THREADS =
+        newProperty("DataSource.cacheLoaderThreads", 4);
+
+    @Comment({"Keep the names of all registered players in memory, so that plugins using the AuthMe API",
+        "can list names and look them up by prefix without querying the database. Requires caching.",
+        "Accounts registered or removed by other servers or websites are only added or removed on reload."})
+    public static final Property<Boolean> USE_NAME_INDEX =
+        newProperty("DataSource.nameIndex", false);
+
+    @Comment({"Keep a compact filter (Bloom filter) of the names of all registered players in memory, so that",
+        "names which are not registered, e.g. of bots, can be looked up without querying the database.",
+        "Requires caching. Accounts registered by other servers or websites are only known after a reload",
+        "or, with BungeeCord enabled, after the other server has sent a register message."})
+    public static final Property<Boolean> USE_NAME_FILTER =
+        newProperty("DataSource.nameFilter", false);
+
     @Comment("Database host address")
     public static final Property<String> MYSQL_HOST =
         newProperty("DataSource.mySQLHost", "127.0.0.1");
@@ -146,6 +170,31 @@ public final class DatabaseSettings implements SettingsHolder {
     public static final Property<Integer> MYSQL_CONNECTION_MAX_LIFETIME =
         newProperty("DataSource.maxLifetime", 1800);
 
+    @Comment({"SQLite only: use write-ahead logging, so that accounts can be read by several",
+        "connections in parallel while one connection writes. Do not enable it if the database",
+        "file is on a network file system."})
+    public static final Property<Boolean> SQLITE_WAL_MODE =
+        newProperty("DataSource.sqlite.walMode", false);
+
+    @Comment("SQLite only: number of connections used for reading if walMode is enabled")
+    public static final Property<Integer> SQLITE_READ_CONNECTIONS =
+        newProperty("DataSource.sqlite.readConnections", 4);
+
+    @Comment({"Queue login state and session updates (logged in flag, session flag, last IP and",
+        "last login) in memory and write them to the database in batches.",
+        "Requires caching to be enabled. Do not enable it if other servers or websites",
+        "read these columns, as they may be behind by up to the flush interval."})
+    public static final Property<Boolean> USE_WRITE_BEHIND =
+        newProperty("DataSource.writeBehind.enabled", false);
+
+    @Comment("Interval in milliseconds after which queued updates are written to the database")
+    public static final Property<Integer> WRITE_BEHIND_FLUSH_INTERVAL =
+        newProperty("DataSource.writeBehind.flushInterval", 500);
+
+    @Comment("Number of accounts with queued updates after which they are written immediately")
+    public static final Property<Integer> WRITE_BEHIND_MAX_QUEUE_SIZE =
+        newProperty("DataSource.writeBehind.maxQueueSize", 100);
+
     private DatabaseSettings() {
     }
 
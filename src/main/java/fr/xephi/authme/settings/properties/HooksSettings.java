@@ -3,6 +3,7 @@ package fr.xephi.authme.settings.properties;
 import ch.jalu.configme.Comment;
 import ch.jalu.configme.SettingsHolder;
 import ch.jalu.configme.properties.Property;
+import fr.xephi.authme.service.bungeecord.CacheSyncTransport;
 
 import java.util.List;
 
@@ -23,6 +24,38 @@ public final class HooksSettings implements SettingsHolder {
     public static final Property<String> BUNGEECORD_SERVER =
         newProperty("Hooks.sendPlayerTo", "");
 
+    @Comment({
+        "How changes to accounts are sent to the other servers, which update their cache with them:",
+        "PLUGIN_MESSAGE: through BungeeCord, requires bungeecord: true and a player on the servers",
+        "PEER_MESH: directly to the servers in cacheSync.peers over TCP"})
+    public static final Property<CacheSyncTransport> CACHE_SYNC_TRANSPORT =
+        newProperty(CacheSyncTransport.class, "Hooks.cacheSync.transport", CacheSyncTransport.PLUGIN_MESSAGE);
+
+    @Comment({
+        "Address and port to listen on for changes from the other servers (PEER_MESH)",
+        "Set it to an address of this server in the network of the other servers, e.g. 10.0.0.1:25590;",
+        "the port should not be reachable from the internet",
+        "The clocks of the servers must be synchronized (e.g. with NTP): changes sent more than",
+        "a minute ago according to the receiving server's clock are rejected"})
+    public static final Property<String> CACHE_SYNC_BIND_ADDRESS =
+        newProperty("Hooks.cacheSync.bindAddress", "127.0.0.1:25590");
+
+    @Comment("Addresses of the other servers to send changes to, e.g. 10.0.0.2:25590 (PEER_MESH)")
+    public static final Property<List<String>> CACHE_SYNC_PEERS =
+        newListProperty("Hooks.cacheSync.peers");
+
+    @Comment({
+        "Secret used to sign the changes sent to the other servers (PEER_MESH)",
+        "It must be the same on all servers; the peer mesh is disabled if it is empty"})
+    public static final Property<String> CACHE_SYNC_SECRET =
+        newProperty("Hooks.cacheSync.secret", "");
+
+    @Comment({
+        "Milliseconds during which changes are collected before they are sent (PEER_MESH)",
+        "Multiple changes of a player in this time are sent as one"})
+    public static final Property<Integer> CACHE_SYNC_FLUSH_INTERVAL =
+        newProperty("Hooks.cacheSync.flushInterval", 50);
+
     @Comment("Do we need to disable Essentials SocialSpy on join?")
     public static final Property<Boolean> DISABLE_SOCIAL_SPY =
         newProperty("Hooks.disableSocialSpy", false);
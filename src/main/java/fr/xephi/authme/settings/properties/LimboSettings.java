@@ -22,7 +22,8 @@ public final class LimboSettings implements SettingsHolder {
         "properly restore things like OP status, ability to fly, and walk/fly speed.",
         "DISABLED: no disk storage,",
         "INDIVIDUAL_FILES: each player data in its own file,",
-        "DISTRIBUTED_FILES: distributes players into different files based on their UUID, see below"
+        "DISTRIBUTED_FILES: distributes players into different files based on their UUID, see below,",
+        "BINARY_FILE: stores all players in one compact binary file (playerdata/limbo-*.bin)"
     })
     public static final Property<LimboPersistenceType> LIMBO_PERSISTENCE_TYPE =
         newProperty(LimboPersistenceType.class, "limbo.persistence.type", LimboPersistenceType.INDIVIDUAL_FILES);
@@ -41,6 +42,20 @@ public final class LimboSettings implements SettingsHolder {
     public static final Property<SegmentSize> DISTRIBUTION_SIZE =
         newProperty(SegmentSize.class, "limbo.persistence.distributionSize", SegmentSize.SIXTEEN);
 
+    @Comment({
+        "Save and remove LimboPlayers on disk asynchronously. Changes of the same player are merged,",
+        "so a player who logs in right after joining is never written to disk. Changes made in the",
+        "last flush interval before a server crash are lost, so the original state of a player (such",
+        "as OP status or groups) may not be restored after a crash. Only enable this if writing",
+        "LimboPlayers slows down your server."
+    })
+    public static final Property<Boolean> USE_WRITE_BEHIND =
+        newProperty("limbo.persistence.writeBehind.enabled", false);
+
+    @Comment("Interval in milliseconds after which queued LimboPlayer changes are written to disk")
+    public static final Property<Integer> WRITE_BEHIND_FLUSH_INTERVAL =
+        newProperty("limbo.persistence.writeBehind.flushInterval", 1000);
+
     @Comment({
         "Whether the player is allowed to fly: RESTORE, ENABLE, DISABLE, NOTHING.",
         "RESTORE sets back the old property from the player. NOTHING will prevent AuthMe",
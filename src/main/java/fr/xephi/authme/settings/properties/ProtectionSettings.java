@@ -67,6 +67,26 @@ public final class ProtectionSettings implements SettingsHolder {
     public static final Property<Integer> ANTIBOT_DELAY =
         newProperty("Protection.antiBotDelay", 60);
 
+    @Comment({
+        "Throttle only the subnets and countries which join too often, instead of kicking",
+        "all unregistered players once more than antiBotSensibility players joined in the interval"})
+    public static final Property<Boolean> ENABLE_ADAPTIVE_ANTIBOT =
+        newProperty("Protection.adaptiveAntiBot.enabled", false);
+
+    @Comment("Max joins per minute from a /24 (IPv4) or /48 (IPv6) subnet")
+    public static final Property<Integer> ADAPTIVE_ANTIBOT_SUBNET_RATE =
+        newProperty("Protection.adaptiveAntiBot.maxJoinsPerMinutePerSubnet", 10);
+
+    @Comment({
+        "Max joins per minute from a country, based on the GeoIp database",
+        "Set to 0 to not throttle countries"})
+    public static final Property<Integer> ADAPTIVE_ANTIBOT_COUNTRY_RATE =
+        newProperty("Protection.adaptiveAntiBot.maxJoinsPerMinutePerCountry", 0);
+
+    @Comment("Time in seconds after which a join only counts half towards the join rates")
+    public static final Property<Integer> ADAPTIVE_ANTIBOT_HALF_LIFE =
+        newProperty("Protection.adaptiveAntiBot.rateHalfLife", 30);
+
     @Comment("Kicks the player that issued a command before the defined time after the join process")
     public static final Property<Integer> QUICK_COMMANDS_DENIED_BEFORE_MILLISECONDS =
         newProperty("Protection.quickCommands.denyCommandsBeforeMilliseconds", 1000);
@@ -40,6 +40,15 @@ public final class PurgeSettings implements SettingsHolder {
     public static final Property<Boolean> REMOVE_PERMISSIONS =
         newProperty("Purge.removePermissions", false);
 
+    @Comment({"Number of accounts to delete at once while purging. Larger chunks make the purge",
+        "faster but lock the database for longer at a time"})
+    public static final Property<Integer> PURGE_CHUNK_SIZE =
+        newProperty("Purge.chunkSize", 500);
+
+    @Comment("Number of ticks to wait between two chunks of a purge (20 ticks = 1 second)")
+    public static final Property<Integer> PURGE_CHUNK_PAUSE =
+        newProperty("Purge.pauseBetweenChunks", 10);
+
     private PurgeSettings() {
     }
 
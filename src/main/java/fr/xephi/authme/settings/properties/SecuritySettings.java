@@ -23,6 +23,23 @@ public final class SecuritySettings implements SettingsHolder {
     public static final Property<Boolean> USE_LOGGING =
         newProperty("Security.console.logConsole", true);
 
+    @Comment({"Number of log messages which can wait to be written to the log file.",
+        "Messages are dropped (and counted in the log file) if more are logged at once."})
+    public static final Property<Integer> LOG_BUFFER_SIZE =
+        newProperty("Security.console.logBufferSize", 8192);
+
+    @Comment("Maximum time in milliseconds before written log messages are flushed to the disk")
+    public static final Property<Integer> LOG_FLUSH_INTERVAL =
+        newProperty("Security.console.logFlushIntervalMillis", 1000);
+
+    @Comment("Size in MB after which the log file is archived and a new one is started (0 to disable)")
+    public static final Property<Integer> LOG_MAX_FILE_SIZE =
+        newProperty("Security.console.logMaxFileSizeMb", 0);
+
+    @Comment("Archive the log file and start a new one every day?")
+    public static final Property<Boolean> LOG_ROTATE_DAILY =
+        newProperty("Security.console.logRotateDaily", false);
+
     @Comment("Enable captcha when a player uses wrong password too many times")
     public static final Property<Boolean> ENABLE_LOGIN_FAILURE_CAPTCHA =
         newProperty("Security.captcha.useCaptcha", false);
@@ -79,6 +96,28 @@ public final class SecuritySettings implements SettingsHolder {
     public static final Property<Integer> PBKDF2_NUMBER_OF_ROUNDS =
         newProperty("settings.security.pbkdf2Rounds", 10000);
 
+    @Comment("Number of iterations if passwordHash is set to ARGON2. Default is 2")
+    public static final Property<Integer> ARGON2_TIME_COST =
+        newProperty("settings.security.argon2TimeCost", 2);
+
+    @Comment("Memory in KiB used per hash if passwordHash is set to ARGON2. Default is 65536")
+    public static final Property<Integer> ARGON2_MEMORY_COST =
+        newProperty("settings.security.argon2MemoryCost", 65536);
+
+    @Comment("Number of lanes if passwordHash is set to ARGON2. Default is 1")
+    public static final Property<Integer> ARGON2_PARALLELISM =
+        newProperty("settings.security.argon2Parallelism", 1);
+
+    @Comment({"Benchmark the server on startup and choose the BCrypt or ARGON2 cost such that",
+        "hashing one password takes about calibrationTargetMillis. Existing hashes stay valid.",
+        "The configured costs (bCryptLog2Round, argon2TimeCost) are a minimum and are never lowered"})
+    public static final Property<Boolean> CALIBRATE_HASH_COST =
+        newProperty("settings.security.calibrateHashCost", false);
+
+    @Comment("Target time in milliseconds per hash for calibrateHashCost")
+    public static final Property<Integer> CALIBRATION_TARGET_MILLIS =
+        newProperty("settings.security.calibrationTargetMillis", 50);
+
     @Comment({"Prevent unsafe passwords from being used; put them in lowercase!",
         "You should always set 'help' as unsafePassword due to possible conflicts.",
         "unsafePasswords:",
@@ -150,6 +189,21 @@ public final class SecuritySettings implements SettingsHolder {
     public static final Property<Integer> VERIFICATION_CODE_EXPIRATION_MINUTES =
         newProperty("Security.privacy.verificationCodeExpiration", 10);
 
+    @Comment({"Number of threads computing and checking password hashes",
+        "(0 = number of available processors)"})
+    public static final Property<Integer> HASHING_WORKER_THREADS =
+        newProperty("Security.hashing.workerThreads", 0);
+
+    @Comment({"Max number of hashing requests waiting for a free thread. Players are asked",
+        "to try again in a few seconds if the queue is full"})
+    public static final Property<Integer> HASHING_QUEUE_SIZE =
+        newProperty("Security.hashing.queueSize", 100);
+
+    @Comment({"Max memory in MB that parallel hash computations may use. Limits the number",
+        "of threads for memory-hard algorithms such as ARGON2 (see argon2MemoryCost)"})
+    public static final Property<Integer> HASHING_MEMORY_BUDGET_MB =
+        newProperty("Security.hashing.memoryBudgetMb", 256);
+
     private SecuritySettings() {
     }
 
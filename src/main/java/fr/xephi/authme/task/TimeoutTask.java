@@ -6,7 +6,7 @@ import org.bukkit.entity.Player;
 /**
  * Kicks a player if he hasn't logged in (scheduled to run after a configured delay).
  */
-public class TimeoutTask implements Runnable {
+public class TimeoutTask extends WheelTask {
 
     private final Player player;
     private final String message;
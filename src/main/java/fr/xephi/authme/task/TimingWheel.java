@@ -0,0 +1,216 @@
+package fr.xephi.authme.task;
+
+import com.google.common.annotations.VisibleForTesting;
+import fr.xephi.authme.ConsoleLogger;
+import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.service.BukkitService;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel which runs all {@link WheelTask wheel tasks} from one shared Bukkit task
+ * on the main thread. Scheduling and cancelling a task are constant-time operations, and all tasks
+ * which are due in the same tick are run together.
+ * <p>
+ * The first level has one slot per tick; each further level has slots which span a full rotation of
+ * the level below. Tasks are moved to a lower level (cascaded) as their deadline approaches.
+ * The Bukkit task driving the wheel only runs while there are scheduled tasks.
+ */
+public class TimingWheel {
+
+    private static final int LEVEL_BITS = 6;
+    private static final int FIRST_LEVEL_BITS = 8;
+    private static final int LEVELS = 3;
+    /** Number of ticks in the future which can be placed in the wheel directly. */
+    private static final long MAX_RANGE = 1L << (FIRST_LEVEL_BITS + (LEVELS - 1) * LEVEL_BITS);
+
+    private final ConsoleLogger logger = ConsoleLoggerFactory.get(TimingWheel.class);
+
+    private final BukkitService bukkitService;
+    private final WheelNode[][] levels = new WheelNode[LEVELS][];
+
+    private long currentTick;
+    private int size;
+    private BukkitTask driverTask;
+
+    @Inject
+    TimingWheel(BukkitService bukkitService) {
+        this.bukkitService = bukkitService;
+        for (int level = 0; level < LEVELS; ++level) {
+            WheelNode[] slots = new WheelNode[1 << getSlotBits(level)];
+            for (int i = 0; i < slots.length; ++i) {
+                slots[i] = new SlotHead();
+            }
+            levels[level] = slots;
+        }
+    }
+
+    /**
+     * Schedules the given task to run once after the given delay.
+     *
+     * @param task the task to schedule
+     * @param delay the ticks to wait before running the task
+     * @throws IllegalStateException if the task was already scheduled
+     */
+    public void schedule(WheelTask task, long delay) {
+        scheduleRepeating(task, delay, 0);
+    }
+
+    /**
+     * Schedules the given task to run repeatedly until it is cancelled.
+     *
+     * @param task the task to schedule
+     * @param delay the ticks to wait before running the task for the first time
+     * @param period the ticks to wait between runs (0 to run the task only once)
+     * @throws IllegalStateException if the task was already scheduled
+     */
+    public synchronized void scheduleRepeating(WheelTask task, long delay, long period) {
+        if (task.getWheel() != null) {
+            throw new IllegalStateException("Task was already scheduled");
+        }
+        task.setWheel(this);
+        task.setDeadline(currentTick + Math.max(1, delay));
+        task.setPeriod(Math.max(0, period));
+        place(task);
+        ++size;
+        if (driverTask == null) {
+            driverTask = bukkitService.runTaskTimer(new Driver(), 1, 1);
+        }
+    }
+
+    /**
+     * @return the number of scheduled tasks
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Removes the given task from the wheel. Called when the task is cancelled.
+     *
+     * @param task the task to remove
+     */
+    synchronized void remove(WheelTask task) {
+        if (task.getPrevious() != null) {
+            unlink(task);
+            --size;
+        }
+    }
+
+    /**
+     * Advances the wheel by one tick and runs all tasks which are due.
+     */
+    @VisibleForTesting
+    void tick() {
+        List<WheelTask> dueTasks = advance();
+        for (WheelTask task : dueTasks) {
+            if (!task.isCancelled()) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.logException("Could not run scheduled task " + task.getClass().getSimpleName() + ":", e);
+                }
+            }
+        }
+    }
+
+    private synchronized List<WheelTask> advance() {
+        ++currentTick;
+        for (int level = LEVELS - 1; level > 0; --level) {
+            if ((currentTick & ((1L << getLevelShift(level)) - 1)) == 0) {
+                cascade(levels[level][getSlotIndex(level, currentTick)]);
+            }
+        }
+
+        List<WheelTask> dueTasks = new ArrayList<>();
+        WheelNode head = levels[0][getSlotIndex(0, currentTick)];
+        while (head.getNext() != head) {
+            WheelTask task = (WheelTask) head.getNext();
+            unlink(task);
+            dueTasks.add(task);
+            if (task.getPeriod() > 0) {
+                task.setDeadline(currentTick + task.getPeriod());
+                place(task);
+            } else {
+                task.setWheel(null);
+                --size;
+            }
+        }
+
+        if (size == 0 && driverTask != null) {
+            driverTask.cancel();
+            driverTask = null;
+        }
+        return dueTasks;
+    }
+
+    private void cascade(WheelNode head) {
+        while (head.getNext() != head) {
+            WheelTask task = (WheelTask) head.getNext();
+            unlink(task);
+            place(task);
+        }
+    }
+
+    private void place(WheelTask task) {
+        long target = Math.max(task.getDeadline(), currentTick);
+        long delta = target - currentTick;
+        if (delta >= MAX_RANGE) {
+            // Park the task as far as possible; it is placed again with its real deadline when cascaded
+            target = currentTick + MAX_RANGE - 1;
+            delta = MAX_RANGE - 1;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << getLevelShift(level + 1)) {
+            ++level;
+        }
+        link(levels[level][getSlotIndex(level, target)], task);
+    }
+
+    private static int getSlotBits(int level) {
+        return level == 0 ? FIRST_LEVEL_BITS : LEVEL_BITS;
+    }
+
+    private static int getLevelShift(int level) {
+        return level == 0 ? 0 : FIRST_LEVEL_BITS + (level - 1) * LEVEL_BITS;
+    }
+
+    private static int getSlotIndex(int level, long tick) {
+        return (int) ((tick >>> getLevelShift(level)) & ((1 << getSlotBits(level)) - 1));
+    }
+
+    private static void link(WheelNode head, WheelTask task) {
+        task.setPrevious(head.getPrevious());
+        task.setNext(head);
+        head.getPrevious().setNext(task);
+        head.setPrevious(task);
+    }
+
+    private static void unlink(WheelTask task) {
+        task.getPrevious().setNext(task.getNext());
+        task.getNext().setPrevious(task.getPrevious());
+        task.setPrevious(null);
+        task.setNext(null);
+    }
+
+    /** Sentinel of the circular task list of a slot. */
+    private static final class SlotHead extends WheelNode {
+        SlotHead() {
+            setPrevious(this);
+            setNext(this);
+        }
+    }
+
+    /** Bukkit task advancing the wheel every tick. */
+    private final class Driver extends BukkitRunnable {
+        @Override
+        public void run() {
+            tick();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package fr.xephi.authme.task;
+
+/**
+ * Node of the circular list of tasks in a slot of a {@link TimingWheel}. Each slot has a sentinel node
+ * which is its head; all other nodes of the list are {@link WheelTask wheel tasks}.
+ */
+class WheelNode {
+
+    // Guarded by the lock of the wheel
+    private WheelNode previous;
+    private WheelNode next;
+
+    WheelNode getPrevious() {
+        return previous;
+    }
+
+    void setPrevious(WheelNode previous) {
+        this.previous = previous;
+    }
+
+    WheelNode getNext() {
+        return next;
+    }
+
+    void setNext(WheelNode next) {
+        this.next = next;
+    }
+}
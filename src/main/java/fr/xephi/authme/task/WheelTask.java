@@ -0,0 +1,58 @@
+package fr.xephi.authme.task;
+
+/**
+ * Task which can be scheduled once on a {@link TimingWheel}. Similar to Bukkit's
+ * {@link org.bukkit.scheduler.BukkitRunnable}, the task keeps track of its scheduling
+ * state so that it can be cancelled directly.
+ */
+public abstract class WheelTask extends WheelNode implements Runnable {
+
+    private volatile TimingWheel wheel;
+    private volatile boolean isCancelled;
+
+    // Position in the wheel, guarded by the lock of the wheel
+    private long deadline;
+    private long period;
+
+    /**
+     * Cancels the task: it will not be run anymore. Has no effect if the task was not scheduled.
+     */
+    public void cancel() {
+        isCancelled = true;
+        TimingWheel taskWheel = wheel;
+        if (taskWheel != null) {
+            taskWheel.remove(this);
+        }
+    }
+
+    /**
+     * @return true if the task has been cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    TimingWheel getWheel() {
+        return wheel;
+    }
+
+    void setWheel(TimingWheel wheel) {
+        this.wheel = wheel;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    long getPeriod() {
+        return period;
+    }
+
+    void setPeriod(long period) {
+        this.period = period;
+    }
+}
@@ -52,15 +52,17 @@ public class PurgeExecutor {
      *
      * @param players the players to purge
      * @param names   names to purge
+     * @return the number of deleted AuthMe accounts
      */
-    public void executePurge(Collection<OfflinePlayer> players, Collection<String> names) {
+    public int executePurge(Collection<OfflinePlayer> players, Collection<String> names) {
         // Purge other data
-        purgeFromAuthMe(names);
+        int deleted = purgeFromAuthMe(names);
         purgeEssentials(players);
         purgeDat(players);
         purgeLimitedCreative(names);
         purgeAntiXray(names);
         purgePermissions(players);
+        return deleted;
     }
 
     /**
@@ -95,11 +97,15 @@ public class PurgeExecutor {
      * Deletes the given accounts from AuthMe.
      *
      * @param names the name of the accounts to delete
+     * @return the number of deleted accounts
      */
-    synchronized void purgeFromAuthMe(Collection<String> names) {
-        dataSource.purgeRecords(names);
-        //TODO ljacqu 20160717: We shouldn't output namedBanned.size() but the actual total that was deleted
-        logger.info(ChatColor.GOLD + "Deleted " + names.size() + " user accounts");
+    synchronized int purgeFromAuthMe(Collection<String> names) {
+        if (names.isEmpty()) {
+            return 0;
+        }
+        int deleted = dataSource.purgeRecords(names);
+        logger.info(ChatColor.GOLD + "Deleted " + deleted + " user accounts");
+        return deleted;
     }
 
     /**
@@ -43,6 +43,9 @@ public class PurgeService {
     /** Keeps track of whether a purge task is currently running. */
     private boolean isPurging = false;
 
+    /** Number of accounts deleted by purge operations. */
+    private volatile long purgedAccounts;
+
     PurgeService() {
     }
 
@@ -98,7 +101,9 @@ public class PurgeService {
         }
 
         isPurging = true;
-        PurgeTask purgeTask = new PurgeTask(this, permissionsManager, sender, names, players);
+        int chunkSize = settings.getProperty(PurgeSettings.PURGE_CHUNK_SIZE);
+        int pauseTicks = settings.getProperty(PurgeSettings.PURGE_CHUNK_PAUSE);
+        PurgeTask purgeTask = new PurgeTask(this, permissionsManager, sender, names, players, chunkSize, pauseTicks);
         bukkitService.runTaskTimerAsynchronously(purgeTask, 0, 1);
     }
 
@@ -116,8 +121,20 @@ public class PurgeService {
      *
      * @param players the players (associated with the names)
      * @param names the lowercase names
+     * @return the number of deleted accounts
+     */
+    int executePurge(Collection<OfflinePlayer> players, Collection<String> names) {
+        int deleted = purgeExecutor.executePurge(players, names);
+        purgedAccounts += deleted;
+        return deleted;
+    }
+
+    /**
+     * Returns the number of accounts deleted by purges since the server started.
+     *
+     * @return total number of purged accounts
      */
-    void executePurge(Collection<OfflinePlayer> players, Collection<String> names) {
-        purgeExecutor.executePurge(players, names);
+    public long getPurgedAccounts() {
+        return purgedAccounts;
     }
 }
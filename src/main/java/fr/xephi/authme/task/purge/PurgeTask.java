@@ -11,14 +11,19 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 class PurgeTask extends BukkitRunnable {
 
     //how many players we should check for each tick
     private static final int INTERVAL_CHECK = 5;
+    //minimum time between two progress messages while purging names in chunks
+    private static final long NAMES_PROGRESS_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
 
     private final ConsoleLogger logger = ConsoleLoggerFactory.get(PurgeTask.class);
     private final PurgeService purgeService;
@@ -28,8 +33,14 @@ class PurgeTask extends BukkitRunnable {
 
     private final OfflinePlayer[] offlinePlayers;
     private final int totalPurgeCount;
+    private final int chunkSize;
+    private final int pauseTicks;
 
     private int currentPage = 0;
+    private boolean offlinePlayersChecked = false;
+    private int ticksToWait = 0;
+    private int deletedCount = 0;
+    private long lastNamesProgress = 0;
 
     /**
      * Constructor.
@@ -39,9 +50,11 @@ class PurgeTask extends BukkitRunnable {
      * @param sender the sender who initiated the purge, or null
      * @param toPurge lowercase names to purge
      * @param offlinePlayers offline players to map to the names
+     * @param chunkSize maximum number of names without offline player to purge per run
+     * @param pauseTicks number of runs to skip after purging a chunk of names
      */
     PurgeTask(PurgeService service, PermissionsManager permissionsManager, CommandSender sender,
-              Set<String> toPurge, OfflinePlayer[] offlinePlayers) {
+              Set<String> toPurge, OfflinePlayer[] offlinePlayers, int chunkSize, int pauseTicks) {
         this.purgeService = service;
         this.permissionsManager = permissionsManager;
 
@@ -54,6 +67,8 @@ class PurgeTask extends BukkitRunnable {
         this.toPurge = toPurge;
         this.totalPurgeCount = toPurge.size();
         this.offlinePlayers = offlinePlayers;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseTicks = Math.max(0, pauseTicks);
     }
 
     @Override
@@ -64,6 +79,16 @@ class PurgeTask extends BukkitRunnable {
             return;
         }
 
+        if (!offlinePlayersChecked) {
+            purgeOfflinePlayers();
+        } else if (ticksToWait > 0) {
+            --ticksToWait;
+        } else {
+            purgeNames();
+        }
+    }
+
+    private void purgeOfflinePlayers() {
         Set<OfflinePlayer> playerPortion = new HashSet<>(INTERVAL_CHECK);
         Set<String> namePortion = new HashSet<>(INTERVAL_CHECK);
         for (int i = 0; i < INTERVAL_CHECK; i++) {
@@ -86,26 +111,47 @@ class PurgeTask extends BukkitRunnable {
             }
         }
 
+        currentPage++;
         if (!toPurge.isEmpty() && playerPortion.isEmpty()) {
             logger.info("Finished lookup of offlinePlayers. Begin looking purging player names only");
+            offlinePlayersChecked = true;
+            purgeNames();
+            return;
+        }
 
-            //we went through all offlineplayers but there are still names remaining
-            for (String name : toPurge) {
-                if (!permissionsManager.hasPermissionOffline(name, PlayerStatePermission.BYPASS_PURGE)) {
-                    namePortion.add(name);
-                }
+        deletedCount += purgeService.executePurge(playerPortion, namePortion);
+        if (currentPage % 20 == 0) {
+            sendProgress();
+        }
+    }
+
+    private void purgeNames() {
+        // we went through all offline players but there are still names remaining: purge them in chunks
+        Set<String> namePortion = new HashSet<>();
+        Iterator<String> it = toPurge.iterator();
+        for (int i = 0; i < chunkSize && it.hasNext(); ++i) {
+            String name = it.next();
+            it.remove();
+            if (!permissionsManager.hasPermissionOffline(name, PlayerStatePermission.BYPASS_PURGE)) {
+                namePortion.add(name);
             }
-            toPurge.clear();
         }
 
-        currentPage++;
-        purgeService.executePurge(playerPortion, namePortion);
-        if (currentPage % 20 == 0) {
-            int completed = totalPurgeCount - toPurge.size();
-            sendMessage("[AuthMe] Purge progress " + completed + '/' + totalPurgeCount);
+        deletedCount += purgeService.executePurge(Collections.emptySet(), namePortion);
+        ticksToWait = pauseTicks;
+        long now = System.currentTimeMillis();
+        if (!toPurge.isEmpty() && now - lastNamesProgress >= NAMES_PROGRESS_INTERVAL_MILLIS) {
+            lastNamesProgress = now;
+            sendProgress();
         }
     }
 
+    private void sendProgress() {
+        int completed = totalPurgeCount - toPurge.size();
+        sendMessage("[AuthMe] Purge progress " + completed + '/' + totalPurgeCount
+            + " (" + deletedCount + " accounts deleted)");
+    }
+
     private void finish() {
         cancel();
 
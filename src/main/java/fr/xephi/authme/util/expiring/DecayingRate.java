@@ -0,0 +1,60 @@
+package fr.xephi.authme.util.expiring;
+
+/**
+ * Exponentially decayed rate of events. Each event counts as 1 when it happens and loses half of
+ * its weight after every half-life, so the rate follows bursts quickly and forgets them by itself.
+ * The state is two primitives, so recording an event doesn't allocate.
+ */
+public class DecayingRate {
+
+    private static final double MILLIS_PER_MINUTE = 60_000.0;
+
+    private final double decayMillis;
+    private double weight;
+    private long lastUpdate;
+
+    /**
+     * Constructor.
+     *
+     * @param halfLifeMillis the time in milliseconds after which an event has half of its weight
+     */
+    public DecayingRate(long halfLifeMillis) {
+        this.decayMillis = Math.max(1, halfLifeMillis) / Math.log(2);
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param now the current time in milliseconds
+     * @return the rate in events per minute, including the new event
+     */
+    public synchronized double record(long now) {
+        decay(now);
+        weight += 1;
+        return toRatePerMinute(weight);
+    }
+
+    /**
+     * Returns the rate of events per minute. With a constant rate of events, this converges to the
+     * actual rate after a few half-lives.
+     *
+     * @param now the current time in milliseconds
+     * @return the rate in events per minute
+     */
+    public synchronized double getRatePerMinute(long now) {
+        decay(now);
+        return toRatePerMinute(weight);
+    }
+
+    private void decay(long now) {
+        if (now > lastUpdate) {
+            weight *= Math.exp((lastUpdate - now) / decayMillis);
+            lastUpdate = now;
+        }
+    }
+
+    private double toRatePerMinute(double weight) {
+        // With r events per ms, the weight converges to r * decayMillis
+        return weight / decayMillis * MILLIS_PER_MINUTE;
+    }
+}
@@ -0,0 +1,169 @@
+package fr.xephi.authme.util.expiring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe counter of the events in a sliding window of time.
+ * <p>
+ * The window is split into a fixed number of buckets, each of which counts the events of a slice of
+ * the window. A bucket is reused as soon as its slice has left the window, so counts expire by
+ * themselves without any cleanup, with a precision of one bucket. Each bucket is a single long which
+ * holds the slice number and the count, so increments are lock-free and don't allocate, and the
+ * total is the sum of a fixed number of buckets.
+ * <p>
+ * A window of {@code <= 0} makes all events expire immediately.
+ */
+public class SlidingWindowCounter {
+
+    /** Default number of buckets a window is split into. */
+    public static final int DEFAULT_BUCKETS = 10;
+
+    private static final int COUNT_BITS = 20;
+    private static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray buckets;
+    private final long windowMillis;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+
+    /**
+     * Constructor.
+     *
+     * @param duration the duration of the window
+     * @param unit the time unit in which {@code duration} is expressed
+     */
+    public SlidingWindowCounter(long duration, TimeUnit unit) {
+        this(unit.toMillis(duration), DEFAULT_BUCKETS, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param windowMillis the duration of the window in milliseconds
+     * @param bucketCount the number of buckets to split the window into
+     * @param clock supplier of the current time in milliseconds
+     */
+    SlidingWindowCounter(long windowMillis, int bucketCount, LongSupplier clock) {
+        int bucketsInWindow = (int) Math.max(1, Math.min(bucketCount, windowMillis));
+        this.buckets = new AtomicLongArray(bucketsInWindow);
+        this.windowMillis = windowMillis;
+        this.bucketMillis = Math.max(1, windowMillis / bucketsInWindow);
+        this.clock = clock;
+    }
+
+    /**
+     * Counts an event.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Counts the given number of events. Counts per bucket saturate at about one million.
+     *
+     * @param events the number of events to add
+     */
+    public void add(int events) {
+        if (windowMillis <= 0 || events <= 0) {
+            return;
+        }
+        long slice = clock.getAsLong() / bucketMillis;
+        int index = (int) (slice % buckets.length());
+        long bucket;
+        long newBucket;
+        do {
+            bucket = buckets.get(index);
+            long count = getSlice(bucket) == slice ? getCount(bucket) : 0;
+            newBucket = toBucket(slice, Math.min(MAX_COUNT, count + events));
+        } while (bucket != newBucket && !buckets.compareAndSet(index, bucket, newBucket));
+    }
+
+    /**
+     * Removes the counts of the given counter from this counter, e.g. if this counter is a total of
+     * several counters and one of them has been discarded. Both counters must have the same window.
+     *
+     * @param other the counter whose counts should be removed
+     */
+    public void subtract(SlidingWindowCounter other) {
+        if (other.bucketMillis != bucketMillis || other.buckets.length() != buckets.length()) {
+            throw new IllegalArgumentException("Counters have different windows");
+        }
+        long currentSlice = clock.getAsLong() / bucketMillis;
+        for (int i = 0; i < buckets.length(); ++i) {
+            long otherBucket = other.buckets.get(i);
+            long slice = getSlice(otherBucket);
+            if (getCount(otherBucket) > 0 && isInWindow(slice, currentSlice)) {
+                long bucket;
+                long newBucket;
+                do {
+                    bucket = buckets.get(i);
+                    if (getSlice(bucket) != slice) {
+                        break;
+                    }
+                    newBucket = toBucket(slice, Math.max(0, getCount(bucket) - getCount(otherBucket)));
+                } while (!buckets.compareAndSet(i, bucket, newBucket));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events in the window.
+     *
+     * @return the number of events which have not expired
+     */
+    public int get() {
+        if (windowMillis <= 0) {
+            return 0;
+        }
+        long currentSlice = clock.getAsLong() / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < buckets.length(); ++i) {
+            long bucket = buckets.get(i);
+            if (isInWindow(getSlice(bucket), currentSlice)) {
+                total += getCount(bucket);
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    /**
+     * @return true if there are no events in the window, false otherwise
+     */
+    public boolean isEmpty() {
+        return get() == 0;
+    }
+
+    /**
+     * Discards all counted events.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); ++i) {
+            buckets.set(i, 0L);
+        }
+    }
+
+    /**
+     * @return the duration of the window in milliseconds
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    private boolean isInWindow(long slice, long currentSlice) {
+        return slice <= currentSlice && currentSlice - slice < buckets.length();
+    }
+
+    private static long toBucket(long slice, long count) {
+        return (slice << COUNT_BITS) | count;
+    }
+
+    private static long getSlice(long bucket) {
+        return bucket >>> COUNT_BITS;
+    }
+
+    private static long getCount(long bucket) {
+        return bucket & MAX_COUNT;
+    }
+}
@@ -0,0 +1,110 @@
+package fr.xephi.authme.util.expiring;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps a {@link SlidingWindowCounter} per key, and the total of all keys.
+ * <p>
+ * Counts expire by themselves; {@link #removeExpiredEntries()} only frees the counters of keys
+ * without any events in the window. The counter returns 0 for any key without events.
+ *
+ * @param <K> the type of the key
+ */
+public class SlidingWindowCounterMap<K> {
+
+    private final Map<K, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+    private final SlidingWindowCounter total;
+    private final Function<K, SlidingWindowCounter> counterFactory;
+
+    /**
+     * Constructor.
+     *
+     * @param duration the duration of the window
+     * @param unit the time unit in which {@code duration} is expressed
+     */
+    public SlidingWindowCounterMap(long duration, TimeUnit unit) {
+        this(unit.toMillis(duration), System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param windowMillis the duration of the window in milliseconds
+     * @param clock supplier of the current time in milliseconds
+     */
+    SlidingWindowCounterMap(long windowMillis, LongSupplier clock) {
+        int buckets = SlidingWindowCounter.DEFAULT_BUCKETS;
+        this.total = new SlidingWindowCounter(windowMillis, buckets, clock);
+        this.counterFactory = key -> new SlidingWindowCounter(windowMillis, buckets, clock);
+    }
+
+    /**
+     * Counts an event for the given key.
+     *
+     * @param key the key to increment the counter for
+     */
+    public void increment(K key) {
+        counters.computeIfAbsent(key, counterFactory).increment();
+        total.increment();
+    }
+
+    /**
+     * Returns the number of events of the given key in the window.
+     *
+     * @param key the key to look up
+     * @return the number of events of the key
+     */
+    public int get(K key) {
+        SlidingWindowCounter counter = counters.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Returns the number of events of all keys in the window. This does not depend on the number of keys.
+     *
+     * @return the total of all keys
+     */
+    public int total() {
+        return total.get();
+    }
+
+    /**
+     * Discards the events of the given key.
+     *
+     * @param key the key to remove the events for
+     */
+    public void remove(K key) {
+        SlidingWindowCounter counter = counters.remove(key);
+        if (counter != null) {
+            total.subtract(counter);
+        }
+    }
+
+    /**
+     * Removes the counters of all keys without events in the window from the internal structure.
+     */
+    public void removeExpiredEntries() {
+        counters.values().removeIf(SlidingWindowCounter::isEmpty);
+    }
+
+    /**
+     * Returns whether this map is empty. This reflects the state of the internal map, which may
+     * contain keys without events only. The result may change after running {@link #removeExpiredEntries()}.
+     *
+     * @return true if map is really empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    /**
+     * @return the duration of the window in milliseconds
+     */
+    public long getWindowMillis() {
+        return total.getWindowMillis();
+    }
+}
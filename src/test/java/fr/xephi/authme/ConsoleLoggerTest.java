@@ -15,7 +15,6 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -31,7 +30,6 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -93,6 +91,7 @@ public class ConsoleLoggerTest {
         consoleLogger.info("This is an INFO message");
 
         // then
+        ConsoleLogger.closeFileWriter();
         verify(logger, times(2)).info(anyString());
         verifyNoMoreInteractions(logger);
         List<String> loggedLines = Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8);
@@ -133,6 +132,7 @@ public class ConsoleLoggerTest {
         consoleLogger.logException("Exception occurred:", e);
 
         // then
+        ConsoleLogger.closeFileWriter();
         verify(logger).info("Info text");
         verify(logger).warning("Exception occurred: [IllegalStateException]: Test exception message");
         verifyNoMoreInteractions(logger);
@@ -159,6 +159,7 @@ public class ConsoleLoggerTest {
         consoleLogger.debug(() -> "Too little too late");
 
         // then
+        ConsoleLogger.closeFileWriter();
         verify(logger).info("[DEBUG] Got 17 entries");
         verify(logger).info("[DEBUG] Player `Bobby` is in world `w[world]`");
         verify(logger).info("[DEBUG] 5 quick foxes jump over 3 lazy dogs (reason: null)");
@@ -174,34 +175,19 @@ public class ConsoleLoggerTest {
     }
 
     @Test
-    public void shouldCloseFileWriterDespiteExceptionOnFlush() throws IOException {
+    public void shouldStopWritingToFileAfterClose() throws IOException {
         // given
-        FileWriter fileWriter = mock(FileWriter.class);
-        doThrow(new IOException("Error during flush")).when(fileWriter).flush();
-        ReflectionTestUtils.setField(ConsoleLogger.class, null, "fileWriter", fileWriter);
-
-        // when
-        ConsoleLogger.closeFileWriter();
-
-        // then
-        verify(fileWriter).flush();
-        verify(fileWriter).close();
-        assertThat(ReflectionTestUtils.getFieldValue(ConsoleLogger.class, null, "fileWriter"), nullValue());
-    }
-
-    @Test
-    public void shouldHandleExceptionOnFileWriterClose() throws IOException {
-        // given
-        FileWriter fileWriter = mock(FileWriter.class);
-        doThrow(new IOException("Cannot close")).when(fileWriter).close();
-        ReflectionTestUtils.setField(ConsoleLogger.class, null, "fileWriter", fileWriter);
+        Settings settings = newSettings(true, LogLevel.INFO);
+        ConsoleLogger.initializeSharedSettings(settings);
+        consoleLogger.info("Before close");
 
         // when
         ConsoleLogger.closeFileWriter();
+        consoleLogger.info("After close");
 
         // then
-        verify(fileWriter).flush();
-        verify(fileWriter).close();
+        List<String> loggedLines = Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8);
+        assertThat(loggedLines, contains(containsString("[INFO] Before close")));
         assertThat(ReflectionTestUtils.getFieldValue(ConsoleLogger.class, null, "fileWriter"), nullValue());
     }
 
@@ -209,6 +195,12 @@ public class ConsoleLoggerTest {
         Settings settings = mock(Settings.class);
         given(settings.getProperty(SecuritySettings.USE_LOGGING)).willReturn(logToFile);
         given(settings.getProperty(PluginSettings.LOG_LEVEL)).willReturn(logLevel);
+        if (logToFile) {
+            given(settings.getProperty(SecuritySettings.LOG_BUFFER_SIZE)).willReturn(1024);
+            given(settings.getProperty(SecuritySettings.LOG_FLUSH_INTERVAL)).willReturn(1000);
+            given(settings.getProperty(SecuritySettings.LOG_MAX_FILE_SIZE)).willReturn(0);
+            given(settings.getProperty(SecuritySettings.LOG_ROTATE_DAILY)).willReturn(false);
+        }
         return settings;
     }
 
@@ -29,7 +29,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
 
 import static fr.xephi.authme.IsEqualByReflectionMatcher.hasEqualValuesOnAllFields;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -290,13 +290,13 @@ public class AuthMeApiTest {
         // given
         String playerName = "Robert";
         String password = "someSecretPhrase2983";
-        given(passwordSecurity.comparePassword(password, playerName)).willReturn(true);
+        given(passwordSecurity.comparePasswordWithoutRejection(password, playerName)).willReturn(true);
 
         // when
         boolean result = api.checkPassword(playerName, password);
 
         // then
-        verify(passwordSecurity).comparePassword(password, playerName);
+        verify(passwordSecurity).comparePasswordWithoutRejection(password, playerName);
         assertThat(result, equalTo(true));
     }
 
@@ -304,10 +304,7 @@ public class AuthMeApiTest {
     public void shouldReturnAuthNames() {
         // given
         String[] names = {"bobby", "peter", "elisabeth", "craig"};
-        List<PlayerAuth> auths = Arrays.stream(names)
-            .map(name -> PlayerAuth.builder().name(name).build())
-            .collect(Collectors.toList());
-        given(dataSource.getAllAuths()).willReturn(auths);
+        givenRegisteredNames(names);
 
         // when
         List<String> result = api.getRegisteredNames();
@@ -320,10 +317,7 @@ public class AuthMeApiTest {
     public void shouldReturnAuthRealNames() {
         // given
         String[] names = {"Bobby", "peter", "Elisabeth", "CRAIG"};
-        List<PlayerAuth> auths = Arrays.stream(names)
-            .map(name -> PlayerAuth.builder().name(name).realName(name).build())
-            .collect(Collectors.toList());
-        given(dataSource.getAllAuths()).willReturn(auths);
+        givenRegisteredNames(names);
 
         // when
         List<String> result = api.getRegisteredRealNames();
@@ -332,6 +326,19 @@ public class AuthMeApiTest {
         assertThat(result, contains(names));
     }
 
+    @Test
+    public void shouldReturnRealNamesStartingWithPrefix() {
+        // given
+        List<String> names = Arrays.asList("Bobby", "bobcat");
+        given(dataSource.getRealNamesStartingWith("bob", 20)).willReturn(names);
+
+        // when
+        List<String> result = api.getRegisteredRealNamesStartingWith("bob", 20);
+
+        // then
+        assertThat(result, equalTo(names));
+    }
+
     @Test
     public void shouldUnregisterPlayer() {
         // given
@@ -451,7 +458,7 @@ public class AuthMeApiTest {
         String name = "Marco";
         String password = "myP4ss";
         HashedPassword hashedPassword = new HashedPassword("0395872SLKDFJOWEIUTEJSD");
-        given(passwordSecurity.computeHash(password, name.toLowerCase())).willReturn(hashedPassword);
+        given(passwordSecurity.computeHashWithoutRejection(password, name.toLowerCase())).willReturn(hashedPassword);
         given(dataSource.saveAuth(any(PlayerAuth.class))).willReturn(true);
 
         // when
@@ -459,7 +466,7 @@ public class AuthMeApiTest {
 
         // then
         assertThat(result, equalTo(true));
-        verify(passwordSecurity).computeHash(password, name.toLowerCase());
+        verify(passwordSecurity).computeHashWithoutRejection(password, name.toLowerCase());
         ArgumentCaptor<PlayerAuth> authCaptor = ArgumentCaptor.forClass(PlayerAuth.class);
         verify(dataSource).saveAuth(authCaptor.capture());
         assertThat(authCaptor.getValue().getNickname(), equalTo(name.toLowerCase()));
@@ -548,4 +555,12 @@ public class AuthMeApiTest {
         given(player.getName()).willReturn(name);
         return player;
     }
+
+    private void givenRegisteredNames(String... realNames) {
+        given(dataSource.forEachName(any())).willAnswer(invocation -> {
+            BiConsumer<String, String> action = invocation.getArgument(0);
+            Arrays.stream(realNames).forEach(realName -> action.accept(realName.toLowerCase(), realName));
+            return true;
+        });
+    }
 }
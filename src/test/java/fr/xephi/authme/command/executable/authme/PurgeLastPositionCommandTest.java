@@ -14,8 +14,10 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -94,14 +96,18 @@ public class PurgeLastPositionCommandTest {
         PlayerAuth auth1 = mock(PlayerAuth.class);
         PlayerAuth auth2 = mock(PlayerAuth.class);
         PlayerAuth auth3 = mock(PlayerAuth.class);
-        given(dataSource.getAllAuths()).willReturn(Arrays.asList(auth1, auth2, auth3));
+        given(dataSource.forEachAuth(any())).willAnswer(invocation -> {
+            Consumer<PlayerAuth> action = invocation.getArgument(0);
+            Arrays.asList(auth1, auth2, auth3).forEach(action);
+            return true;
+        });
         CommandSender sender = mock(CommandSender.class);
 
         // when
         command.executeCommand(sender, Collections.singletonList("*"));
 
         // then
-        verify(dataSource).getAllAuths();
+        verify(dataSource).forEachAuth(any());
         verifyPositionWasReset(auth1);
         verifyPositionWasReset(auth2);
         verifyPositionWasReset(auth3);
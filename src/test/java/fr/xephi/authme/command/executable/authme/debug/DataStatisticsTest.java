@@ -1,18 +1,24 @@
 package fr.xephi.authme.command.executable.authme.debug;
 
 import ch.jalu.injector.factory.SingletonStore;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import fr.xephi.authme.ReflectionTestUtils;
 import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.data.auth.PlayerCache;
 import fr.xephi.authme.data.limbo.LimboPlayer;
 import fr.xephi.authme.data.limbo.LimboService;
+import fr.xephi.authme.data.limbo.persistence.LimboPersistence;
+import fr.xephi.authme.data.limbo.persistence.WriteBehindPersistenceHandler;
 import fr.xephi.authme.datasource.CacheDataSource;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.initialization.HasCleanup;
 import fr.xephi.authme.initialization.Reloadable;
 import fr.xephi.authme.initialization.SettingsDependent;
 import fr.xephi.authme.output.ConsoleLoggerFactory;
+import fr.xephi.authme.security.HashingExecutor;
+import fr.xephi.authme.service.AntiBotService;
+import fr.xephi.authme.service.JoinRateTracker;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.junit.Before;
@@ -25,12 +31,14 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeastOnce;
@@ -53,6 +61,12 @@ public class DataStatisticsTest {
     @Mock
     private LimboService limboService;
     @Mock
+    private LimboPersistence limboPersistence;
+    @Mock
+    private HashingExecutor hashingExecutor;
+    @Mock
+    private AntiBotService antiBotService;
+    @Mock
     private SingletonStore<Object> singletonStore;
 
     @Before
@@ -72,6 +86,9 @@ public class DataStatisticsTest {
         given(singletonStore.retrieveAllOfType(HasCleanup.class)).willReturn(mockListOfSize(HasCleanup.class, 2));
         given(dataSource.getAccountsRegistered()).willReturn(219);
         given(playerCache.getLogged()).willReturn(12);
+        given(hashingExecutor.getWorkerThreads()).willReturn(4);
+        given(hashingExecutor.getQueuedTaskCount()).willReturn(3);
+        given(hashingExecutor.getCompletedTaskCount()).willReturn(150L);
 
         // Clear any loggers that might exist and trigger the generation of two loggers
         Map loggers = ReflectionTestUtils.getFieldValue(ConsoleLoggerFactory.class, null, "consoleLoggers");
@@ -92,6 +109,9 @@ public class DataStatisticsTest {
             "LimboPlayers in memory: 1",
             "Total players in DB: 219",
             "PlayerCache size: 12 (= logged in players)",
+            "Hashing: 4 threads, 0 active, 3 queued, 150 done, 0 rejected",
+            String.format("Hashing wait (ms): avg %.2f / max %.2f; hash time (ms): avg %.2f / max %.2f",
+                0.0, 0.0, 0.0, 0.0),
             "Total logger instances: 2"));
     }
 
@@ -101,7 +121,10 @@ public class DataStatisticsTest {
         CacheDataSource cacheDataSource = mock(CacheDataSource.class);
         LoadingCache<String, Optional<PlayerAuth>> cache = mock(LoadingCache.class);
         given(cache.size()).willReturn(11L);
+        given(cache.stats()).willReturn(new CacheStats(30, 10, 9, 1, 20_000_000L, 0));
         given(cacheDataSource.getCachedAuths()).willReturn(cache);
+        given(cacheDataSource.getLoaderThreads()).willReturn(4);
+        given(cacheDataSource.getQueuedLoaderCount()).willReturn(2);
         ReflectionTestUtils.setField(DataStatistics.class, dataStatistics, "dataSource", cacheDataSource);
         CommandSender sender = mock(CommandSender.class);
 
@@ -112,6 +135,56 @@ public class DataStatisticsTest {
         ArgumentCaptor<String> stringCaptor = ArgumentCaptor.forClass(String.class);
         verify(sender, atLeastOnce()).sendMessage(stringCaptor.capture());
         assertThat(stringCaptor.getAllValues(), hasItem("Cached PlayerAuth objects: 11"));
+        assertThat(stringCaptor.getAllValues(), hasItem(String.format(
+            "Auth cache: %.1f%% hit rate, %d loads, load time (ms): avg %.2f", 75.0, 10, 2.0)));
+        assertThat(stringCaptor.getAllValues(), hasItem("Cache loader: 4 threads, 0 active, 2 queued, 0 rejected"));
+    }
+
+    @Test
+    public void shouldOutputAdaptiveAntiBotStatistics() {
+        // given
+        JoinRateTracker joinRateTracker = mock(JoinRateTracker.class);
+        given(joinRateTracker.getTrackedBucketCount()).willReturn(5);
+        given(joinRateTracker.getThrottledJoinCount()).willReturn(42L);
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("203.0.113.0/24", 25.0);
+        rates.put("country US", 4.5);
+        given(joinRateTracker.getHighestRates(3)).willReturn(rates);
+        given(antiBotService.getJoinRateTracker()).willReturn(joinRateTracker);
+        CommandSender sender = mock(CommandSender.class);
+
+        // when
+        dataStatistics.execute(sender, Collections.emptyList());
+
+        // then
+        ArgumentCaptor<String> stringCaptor = ArgumentCaptor.forClass(String.class);
+        verify(sender, atLeastOnce()).sendMessage(stringCaptor.capture());
+        assertThat(stringCaptor.getAllValues(), hasItems(
+            "Adaptive AntiBot: 5 subnets/countries tracked, 42 joins throttled",
+            String.format("- 203.0.113.0/24: %.1f joins/min", 25.0),
+            String.format("- country US: %.1f joins/min", 4.5)));
+    }
+
+    @Test
+    public void shouldOutputLimboWriteBehindStatistics() {
+        // given
+        WriteBehindPersistenceHandler writeBehindHandler = mock(WriteBehindPersistenceHandler.class);
+        given(writeBehindHandler.getPendingCount()).willReturn(3);
+        given(writeBehindHandler.getFlushedWriteCount()).willReturn(40L);
+        given(writeBehindHandler.getFlushCount()).willReturn(8L);
+        given(writeBehindHandler.getSkippedWriteCount()).willReturn(25L);
+        given(limboPersistence.getWriteBehindHandler()).willReturn(writeBehindHandler);
+        CommandSender sender = mock(CommandSender.class);
+
+        // when
+        dataStatistics.execute(sender, Collections.emptyList());
+
+        // then
+        ArgumentCaptor<String> stringCaptor = ArgumentCaptor.forClass(String.class);
+        verify(sender, atLeastOnce()).sendMessage(stringCaptor.capture());
+        assertThat(stringCaptor.getAllValues(), hasItems(
+            "Limbo write-behind: 3 pending, 40 written in 8 flushes, 25 skipped",
+            String.format("Limbo flush time (ms): last %.2f / avg %.2f", 0.0, 0.0)));
     }
 
     private static <T> List<T> mockListOfSize(Class<T> mockClass, int size) {
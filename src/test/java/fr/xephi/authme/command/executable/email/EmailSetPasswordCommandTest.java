@@ -3,6 +3,7 @@ package fr.xephi.authme.command.executable.email;
 import fr.xephi.authme.TestHelper;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.message.MessageKey;
+import fr.xephi.authme.security.HashingBusyException;
 import fr.xephi.authme.security.PasswordSecurity;
 import fr.xephi.authme.security.crypts.HashedPassword;
 import fr.xephi.authme.service.CommonService;
@@ -20,6 +21,7 @@ import java.util.Collections;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
@@ -74,6 +76,26 @@ public class EmailSetPasswordCommandTest {
         verify(commonService).send(player, MessageKey.PASSWORD_CHANGED_SUCCESS);
     }
 
+    @Test
+    public void shouldInformPlayerIfHashingIsBusy() {
+        // given
+        Player player = mock(Player.class);
+        String name = "Jerry";
+        given(player.getName()).willReturn(name);
+        given(recoveryService.canChangePassword(player)).willReturn(true);
+        given(passwordSecurity.computeHash("abc123", name)).willThrow(new HashingBusyException("Queue is full"));
+        given(validationService.validatePassword("abc123", name))
+            .willReturn(new ValidationService.ValidationResult());
+
+        // when
+        command.runCommand(player, Collections.singletonList("abc123"));
+
+        // then
+        verify(commonService).send(player, MessageKey.HASHING_BUSY);
+        verifyNoInteractions(dataSource);
+        verify(recoveryService, never()).removeFromSuccessfulRecovery(player);
+    }
+
     @Test
     public void shouldRejectInvalidPassword() {
         // given
@@ -7,7 +7,7 @@ import fr.xephi.authme.message.Messages;
 import fr.xephi.authme.service.BukkitService;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.SecuritySettings;
-import fr.xephi.authme.util.expiring.TimedCounter;
+import fr.xephi.authme.util.expiring.SlidingWindowCounterMap;
 import org.bukkit.entity.Player;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -214,11 +214,11 @@ public class TempbanManagerTest {
     @Test
     public void shouldPerformCleanup() {
         // given
-        Map<String, TimedCounter<String>> counts = new HashMap<>();
-        TimedCounter<String> counter1 = mockCounter();
+        Map<String, SlidingWindowCounterMap<String>> counts = new HashMap<>();
+        SlidingWindowCounterMap<String> counter1 = mockCounter();
         given(counter1.isEmpty()).willReturn(true);
         counts.put("11.11.11.11", counter1);
-        TimedCounter<String> counter2 = mockCounter();
+        SlidingWindowCounterMap<String> counter2 = mockCounter();
         given(counter2.isEmpty()).willReturn(false);
         counts.put("33.33.33.33", counter2);
 
@@ -246,20 +246,20 @@ public class TempbanManagerTest {
     }
 
     private static void assertHasNoEntries(TempbanManager manager, String address) {
-        Map<String, TimedCounter<String>> playerCounts = ReflectionTestUtils
+        Map<String, SlidingWindowCounterMap<String>> playerCounts = ReflectionTestUtils
             .getFieldValue(TempbanManager.class, manager, "ipLoginFailureCounts");
-        TimedCounter<String> counter = playerCounts.get(address);
+        SlidingWindowCounterMap<String> counter = playerCounts.get(address);
         assertThat(counter == null || counter.isEmpty(), equalTo(true));
     }
 
     private static void assertHasCount(TempbanManager manager, String address, String name, int count) {
-        Map<String, TimedCounter<String>> playerCounts = ReflectionTestUtils
+        Map<String, SlidingWindowCounterMap<String>> playerCounts = ReflectionTestUtils
             .getFieldValue(TempbanManager.class, manager, "ipLoginFailureCounts");
         assertThat(playerCounts.get(address).get(name), equalTo(count));
     }
 
     @SuppressWarnings("unchecked")
-    private static <T> TimedCounter<T> mockCounter() {
-        return mock(TimedCounter.class);
+    private static <T> SlidingWindowCounterMap<T> mockCounter() {
+        return mock(SlidingWindowCounterMap.class);
     }
 }
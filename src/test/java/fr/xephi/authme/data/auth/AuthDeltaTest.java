@@ -0,0 +1,122 @@
+package fr.xephi.authme.data.auth;
+
+import fr.xephi.authme.security.crypts.HashedPassword;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link AuthDelta}.
+ */
+public class AuthDeltaTest {
+
+    @Test
+    public void shouldWriteAndReadDelta() throws IOException {
+        // given
+        PlayerAuth auth = PlayerAuth.builder().name("Bobby").realName("BoBBy")
+            .password(new HashedPassword("$hash", "salt")).email(null).lastIp("22.33.44.55").lastLogin(1234567L)
+            .locX(12.5).locY(64).locZ(-3.25).locWorld("nether").locYaw(90f).locPitch(-45f)
+            .build();
+        AuthDelta delta = AuthDelta.update(auth, EnumSet.of(PlayerAuth.Field.PASSWORD, PlayerAuth.Field.EMAIL,
+            PlayerAuth.Field.LAST_IP, PlayerAuth.Field.LAST_LOGIN, PlayerAuth.Field.QUIT_LOCATION), 42L);
+
+        // when
+        AuthDelta result = writeAndRead(delta);
+
+        // then
+        assertThat(result.getKind(), equalTo(AuthDelta.Kind.UPDATE));
+        assertThat(result.getName(), equalTo("bobby"));
+        assertThat(result.getVersion(), equalTo(42L));
+        assertThat(result.getFields(), equalTo(delta.getFields()));
+        PlayerAuth values = result.getValues();
+        assertThat(values.getPassword().getHash(), equalTo("$hash"));
+        assertThat(values.getPassword().getSalt(), equalTo("salt"));
+        assertThat(values.getEmail(), nullValue());
+        assertThat(values.getLastIp(), equalTo("22.33.44.55"));
+        assertThat(values.getLastLogin(), equalTo(1234567L));
+        assertThat(values.getQuitLocX(), equalTo(12.5));
+        assertThat(values.getQuitLocY(), equalTo(64.0));
+        assertThat(values.getQuitLocZ(), equalTo(-3.25));
+        assertThat(values.getWorld(), equalTo("nether"));
+        assertThat(values.getYaw(), equalTo(90f));
+        assertThat(values.getPitch(), equalTo(-45f));
+    }
+
+    @Test
+    public void shouldWriteAndReadRemoval() throws IOException {
+        // given
+        AuthDelta delta = AuthDelta.remove("Name", 7L);
+
+        // when
+        AuthDelta result = writeAndRead(delta);
+
+        // then
+        assertThat(result.getKind(), equalTo(AuthDelta.Kind.REMOVE));
+        assertThat(result.getName(), equalTo("name"));
+        assertThat(result.getVersion(), equalTo(7L));
+        assertThat(result.getValues(), nullValue());
+    }
+
+    @Test
+    public void shouldMergeUpdates() {
+        // given
+        PlayerAuth auth = PlayerAuth.builder().name("tina").email("tina@example.org").lastIp("11.11.11.11").build();
+        AuthDelta emailDelta = AuthDelta.update(auth, EnumSet.of(PlayerAuth.Field.EMAIL), 10L);
+        auth.setEmail("other@example.org");
+        auth.setLastIp("22.22.22.22");
+        AuthDelta ipDelta = AuthDelta.update(auth, EnumSet.of(PlayerAuth.Field.LAST_IP), 11L);
+
+        // when
+        AuthDelta result = emailDelta.merge(ipDelta);
+
+        // then
+        assertThat(result.getKind(), equalTo(AuthDelta.Kind.UPDATE));
+        assertThat(result.getVersion(), equalTo(11L));
+        assertThat(result.getFields(), containsInAnyOrder(PlayerAuth.Field.EMAIL, PlayerAuth.Field.LAST_IP));
+        // The email of the first delta has been copied when it was created
+        assertThat(result.getValues().getEmail(), equalTo("tina@example.org"));
+        assertThat(result.getValues().getLastIp(), equalTo("22.22.22.22"));
+    }
+
+    @Test
+    public void shouldKeepReloadAndRemovalWhenMerging() {
+        // given
+        PlayerAuth auth = PlayerAuth.builder().name("tina").build();
+        AuthDelta update = AuthDelta.update(auth, EnumSet.of(PlayerAuth.Field.PASSWORD), 5L);
+
+        // when
+        AuthDelta reloadThenUpdate = AuthDelta.reload("tina", 4L).merge(update);
+        AuthDelta updateThenRemove = update.merge(AuthDelta.remove("tina", 6L));
+
+        // then
+        assertThat(reloadThenUpdate.getKind(), equalTo(AuthDelta.Kind.RELOAD));
+        assertThat(reloadThenUpdate.getVersion(), equalTo(5L));
+        assertThat(updateThenRemove.getKind(), equalTo(AuthDelta.Kind.REMOVE));
+        assertThat(updateThenRemove.getVersion(), equalTo(6L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedFields() {
+        // given
+        PlayerAuth auth = PlayerAuth.builder().name("tina").build();
+
+        // when
+        AuthDelta.update(auth, EnumSet.of(PlayerAuth.Field.TOTP_KEY), 1L);
+    }
+
+    private static AuthDelta writeAndRead(AuthDelta delta) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        delta.writeTo(new DataOutputStream(bytes));
+        return AuthDelta.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
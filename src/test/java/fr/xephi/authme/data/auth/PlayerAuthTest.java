@@ -2,7 +2,11 @@ package fr.xephi.authme.data.auth;
 
 import org.junit.Test;
 
+import java.util.EnumSet;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.fail;
@@ -66,4 +70,46 @@ public class PlayerAuthTest {
         assertThat(auth.getGroupId(), equalTo(19));
         assertThat(auth.getPitch(), equalTo(123.004f));
     }
+
+    @Test
+    public void shouldTrackChangedFields() {
+        // given
+        PlayerAuth auth = PlayerAuth.builder()
+            .name("Dan")
+            .email("dan@example.org")
+            .locX(12)
+            .build();
+
+        // when
+        auth.setEmail("dan@example.com");
+        auth.setLastLogin(1234L);
+        auth.setQuitLocY(64);
+        auth.setWorld("nether");
+
+        // then
+        assertThat(auth.hasChanges(), equalTo(true));
+        assertThat(auth.getChangedFields(), containsInAnyOrder(
+            PlayerAuth.Field.EMAIL, PlayerAuth.Field.LAST_LOGIN, PlayerAuth.Field.QUIT_LOCATION));
+    }
+
+    @Test
+    public void shouldClearGivenChangedFields() {
+        // given
+        PlayerAuth auth = PlayerAuth.builder().name("Eve").build();
+        auth.setLastIp("12.34.56.78");
+        auth.markAsChanged(PlayerAuth.Field.UUID);
+
+        // when
+        auth.clearChanges(EnumSet.of(PlayerAuth.Field.LAST_IP, PlayerAuth.Field.EMAIL));
+
+        // then
+        assertThat(auth.getChangedFields(), containsInAnyOrder(PlayerAuth.Field.UUID));
+
+        // when
+        auth.clearChanges(auth.getChangedFields());
+
+        // then
+        assertThat(auth.hasChanges(), equalTo(false));
+        assertThat(auth.getChangedFields(), empty());
+    }
 }
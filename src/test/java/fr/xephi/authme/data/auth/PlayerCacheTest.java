@@ -0,0 +1,94 @@
+package fr.xephi.authme.data.auth;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test for {@link PlayerCache}.
+ */
+public class PlayerCacheTest {
+
+    @Test
+    public void shouldIndexLoggedInPlayersByIp() {
+        // given
+        PlayerCache playerCache = new PlayerCache();
+
+        // when
+        playerCache.updatePlayer(newAuth("Bobby", "10.0.0.1"));
+        playerCache.updatePlayer(newAuth("Tina", "10.0.0.1"));
+        playerCache.updatePlayer(newAuth("Ralph", "10.0.0.2"));
+
+        // then
+        assertThat(playerCache.getLoggedInNamesByIp("10.0.0.1"), containsInAnyOrder("bobby", "tina"));
+        assertThat(playerCache.getLoggedInNamesByIp("10.0.0.2"), containsInAnyOrder("ralph"));
+        assertThat(playerCache.getLoggedInNamesByIp("10.0.0.3"), empty());
+        assertThat(playerCache.getLogged(), equalTo(3));
+    }
+
+    @Test
+    public void shouldRemovePlayerFromIpIndex() {
+        // given
+        PlayerCache playerCache = new PlayerCache();
+        playerCache.updatePlayer(newAuth("Bobby", "10.0.0.1"));
+        playerCache.updatePlayer(newAuth("Tina", "10.0.0.1"));
+
+        // when
+        playerCache.removePlayer("BOBBY");
+        playerCache.removePlayer("unknown");
+
+        // then
+        assertThat(playerCache.getLoggedInNamesByIp("10.0.0.1"), containsInAnyOrder("tina"));
+        assertThat(playerCache.isAuthenticated("bobby"), equalTo(false));
+    }
+
+    @Test
+    public void shouldMovePlayerToNewIpOnUpdate() {
+        // given
+        PlayerCache playerCache = new PlayerCache();
+        playerCache.updatePlayer(newAuth("Bobby", "10.0.0.1"));
+
+        // when
+        playerCache.updatePlayer(newAuth("Bobby", "10.0.0.2"));
+
+        // then
+        assertThat(playerCache.getLoggedInNamesByIp("10.0.0.1"), empty());
+        assertThat(playerCache.getLoggedInNamesByIp("10.0.0.2"), containsInAnyOrder("bobby"));
+    }
+
+    @Test
+    public void shouldRemovePlayerFromIndexedIpAfterAuthWasModified() {
+        // given
+        PlayerCache playerCache = new PlayerCache();
+        PlayerAuth auth = newAuth("Bobby", "10.0.0.1");
+        playerCache.updatePlayer(auth);
+        auth.setLastIp("10.0.0.2");
+
+        // when
+        playerCache.removePlayer("bobby");
+
+        // then
+        assertThat(playerCache.getLoggedInNamesByIp("10.0.0.1"), empty());
+        assertThat(playerCache.getLoggedInNamesByIp("10.0.0.2"), empty());
+    }
+
+    @Test
+    public void shouldHandleMissingIp() {
+        // given
+        PlayerCache playerCache = new PlayerCache();
+
+        // when
+        playerCache.updatePlayer(PlayerAuth.builder().name("Bobby").build());
+
+        // then
+        assertThat(playerCache.isAuthenticated("bobby"), equalTo(true));
+        assertThat(playerCache.getLoggedInNamesByIp(null), empty());
+    }
+
+    private static PlayerAuth newAuth(String name, String ip) {
+        return PlayerAuth.builder().name(name).lastIp(ip).build();
+    }
+}
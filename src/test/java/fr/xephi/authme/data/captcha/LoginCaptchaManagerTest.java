@@ -3,7 +3,7 @@ package fr.xephi.authme.data.captcha;
 import fr.xephi.authme.ReflectionTestUtils;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.SecuritySettings;
-import fr.xephi.authme.util.expiring.TimedCounter;
+import fr.xephi.authme.util.expiring.SlidingWindowCounterMap;
 import org.bukkit.entity.Player;
 import org.junit.Test;
 
@@ -165,7 +165,7 @@ public class LoginCaptchaManagerTest {
     }
 
     private static void assertHasCount(LoginCaptchaManager manager, String player, Integer count) {
-        TimedCounter<String> playerCounts = ReflectionTestUtils
+        SlidingWindowCounterMap<String> playerCounts = ReflectionTestUtils
             .getFieldValue(LoginCaptchaManager.class, manager, "playerCounts");
         assertThat(playerCounts.get(player.toLowerCase()), equalTo(count));
     }
@@ -5,14 +5,13 @@ import fr.xephi.authme.data.auth.PlayerCache;
 import fr.xephi.authme.data.captcha.RegistrationCaptchaManager;
 import fr.xephi.authme.message.MessageKey;
 import fr.xephi.authme.message.Messages;
-import fr.xephi.authme.service.BukkitService;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.RegistrationSettings;
 import fr.xephi.authme.settings.properties.RestrictionSettings;
 import fr.xephi.authme.task.MessageTask;
 import fr.xephi.authme.task.TimeoutTask;
+import fr.xephi.authme.task.TimingWheel;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,13 +22,11 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.util.Collections;
 
 import static fr.xephi.authme.service.BukkitService.TICKS_PER_SECOND;
-import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
@@ -52,7 +49,7 @@ public class LimboPlayerTaskManagerTest {
     private Settings settings;
 
     @Mock
-    private BukkitService bukkitService;
+    private TimingWheel timingWheel;
 
     @Mock
     private PlayerCache playerCache;
@@ -81,10 +78,30 @@ public class LimboPlayerTaskManagerTest {
         // then
         verify(limboPlayer).setMessageTask(any(MessageTask.class));
         verify(messages).retrieveSingle(player, key);
-        verify(bukkitService).runTaskTimer(
+        verify(timingWheel).scheduleRepeating(
             any(MessageTask.class), eq(2L * TICKS_PER_SECOND), eq((long) interval * TICKS_PER_SECOND));
     }
 
+    @Test
+    public void shouldSpreadMessageTasksOverSeveralTicks() {
+        // given
+        Player player = mock(Player.class);
+        LimboPlayer limboPlayer = mock(LimboPlayer.class);
+        given(messages.retrieveSingle(player, MessageKey.LOGIN_MESSAGE)).willReturn("Please log in!");
+        given(settings.getProperty(RegistrationSettings.MESSAGE_INTERVAL)).willReturn(5);
+
+        // when
+        for (int i = 0; i < 3; ++i) {
+            limboPlayerTaskManager.registerMessageTask(player, limboPlayer, LimboMessageType.LOG_IN);
+        }
+
+        // then
+        long period = 5L * TICKS_PER_SECOND;
+        verify(timingWheel).scheduleRepeating(any(MessageTask.class), eq(2L * TICKS_PER_SECOND), eq(period));
+        verify(timingWheel).scheduleRepeating(any(MessageTask.class), eq(2L * TICKS_PER_SECOND + 1), eq(period));
+        verify(timingWheel).scheduleRepeating(any(MessageTask.class), eq(2L * TICKS_PER_SECOND + 2), eq(period));
+    }
+
     @Test
     public void shouldNotScheduleTaskForZeroAsInterval() {
         // given
@@ -97,7 +114,7 @@ public class LimboPlayerTaskManagerTest {
         limboPlayerTaskManager.registerMessageTask(player, limboPlayer, LimboMessageType.LOG_IN);
 
         // then
-        verifyNoInteractions(limboPlayer, bukkitService);
+        verifyNoInteractions(limboPlayer, timingWheel);
     }
 
     @Test
@@ -150,15 +167,13 @@ public class LimboPlayerTaskManagerTest {
         Player player = mock(Player.class);
         LimboPlayer limboPlayer = mock(LimboPlayer.class);
         given(settings.getProperty(RestrictionSettings.TIMEOUT)).willReturn(30);
-        BukkitTask bukkitTask = mock(BukkitTask.class);
-        given(bukkitService.runTaskLater(any(TimeoutTask.class), anyLong())).willReturn(bukkitTask);
 
         // when
         limboPlayerTaskManager.registerTimeoutTask(player, limboPlayer);
 
         // then
-        verify(limboPlayer).setTimeoutTask(bukkitTask);
-        verify(bukkitService).runTaskLater(any(TimeoutTask.class), eq(600L)); // 30 * TICKS_PER_SECOND
+        verify(limboPlayer).setTimeoutTask(any(TimeoutTask.class));
+        verify(timingWheel).schedule(any(TimeoutTask.class), eq(600L)); // 30 * TICKS_PER_SECOND
         verify(messages).retrieveSingle(player, MessageKey.LOGIN_TIMEOUT_ERROR);
     }
 
@@ -173,7 +188,7 @@ public class LimboPlayerTaskManagerTest {
         limboPlayerTaskManager.registerTimeoutTask(player, limboPlayer);
 
         // then
-        verifyNoInteractions(limboPlayer, bukkitService);
+        verifyNoInteractions(limboPlayer, timingWheel);
     }
 
     @Test
@@ -181,19 +196,18 @@ public class LimboPlayerTaskManagerTest {
         // given
         Player player = mock(Player.class);
         LimboPlayer limboPlayer = new LimboPlayer(null, false, Collections.emptyList(), true, 0.3f, 0.1f);
-        BukkitTask existingTask = mock(BukkitTask.class);
+        TimeoutTask existingTask = mock(TimeoutTask.class);
         limboPlayer.setTimeoutTask(existingTask);
         given(settings.getProperty(RestrictionSettings.TIMEOUT)).willReturn(18);
-        BukkitTask bukkitTask = mock(BukkitTask.class);
-        given(bukkitService.runTaskLater(any(TimeoutTask.class), anyLong())).willReturn(bukkitTask);
 
         // when
         limboPlayerTaskManager.registerTimeoutTask(player, limboPlayer);
 
         // then
         verify(existingTask).cancel();
-        assertThat(limboPlayer.getTimeoutTask(), equalTo(bukkitTask));
-        verify(bukkitService).runTaskLater(any(TimeoutTask.class), eq(360L)); // 18 * TICKS_PER_SECOND
+        assertThat(limboPlayer.getTimeoutTask(), not(nullValue()));
+        assertThat(limboPlayer.getTimeoutTask(), not(sameInstance(existingTask)));
+        verify(timingWheel).schedule(limboPlayer.getTimeoutTask(), 360L); // 18 * TICKS_PER_SECOND
         verify(messages).retrieveSingle(player, MessageKey.LOGIN_TIMEOUT_ERROR);
     }
 
@@ -11,6 +11,7 @@ import fr.xephi.authme.settings.SpawnLoader;
 import fr.xephi.authme.settings.properties.LimboSettings;
 import fr.xephi.authme.settings.properties.RestrictionSettings;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -22,6 +23,7 @@ import org.mockito.Mockito;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.UUID;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
@@ -183,6 +185,32 @@ public class LimboServiceTest {
         assertThat(limboService.hasLimboPlayer("John"), equalTo(false));
     }
 
+    @Test
+    public void shouldCreateAndRemoveMovementAnchor() {
+        // given
+        Player player = newPlayer("Mia", false, 0.2f, false, 0.1f);
+        given(player.getUniqueId()).willReturn(UUID.randomUUID());
+        given(settings.getProperty(RestrictionSettings.ALLOW_UNAUTHED_MOVEMENT)).willReturn(true);
+        given(settings.getProperty(RestrictionSettings.NO_TELEPORT)).willReturn(false);
+        given(settings.getProperty(RestrictionSettings.ALLOWED_MOVEMENT_RADIUS)).willReturn(10);
+        given(settings.getProperty(LimboSettings.RESTORE_ALLOW_FLIGHT)).willReturn(AllowFlightRestoreType.ENABLE);
+        given(settings.getProperty(LimboSettings.RESTORE_WALK_SPEED)).willReturn(WalkFlySpeedRestoreType.RESTORE);
+        given(settings.getProperty(LimboSettings.RESTORE_FLY_SPEED)).willReturn(WalkFlySpeedRestoreType.RESTORE);
+        World world = mock(World.class);
+        given(spawnLoader.getSpawnLocation(player)).willReturn(new Location(world, 100, 64, 100));
+
+        // when
+        limboService.createLimboPlayer(player, true);
+        MovementAnchor anchor = limboService.getMovementAnchor(player);
+        limboService.restoreData(player);
+
+        // then
+        assertThat(anchor.isWithinRadius(new Location(world, 106, 64, 108)), equalTo(true));
+        assertThat(anchor.isWithinRadius(new Location(world, 107, 64, 108)), equalTo(false));
+        assertThat(anchor.isWithinRadius(new Location(mock(World.class), 100, 64, 100)), equalTo(false));
+        assertThat(limboService.getMovementAnchor(player), nullValue());
+    }
+
     @Test
     public void shouldHandleMissingLimboPlayerWhileRestoring() {
         // given
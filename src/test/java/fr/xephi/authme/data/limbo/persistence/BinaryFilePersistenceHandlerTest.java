@@ -0,0 +1,137 @@
+package fr.xephi.authme.data.limbo.persistence;
+
+import ch.jalu.injector.testing.BeforeInjecting;
+import ch.jalu.injector.testing.DelayedInjectionRunner;
+import ch.jalu.injector.testing.InjectDelayed;
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.data.limbo.LimboPlayer;
+import fr.xephi.authme.initialization.DataFolder;
+import fr.xephi.authme.service.BukkitService;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static fr.xephi.authme.data.limbo.LimboPlayerMatchers.hasLocation;
+import static fr.xephi.authme.data.limbo.LimboPlayerMatchers.isLimbo;
+import static java.util.UUID.fromString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for {@link BinaryFilePersistenceHandler}.
+ */
+@RunWith(DelayedInjectionRunner.class)
+public class BinaryFilePersistenceHandlerTest {
+
+    private static final UUID UUID_STAFF = fromString("88897c88-7c8f-c12e-4931-6206d4ca067d");
+    private static final UUID UUID_8C679 = fromString("8c679491-1234-abcd-9102-1fa6e0cc3f81");
+
+    @InjectDelayed
+    private BinaryFilePersistenceHandler persistenceHandler;
+
+    @Mock
+    private BukkitService bukkitService;
+    @DataFolder
+    private File dataFolder;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @BeforeInjecting
+    public void setUpClasses() throws IOException {
+        dataFolder = temporaryFolder.newFolder();
+        given(bukkitService.getWorld(anyString()))
+            .willAnswer(invocation -> mockWorldWithName(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void shouldSaveAndReadPlayers() {
+        // given
+        Player staff = mockPlayerWithUuid(UUID_STAFF);
+        Location location = mockLocation("world_nether", 12.5, 64.0, -30.25, 90.0f, -10.5f);
+        LimboPlayer staffLimbo = new LimboPlayer(location, true, Arrays.asList("staff", "mod"), false, 0.3f, 0.1f);
+        Player other = mockPlayerWithUuid(UUID_8C679);
+        LimboPlayer otherLimbo = new LimboPlayer(
+            mockLocation("world", 0, 0, 0, 0, 0), false, Collections.emptyList(), true, 0.1f, 0.0f);
+
+        // when
+        persistenceHandler.saveLimboPlayer(staff, staffLimbo);
+        persistenceHandler.saveLimboPlayer(other, otherLimbo);
+
+        // then
+        LimboPlayer readStaff = persistenceHandler.getLimboPlayer(staff);
+        assertThat(readStaff, isLimbo(staffLimbo));
+        assertThat(readStaff, hasLocation(location));
+        assertThat(persistenceHandler.getLimboPlayer(other), isLimbo(otherLimbo));
+        assertThat(new File(dataFolder, "playerdata").list(), arrayContaining("limbo-1.bin"));
+    }
+
+    @Test
+    public void shouldOverwriteAndRemovePlayer() {
+        // given
+        Player player = mockPlayerWithUuid(UUID_STAFF);
+        LimboPlayer limbo = new LimboPlayer(
+            mockLocation("world", 1, 2, 3, 0, 0), false, Collections.singletonList("a"), false, 0.2f, 0.1f);
+        LimboPlayer newLimbo = new LimboPlayer(
+            mockLocation("lobby", 4, 5, 6, 0, 0), true, Collections.singletonList("b"), true, 0.25f, 0.15f);
+        persistenceHandler.saveLimboPlayer(player, limbo);
+
+        // when
+        persistenceHandler.saveLimboPlayer(player, newLimbo);
+
+        // then
+        assertThat(persistenceHandler.getLimboPlayer(player), isLimbo(newLimbo));
+
+        // when
+        persistenceHandler.removeLimboPlayer(player);
+        persistenceHandler.removeLimboPlayer(mockPlayerWithUuid(UUID_8C679));
+
+        // then
+        assertThat(persistenceHandler.getLimboPlayer(player), nullValue());
+    }
+
+    private static Player mockPlayerWithUuid(UUID uuid) {
+        Player player = mock(Player.class);
+        given(player.getUniqueId()).willReturn(uuid);
+        return player;
+    }
+
+    private static World mockWorldWithName(String name) {
+        World world = mock(World.class);
+        given(world.getName()).willReturn(name);
+        return world;
+    }
+
+    private static Location mockLocation(String worldName, double x, double y, double z, float yaw, float pitch) {
+        World world = mockWorldWithName(worldName);
+        Location location = mock(Location.class);
+        given(location.getWorld()).willReturn(world);
+        given(location.getX()).willReturn(x);
+        given(location.getY()).willReturn(y);
+        given(location.getZ()).willReturn(z);
+        given(location.getYaw()).willReturn(yaw);
+        given(location.getPitch()).willReturn(pitch);
+        return location;
+    }
+}
@@ -23,6 +23,7 @@ import org.mockito.Mock;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.UUID;
 
@@ -179,6 +180,27 @@ public class DistributedFilesPersistenceHandlerTest {
         assertThat(persistenceHandler.getLimboPlayer(mockPlayerWithUuid(UUID_8C679)), SC679_MATCHER);
     }
 
+    @Test
+    public void shouldSaveAndRemovePlayersInBatch() {
+        // given
+        Player uuidToAdd = mockPlayerWithUuid(UNKNOWN_UUID2);
+        Location location = mockLocation("world");
+        LimboPlayer limbo = new LimboPlayer(location, false, Collections.singletonList("group-1"), true, 0.1f, 0.2f);
+        Player playerToRemove1 = mockPlayerWithUuid(UUID_STAFF);
+        Player playerToRemove2 = mockPlayerWithUuid(UUID_FAB69);
+
+        // when
+        persistenceHandler.saveAndRemoveLimboPlayers(Collections.singletonMap(uuidToAdd, limbo),
+            Arrays.asList(playerToRemove1, playerToRemove2));
+
+        // then
+        assertThat(persistenceHandler.getLimboPlayer(uuidToAdd), isLimbo(limbo));
+        assertThat(persistenceHandler.getLimboPlayer(playerToRemove1), nullValue());
+        assertThat(persistenceHandler.getLimboPlayer(playerToRemove2), nullValue());
+        assertThat(persistenceHandler.getLimboPlayer(mockPlayerWithUuid(UUID_8C679)), SC679_MATCHER);
+        assertThat(persistenceHandler.getLimboPlayer(mockPlayerWithUuid(MIGRATED_UUID)), MIGRATED_LIMBO_MATCHER);
+    }
+
     @Test
     public void shouldHandleReadErrorGracefully() throws IOException {
         // given
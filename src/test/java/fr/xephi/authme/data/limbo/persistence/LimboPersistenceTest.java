@@ -58,6 +58,7 @@ public class LimboPersistenceTest {
     @SuppressWarnings("unchecked")
     public void setUpMocks() {
         given(settings.getProperty(LimboSettings.LIMBO_PERSISTENCE_TYPE)).willReturn(LimboPersistenceType.DISABLED);
+        given(settings.getProperty(LimboSettings.USE_WRITE_BEHIND)).willReturn(false);
         given(handlerFactory.newInstance(any(Class.class)))
             .willAnswer(invocation -> mock(invocation.getArgument(0)));
     }
@@ -101,6 +102,48 @@ public class LimboPersistenceTest {
         assertThat(getHandler(), instanceOf(LimboPersistenceType.INDIVIDUAL_FILES.getImplementationClass()));
     }
 
+    @Test
+    public void shouldCloseBinaryFileHandlerOnReload() {
+        // given
+        given(settings.getProperty(LimboSettings.LIMBO_PERSISTENCE_TYPE))
+            .willReturn(LimboPersistenceType.BINARY_FILE);
+        limboPersistence.reload(settings);
+        BinaryFilePersistenceHandler binaryHandler = (BinaryFilePersistenceHandler) getHandler();
+
+        // when
+        limboPersistence.reload(settings);
+
+        // then
+        verify(binaryHandler).close();
+        assertThat(getHandler(), instanceOf(BinaryFilePersistenceHandler.class));
+        assertThat(getHandler(), not(sameInstance(binaryHandler)));
+    }
+
+    @Test
+    public void shouldWrapHandlerForWriteBehind() {
+        // given
+        given(settings.getProperty(LimboSettings.LIMBO_PERSISTENCE_TYPE))
+            .willReturn(LimboPersistenceType.DISTRIBUTED_FILES);
+        given(settings.getProperty(LimboSettings.USE_WRITE_BEHIND)).willReturn(true);
+        given(settings.getProperty(LimboSettings.WRITE_BEHIND_FLUSH_INTERVAL)).willReturn(1000);
+
+        // when
+        limboPersistence.reload(settings);
+
+        // then
+        WriteBehindPersistenceHandler writeBehindHandler = limboPersistence.getWriteBehindHandler();
+        assertThat(getHandler(), sameInstance(writeBehindHandler));
+        assertThat(writeBehindHandler.getDelegate(),
+            instanceOf(LimboPersistenceType.DISTRIBUTED_FILES.getImplementationClass()));
+
+        // when
+        limboPersistence.close();
+
+        // then
+        assertThat(limboPersistence.getWriteBehindHandler(), nullValue());
+        assertThat(getHandler(), instanceOf(LimboPersistenceType.DISTRIBUTED_FILES.getImplementationClass()));
+    }
+
     @Test
     public void shouldHandleExceptionWhenGettingLimbo() {
         // given
@@ -0,0 +1,248 @@
+package fr.xephi.authme.data.limbo.persistence;
+
+import fr.xephi.authme.TestHelper;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test for {@link MappedRecordStore}.
+ */
+public class MappedRecordStoreTest {
+
+    private static final UUID UUID_1 = UUID.fromString("f6a97c88-7c8f-c12e-4931-6206d4ca067d");
+    private static final UUID UUID_2 = UUID.fromString("88897c88-7c8f-c12e-4931-6206d4ca067d");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File folder;
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @Before
+    public void setUpFolder() throws IOException {
+        folder = temporaryFolder.newFolder();
+    }
+
+    @Test
+    public void shouldStoreAndRemoveRecords() throws IOException {
+        // given
+        MappedRecordStore store = new MappedRecordStore(folder);
+
+        // when
+        store.put(UUID_1, bytes("first"));
+        store.put(UUID_2, bytes("second"));
+        store.put(UUID_1, bytes("first, updated"));
+        boolean isRemoved = store.remove(UUID_2);
+        boolean isUnknownRemoved = store.remove(UUID.randomUUID());
+
+        // then
+        assertThat(store.get(UUID_1), equalTo(bytes("first, updated")));
+        assertThat(store.get(UUID_2), nullValue());
+        assertThat(isRemoved, equalTo(true));
+        assertThat(isUnknownRemoved, equalTo(false));
+        assertThat(store.size(), equalTo(1));
+        assertThat(store.getWastedBytes(), equalTo((long) "first".length() + "second".length()));
+    }
+
+    @Test
+    public void shouldKeepRecordsWhenReopened() throws IOException {
+        // given
+        MappedRecordStore store = new MappedRecordStore(folder);
+        store.put(UUID_1, bytes("first"));
+        store.put(UUID_2, bytes("second"));
+        store.remove(UUID_2);
+        store.close();
+
+        // when
+        MappedRecordStore reopenedStore = new MappedRecordStore(folder);
+
+        // then
+        assertThat(reopenedStore.get(UUID_1), equalTo(bytes("first")));
+        assertThat(reopenedStore.get(UUID_2), nullValue());
+        assertThat(reopenedStore.size(), equalTo(1));
+        assertThat(folder.list(), arrayContaining("limbo-1.bin"));
+    }
+
+    @Test
+    public void shouldCompactIntoNewFile() throws IOException {
+        // given
+        MappedRecordStore store = new MappedRecordStore(folder);
+        store.put(UUID_1, bytes("first"));
+        store.put(UUID_1, bytes("first, updated"));
+        store.put(UUID_2, bytes("second"));
+        store.remove(UUID_2);
+
+        // when
+        store.compact();
+
+        // then
+        assertThat(store.getWastedBytes(), equalTo(0L));
+        assertThat(store.get(UUID_1), equalTo(bytes("first, updated")));
+        assertThat(store.get(UUID_2), nullValue());
+        assertThat(folder.list(), arrayContaining("limbo-2.bin"));
+    }
+
+    @Test
+    public void shouldGrowWhenFull() throws IOException {
+        // given
+        MappedRecordStore store = new MappedRecordStore(folder);
+        int total = MappedRecordStore.MIN_SLOT_COUNT * 2;
+        byte[] record = new byte[MappedRecordStore.MIN_DATA_CAPACITY / 100];
+
+        // when
+        for (int i = 0; i < total; ++i) {
+            record[0] = (byte) i;
+            store.put(new UUID(i, i), record.clone());
+        }
+
+        // then
+        assertThat(store.size(), equalTo(total));
+        for (int i = 0; i < total; ++i) {
+            assertThat(store.get(new UUID(i, i))[0], equalTo((byte) i));
+        }
+        assertThat(store.getFile().length(), greaterThan((long) MappedRecordStore.MIN_DATA_CAPACITY * 2));
+    }
+
+    @Test
+    public void shouldIgnoreCorruptRecord() throws IOException {
+        // given
+        MappedRecordStore store = new MappedRecordStore(folder);
+        store.put(UUID_1, bytes("first"));
+        store.put(UUID_2, bytes("second"));
+        store.close();
+        File file = new File(folder, "limbo-1.bin");
+        byte[] content = Files.readAllBytes(file.toPath());
+        int recordOffset = indexOf(content, bytes("second"));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(recordOffset);
+            raf.write('S');
+        }
+
+        // when
+        MappedRecordStore reopenedStore = new MappedRecordStore(folder);
+
+        // then
+        assertThat(reopenedStore.get(UUID_1), equalTo(bytes("first")));
+        assertThat(reopenedStore.get(UUID_2), nullValue());
+    }
+
+    @Test
+    public void shouldKeepNewerRecordOfInterruptedUpdate() throws IOException {
+        // given
+        MappedRecordStore store = new MappedRecordStore(folder);
+        store.put(UUID_1, bytes("first"));
+        store.put(UUID_1, bytes("first, updated"));
+        store.close();
+        File file = new File(folder, "limbo-1.bin");
+        restoreDeletedSlot(file, UUID_1, indexOf(Files.readAllBytes(file.toPath()), bytes("first")));
+
+        // when
+        MappedRecordStore reopenedStore = new MappedRecordStore(folder);
+
+        // then
+        assertThat(reopenedStore.get(UUID_1), equalTo(bytes("first, updated")));
+        assertThat(reopenedStore.size(), equalTo(1));
+        assertThat(reopenedStore.getWastedBytes(), equalTo((long) "first".length()));
+    }
+
+    @Test
+    public void shouldKeepPreviousRecordIfUpdatedRecordIsCorrupt() throws IOException {
+        // given
+        MappedRecordStore store = new MappedRecordStore(folder);
+        store.put(UUID_1, bytes("first"));
+        store.put(UUID_1, bytes("second"));
+        store.close();
+        File file = new File(folder, "limbo-1.bin");
+        byte[] content = Files.readAllBytes(file.toPath());
+        restoreDeletedSlot(file, UUID_1, indexOf(content, bytes("first")));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(indexOf(content, bytes("second")));
+            raf.write('S');
+        }
+
+        // when
+        MappedRecordStore reopenedStore = new MappedRecordStore(folder);
+
+        // then
+        assertThat(reopenedStore.get(UUID_1), equalTo(bytes("first")));
+        assertThat(reopenedStore.size(), equalTo(1));
+    }
+
+    @Test
+    public void shouldIgnoreFileOfInterruptedCompaction() throws IOException {
+        // given
+        MappedRecordStore store = new MappedRecordStore(folder);
+        store.put(UUID_1, bytes("first"));
+        store.close();
+        // File without magic, as left behind if the server stopped during compaction
+        try (RandomAccessFile raf = new RandomAccessFile(new File(folder, "limbo-2.bin"), "rw")) {
+            raf.setLength(4096);
+        }
+
+        // when
+        MappedRecordStore reopenedStore = new MappedRecordStore(folder);
+
+        // then
+        assertThat(reopenedStore.get(UUID_1), equalTo(bytes("first")));
+        assertThat(folder.list(), arrayContaining("limbo-1.bin"));
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Points the deleted slot of the given UUID back to the given offset, as if the store had been
+     * stopped before it could mark the slot as deleted while updating the UUID's record.
+     */
+    private static void restoreDeletedSlot(File file, UUID uuid, long recordOffset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8);
+            int slotCount = raf.readInt();
+            for (int slot = 0; slot < slotCount; ++slot) {
+                long position = 24 + slot * 32L;
+                raf.seek(position);
+                if (raf.readLong() == uuid.getMostSignificantBits()
+                    && raf.readLong() == uuid.getLeastSignificantBits() && raf.readLong() == -1) {
+                    raf.seek(position + 16);
+                    raf.writeLong(recordOffset);
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("No deleted slot for " + uuid);
+    }
+
+    private static int indexOf(byte[] content, byte[] part) {
+        outer:
+        for (int i = 0; i <= content.length - part.length; ++i) {
+            for (int j = 0; j < part.length; ++j) {
+                if (content[i + j] != part[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new IllegalStateException("Not found");
+    }
+}
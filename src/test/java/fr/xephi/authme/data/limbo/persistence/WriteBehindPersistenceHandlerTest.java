@@ -0,0 +1,146 @@
+package fr.xephi.authme.data.limbo.persistence;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.data.limbo.LimboPlayer;
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * Test for {@link WriteBehindPersistenceHandler}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WriteBehindPersistenceHandlerTest {
+
+    private WriteBehindPersistenceHandler handler;
+
+    @Mock
+    private LimboPersistenceHandler delegate;
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @Before
+    public void initHandler() {
+        handler = new WriteBehindPersistenceHandler(delegate, executor);
+    }
+
+    @Test
+    public void shouldCoalesceWritesPerPlayer() {
+        // given
+        Player player = mockPlayerWithUuid(UUID.randomUUID());
+        LimboPlayer limbo1 = mock(LimboPlayer.class);
+        LimboPlayer limbo2 = mock(LimboPlayer.class);
+        handler.saveLimboPlayer(player, limbo1);
+        handler.saveLimboPlayer(player, limbo2);
+
+        // when
+        handler.flush();
+
+        // then
+        verify(delegate).saveAndRemoveLimboPlayers(Collections.singletonMap(player, limbo2), Collections.emptyList());
+        assertThat(handler.getPendingCount(), equalTo(0));
+        assertThat(handler.getFlushedWriteCount(), equalTo(1L));
+        assertThat(handler.getSkippedWriteCount(), equalTo(1L));
+        assertThat(handler.getFlushCount(), equalTo(1L));
+        verifyNoInteractions(executor);
+    }
+
+    @Test
+    public void shouldReturnPendingLimboPlayer() {
+        // given
+        Player player = mockPlayerWithUuid(UUID.randomUUID());
+        LimboPlayer limbo = mock(LimboPlayer.class);
+
+        // when
+        handler.saveLimboPlayer(player, limbo);
+        LimboPlayer savedResult = handler.getLimboPlayer(player);
+        handler.removeLimboPlayer(player);
+        LimboPlayer removedResult = handler.getLimboPlayer(player);
+
+        // then
+        assertThat(savedResult, sameInstance(limbo));
+        assertThat(removedResult, nullValue());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    public void shouldNotWriteSaveFollowedByRemoval() {
+        // given
+        Player player = mockPlayerWithUuid(UUID.randomUUID());
+        given(delegate.getLimboPlayer(player)).willReturn(null);
+        handler.getLimboPlayer(player);
+
+        // when
+        handler.saveLimboPlayer(player, mock(LimboPlayer.class));
+        handler.removeLimboPlayer(player);
+        handler.flush();
+
+        // then
+        assertThat(handler.getPendingCount(), equalTo(0));
+        assertThat(handler.getSkippedWriteCount(), equalTo(2L));
+        verify(delegate).getLimboPlayer(player);
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    public void shouldRemoveLimboPlayerStoredOnDisk() {
+        // given
+        Player player = mockPlayerWithUuid(UUID.randomUUID());
+        given(delegate.getLimboPlayer(player)).willReturn(mock(LimboPlayer.class));
+        handler.getLimboPlayer(player);
+        handler.saveLimboPlayer(player, mock(LimboPlayer.class));
+        handler.removeLimboPlayer(player);
+
+        // when
+        handler.flush();
+
+        // then
+        verify(delegate).saveAndRemoveLimboPlayers(Collections.emptyMap(), Collections.singletonList(player));
+        assertThat(handler.getSkippedWriteCount(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldFlushOnClose() {
+        // given
+        Player player = mockPlayerWithUuid(UUID.randomUUID());
+        LimboPlayer limbo = mock(LimboPlayer.class);
+        handler.saveLimboPlayer(player, limbo);
+
+        // when
+        handler.close();
+
+        // then
+        verify(executor).shutdown();
+        verify(delegate).saveAndRemoveLimboPlayers(Collections.singletonMap(player, limbo), Collections.emptyList());
+        assertThat(handler.getPendingCount(), equalTo(0));
+    }
+
+    private static Player mockPlayerWithUuid(UUID uuid) {
+        Player player = mock(Player.class);
+        given(player.getUniqueId()).willReturn(uuid);
+        return player;
+    }
+}
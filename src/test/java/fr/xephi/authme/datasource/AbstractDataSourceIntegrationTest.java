@@ -7,6 +7,7 @@ import fr.xephi.authme.data.auth.PlayerAuth;
 import fr.xephi.authme.security.crypts.HashedPassword;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -259,9 +260,10 @@ public abstract class AbstractDataSourceIntegrationTest {
         assumeThat(dataSource.getAccountsRegistered(), equalTo(2));
 
         // when
-        dataSource.purgeRecords(playersToDelete);
+        int deleted = dataSource.purgeRecords(playersToDelete);
 
         // then
+        assertThat(deleted, equalTo(1));
         assertThat(dataSource.getAccountsRegistered(), equalTo(1));
         assertThat(dataSource.isAuthAvailable("bobby"), equalTo(false));
         assertThat(dataSource.isAuthAvailable("user"), equalTo(true));
@@ -410,9 +412,10 @@ public abstract class AbstractDataSourceIntegrationTest {
         DataSource dataSource = getDataSource();
 
         // when
-        dataSource.purgeRecords(names);
+        int deleted = dataSource.purgeRecords(names);
 
         // then
+        assertThat(deleted, equalTo(2));
         assertThat(dataSource.getAllAuths(), empty());
     }
 
@@ -532,4 +535,186 @@ public abstract class AbstractDataSourceIntegrationTest {
         assertThat(dataSource.getAuth("bobby").getTotpKey(), nullValue());
         assertThat(dataSource.getAuth("user").getTotpKey(), nullValue());
     }
+
+    @Test
+    public void shouldPersistOnlyChangedFields() {
+        // given
+        DataSource dataSource = getDataSource();
+        PlayerAuth bobby = dataSource.getAuth("bobby");
+        PlayerAuth staleCopy = dataSource.getAuth("bobby");
+        staleCopy.setEmail("stale@example.org");
+        staleCopy.setLastIp("10.0.0.1");
+        dataSource.updateEmail(staleCopy);
+        dataSource.updateSession(staleCopy);
+
+        bobby.setLastIp("22.33.44.55");
+        bobby.setTotpKey(null);
+        bobby.setQuitLocX(-12.5);
+
+        // when
+        boolean result = dataSource.persistChanges(bobby);
+
+        // then
+        assertThat(result, equalTo(true));
+        assertThat(bobby.hasChanges(), equalTo(false));
+        PlayerAuth savedAuth = dataSource.getAuth("bobby");
+        assertThat(savedAuth, hasAuthBasicData("bobby", "Bobby", "stale@example.org", "22.33.44.55"));
+        assertThat(savedAuth, hasAuthLocation(-12.5, 2.1, 4.2, "world", -0.44f, 2.77f));
+        assertThat(savedAuth.getTotpKey(), nullValue());
+        assertThat(savedAuth.getPassword(), equalToHash("$SHA$11aa0706173d7272$dbba966"));
+    }
+
+    @Test
+    public void shouldApplyPendingUpdates() {
+        // given
+        DataSource dataSource = getDataSource();
+        PlayerAuth bobby = PlayerAuth.builder()
+            .name("bobby").realName("BOBBY").lastLogin(123L)
+            .lastIp("12.12.12.12").build();
+        List<PendingAccountUpdate> updates = Arrays.asList(
+            PendingAccountUpdate.forName("Bobby").withLogged(true).withSessionData(bobby),
+            PendingAccountUpdate.forName("user").withSession(true),
+            PendingAccountUpdate.forName("doesNotExist").withLogged(true),
+            PendingAccountUpdate.forName("user3"));
+
+        // when
+        boolean result = dataSource.applyPendingUpdates(updates);
+
+        // then
+        assertThat(result, equalTo(true));
+        assertThat(dataSource.isLogged("bobby"), equalTo(true));
+        assertThat(dataSource.hasSession("bobby"), equalTo(false));
+        assertThat(dataSource.isLogged("user"), equalTo(false));
+        assertThat(dataSource.hasSession("user"), equalTo(true));
+        PlayerAuth bobbyResult = dataSource.getAuth("bobby");
+        assertThat(bobbyResult, hasAuthBasicData("bobby", "BOBBY", null, "12.12.12.12"));
+        assertThat(bobbyResult.getLastLogin(), equalTo(123L));
+        assertThat(dataSource.getAuth("user"), hasAuthBasicData("user", "user", "user@example.org", "34.56.78.90"));
+    }
+
+    @Test
+    public void shouldUpdateRehashedPasswordsIfUnchanged() {
+        // given
+        DataSource dataSource = getDataSource();
+        HashedPassword bobbyHash = new HashedPassword("$2a$10$bobby-new", null);
+        HashedPassword userHash = new HashedPassword("$2a$10$user-new", "salt");
+        List<RehashedPassword> rehashes = Arrays.asList(
+            new RehashedPassword("Bobby", new HashedPassword("$SHA$11aa0706173d7272$dbba966"), bobbyHash),
+            new RehashedPassword("user", new HashedPassword("changed-in-the-meantime"), userHash),
+            new RehashedPassword("doesNotExist", new HashedPassword("hash"), new HashedPassword("new")));
+
+        // when
+        int result = dataSource.updateRehashedPasswords(rehashes);
+
+        // then
+        assertThat(result, equalTo(1));
+        assertThat(dataSource.getPassword("bobby"), equalToHash(bobbyHash));
+        assertThat(dataSource.getPassword("user"), equalToHash("b28c32f624a4eb161d6adc9acb5bfc5b", "f750ba32"));
+    }
+
+    @Test
+    public void shouldPassAllAuthsToConsumer() {
+        // given
+        DataSource dataSource = getDataSource();
+        List<PlayerAuth> auths = new ArrayList<>();
+
+        // when
+        boolean result = dataSource.forEachAuth(auths::add);
+
+        // then
+        assertThat(result, equalTo(true));
+        assertThat(auths, contains(
+            hasAuthBasicData("bobby", "Bobby", null, "123.45.67.89"),
+            hasAuthBasicData("user", "user", "user@example.org", "34.56.78.90")));
+    }
+
+    @Test
+    public void shouldPassAllNamesToConsumer() {
+        // given
+        DataSource dataSource = getDataSource();
+        List<String> names = new ArrayList<>();
+
+        // when
+        boolean result = dataSource.forEachName((name, realName) -> names.add(name + ":" + realName));
+
+        // then
+        assertThat(result, equalTo(true));
+        assertThat(names, contains("bobby:Bobby", "user:user"));
+    }
+
+    @Test
+    public void shouldReturnRealNamesStartingWithPrefix() {
+        // given
+        DataSource dataSource = getDataSource();
+        dataSource.saveAuth(PlayerAuth.builder().name("bob_the_builder").realName("Bob_The_Builder").build());
+        dataSource.saveAuth(PlayerAuth.builder().name("bobxcat").realName("BobXCat").build());
+
+        // when
+        List<String> names1 = dataSource.getRealNamesStartingWith("BOB", 10);
+        List<String> names2 = dataSource.getRealNamesStartingWith("bob_", 10);
+        List<String> names3 = dataSource.getRealNamesStartingWith("b", 1);
+        List<String> names4 = dataSource.getRealNamesStartingWith("nobody", 10);
+
+        // then
+        assertThat(names1, contains("Bob_The_Builder", "Bobby", "BobXCat"));
+        assertThat(names2, contains("Bob_The_Builder"));
+        assertThat(names3, contains("Bob_The_Builder"));
+        assertThat(names4, empty());
+    }
+
+    @Test
+    public void shouldFilterRegisteredNames() {
+        // given
+        DataSource dataSource = getDataSource();
+
+        // when
+        Set<String> registeredNames = dataSource.filterRegisteredNames(
+            Arrays.asList("Bobby", "doesNotExist", "user", "other"));
+
+        // then
+        assertThat(registeredNames, containsInAnyOrder("bobby", "user"));
+    }
+
+    @Test
+    public void shouldSaveAuthsWithAllData() {
+        // given
+        DataSource dataSource = getDataSource();
+        List<PlayerAuth> auths = Arrays.asList(
+            PlayerAuth.builder().name("tina").realName("Tina").password("$hash1", "salt1")
+                .email("tina@example.org").lastIp("12.34.56.78").lastLogin(1500000000000L)
+                .registrationDate(1400000000000L).registrationIp("12.34.56.78")
+                .locX(12.5).locY(64).locZ(-3).locWorld("nether").locYaw(90f).locPitch(-10f).build(),
+            PlayerAuth.builder().name("max").realName("MAX").password("$hash2", null).build());
+
+        // when
+        int saved = dataSource.saveAuths(auths);
+
+        // then
+        assertThat(saved, equalTo(2));
+        PlayerAuth tina = dataSource.getAuth("tina");
+        assertThat(tina, hasAuthBasicData("tina", "Tina", "tina@example.org", "12.34.56.78"));
+        assertThat(tina, hasAuthLocation(12.5, 64, -3, "nether", 90f, -10f));
+        assertThat(tina, hasRegistrationInfo("12.34.56.78", 1400000000000L));
+        assertThat(tina.getLastLogin(), equalTo(1500000000000L));
+        assertThat(dataSource.getPassword("tina"), equalToHash("$hash1", "salt1"));
+        assertThat(dataSource.getAuth("max"), hasAuthBasicData("max", "MAX", null, null));
+        assertThat(dataSource.getAllAuths(), hasSize(4));
+    }
+
+    @Test
+    public void shouldNotSaveAnyAuthIfOneCannotBeSaved() {
+        // given
+        DataSource dataSource = getDataSource();
+        List<PlayerAuth> auths = Arrays.asList(
+            PlayerAuth.builder().name("tina").realName("Tina").password("$hash1", null).build(),
+            PlayerAuth.builder().name("bobby").realName("Bobby").password("$hash2", null).build());
+
+        // when
+        int saved = dataSource.saveAuths(auths);
+
+        // then
+        assertThat(saved, equalTo(0));
+        assertThat(dataSource.isAuthAvailable("tina"), equalTo(false));
+        assertThat(dataSource.getAllAuths(), hasSize(2));
+    }
 }
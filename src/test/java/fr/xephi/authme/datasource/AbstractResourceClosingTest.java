@@ -28,6 +28,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -177,6 +179,10 @@ public abstract class AbstractResourceClosingTest {
             .put(boolean.class, true)
             .put(PlayerAuth.class, PlayerAuth.builder().name("test").realName("test").password(hash).build())
             .put(HashedPassword.class, hash)
+            .put(PendingAccountUpdate.class, PendingAccountUpdate.forName("test").withLogged(true).withSession(false))
+            .put(RehashedPassword.class, new RehashedPassword("test", hash, new HashedPassword("new", "salt")))
+            .put(Consumer.class, (Consumer<?>) value -> { })
+            .put(BiConsumer.class, (BiConsumer<?, ?>) (value1, value2) -> { })
             .build();
     }
 
@@ -192,6 +198,7 @@ public abstract class AbstractResourceClosingTest {
         Connection connection = mock(Connection.class);
         try {
             given(connection.prepareStatement(anyString())).willAnswer(preparedStatementAnswer());
+            given(connection.prepareStatement(anyString(), anyInt())).willAnswer(preparedStatementAnswer());
             given(connection.createStatement()).willAnswer(preparedStatementAnswer());
             given(connection.createBlob()).willReturn(mock(Blob.class));
             return connection;
@@ -209,6 +216,8 @@ public abstract class AbstractResourceClosingTest {
                 closeables.add(pst);
                 given(pst.executeQuery()).willAnswer(resultSetAnswer());
                 given(pst.executeQuery(anyString())).willAnswer(resultSetAnswer());
+                given(pst.executeBatch()).willReturn(new int[0]);
+                given(pst.getGeneratedKeys()).willAnswer(resultSetAnswer());
                 return pst;
             }
         };
@@ -0,0 +1,310 @@
+package fr.xephi.authme.datasource;
+
+import fr.xephi.authme.data.auth.AuthDelta;
+import fr.xephi.authme.data.auth.PlayerAuth;
+import fr.xephi.authme.data.auth.PlayerCache;
+import fr.xephi.authme.security.crypts.HashedPassword;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.only;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Test for {@link CacheDataSource}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CacheDataSourceTest {
+
+    @Mock
+    private DataSource source;
+    @Mock
+    private PlayerCache playerCache;
+
+    @Test
+    public void shouldCacheLoginStateFlags() {
+        // given
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, null, 60);
+        given(source.isLogged("bobby")).willReturn(true);
+        given(source.hasSession("bobby")).willReturn(false);
+
+        // when
+        boolean isLogged1 = dataSource.isLogged("Bobby");
+        boolean isLogged2 = dataSource.isLogged("bobby");
+        boolean hasSession1 = dataSource.hasSession("BOBBY");
+        boolean hasSession2 = dataSource.hasSession("bobby");
+
+        // then
+        assertThat(isLogged1 && isLogged2, equalTo(true));
+        assertThat(hasSession1 || hasSession2, equalTo(false));
+        verify(source, times(1)).isLogged("bobby");
+        verify(source, times(1)).hasSession("bobby");
+    }
+
+    @Test
+    public void shouldUpdateCachedFlagsAndPersistChanges() {
+        // given
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, null, 60);
+
+        // when
+        dataSource.setLogged("Tina");
+        dataSource.grantSession("Tina");
+        boolean isLogged = dataSource.isLogged("tina");
+        boolean hasSession = dataSource.hasSession("tina");
+        dataSource.revokeSession("tina");
+        boolean hasSessionAfterRevoke = dataSource.hasSession("tina");
+
+        // then
+        assertThat(isLogged, equalTo(true));
+        assertThat(hasSession, equalTo(true));
+        assertThat(hasSessionAfterRevoke, equalTo(false));
+        verify(source).setLogged("tina");
+        verify(source).grantSession("Tina");
+        verify(source).revokeSession("tina");
+    }
+
+    @Test
+    public void shouldReadFlagsFromSourceAfterRefresh() {
+        // given
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, null, 60);
+        dataSource.setLogged("ralph");
+        given(source.isLogged("ralph")).willReturn(false);
+
+        // when
+        dataSource.refreshCache("ralph");
+        boolean isLogged = dataSource.isLogged("ralph");
+
+        // then
+        assertThat(isLogged, equalTo(false));
+        verify(source).isLogged("ralph");
+    }
+
+    @Test
+    public void shouldNotCacheFlagsIfDisabled() {
+        // given
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache);
+        given(source.hasSession("bobby")).willReturn(true);
+
+        // when
+        dataSource.hasSession("bobby");
+        dataSource.hasSession("bobby");
+
+        // then
+        verify(source, times(2)).hasSession("bobby");
+    }
+
+    @Test
+    public void shouldQueueUpdatesInWriteBehindMode() {
+        // given
+        WriteBehindQueue queue = new WriteBehindQueue(source, 100, null);
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, queue, 0);
+
+        // when
+        dataSource.setLogged("bobby");
+        dataSource.revokeSession("bobby");
+        boolean isLogged = dataSource.isLogged("bobby");
+        boolean hasSession = dataSource.hasSession("bobby");
+
+        // then
+        assertThat(isLogged, equalTo(true));
+        assertThat(hasSession, equalTo(false));
+        assertThat(queue.getPendingCount(), equalTo(1));
+        verifyNoInteractions(source);
+    }
+
+    @Test
+    public void shouldDiscardQueuedUpdatesOfRemovedAccount() {
+        // given
+        WriteBehindQueue queue = new WriteBehindQueue(source, 100, null);
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, queue, 60);
+        dataSource.setLogged("bobby");
+        given(source.removeAuth("bobby")).willReturn(true);
+
+        // when
+        dataSource.removeAuth("Bobby");
+
+        // then
+        assertThat(queue.getPendingCount(), equalTo(0));
+        verify(source, only()).removeAuth("bobby");
+    }
+
+    @Test
+    public void shouldQueueSessionDataAndPersistOtherChangesDirectly() {
+        // given
+        WriteBehindQueue queue = new WriteBehindQueue(source, 100, null);
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, queue, 0);
+        dataSource.setLogged("other");
+        PlayerAuth auth = PlayerAuth.builder().name("bobby").lastIp("11.11.11.11").build();
+        dataSource.updateSession(auth);
+        auth.setLastIp("22.22.22.22");
+        auth.markAsChanged(PlayerAuth.Field.QUIT_LOCATION);
+        given(source.persistChanges(auth)).willAnswer(invocation -> {
+            assertThat(auth.getChangedFields(), contains(PlayerAuth.Field.QUIT_LOCATION));
+            return true;
+        });
+
+        // when
+        boolean result = dataSource.persistChanges(auth);
+
+        // then
+        assertThat(result, equalTo(true));
+        assertThat(queue.getPendingCount(), equalTo(2));
+        assertThat(queue.getPendingUpdate("bobby").getLastIp(), equalTo("22.22.22.22"));
+        verify(source).persistChanges(auth);
+        verify(source, never()).applyPendingUpdates(anyCollection());
+    }
+
+    @Test
+    public void shouldUpdateCachedAuthInPlaceAfterWrites() {
+        // given
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, null, 60, 2);
+        given(source.getAuth("bobby")).willReturn(PlayerAuth.builder()
+            .name("bobby").realName("Bobby").email("bobby@example.org").lastIp("11.11.11.11").build());
+        PlayerAuth cachedAuth = dataSource.getAuth("Bobby");
+        PlayerAuth copy = PlayerAuth.builder().name("bobby").realName("BOBBY").lastIp("22.22.22.22")
+            .lastLogin(123456L).email("bobby@example.com").build();
+        given(source.updateSession(copy)).willReturn(true);
+        given(source.updateEmail(copy)).willReturn(true);
+        given(source.setTotpKey("Bobby", "TOTPKEY")).willReturn(true);
+
+        // when
+        dataSource.updateSession(copy);
+        dataSource.updateEmail(copy);
+        dataSource.setTotpKey("Bobby", "TOTPKEY");
+        PlayerAuth result = dataSource.getAuth("bobby");
+
+        // then
+        assertThat(result, sameInstance(cachedAuth));
+        assertThat(result.getRealName(), equalTo("BOBBY"));
+        assertThat(result.getLastIp(), equalTo("22.22.22.22"));
+        assertThat(result.getLastLogin(), equalTo(123456L));
+        assertThat(result.getEmail(), equalTo("bobby@example.com"));
+        assertThat(result.getTotpKey(), equalTo("TOTPKEY"));
+        assertThat(result.hasChanges(), equalTo(false));
+        verify(source, times(1)).getAuth("bobby");
+        assertThat(dataSource.getCachedAuths().stats().loadCount(), equalTo(1L));
+        assertThat(dataSource.getLoaderThreads(), equalTo(2));
+    }
+
+    @Test
+    public void shouldKeepNameIndexInSync() throws InterruptedException {
+        // given
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, null, 60);
+        given(source.forEachName(any())).willAnswer(invocation -> {
+            BiConsumer<String, String> action = invocation.getArgument(0);
+            action.accept("bobby", "Bobby");
+            action.accept("bob", "bob");
+            action.accept("tina", "Tina");
+            return true;
+        });
+        given(source.saveAuth(any(PlayerAuth.class))).willReturn(true);
+        given(source.removeAuth("bob")).willReturn(true);
+        dataSource.enableNameIndex();
+        waitUntilLoaded(dataSource.getNameIndex());
+
+        // when
+        dataSource.saveAuth(PlayerAuth.builder().name("bobcat").realName("BobCat").build());
+        dataSource.removeAuth("Bob");
+        List<String> names = dataSource.getRealNamesStartingWith("BOB", 10);
+
+        // then
+        assertThat(names, contains("BobCat", "Bobby"));
+        verify(source, never()).getRealNamesStartingWith(anyString(), anyInt());
+    }
+
+    @Test
+    public void shouldAnswerUnregisteredNamesWithNameFilter() throws InterruptedException {
+        // given
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, null, 60);
+        given(source.getAccountsRegistered()).willReturn(1);
+        given(source.forEachName(any())).willAnswer(invocation -> {
+            BiConsumer<String, String> action = invocation.getArgument(0);
+            action.accept("bobby", "Bobby");
+            return true;
+        });
+        given(source.getAuth("bobby")).willReturn(PlayerAuth.builder().name("bobby").build());
+        given(source.saveAuth(any(PlayerAuth.class))).willReturn(true);
+        dataSource.enableNameFilter();
+        waitUntilFilterLoaded(dataSource);
+
+        // when
+        boolean isBotRegistered = dataSource.isAuthAvailable("xX_bot_1234");
+        PlayerAuth botAuth = dataSource.getAuth("Random_Bot");
+        boolean isBobbyRegistered = dataSource.isAuthAvailable("Bobby");
+        dataSource.saveAuth(PlayerAuth.builder().name("Tina").build());
+        dataSource.isAuthAvailable("tina");
+
+        // then
+        assertThat(isBotRegistered, equalTo(false));
+        assertThat(botAuth, nullValue());
+        assertThat(isBobbyRegistered, equalTo(true));
+        verify(source).getAuth("bobby");
+        verify(source).getAuth("tina");
+        verify(source, never()).getAuth("xx_bot_1234");
+        verify(source, never()).getAuth("random_bot");
+        assertThat(dataSource.getNameFilter().getDefiniteMissCount(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldApplyDeltasOfOtherServersToCachedAuth() {
+        // given
+        CacheDataSource dataSource = new CacheDataSource(source, playerCache, null, 60);
+        given(source.getAuth("bobby")).willReturn(PlayerAuth.builder()
+            .name("bobby").password(new HashedPassword("old")).email("bobby@example.org").build());
+        PlayerAuth cachedAuth = dataSource.getAuth("Bobby");
+        PlayerAuth remoteAuth = PlayerAuth.builder().name("bobby")
+            .password(new HashedPassword("new")).email("new@example.org").build();
+        AuthDelta passwordDelta = AuthDelta.update(remoteAuth, EnumSet.of(PlayerAuth.Field.PASSWORD), 20L);
+        remoteAuth.setEmail("newer@example.org");
+        AuthDelta emailDelta = AuthDelta.update(remoteAuth, EnumSet.of(PlayerAuth.Field.EMAIL), 30L);
+
+        // when
+        dataSource.applyDelta(emailDelta);
+        dataSource.applyDelta(passwordDelta); // older than the email delta, so the account is read again
+        PlayerAuth result = dataSource.getAuth("bobby");
+
+        // then
+        assertThat(result, sameInstance(cachedAuth));
+        assertThat(result.getEmail(), equalTo("newer@example.org"));
+        assertThat(result.getPassword().getHash(), equalTo("old"));
+        assertThat(result.hasChanges(), equalTo(false));
+        verify(source, timeout(5000).times(2)).getAuth("bobby");
+    }
+
+    private static void waitUntilFilterLoaded(CacheDataSource dataSource) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dataSource.getNameFilter() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dataSource.getNameFilter(), notNullValue());
+    }
+
+    private static void waitUntilLoaded(RegisteredNameIndex nameIndex) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!nameIndex.isLoaded() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(nameIndex.isLoaded(), equalTo(true));
+    }
+}
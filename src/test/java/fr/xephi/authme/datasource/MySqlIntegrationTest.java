@@ -4,20 +4,36 @@ import ch.jalu.configme.properties.Property;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.data.auth.PlayerAuth;
+import fr.xephi.authme.datasource.mysqlextensions.MySqlExtension;
+import fr.xephi.authme.datasource.mysqlextensions.MySqlExtensionsFactory;
 import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.DatabaseSettings;
+import fr.xephi.authme.settings.properties.HooksSettings;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
 
+import static fr.xephi.authme.AuthMeMatchers.hasAuthBasicData;
+import static fr.xephi.authme.AuthMeMatchers.hasRegistrationInfo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -81,6 +97,39 @@ public class MySqlIntegrationTest extends AbstractDataSourceIntegrationTest {
         return SqlDataSourceTestUtil.createMySql(settings, hikariSource);
     }
 
+    @Test
+    public void shouldSaveAuthWithOneInsertAndPassIdToExtension() throws SQLException {
+        // given
+        try (Connection con = hikariSource.getConnection(); Statement st = con.createStatement()) {
+            st.execute("ALTER TABLE authme ADD COLUMN forum_name VARCHAR(255)");
+        }
+        MySqlExtension extension = mock(MySqlExtension.class);
+        MySqlExtensionsFactory extensionsFactory = mock(MySqlExtensionsFactory.class);
+        given(extensionsFactory.buildExtension(any(Columns.class))).willReturn(extension);
+        set(HooksSettings.MYSQL_OTHER_USERNAME_COLS, Collections.singletonList("forum_name"));
+        MySQL dataSource = new MySQL(settings, hikariSource, extensionsFactory);
+        set(HooksSettings.MYSQL_OTHER_USERNAME_COLS, Collections.emptyList());
+        PlayerAuth auth = PlayerAuth.builder().name("gabriel").realName("Gabriel").password("$hash", null)
+            .email("gabriel@example.org").registrationDate(1400000000000L).registrationIp("12.34.56.78").build();
+
+        // when
+        boolean result = dataSource.saveAuth(auth);
+
+        // then
+        assertThat(result, equalTo(true));
+        assertThat(dataSource.getAuth("gabriel"), hasAuthBasicData("gabriel", "Gabriel", "gabriel@example.org", null));
+        assertThat(dataSource.getAuth("gabriel"), hasRegistrationInfo("12.34.56.78", 1400000000000L));
+        int id;
+        try (Connection con = hikariSource.getConnection(); Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, forum_name FROM authme WHERE username = 'gabriel'")) {
+            assertThat(rs.next(), equalTo(true));
+            id = rs.getInt(1);
+            assertThat(rs.getString(2), equalTo("Gabriel"));
+        }
+        verify(extension).saveAuth(eq(auth), eq(id), any(Connection.class));
+        verify(extension, never()).saveAuth(eq(auth), any(Connection.class));
+    }
+
     private static <T> void set(Property<T> property, T value) {
         when(settings.getProperty(property)).thenReturn(value);
     }
@@ -0,0 +1,91 @@
+package fr.xephi.authme.datasource;
+
+import org.junit.Test;
+
+import java.util.function.BiConsumer;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for {@link RegisteredNameFilter}.
+ */
+public class RegisteredNameFilterTest {
+
+    @Test
+    public void shouldContainLoadedAndAddedNames() {
+        // given
+        RegisteredNameFilter filter = new RegisteredNameFilter(100, 0.01);
+        DataSource source = mock(DataSource.class);
+        given(source.forEachName(any())).willAnswer(invocation -> {
+            BiConsumer<String, String> action = invocation.getArgument(0);
+            action.accept("bobby", "Bobby");
+            action.accept("tina", "Tina");
+            return true;
+        });
+
+        // when
+        boolean isLoaded = filter.load(source);
+        filter.add("Zoe");
+        filter.add("zoe");
+
+        // then
+        assertThat(isLoaded, equalTo(true));
+        assertThat(filter.mightContain("Bobby"), equalTo(true));
+        assertThat(filter.mightContain("TINA"), equalTo(true));
+        assertThat(filter.mightContain("zoe"), equalTo(true));
+        assertThat(filter.getNameCount(), equalTo(3));
+    }
+
+    @Test
+    public void shouldHaveExpectedFalsePositiveRate() {
+        // given
+        RegisteredNameFilter filter = new RegisteredNameFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; ++i) {
+            filter.add("player" + i);
+        }
+
+        // when
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; ++i) {
+            if (filter.mightContain("bot" + i)) {
+                ++falsePositives;
+            }
+        }
+
+        // then
+        assertThat(falsePositives, lessThan(200));
+        assertThat(filter.getDefiniteMissCount(), equalTo(10_000L - falsePositives));
+        assertThat(filter.getExpectedFalsePositiveRate(), closeTo(0.01, 0.002));
+        assertThat(filter.getHashFunctions(), equalTo(7));
+        assertThat(filter.getMemoryBytes(), equalTo(11984L));
+    }
+
+    @Test
+    public void shouldRequireRebuildIfFullOrManyNamesWereRemoved() {
+        // given
+        RegisteredNameFilter filter = new RegisteredNameFilter(8, 0.01);
+        for (int i = 0; i < 8; ++i) {
+            filter.add("player" + i);
+        }
+
+        // when
+        boolean needsRebuild1 = filter.needsRebuild();
+        filter.recordRemoval();
+        filter.recordRemoval();
+        boolean needsRebuild2 = filter.needsRebuild();
+        filter.recordRemoval();
+        boolean needsRebuild3 = filter.needsRebuild();
+
+        // then
+        assertThat(needsRebuild1, equalTo(false));
+        assertThat(needsRebuild2, equalTo(false));
+        assertThat(needsRebuild3, equalTo(true));
+        assertThat(filter.getRemovedNameCount(), equalTo(3));
+    }
+}
@@ -0,0 +1,134 @@
+package fr.xephi.authme.datasource;
+
+import fr.xephi.authme.ReflectionTestUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for {@link RegisteredNameIndex}.
+ */
+public class RegisteredNameIndexTest {
+
+    @Test
+    public void shouldLoadNamesAndFindByPrefix() {
+        // given
+        RegisteredNameIndex index = new RegisteredNameIndex();
+        DataSource source = dataSourceWithNames("zoe", "Zoe", "bobby", "Bobby", "bob_42", "Bob_42", "alice", "alice");
+
+        // when
+        boolean isLoaded = index.load(source);
+
+        // then
+        assertThat(isLoaded, equalTo(true));
+        assertThat(index.isLoaded(), equalTo(true));
+        assertThat(index.size(), equalTo(4));
+        assertThat(index.getRealNamesStartingWith("BOB", 10), contains("Bob_42", "Bobby"));
+        assertThat(index.getRealNamesStartingWith("bob_", 10), contains("Bob_42"));
+        assertThat(index.getRealNamesStartingWith("", 2), contains("alice", "Bob_42"));
+        assertThat(index.getRealNamesStartingWith("carl", 10), empty());
+        assertThat(index.getRealNamesStartingWith("b", 0), empty());
+    }
+
+    @Test
+    public void shouldAddAndRemoveNames() {
+        // given
+        RegisteredNameIndex index = new RegisteredNameIndex();
+        index.load(dataSourceWithNames("bobby", "Bobby"));
+
+        // when
+        index.add("Tina", "Tina");
+        index.add("Bobcat", null);
+        index.remove("BOBBY");
+
+        // then
+        List<String> names = new ArrayList<>();
+        index.forEach((name, realName) -> names.add(name + ":" + realName));
+        assertThat(names, contains("bobcat:Bobcat", "tina:Tina"));
+    }
+
+    @Test
+    public void shouldNotBeLoadedIfSourceFails() {
+        // given
+        RegisteredNameIndex index = new RegisteredNameIndex();
+        DataSource source = mock(DataSource.class);
+        given(source.forEachName(any())).willReturn(false);
+
+        // when
+        boolean isLoaded = index.load(source);
+
+        // then
+        assertThat(isLoaded, equalTo(false));
+        assertThat(index.isLoaded(), equalTo(false));
+    }
+
+    @Test
+    public void shouldStopLoadingIfSourceThrowsException() {
+        // given
+        RegisteredNameIndex index = new RegisteredNameIndex();
+        DataSource source = mock(DataSource.class);
+        given(source.forEachName(any())).willThrow(new IllegalStateException("Connection lost"));
+
+        // when
+        try {
+            index.load(source);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        index.remove("Bobby");
+
+        // then
+        assertThat(index.isLoaded(), equalTo(false));
+        Set<String> removedWhileLoading =
+            ReflectionTestUtils.getFieldValue(RegisteredNameIndex.class, index, "removedWhileLoading");
+        assertThat(removedWhileLoading, empty());
+    }
+
+    @Test
+    public void shouldKeepNamesAddedWhileLoading() {
+        // given
+        RegisteredNameIndex index = new RegisteredNameIndex();
+        index.load(dataSourceWithNames("bobby", "Bobby"));
+        DataSource source = mock(DataSource.class);
+        given(source.forEachName(any())).willAnswer(invocation -> {
+            BiConsumer<String, String> action = invocation.getArgument(0);
+            action.accept("bobby", "Bobby");
+            index.add("Tina", "Tina");
+            index.remove("bobby");
+            return true;
+        });
+
+        // when
+        index.load(source);
+
+        // then
+        List<String> names = new ArrayList<>();
+        index.forEach((name, realName) -> names.add(name + ":" + realName));
+        assertThat(names, contains("tina:Tina"));
+    }
+
+    private static DataSource dataSourceWithNames(String... namesAndRealNames) {
+        DataSource source = mock(DataSource.class);
+        given(source.forEachName(any())).willAnswer(invocation -> {
+            BiConsumer<String, String> action = invocation.getArgument(0);
+            for (int i = 0; i < namesAndRealNames.length; i += 2) {
+                action.accept(namesAndRealNames[i], namesAndRealNames[i + 1]);
+            }
+            return true;
+        });
+        return source;
+    }
+}
@@ -14,10 +14,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
@@ -111,6 +115,39 @@ public class SQLiteIntegrationTest extends AbstractDataSourceIntegrationTest {
         assertThat(sqLite.getAllAuths(), hasSize(1));
     }
 
+    @Test
+    public void shouldLookUpNamesWithCaseInsensitiveIndex() throws SQLException {
+        // given
+        SQLite sqLite = new SQLite(settings, null, con);
+
+        // when
+        sqLite.migrateIfNeeded();
+
+        // then
+        String queryPlan;
+        try (ResultSet rs = con.createStatement().executeQuery(
+            "EXPLAIN QUERY PLAN SELECT * FROM authme WHERE username=? COLLATE NOCASE;")) {
+            rs.next();
+            queryPlan = rs.getString("detail");
+        }
+        assertThat(queryPlan, containsString("USING INDEX authme_username_nocase"));
+        assertThat(sqLite.getAuth("BoBBy").getNickname(), equalTo("bobby"));
+    }
+
+    @Test
+    public void shouldCreateIndexesForPurge() throws SQLException {
+        // given
+        SQLite sqLite = new SQLite(settings, null, con);
+
+        // when
+        sqLite.migrateIfNeeded();
+
+        // then
+        DatabaseMetaData metaData = con.getMetaData();
+        assertThat(SqlDataSourceUtils.isIndexMissing(metaData, "authme", "authme_lastlogin_idx"), equalTo(false));
+        assertThat(SqlDataSourceUtils.isIndexMissing(metaData, "authme", "authme_regdate_idx"), equalTo(false));
+    }
+
     @Override
     protected DataSource getDataSource(String saltColumn) {
         when(settings.getProperty(DatabaseSettings.MYSQL_COL_SALT)).thenReturn(saltColumn);
@@ -0,0 +1,162 @@
+package fr.xephi.authme.datasource;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import fr.xephi.authme.TestHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.equalToIgnoringCase;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link SqLiteReadPool}.
+ */
+public class SqLiteReadPoolTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private String url;
+    private Connection writer;
+    private SqLiteReadPool readPool;
+
+    @BeforeClass
+    public static void loadDriver() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        TestHelper.setupLogger();
+    }
+
+    @Before
+    public void createDatabase() throws IOException, SQLException {
+        File database = new File(temporaryFolder.newFolder(), "authme.db");
+        url = "jdbc:sqlite:" + database.getPath();
+        writer = DriverManager.getConnection(url);
+        SqLiteReadPool.configureConnection(writer, false);
+        try (Statement st = writer.createStatement()) {
+            st.execute("CREATE TABLE authme (username VARCHAR(255) NOT NULL UNIQUE);");
+        }
+    }
+
+    @After
+    public void closeConnections() throws SQLException {
+        if (readPool != null) {
+            readPool.close();
+        }
+        writer.close();
+    }
+
+    @Test
+    public void shouldUseWalModeAndReadCommittedData() throws SQLException {
+        // given
+        readPool = new SqLiteReadPool(url, 2);
+        try (Statement st = writer.createStatement()) {
+            st.execute("INSERT INTO authme (username) VALUES ('bobby');");
+        }
+
+        // when
+        String journalMode = readPool.read(con -> queryString(con, "PRAGMA journal_mode;"));
+        String name = readPool.read(con -> queryString(con, "SELECT username FROM authme;"));
+
+        // then
+        assertThat(readPool.getSize(), equalTo(2));
+        assertThat(journalMode, equalToIgnoringCase("wal"));
+        assertThat(name, equalTo("bobby"));
+    }
+
+    @Test(expected = SQLException.class)
+    public void shouldNotAllowWritesOnReadConnection() throws SQLException {
+        // given
+        readPool = new SqLiteReadPool(url, 1);
+
+        // when
+        readPool.read(con -> {
+            try (Statement st = con.createStatement()) {
+                return st.executeUpdate("INSERT INTO authme (username) VALUES ('tina');");
+            }
+        });
+    }
+
+    @Test
+    public void shouldReturnConnectionToPoolAfterFailedQuery() throws SQLException {
+        // given
+        readPool = new SqLiteReadPool(url, 1);
+        try {
+            readPool.read(con -> queryString(con, "SELECT missing FROM authme;"));
+        } catch (SQLException ignored) {
+            // expected
+        }
+
+        // when
+        String count = readPool.read(con -> queryString(con, "SELECT COUNT(*) FROM authme;"));
+
+        // then
+        assertThat(count, equalTo("0"));
+    }
+
+    @Test(expected = SqLiteReadPool.PoolClosedException.class)
+    public void shouldRejectQueriesAfterClose() throws SQLException {
+        // given
+        readPool = new SqLiteReadPool(url, 1);
+        readPool.close();
+
+        // when
+        readPool.read(con -> queryString(con, "SELECT COUNT(*) FROM authme;"));
+    }
+
+    @Test
+    public void shouldWaitForRunningQueryBeforeClosing() throws Exception {
+        // given
+        readPool = new SqLiteReadPool(url, 1);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch finishQuery = new CountDownLatch(1);
+        AtomicReference<String> result = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                result.set(readPool.read(con -> {
+                    queryStarted.countDown();
+                    Uninterruptibles.awaitUninterruptibly(finishQuery);
+                    return queryString(con, "SELECT COUNT(*) FROM authme;");
+                }));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        reader.start();
+        queryStarted.await();
+
+        // when
+        Thread closer = new Thread(readPool::close);
+        closer.start();
+        closer.join(200);
+        boolean isClosedDuringQuery = !closer.isAlive();
+        finishQuery.countDown();
+        reader.join();
+        closer.join();
+
+        // then
+        assertThat(isClosedDuringQuery, equalTo(false));
+        assertThat(result.get(), equalTo("0"));
+    }
+
+    private static String queryString(Connection con, String sql) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package fr.xephi.authme.datasource;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.data.auth.PlayerAuth;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collection;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Test for {@link WriteBehindQueue}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WriteBehindQueueTest {
+
+    private WriteBehindQueue queue;
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @Before
+    public void initQueue() {
+        queue = new WriteBehindQueue(dataSource, 3, executor);
+    }
+
+    @Test
+    public void shouldCoalesceUpdatesPerAccount() {
+        // given
+        PlayerAuth auth = PlayerAuth.builder()
+            .name("bobby").realName("Bobby").lastIp("1.2.3.4").lastLogin(1234L).build();
+
+        // when
+        queue.enqueue("Bobby", update -> update.withLogged(true));
+        queue.enqueue("bobby", update -> update.withSessionData(auth));
+        queue.enqueue("BOBBY", update -> update.withSession(true));
+        queue.enqueue("bobby", update -> update.withLogged(false));
+
+        // then
+        assertThat(queue.getPendingCount(), equalTo(1));
+        PendingAccountUpdate update = queue.getPendingUpdate("bobby");
+        assertThat(update.getLogged(), equalTo(false));
+        assertThat(update.getSession(), equalTo(true));
+        assertThat(update.hasSessionData(), equalTo(true));
+        assertThat(update.getLastIp(), equalTo("1.2.3.4"));
+        assertThat(update.getLastLogin(), equalTo(1234L));
+        verifyNoInteractions(dataSource, executor);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldFlushPendingUpdates() {
+        // given
+        given(dataSource.applyPendingUpdates(anyCollection())).willReturn(true);
+        queue.enqueue("bobby", update -> update.withLogged(true));
+        queue.enqueue("tina", update -> update.withSession(false));
+
+        // when
+        queue.flush();
+
+        // then
+        ArgumentCaptor<Collection<PendingAccountUpdate>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(dataSource).applyPendingUpdates(captor.capture());
+        assertThat(captor.getValue(), hasSize(2));
+        assertThat(queue.getPendingCount(), equalTo(0));
+        assertThat(queue.getPendingUpdate("bobby"), nullValue());
+        assertThat(queue.getFlushCount(), equalTo(1L));
+        assertThat(queue.getFlushedUpdateCount(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldRequeueFailedUpdates() {
+        // given
+        given(dataSource.applyPendingUpdates(anyCollection())).willReturn(false);
+        queue.enqueue("bobby", update -> update.withLogged(true));
+
+        // when
+        queue.flush();
+
+        // then
+        assertThat(queue.getPendingCount(), equalTo(1));
+        assertThat(queue.getPendingUpdate("bobby").getLogged(), equalTo(true));
+        assertThat(queue.getFlushedUpdateCount(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldRetryUpdatesOfFailedChunkOneByOne() {
+        // given
+        given(dataSource.applyPendingUpdates(anyCollection())).willAnswer(invocation -> {
+            Collection<PendingAccountUpdate> updates = invocation.getArgument(0);
+            return updates.stream().noneMatch(update -> update.getName().equals("bobby"));
+        });
+        queue.enqueue("bobby", update -> update.withLogged(true));
+        queue.enqueue("tina", update -> update.withLogged(true));
+
+        // when
+        queue.flush();
+
+        // then
+        verify(dataSource, times(3)).applyPendingUpdates(anyCollection());
+        assertThat(queue.getPendingCount(), equalTo(1));
+        assertThat(queue.getPendingUpdate("bobby").getLogged(), equalTo(true));
+        assertThat(queue.getPendingUpdate("tina"), nullValue());
+        assertThat(queue.getFlushedUpdateCount(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldRequeueUpdatesIfWritingThrowsException() {
+        // given
+        given(dataSource.applyPendingUpdates(anyCollection())).willThrow(IllegalStateException.class);
+        queue.enqueue("bobby", update -> update.withLogged(true));
+
+        // when
+        queue.flush();
+
+        // then
+        assertThat(queue.getPendingCount(), equalTo(1));
+        assertThat(queue.getPendingUpdate("bobby").getLogged(), equalTo(true));
+    }
+
+    @Test
+    public void shouldDropUpdateAfterMaxAttempts() {
+        // given
+        given(dataSource.applyPendingUpdates(anyCollection())).willReturn(false);
+        queue.enqueue("bobby", update -> update.withLogged(true));
+
+        // when
+        for (int i = 1; i < WriteBehindQueue.MAX_WRITE_ATTEMPTS; ++i) {
+            queue.flush();
+        }
+        int pendingBeforeLastAttempt = queue.getPendingCount();
+        queue.flush();
+
+        // then
+        assertThat(pendingBeforeLastAttempt, equalTo(1));
+        assertThat(queue.getPendingCount(), equalTo(0));
+        assertThat(queue.getPendingUpdate("bobby"), nullValue());
+    }
+
+    @Test
+    public void shouldTriggerFlushWhenQueueIsFull() {
+        // given
+        queue.enqueue("bobby", update -> update.withLogged(true));
+        queue.enqueue("tina", update -> update.withLogged(true));
+
+        // when
+        queue.enqueue("ralph", update -> update.withLogged(true));
+        queue.enqueue("ralph", update -> update.withSession(true));
+
+        // then
+        verify(executor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void shouldDiscardUpdates() {
+        // given
+        queue.enqueue("bobby", update -> update.withLogged(true));
+        queue.enqueue("tina", update -> update.withLogged(true));
+
+        // when
+        queue.discard("Bobby");
+
+        // then
+        assertThat(queue.getPendingUpdate("bobby"), nullValue());
+        assertThat(queue.getPendingCount(), equalTo(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldFlushOnClose() {
+        // given
+        given(dataSource.applyPendingUpdates(anyCollection())).willReturn(true);
+        queue.enqueue("bobby", update -> update.withSession(false));
+
+        // when
+        queue.close();
+
+        // then
+        verify(executor).shutdown();
+        ArgumentCaptor<Collection<PendingAccountUpdate>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(dataSource).applyPendingUpdates(captor.capture());
+        assertThat(captor.getValue(), hasSize(1));
+        assertThat(captor.getValue().iterator().next().getName(), equalTo("bobby"));
+        assertThat(queue.getPendingCount(), equalTo(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldWriteUpdatesImmediatelyAfterClose() {
+        // given
+        given(dataSource.applyPendingUpdates(anyCollection())).willReturn(true);
+        queue.close();
+
+        // when
+        queue.enqueue("bobby", update -> update.withLogged(false));
+
+        // then
+        ArgumentCaptor<Collection<PendingAccountUpdate>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(dataSource).applyPendingUpdates(captor.capture());
+        assertThat(captor.getValue(), hasSize(1));
+        verify(executor, never()).execute(any(Runnable.class));
+        assertThat(queue.getPendingCount(), equalTo(0));
+    }
+
+    @Test
+    public void shouldReturnUpdatesWhichAreBeingWritten() {
+        // given
+        queue.enqueue("bobby", update -> update.withLogged(true));
+        AtomicReference<PendingAccountUpdate> updateDuringFlush = new AtomicReference<>();
+        given(dataSource.applyPendingUpdates(anyCollection())).willAnswer(invocation -> {
+            updateDuringFlush.set(queue.getPendingUpdate("bobby"));
+            return true;
+        });
+
+        // when
+        queue.flush();
+
+        // then
+        assertThat(updateDuringFlush.get().getLogged(), equalTo(true));
+        assertThat(queue.getPendingUpdate("bobby"), nullValue());
+    }
+}
@@ -10,16 +10,19 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -85,8 +88,14 @@ public class AbstractDataSourceConverterTest {
 
         List<PlayerAuth> auths =
             Arrays.asList(mockAuthWithName("Steven"), mockAuthWithName("bobby"), mockAuthWithName("Jack"));
-        given(source.getAllAuths()).willReturn(auths);
-        given(destination.isAuthAvailable(auths.get(0).getNickname())).willReturn(true);
+        given(source.forEachAuth(any())).willAnswer(invocation -> {
+            Consumer<PlayerAuth> consumer = invocation.getArgument(0);
+            auths.forEach(consumer);
+            return true;
+        });
+        given(destination.filterRegisteredNames(anyCollection())).willReturn(Collections.singleton("steven"));
+        given(destination.saveAuths(anyCollection()))
+            .willAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
 
         Converter converter = new DataSourceConverterTestImpl<>(source, destination, destinationType);
         CommandSender sender = mock(CommandSender.class);
@@ -96,15 +105,33 @@ public class AbstractDataSourceConverterTest {
 
         // then
         verify(destination).getType();
-        verify(destination, times(3)).isAuthAvailable(anyString());
-        verify(destination, times(2)).saveAuth(any(PlayerAuth.class));
-        verify(destination, times(2)).updateSession(any(PlayerAuth.class));
-        verify(destination, times(2)).updateQuitLoc(any(PlayerAuth.class));
+        verify(destination).filterRegisteredNames(Arrays.asList("Steven", "bobby", "Jack"));
+        verify(destination).saveAuths(Arrays.asList(auths.get(1), auths.get(2)));
         verifyNoMoreInteractions(destination);
         verify(sender).sendMessage(argThat(containsString(auths.get(0).getNickname())));
         verify(sender).sendMessage(argThat(containsString("successfully converted")));
     }
 
+    @Test
+    public void shouldNotReportSuccessIfSourceCouldNotBeRead() {
+        // given
+        DataSource source = mock(DataSource.class);
+        DataSource destination = mock(DataSource.class);
+        DataSourceType destinationType = DataSourceType.SQLITE;
+        given(destination.getType()).willReturn(destinationType);
+        given(source.forEachAuth(any())).willReturn(false);
+        Converter converter = new DataSourceConverterTestImpl<>(source, destination, destinationType);
+        CommandSender sender = mock(CommandSender.class);
+
+        // when
+        converter.execute(sender);
+
+        // then
+        verify(destination, only()).getType();
+        verify(sender).sendMessage(argThat(containsString("did not complete")));
+        verify(sender, never()).sendMessage(argThat(containsString("successfully converted")));
+    }
+
     private static PlayerAuth mockAuthWithName(String name) {
         PlayerAuth auth = mock(PlayerAuth.class);
         given(auth.getNickname()).willReturn(name);
@@ -0,0 +1,234 @@
+package fr.xephi.authme.datasource.converter;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.data.auth.PlayerAuth;
+import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.datasource.converter.AuthImporter.ImportResult;
+import org.bukkit.command.CommandSender;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.hamcrest.MockitoHamcrest.argThat;
+
+/**
+ * Test for {@link AuthImporter}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AuthImporterTest {
+
+    @Mock
+    private DataSource destination;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File checkpointFile;
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @Before
+    public void initCheckpointFile() throws IOException {
+        checkpointFile = new File(temporaryFolder.newFolder(), "Converter.checkpoint");
+    }
+
+    @Test
+    public void shouldImportInChunksAndSkipRegisteredNames() {
+        // given
+        given(destination.filterRegisteredNames(anyCollection())).willReturn(Collections.singleton("bobby"));
+        given(destination.saveAuths(anyCollection()))
+            .willAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        AuthImporter importer = new AuthImporter(destination, checkpointFile, 2);
+        CommandSender sender = mock(CommandSender.class);
+
+        // when
+        ImportResult result = importer.importAuths(sender,
+            reader(createAuths("alice", "Bobby", "chris", "dan", "ed")));
+
+        // then
+        assertThat(result.isComplete(), equalTo(true));
+        assertThat(result.getImportedCount(), equalTo(4L));
+        assertThat(result.getSkippedCount(), equalTo(1L));
+        assertThat(result.getFailedCount(), equalTo(0L));
+        verify(destination).saveAuths(argThat(hasNames("alice")));
+        verify(destination).saveAuths(argThat(hasNames("chris", "dan")));
+        verify(destination).saveAuths(argThat(hasNames("ed")));
+        verify(sender).sendMessage(argThat(containsString("already registered: bobby")));
+        assertThat(checkpointFile.exists(), equalTo(false));
+    }
+
+    @Test
+    public void shouldResumeFromCheckpoint() {
+        // given
+        List<PlayerAuth> auths = createAuths("alice", "bobby", "chris", "dan");
+        given(destination.saveAuths(anyCollection())).willReturn(2, 0);
+        new AuthImporter(destination, checkpointFile, 2).importAuths(null, reader(auths));
+        given(destination.saveAuths(anyCollection()))
+            .willAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        AuthImporter importer = new AuthImporter(destination, checkpointFile, 10);
+
+        // when
+        ImportResult result = importer.importAuths(null, reader(auths));
+
+        // then
+        assertThat(result.isComplete(), equalTo(true));
+        assertThat(result.getImportedCount(), equalTo(2L));
+        verify(destination, times(2)).saveAuths(argThat(hasNames("chris", "dan")));
+        assertThat(checkpointFile.exists(), equalTo(false));
+    }
+
+    @Test
+    public void shouldRefuseCheckpointOfOtherSource() {
+        // given
+        given(destination.saveAuths(anyCollection())).willReturn(2, 0);
+        new AuthImporter(destination, checkpointFile, 2)
+            .importAuths(null, reader(createAuths("alice", "bobby", "chris", "dan")));
+        AuthImporter importer = new AuthImporter(destination, checkpointFile, 10);
+        CommandSender sender = mock(CommandSender.class);
+
+        // when
+        ImportResult result = importer.importAuths(sender, reader(createAuths("xavier", "yvonne", "zach")));
+
+        // then
+        assertThat(result.isComplete(), equalTo(false));
+        assertThat(result.getImportedCount(), equalTo(0L));
+        // only the calls of the first import
+        verify(destination, times(4)).saveAuths(anyCollection());
+        verify(sender).sendMessage(argThat(containsString("does not belong to this source")));
+        assertThat(checkpointFile.exists(), equalTo(true));
+    }
+
+    @Test
+    public void shouldReportUnsavedAccountsOfPartiallySavedChunk() {
+        // given
+        given(destination.saveAuths(anyCollection())).willReturn(2);
+        given(destination.filterRegisteredNames(anyCollection()))
+            .willReturn(Collections.emptySet(), new HashSet<>(Arrays.asList("alice", "chris")));
+        AuthImporter importer = new AuthImporter(destination, checkpointFile, 10);
+        CommandSender sender = mock(CommandSender.class);
+
+        // when
+        ImportResult result = importer.importAuths(sender, reader(createAuths("alice", "bobby", "chris")));
+
+        // then
+        assertThat(result.isComplete(), equalTo(true));
+        assertThat(result.getImportedCount(), equalTo(2L));
+        assertThat(result.getFailedCount(), equalTo(1L));
+        verify(sender).sendMessage(argThat(containsString("following players: bobby")));
+    }
+
+    @Test
+    public void shouldSaveAccountsIndividuallyIfBatchFails() {
+        // given
+        given(destination.saveAuths(anyCollection())).willAnswer(invocation -> {
+            Collection<PlayerAuth> auths = invocation.getArgument(0);
+            boolean isValid = auths.size() == 1 && !"broken".equals(auths.iterator().next().getNickname());
+            return isValid ? 1 : 0;
+        });
+        AuthImporter importer = new AuthImporter(destination, checkpointFile, 10);
+
+        // when
+        ImportResult result = importer.importAuths(null, reader(createAuths("alice", "broken", "chris")));
+
+        // then
+        assertThat(result.isComplete(), equalTo(true));
+        assertThat(result.getImportedCount(), equalTo(2L));
+        assertThat(result.getFailedCount(), equalTo(1L));
+        verify(destination, times(4)).saveAuths(anyCollection());
+    }
+
+    @Test
+    public void shouldStopAndKeepCheckpointIfNoAccountCanBeSaved() throws IOException {
+        // given
+        given(destination.saveAuths(anyCollection())).willAnswer(invocation -> {
+            Collection<PlayerAuth> auths = invocation.getArgument(0);
+            return "alice".equals(auths.iterator().next().getNickname()) ? auths.size() : 0;
+        });
+        AuthImporter importer = new AuthImporter(destination, checkpointFile, 2);
+
+        // when
+        ImportResult result = importer.importAuths(null,
+            reader(createAuths("alice", "bobby", "chris", "dan", "ed", "frank")));
+
+        // then
+        assertThat(result.isComplete(), equalTo(false));
+        assertThat(result.getImportedCount(), equalTo(2L));
+        assertThat(new String(Files.readAllBytes(checkpointFile.toPath()), StandardCharsets.UTF_8),
+            startsWith("2 "));
+    }
+
+    @Test
+    public void shouldNotBeCompleteIfReaderFails() {
+        // given
+        AuthImporter importer = new AuthImporter(destination, checkpointFile, 2);
+
+        // when
+        ImportResult result = importer.importAuths(null, consumer -> {
+            throw new IOException("File not found");
+        });
+
+        // then
+        assertThat(result.isComplete(), equalTo(false));
+        assertThat(result.getImportedCount(), equalTo(0L));
+    }
+
+    private static List<PlayerAuth> createAuths(String... names) {
+        return Arrays.stream(names)
+            .map(name -> PlayerAuth.builder().name(name).realName(name).build())
+            .collect(Collectors.toList());
+    }
+
+    private static AuthImporter.AuthReader reader(List<PlayerAuth> auths) {
+        return consumer -> {
+            auths.forEach(consumer);
+            return true;
+        };
+    }
+
+    private static Matcher<Collection<PlayerAuth>> hasNames(String... names) {
+        return new TypeSafeMatcher<Collection<PlayerAuth>>() {
+            @Override
+            protected boolean matchesSafely(Collection<PlayerAuth> auths) {
+                return contains(names).matches(
+                    auths.stream().map(PlayerAuth::getNickname).collect(Collectors.toList()));
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("auths with names " + Arrays.toString(names));
+            }
+        };
+    }
+}
@@ -16,15 +16,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static fr.xephi.authme.AuthMeMatchers.equalToHash;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
@@ -56,15 +59,18 @@ public class CrazyLoginConverterTest {
     public void shouldImportUsers() {
         // given
         given(settings.getProperty(ConverterSettings.CRAZYLOGIN_FILE_NAME)).willReturn("crazylogin.db");
+        given(dataSource.saveAuths(anyCollection()))
+            .willAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
         CommandSender sender = mock(CommandSender.class);
 
         // when
         crazyLoginConverter.execute(sender);
 
         // then
-        ArgumentCaptor<PlayerAuth> authCaptor = ArgumentCaptor.forClass(PlayerAuth.class);
-        verify(dataSource, times(2)).saveAuth(authCaptor.capture());
-        List<PlayerAuth> savedAuths = authCaptor.getAllValues();
+        ArgumentCaptor<Collection<PlayerAuth>> authCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(dataSource).saveAuths(authCaptor.capture());
+        List<PlayerAuth> savedAuths = new ArrayList<>(authCaptor.getValue());
+        assertThat(savedAuths, hasSize(2));
         assertNameAndRealName(savedAuths.get(0), "qotato", "qotaTo");
         assertThat(savedAuths.get(0).getPassword(), equalToHash("8267663ab198a96437b9f455429a2c1b6c943111613c217bf2703c14d08a309d34e510ddb5549507b1500759dbcf9d4a99bc765ff37b32bd31adbb1e92e74ac5"));
         assertNameAndRealName(savedAuths.get(1), "bobby", "Bobby");
@@ -23,17 +23,21 @@ import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import static fr.xephi.authme.AuthMeMatchers.equalToHash;
 import static fr.xephi.authme.AuthMeMatchers.hasAuthLocation;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -56,6 +60,8 @@ public class LoginSecurityConverterTest {
     public void initMocks() {
         TestHelper.setupLogger();
         given(settings.getProperty(ConverterSettings.LOGINSECURITY_USE_SQLITE)).willReturn(true);
+        given(dataSource.saveAuths(anyCollection()))
+            .willAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
     }
 
     @Test
@@ -69,24 +75,26 @@ public class LoginSecurityConverterTest {
         converter.performConversion(sender, connection);
 
         // then
-        ArgumentCaptor<PlayerAuth> captor = ArgumentCaptor.forClass(PlayerAuth.class);
-        verify(dataSource, times(3)).saveAuth(captor.capture());
-        assertThat(captor.getAllValues().get(0).getNickname(), equalTo("player1"));
-        assertThat(captor.getAllValues().get(0).getRealName(), equalTo("Player1"));
-        assertThat(captor.getAllValues().get(0).getLastLogin(), equalTo(1494242093652L));
-        assertThat(captor.getAllValues().get(0).getRegistrationDate(), equalTo(1494242093400L));
-        assertThat(captor.getAllValues().get(0).getPassword(), equalToHash("$2a$10$E1Ri7XKeIIBv4qVaiPplgepT7QH9xGFh3hbHfcmCjq7hiW.UBTiGK"));
-        assertThat(captor.getAllValues().get(0).getLastIp(), nullValue());
-
-        assertThat(captor.getAllValues().get(1).getNickname(), equalTo("player2"));
-        assertThat(captor.getAllValues().get(1).getLastLogin(), equalTo(1494242174589L));
-        assertThat(captor.getAllValues().get(1).getLastIp(), equalTo("127.4.5.6"));
-
-        assertThat(captor.getAllValues().get(2).getRealName(), equalTo("Player3"));
-        assertThat(captor.getAllValues().get(2).getPassword(), equalToHash("$2a$10$WFui8KSXMLDOVXKFpCLyPukPi4M82w1cv/rNojsAnwJjba3pp8sba"));
-        assertThat(captor.getAllValues().get(2), hasAuthLocation(14.24, 67.99, -12.83, "hubb", -10f, 185f));
-        assertThat(captor.getAllValues().get(2).getLastIp(), nullValue());
-        assertIsCloseTo(captor.getAllValues().get(2).getRegistrationDate(), System.currentTimeMillis(), 500L);
+        ArgumentCaptor<Collection<PlayerAuth>> authCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(dataSource).saveAuths(authCaptor.capture());
+        List<PlayerAuth> savedAuths = new ArrayList<>(authCaptor.getValue());
+        assertThat(savedAuths, hasSize(3));
+        assertThat(savedAuths.get(0).getNickname(), equalTo("player1"));
+        assertThat(savedAuths.get(0).getRealName(), equalTo("Player1"));
+        assertThat(savedAuths.get(0).getLastLogin(), equalTo(1494242093652L));
+        assertThat(savedAuths.get(0).getRegistrationDate(), equalTo(1494242093400L));
+        assertThat(savedAuths.get(0).getPassword(), equalToHash("$2a$10$E1Ri7XKeIIBv4qVaiPplgepT7QH9xGFh3hbHfcmCjq7hiW.UBTiGK"));
+        assertThat(savedAuths.get(0).getLastIp(), nullValue());
+
+        assertThat(savedAuths.get(1).getNickname(), equalTo("player2"));
+        assertThat(savedAuths.get(1).getLastLogin(), equalTo(1494242174589L));
+        assertThat(savedAuths.get(1).getLastIp(), equalTo("127.4.5.6"));
+
+        assertThat(savedAuths.get(2).getRealName(), equalTo("Player3"));
+        assertThat(savedAuths.get(2).getPassword(), equalToHash("$2a$10$WFui8KSXMLDOVXKFpCLyPukPi4M82w1cv/rNojsAnwJjba3pp8sba"));
+        assertThat(savedAuths.get(2), hasAuthLocation(14.24, 67.99, -12.83, "hubb", -10f, 185f));
+        assertThat(savedAuths.get(2).getLastIp(), nullValue());
+        assertIsCloseTo(savedAuths.get(2).getRegistrationDate(), System.currentTimeMillis(), 500L);
     }
 
     // Note ljacqu 20171014: JDBC mapping of a Date column to a java.sql.Date is difficult to handle,
@@ -103,22 +111,24 @@ public class LoginSecurityConverterTest {
         converter.performConversion(sender, connection);
 
         // then
-        ArgumentCaptor<PlayerAuth> captor = ArgumentCaptor.forClass(PlayerAuth.class);
-        verify(dataSource, times(3)).saveAuth(captor.capture());
-        assertThat(captor.getAllValues().get(0).getNickname(), equalTo("player1"));
-        assertThat(captor.getAllValues().get(0).getRealName(), equalTo("Player1"));
-        assertThat(captor.getAllValues().get(0).getLastLogin(), equalTo(1494242093000L));
-        assertThat(captor.getAllValues().get(0).getPassword(), equalToHash("$2a$10$E1Ri7XKeIIBv4qVaiPplgepT7QH9xGFh3hbHfcmCjq7hiW.UBTiGK"));
-        assertThat(captor.getAllValues().get(0).getLastIp(), nullValue());
-        assertIsCloseTo(captor.getAllValues().get(0).getRegistrationDate(), 1494201600000L, 12 * 60 * 60 * 1000);
-
-        assertThat(captor.getAllValues().get(1).getNickname(), equalTo("player2"));
-        assertThat(captor.getAllValues().get(1).getLastLogin(), equalTo(1489317753000L));
-        assertThat(captor.getAllValues().get(1).getLastIp(), equalTo("127.4.5.6"));
-
-        assertThat(captor.getAllValues().get(2).getRealName(), equalTo("Player3"));
-        assertThat(captor.getAllValues().get(2).getPassword(), equalToHash("$2a$10$WFui8KSXMLDOVXKFpCLyPukPi4M82w1cv/rNojsAnwJjba3pp8sba"));
-        assertThat(captor.getAllValues().get(2), hasAuthLocation(14.24, 67.99, -12.83, "hubb", -10f, 185f));
+        ArgumentCaptor<Collection<PlayerAuth>> authCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(dataSource).saveAuths(authCaptor.capture());
+        List<PlayerAuth> savedAuths = new ArrayList<>(authCaptor.getValue());
+        assertThat(savedAuths, hasSize(3));
+        assertThat(savedAuths.get(0).getNickname(), equalTo("player1"));
+        assertThat(savedAuths.get(0).getRealName(), equalTo("Player1"));
+        assertThat(savedAuths.get(0).getLastLogin(), equalTo(1494242093000L));
+        assertThat(savedAuths.get(0).getPassword(), equalToHash("$2a$10$E1Ri7XKeIIBv4qVaiPplgepT7QH9xGFh3hbHfcmCjq7hiW.UBTiGK"));
+        assertThat(savedAuths.get(0).getLastIp(), nullValue());
+        assertIsCloseTo(savedAuths.get(0).getRegistrationDate(), 1494201600000L, 12 * 60 * 60 * 1000);
+
+        assertThat(savedAuths.get(1).getNickname(), equalTo("player2"));
+        assertThat(savedAuths.get(1).getLastLogin(), equalTo(1489317753000L));
+        assertThat(savedAuths.get(1).getLastIp(), equalTo("127.4.5.6"));
+
+        assertThat(savedAuths.get(2).getRealName(), equalTo("Player3"));
+        assertThat(savedAuths.get(2).getPassword(), equalToHash("$2a$10$WFui8KSXMLDOVXKFpCLyPukPi4M82w1cv/rNojsAnwJjba3pp8sba"));
+        assertThat(savedAuths.get(2), hasAuthLocation(14.24, 67.99, -12.83, "hubb", -10f, 185f));
     }
 
     private Connection initializeMySqlTable() throws IOException, SQLException {
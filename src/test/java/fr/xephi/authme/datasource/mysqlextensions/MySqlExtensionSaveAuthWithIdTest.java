@@ -0,0 +1,116 @@
+package fr.xephi.authme.datasource.mysqlextensions;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.data.auth.PlayerAuth;
+import fr.xephi.authme.datasource.Columns;
+import fr.xephi.authme.settings.Settings;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test for {@link MySqlExtension#saveAuth(PlayerAuth, int, Connection)} in the extension implementations:
+ * the given id is used and not looked up again.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MySqlExtensionSaveAuthWithIdTest {
+
+    private static final int ID = 7;
+
+    private Settings settings;
+    private Columns columns;
+    private PlayerAuth auth;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Before
+    public void setUpSettingsAndConnection() throws SQLException {
+        settings = mock(Settings.class);
+        TestHelper.returnDefaultsForAllProperties(settings);
+        columns = new Columns(settings);
+        auth = PlayerAuth.builder()
+            .name("gabriel")
+            .realName("Gabriel")
+            .password("$2y$10$b8zb0d0p9ScQ6HTWKLc8KO0Rx2jvT3/yJFDmmz.Yf4uNzY0bPYkPS", null)
+            .build();
+        given(connection.prepareStatement(anyString())).willReturn(statement);
+    }
+
+    @Test
+    public void shouldSavePhpBbDataWithGivenId() throws SQLException {
+        // given
+        PhpBbExtension extension = new PhpBbExtension(settings, columns);
+
+        // when
+        extension.saveAuth(auth, ID, connection);
+
+        // then
+        verify(connection).prepareStatement(contains("user_group (group_id, user_id"));
+        verify(statement).setInt(2, ID);
+        verify(connection, never()).prepareStatement(startsWith("SELECT"));
+    }
+
+    @Test
+    public void shouldSaveXenforoDataWithGivenId() throws SQLException {
+        // given
+        XfBcryptExtension extension = new XfBcryptExtension(settings, columns);
+        given(connection.createBlob()).willReturn(mock(Blob.class));
+
+        // when
+        extension.saveAuth(auth, ID, connection);
+
+        // then
+        verify(connection).prepareStatement(contains("user_authenticate (user_id"));
+        verify(connection).prepareStatement(contains("user_group_relation (user_id"));
+        verify(statement, times(3)).setInt(1, ID);
+        verify(connection, never()).prepareStatement(startsWith("SELECT"));
+    }
+
+    @Test
+    public void shouldSaveWordpressDataWithGivenId() throws SQLException {
+        // given
+        WordpressExtension extension = new WordpressExtension(settings, columns);
+
+        // when
+        extension.saveAuth(auth, ID, connection);
+
+        // then
+        verify(connection).prepareStatement(contains("usermeta (user_id, meta_key, meta_value)"));
+        verify(statement).setInt(1, ID);
+        verify(connection, never()).prepareStatement(startsWith("SELECT"));
+    }
+
+    @Test
+    public void shouldSaveIpb4DataWithoutLookingUpId() throws SQLException {
+        // given
+        Ipb4Extension extension = new Ipb4Extension(settings, columns);
+
+        // when
+        extension.saveAuth(auth, ID, connection);
+
+        // then
+        verify(connection).prepareStatement(contains(".member_group_id=?"));
+        verify(statement).setString(4, auth.getNickname());
+        verify(connection, never()).prepareStatement(startsWith("SELECT"));
+    }
+}
@@ -17,10 +17,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.only;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
@@ -81,7 +86,7 @@ public class ListenerServiceTest {
         // given
         String playerName = "Bobby";
         Player player = mockPlayerWithName(playerName);
-        given(playerCache.isAuthenticated(playerName)).willReturn(true);
+        given(playerCache.isAuthenticated("bobby")).willReturn(true);
         EntityEvent event = mock(EntityEvent.class);
         given(event.getEntity()).willReturn(player);
 
@@ -90,7 +95,7 @@ public class ListenerServiceTest {
 
         // then
         assertThat(result, equalTo(false));
-        verify(playerCache).isAuthenticated(playerName);
+        verify(playerCache).isAuthenticated("bobby");
         verifyNoInteractions(dataSource);
     }
 
@@ -99,7 +104,7 @@ public class ListenerServiceTest {
         // given
         String playerName = "Tester";
         Player player = mockPlayerWithName(playerName);
-        given(playerCache.isAuthenticated(playerName)).willReturn(false);
+        given(playerCache.isAuthenticated("tester")).willReturn(false);
         EntityEvent event = mock(EntityEvent.class);
         given(event.getEntity()).willReturn(player);
 
@@ -108,7 +113,7 @@ public class ListenerServiceTest {
 
         // then
         assertThat(result, equalTo(true));
-        verify(playerCache).isAuthenticated(playerName);
+        verify(playerCache).isAuthenticated("tester");
         // makes sure the setting is checked first = avoid unnecessary DB operation
         verifyNoInteractions(dataSource);
     }
@@ -118,7 +123,7 @@ public class ListenerServiceTest {
         // given
         String playerName = "myPlayer1";
         Player player = mockPlayerWithName(playerName);
-        given(playerCache.isAuthenticated(playerName)).willReturn(false);
+        given(playerCache.isAuthenticated("myplayer1")).willReturn(false);
         given(settings.getProperty(RegistrationSettings.FORCE)).willReturn(false);
         EntityEvent event = mock(EntityEvent.class);
         given(event.getEntity()).willReturn(player);
@@ -129,7 +134,7 @@ public class ListenerServiceTest {
 
         // then
         assertThat(result, equalTo(false));
-        verify(playerCache).isAuthenticated(playerName);
+        verify(playerCache).isAuthenticated("myplayer1");
         verify(dataSource).isAuthAvailable(playerName);
     }
 
@@ -213,9 +218,69 @@ public class ListenerServiceTest {
         verifyNoInteractions(dataSource);
     }
 
+    @Test
+    public void shouldCheckUnrestrictedNameOnce() {
+        // given
+        String playerName = "Hans";
+        Player player = mockPlayerWithName(playerName);
+        given(settings.getProperty(RegistrationSettings.FORCE)).willReturn(false);
+        listenerService.reload(settings);
+        given(dataSource.isAuthAvailable(playerName)).willReturn(true);
+        given(playerCache.isAuthenticated("hans")).willReturn(false, true);
+
+        // when
+        boolean result1 = listenerService.shouldCancelEvent(player);
+        boolean result2 = listenerService.shouldCancelEvent(player);
+
+        // then
+        assertThat(result1, equalTo(true));
+        assertThat(result2, equalTo(false));
+        verify(dataSource, only()).isAuthAvailable(playerName);
+        verify(validationService, only()).isUnrestricted(playerName);
+    }
+
+    @Test
+    public void shouldCancelEventsOfPlayerRegisteredThroughApi() {
+        // given
+        String playerName = "Greta";
+        Player player = mockPlayerWithName(playerName);
+        given(settings.getProperty(RegistrationSettings.FORCE)).willReturn(false);
+        listenerService.reload(settings);
+        given(dataSource.isAuthAvailable(playerName)).willReturn(false, true);
+        boolean resultBeforeRegistration = listenerService.shouldCancelEvent(player);
+
+        // when
+        // e.g. AuthMeApi#registerPlayer, which saves the account without notifying the listener service
+        boolean resultAfterRegistration = listenerService.shouldCancelEvent(player);
+
+        // then
+        assertThat(resultBeforeRegistration, equalTo(false));
+        assertThat(resultAfterRegistration, equalTo(true));
+        verify(dataSource, times(2)).isAuthAvailable(playerName);
+    }
+
+    @Test
+    public void shouldClearRestrictionStatesOnReload() {
+        // given
+        String playerName = "Otto";
+        Player player = mockPlayerWithName(playerName);
+        given(validationService.isUnrestricted(playerName)).willReturn(true, false);
+        boolean resultBeforeReload = listenerService.shouldCancelEvent(player);
+
+        // when
+        listenerService.reload(settings);
+        boolean resultAfterReload = listenerService.shouldCancelEvent(player);
+
+        // then
+        assertThat(resultBeforeReload, equalTo(false));
+        assertThat(resultAfterReload, equalTo(true));
+        verify(validationService, times(2)).isUnrestricted(playerName);
+    }
+
     private static Player mockPlayerWithName(String name) {
         Player player = mock(Player.class);
         given(player.getName()).willReturn(name);
+        given(player.getUniqueId()).willReturn(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)));
         return player;
     }
 
@@ -375,26 +375,28 @@ public class OnJoinVerifierTest {
     public void shouldAllowUser() throws FailedVerificationException {
         // given
         String name = "Bobby";
+        String ip = "145.23.4.11";
         boolean isAuthAvailable = false;
         given(permissionsManager.hasPermissionOffline(name, PlayerStatePermission.BYPASS_ANTIBOT)).willReturn(false);
-        given(antiBotService.shouldKick()).willReturn(false);
+        given(antiBotService.shouldKick(ip)).willReturn(false);
 
         // when
-        onJoinVerifier.checkAntibot(name, isAuthAvailable);
+        onJoinVerifier.checkAntibot(name, ip, isAuthAvailable);
 
         // then
         verify(permissionsManager).hasPermissionOffline(name, PlayerStatePermission.BYPASS_ANTIBOT);
-        verify(antiBotService).shouldKick();
+        verify(antiBotService).shouldKick(ip);
     }
 
     @Test
     public void shouldAllowUserWithAuth() throws FailedVerificationException {
         // given
         String name = "Lacey";
+        String ip = "34.56.78.90";
         boolean isAuthAvailable = true;
 
         // when
-        onJoinVerifier.checkAntibot(name, isAuthAvailable);
+        onJoinVerifier.checkAntibot(name, ip, isAuthAvailable);
 
         // then
         verifyNoInteractions(permissionsManager, antiBotService);
@@ -404,11 +406,12 @@ public class OnJoinVerifierTest {
     public void shouldAllowUserWithBypassPermission() throws FailedVerificationException {
         // given
         String name = "Steward";
+        String ip = "73.41.208.1";
         boolean isAuthAvailable = false;
         given(permissionsManager.hasPermissionOffline(name, PlayerStatePermission.BYPASS_ANTIBOT)).willReturn(true);
 
         // when
-        onJoinVerifier.checkAntibot(name, isAuthAvailable);
+        onJoinVerifier.checkAntibot(name, ip, isAuthAvailable);
 
         // then
         verify(permissionsManager).hasPermissionOffline(name, PlayerStatePermission.BYPASS_ANTIBOT);
@@ -419,17 +422,18 @@ public class OnJoinVerifierTest {
     public void shouldKickUserForFailedAntibotCheck() {
         // given
         String name = "D3";
+        String ip = "203.0.113.9";
         boolean isAuthAvailable = false;
         given(permissionsManager.hasPermissionOffline(name, PlayerStatePermission.BYPASS_ANTIBOT)).willReturn(false);
-        given(antiBotService.shouldKick()).willReturn(true);
+        given(antiBotService.shouldKick(ip)).willReturn(true);
 
         // when / then
         try {
-            onJoinVerifier.checkAntibot(name, isAuthAvailable);
+            onJoinVerifier.checkAntibot(name, ip, isAuthAvailable);
             fail("Expected exception to be thrown");
         } catch (FailedVerificationException e) {
             verify(permissionsManager).hasPermissionOffline(name, PlayerStatePermission.BYPASS_ANTIBOT);
-            verify(antiBotService).shouldKick();
+            verify(antiBotService).shouldKick(ip);
         }
 
     }
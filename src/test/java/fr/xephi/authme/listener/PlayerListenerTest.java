@@ -2,6 +2,8 @@ package fr.xephi.authme.listener;
 
 import fr.xephi.authme.data.QuickCommandsProtectionManager;
 import fr.xephi.authme.data.auth.PlayerAuth;
+import fr.xephi.authme.data.limbo.LimboService;
+import fr.xephi.authme.data.limbo.MovementAnchor;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.message.MessageKey;
 import fr.xephi.authme.message.Messages;
@@ -114,6 +116,8 @@ public class PlayerListenerTest {
     @Mock
     private ListenerService listenerService;
     @Mock
+    private LimboService limboService;
+    @Mock
     private TeleportationService teleportationService;
     @Mock
     private ValidationService validationService;
@@ -539,6 +543,78 @@ public class PlayerListenerTest {
         verifyNoModifyingCalls(event);
     }
 
+    @Test
+    public void shouldAllowMovementWithinRadiusOfMovementAnchor() {
+        // given
+        given(settings.getProperty(RestrictionSettings.ALLOW_UNAUTHED_MOVEMENT)).willReturn(true);
+        given(settings.getProperty(RestrictionSettings.ALLOWED_MOVEMENT_RADIUS)).willReturn(12);
+        World world = mock(World.class);
+        Player player = mock(Player.class);
+        Location from = new Location(world, 200, 70, 200);
+        Location to = new Location(world, 199, 69, 201);
+        PlayerMoveEvent event = spy(new PlayerMoveEvent(player, from, to));
+        given(listenerService.shouldCancelEvent(player)).willReturn(true);
+        given(settings.getProperty(RestrictionSettings.NO_TELEPORT)).willReturn(false);
+        // sqrt(9^2 + 3^2 + 3^2) < 12 (allowed movement radius)
+        MovementAnchor anchor = new MovementAnchor(new Location(world, 190, 72, 204), 12);
+        given(limboService.getMovementAnchor(player)).willReturn(anchor);
+
+        // when
+        listener.onPlayerMove(event);
+
+        // then
+        verify(player, never()).teleport(any(Location.class));
+        verifyNoInteractions(spawnLoader);
+        verifyNoModifyingCalls(event);
+    }
+
+    @Test
+    public void shouldTeleportPlayerOutsideOfMovementAnchorRadius() {
+        // given
+        given(settings.getProperty(RestrictionSettings.ALLOW_UNAUTHED_MOVEMENT)).willReturn(true);
+        given(settings.getProperty(RestrictionSettings.ALLOWED_MOVEMENT_RADIUS)).willReturn(12);
+        World world = mock(World.class);
+        Player player = mock(Player.class);
+        Location from = new Location(world, 200, 70, 200);
+        Location to = new Location(world, 199, 69, 201);
+        PlayerMoveEvent event = spy(new PlayerMoveEvent(player, from, to));
+        given(listenerService.shouldCancelEvent(player)).willReturn(true);
+        given(settings.getProperty(RestrictionSettings.NO_TELEPORT)).willReturn(false);
+        // sqrt(14^2 + 3^2 + 3^2) > 12 (allowed movement radius)
+        Location spawn = new Location(world, 185, 72, 204);
+        given(limboService.getMovementAnchor(player)).willReturn(new MovementAnchor(spawn, 12));
+
+        // when
+        listener.onPlayerMove(event);
+
+        // then
+        verify(player).teleport(spawn);
+        verifyNoInteractions(spawnLoader);
+        verifyNoModifyingCalls(event);
+    }
+
+    @Test
+    public void shouldTeleportPlayerInOtherWorldThanMovementAnchor() {
+        // given
+        given(settings.getProperty(RestrictionSettings.ALLOW_UNAUTHED_MOVEMENT)).willReturn(true);
+        given(settings.getProperty(RestrictionSettings.ALLOWED_MOVEMENT_RADIUS)).willReturn(12);
+        Player player = mock(Player.class);
+        Location from = new Location(mock(World.class), 200, 70, 200);
+        Location to = new Location(from.getWorld(), 199, 69, 201);
+        PlayerMoveEvent event = spy(new PlayerMoveEvent(player, from, to));
+        given(listenerService.shouldCancelEvent(player)).willReturn(true);
+        given(settings.getProperty(RestrictionSettings.NO_TELEPORT)).willReturn(false);
+        Location spawn = new Location(mock(World.class), 199, 69, 201);
+        given(limboService.getMovementAnchor(player)).willReturn(new MovementAnchor(spawn, 12));
+
+        // when
+        listener.onPlayerMove(event);
+
+        // then
+        verify(player).teleport(spawn);
+        verifyNoInteractions(spawnLoader);
+    }
+
     @Test
     public void shouldIgnorePlayerRespawnWithNoTeleport() {
         // given
@@ -760,7 +836,7 @@ public class PlayerListenerTest {
         // then
         verify(validationService).isUnrestricted(name);
         verify(onJoinVerifier).checkKickNonRegistered(true);
-        verify(onJoinVerifier).checkAntibot(name, true);
+        verify(onJoinVerifier).checkAntibot(name, ip, true);
         verify(onJoinVerifier).checkNameCasing(name, auth);
         verify(onJoinVerifier).checkPlayerCountry(name, ip, true);
         verifyNoModifyingCalls(preLoginEvent);
@@ -870,6 +946,23 @@ public class PlayerListenerTest {
         verify(management).performQuit(player);
     }
 
+    @Test
+    public void shouldInvalidateRestrictionStateOnQuit() {
+        // given
+        given(settings.getProperty(RegistrationSettings.REMOVE_LEAVE_MESSAGE)).willReturn(false);
+        given(settings.getProperty(RegistrationSettings.REMOVE_UNLOGGED_LEAVE_MESSAGE)).willReturn(false);
+        Player player = mockPlayerWithName("Isaac");
+        PlayerQuitEvent event = new PlayerQuitEvent(player, "Isaac left");
+        given(antiBotService.wasPlayerKicked("Isaac")).willReturn(true);
+
+        // when
+        listener.onPlayerQuit(event);
+
+        // then
+        verify(listenerService).invalidateRestrictionState(player);
+        verifyNoInteractions(management);
+    }
+
     @Test
     public void shouldCancelInventoryClickEvent() {
         // given
@@ -0,0 +1,149 @@
+package fr.xephi.authme.output;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.logging.Level;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Test for {@link AsyncLogWriter}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncLogWriterTest {
+
+    @Mock
+    private java.util.logging.Logger logger;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File folder;
+    private File logFile;
+
+    @Before
+    public void createLogFile() throws IOException {
+        folder = temporaryFolder.newFolder();
+        logFile = new File(folder, "authme.log");
+    }
+
+    @Test
+    public void shouldWriteAllMessagesBeforeClosing() throws IOException {
+        // given
+        AsyncLogWriter writer = new AsyncLogWriter(logFile, logger, 16);
+        writer.configure(1000, 0, false);
+        writer.start();
+
+        // when
+        for (int i = 0; i < 10; ++i) {
+            writer.write("[INFO] Message " + i);
+        }
+        writer.close();
+
+        // then
+        List<String> lines = Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines.size(), equalTo(10));
+        assertThat(lines.get(0), containsString(": [INFO] Message 0"));
+        assertThat(lines.get(9), containsString(": [INFO] Message 9"));
+        verifyNoInteractions(logger);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDirectoryAsLogFile() {
+        // given / when
+        new AsyncLogWriter(folder, logger, 16);
+    }
+
+    @Test
+    public void shouldDropMessagesIfBufferIsFull() throws IOException {
+        // given
+        AsyncLogWriter writer = new AsyncLogWriter(logFile, logger, 4);
+        writer.configure(0, 0, false);
+
+        // when
+        for (int i = 0; i < 6; ++i) {
+            writer.write("Message " + i);
+        }
+        writer.writeBatch();
+
+        // then
+        assertThat(writer.getDroppedMessages(), equalTo(2L));
+        List<String> lines = Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines, contains(
+            containsString("Message 0"), containsString("Message 1"),
+            containsString("Message 2"), containsString("Message 3"),
+            containsString("[WARN] Dropped 2 log messages because the log buffer was full")));
+    }
+
+    @Test
+    public void shouldRotateLargeLogFile() throws IOException {
+        // given
+        AsyncLogWriter writer = new AsyncLogWriter(logFile, logger, 16);
+        writer.configure(0, 10, false);
+
+        // when
+        writer.write("First message");
+        writer.write("Second message");
+        writer.write("Third message");
+        writer.writeBatch();
+        writer.close();
+
+        // then
+        assertThat(folder.listFiles(), arrayWithSize(3));
+        String date = LocalDate.now().toString();
+        assertThat(readFile(new File(folder, "authme-" + date + ".1.log")), contains(containsString("First message")));
+        assertThat(readFile(new File(folder, "authme-" + date + ".2.log")), contains(containsString("Second message")));
+        assertThat(readFile(logFile), contains(containsString("Third message")));
+    }
+
+    @Test
+    public void shouldKeepWritingToLogFileIfItCannotBeArchived() throws IOException {
+        // given
+        AsyncLogWriter writer = new AsyncLogWriter(logFile, logger, 16) {
+            @Override
+            void moveFile(Path source, Path target) throws IOException {
+                throw new IOException("File is locked");
+            }
+        };
+        writer.configure(0, 10, false);
+
+        // when
+        writer.write("First message");
+        writer.write("Second message");
+        writer.write("Third message");
+        writer.writeBatch();
+        writer.close();
+
+        // then
+        assertThat(folder.listFiles(), arrayWithSize(1));
+        assertThat(readFile(logFile), contains(containsString("First message"),
+            containsString("Second message"), containsString("Third message")));
+        verify(logger).log(eq(Level.WARNING), anyString(), any(IOException.class));
+    }
+
+    private static List<String> readFile(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
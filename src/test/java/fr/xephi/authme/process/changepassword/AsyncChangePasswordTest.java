@@ -16,8 +16,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.verify;
 
@@ -127,4 +129,23 @@ public class AsyncChangePasswordTest {
         verify(dataSource).updatePassword(player, hashedPassword);
     }
 
+    @Test
+    public void shouldNotRejectPasswordChangeOfOtherPlugin() {
+        // given
+        String player = "my_user12";
+        String password = "passPass";
+        given(playerCache.isAuthenticated(player)).willReturn(true);
+
+        HashedPassword hashedPassword = mock(HashedPassword.class);
+        given(passwordSecurity.computeHashWithoutRejection(password, player)).willReturn(hashedPassword);
+        given(dataSource.updatePassword(player, hashedPassword)).willReturn(true);
+
+        // when
+        asyncChangePassword.changePasswordAsAdmin(null, player, password);
+
+        // then
+        verify(passwordSecurity, never()).computeHash(anyString(), anyString());
+        verify(dataSource).updatePassword(player, hashedPassword);
+    }
+
 }
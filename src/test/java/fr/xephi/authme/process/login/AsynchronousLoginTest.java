@@ -24,9 +24,7 @@ import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
-import java.util.Arrays;
-import java.util.List;
-
+import static com.google.common.collect.Sets.newHashSet;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -176,7 +174,7 @@ public class AsynchronousLoginTest {
         Player player = mockPlayer("Carl");
         given(commonService.getProperty(RestrictionSettings.MAX_LOGIN_PER_IP)).willReturn(2);
         given(commonService.hasPermission(player, PlayerStatePermission.ALLOW_MULTIPLE_ACCOUNTS)).willReturn(false);
-        mockOnlinePlayersInBukkitService();
+        given(playerCache.getLoggedInNamesByIp("1.1.1.1")).willReturn(newHashSet("albania"));
 
         // when
         boolean result = asynchronousLogin.hasReachedMaxLoggedInPlayersForIp(player, "1.1.1.1");
@@ -184,7 +182,8 @@ public class AsynchronousLoginTest {
         // then
         assertThat(result, equalTo(false));
         verify(commonService).hasPermission(player, PlayerStatePermission.ALLOW_MULTIPLE_ACCOUNTS);
-        verify(bukkitService).getOnlinePlayers();
+        verify(playerCache).getLoggedInNamesByIp("1.1.1.1");
+        verifyNoInteractions(bukkitService, dataSource);
     }
 
     @Test
@@ -198,7 +197,7 @@ public class AsynchronousLoginTest {
 
         // then
         assertThat(result, equalTo(false));
-        verifyNoInteractions(bukkitService);
+        verifyNoInteractions(bukkitService, playerCache);
     }
 
     @Test
@@ -214,7 +213,7 @@ public class AsynchronousLoginTest {
         // then
         assertThat(result, equalTo(false));
         verify(commonService).hasPermission(player, PlayerStatePermission.ALLOW_MULTIPLE_ACCOUNTS);
-        verifyNoInteractions(bukkitService);
+        verifyNoInteractions(bukkitService, playerCache);
     }
 
     @Test
@@ -223,7 +222,7 @@ public class AsynchronousLoginTest {
         Player player = mockPlayer("Ian");
         given(commonService.getProperty(RestrictionSettings.MAX_LOGIN_PER_IP)).willReturn(2);
         given(commonService.hasPermission(player, PlayerStatePermission.ALLOW_MULTIPLE_ACCOUNTS)).willReturn(false);
-        mockOnlinePlayersInBukkitService();
+        given(playerCache.getLoggedInNamesByIp("2.2.2.2")).willReturn(newHashSet("congo", "ecuador"));
 
         // when
         boolean result = asynchronousLogin.hasReachedMaxLoggedInPlayersForIp(player, "2.2.2.2");
@@ -231,7 +230,22 @@ public class AsynchronousLoginTest {
         // then
         assertThat(result, equalTo(true));
         verify(commonService).hasPermission(player, PlayerStatePermission.ALLOW_MULTIPLE_ACCOUNTS);
-        verify(bukkitService).getOnlinePlayers();
+        verifyNoInteractions(bukkitService, dataSource);
+    }
+
+    @Test
+    public void shouldNotCountPlayerItselfInIpCheck() {
+        // given
+        Player player = mockPlayer("Congo");
+        given(commonService.getProperty(RestrictionSettings.MAX_LOGIN_PER_IP)).willReturn(2);
+        given(commonService.hasPermission(player, PlayerStatePermission.ALLOW_MULTIPLE_ACCOUNTS)).willReturn(false);
+        given(playerCache.getLoggedInNamesByIp("2.2.2.2")).willReturn(newHashSet("congo", "ecuador"));
+
+        // when
+        boolean result = asynchronousLogin.hasReachedMaxLoggedInPlayersForIp(player, "2.2.2.2");
+
+        // then
+        assertThat(result, equalTo(false));
     }
 
     private static Player mockPlayer(String name) {
@@ -240,32 +254,4 @@ public class AsynchronousLoginTest {
         return player;
     }
 
-    private void mockOnlinePlayersInBukkitService() {
-        // 1.1.1.1: albania (online), brazil (offline)
-        Player playerA = mockPlayer("albania");
-        TestHelper.mockPlayerIp(playerA, "1.1.1.1");
-        given(dataSource.isLogged(playerA.getName())).willReturn(true);
-        Player playerB = mockPlayer("brazil");
-        TestHelper.mockPlayerIp(playerB, "1.1.1.1");
-        given(dataSource.isLogged(playerB.getName())).willReturn(false);
-
-        // 2.2.2.2: congo (online), denmark (offline), ecuador (online)
-        Player playerC = mockPlayer("congo");
-        TestHelper.mockPlayerIp(playerC, "2.2.2.2");
-        given(dataSource.isLogged(playerC.getName())).willReturn(true);
-        Player playerD = mockPlayer("denmark");
-        TestHelper.mockPlayerIp(playerD, "2.2.2.2");
-        given(dataSource.isLogged(playerD.getName())).willReturn(false);
-        Player playerE = mockPlayer("ecuador");
-        TestHelper.mockPlayerIp(playerE, "2.2.2.2");
-        given(dataSource.isLogged(playerE.getName())).willReturn(true);
-
-        // 3.3.3.3: france (offline)
-        Player playerF = mockPlayer("france");
-        TestHelper.mockPlayerIp(playerF, "3.3.3.3");
-
-        List<Player> onlinePlayers = Arrays.asList(playerA, playerB, playerC, playerD, playerE, playerF);
-        given(bukkitService.getOnlinePlayers()).willReturn(onlinePlayers);
-    }
-
 }
@@ -0,0 +1,120 @@
+package fr.xephi.authme.security;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.settings.Settings;
+import fr.xephi.authme.settings.properties.HooksSettings;
+import fr.xephi.authme.settings.properties.SecuritySettings;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static fr.xephi.authme.security.HashCostCalibrator.REFERENCE_BCRYPT_COST;
+import static fr.xephi.authme.security.HashCostCalibrator.chooseArgon2TimeCost;
+import static fr.xephi.authme.security.HashCostCalibrator.chooseBCryptCost;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test for {@link HashCostCalibrator}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class HashCostCalibratorTest {
+
+    @InjectMocks
+    private HashCostCalibrator calibrator;
+
+    @Mock
+    private Settings settings;
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @Test
+    public void shouldChooseBCryptCost() {
+        // given / when / then
+        assertThat(chooseBCryptCost(12.5, 51), equalTo(REFERENCE_BCRYPT_COST + 2));
+        assertThat(chooseBCryptCost(12.5, 49), equalTo(REFERENCE_BCRYPT_COST + 1));
+        assertThat(chooseBCryptCost(20, 20), equalTo(REFERENCE_BCRYPT_COST));
+        assertThat(chooseBCryptCost(200, 1), equalTo(4));
+        assertThat(chooseBCryptCost(0.001, 10_000), equalTo(16));
+    }
+
+    @Test
+    public void shouldChooseArgon2TimeCost() {
+        // given / when / then
+        assertThat(chooseArgon2TimeCost(16, 50), equalTo(3));
+        assertThat(chooseArgon2TimeCost(80, 50), equalTo(1));
+        assertThat(chooseArgon2TimeCost(1, 500), equalTo(10));
+    }
+
+    @Test
+    public void shouldNotCalibrateIfDisabled() {
+        // given
+        given(settings.getProperty(SecuritySettings.CALIBRATE_HASH_COST)).willReturn(false);
+
+        // when
+        calibrator.applyCalibration(HashAlgorithm.BCRYPT);
+
+        // then
+        verify(settings, never()).setProperty(any(), any());
+    }
+
+    @Test
+    public void shouldNotCalibrateOtherAlgorithms() {
+        // given
+        given(settings.getProperty(SecuritySettings.CALIBRATE_HASH_COST)).willReturn(true);
+
+        // when
+        calibrator.applyCalibration(HashAlgorithm.SHA256);
+
+        // then
+        verify(settings, never()).setProperty(any(), any());
+    }
+
+    @Test
+    public void shouldCalibrateBCryptOnceAndReapplyValue() {
+        // given
+        given(settings.getProperty(SecuritySettings.CALIBRATE_HASH_COST)).willReturn(true);
+        given(settings.getProperty(SecuritySettings.CALIBRATION_TARGET_MILLIS)).willReturn(50);
+        given(settings.getProperty(HooksSettings.BCRYPT_LOG2_ROUND)).willReturn(4);
+
+        // when
+        calibrator.applyCalibration(HashAlgorithm.BCRYPT);
+        calibrator.applyCalibration(HashAlgorithm.BCRYPT);
+
+        // then
+        ArgumentCaptor<Integer> costCaptor = ArgumentCaptor.forClass(Integer.class);
+        verify(settings, times(2)).setProperty(eq(HooksSettings.BCRYPT_LOG2_ROUND), costCaptor.capture());
+        assertThat(costCaptor.getAllValues().get(0), allOf(greaterThanOrEqualTo(4), lessThanOrEqualTo(16)));
+        assertThat(costCaptor.getAllValues().get(1), equalTo(costCaptor.getAllValues().get(0)));
+    }
+
+    @Test
+    public void shouldNotLowerConfiguredBCryptCost() {
+        // given
+        given(settings.getProperty(SecuritySettings.CALIBRATE_HASH_COST)).willReturn(true);
+        given(settings.getProperty(SecuritySettings.CALIBRATION_TARGET_MILLIS)).willReturn(1);
+        given(settings.getProperty(HooksSettings.BCRYPT_LOG2_ROUND)).willReturn(17);
+
+        // when
+        calibrator.applyCalibration(HashAlgorithm.BCRYPT);
+
+        // then
+        verify(settings).setProperty(HooksSettings.BCRYPT_LOG2_ROUND, 17);
+    }
+}
@@ -0,0 +1,182 @@
+package fr.xephi.authme.security;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.settings.Settings;
+import fr.xephi.authme.settings.properties.SecuritySettings;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Test for {@link HashingExecutor}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class HashingExecutorTest {
+
+    private HashingExecutor hashingExecutor;
+
+    @Mock
+    private Settings settings;
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @After
+    public void shutDownExecutor() {
+        if (hashingExecutor != null) {
+            hashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldLimitThreadsByMemoryBudget() {
+        // given
+        givenSettings(HashAlgorithm.ARGON2, 8, 10);
+        given(settings.getProperty(SecuritySettings.ARGON2_MEMORY_COST)).willReturn(65536);
+        given(settings.getProperty(SecuritySettings.HASHING_MEMORY_BUDGET_MB)).willReturn(256);
+
+        // when
+        hashingExecutor = new HashingExecutor(settings);
+
+        // then
+        assertThat(hashingExecutor.getWorkerThreads(), equalTo(4));
+    }
+
+    @Test
+    public void shouldUseConfiguredThreadsForRegularAlgorithm() {
+        // given
+        givenSettings(HashAlgorithm.BCRYPT, 8, 10);
+
+        // when
+        hashingExecutor = new HashingExecutor(settings);
+
+        // then
+        assertThat(hashingExecutor.getWorkerThreads(), equalTo(8));
+    }
+
+    @Test
+    public void shouldRunTaskAndRecordMetrics() {
+        // given
+        givenSettings(HashAlgorithm.SHA256, 2, 10);
+        hashingExecutor = new HashingExecutor(settings);
+
+        // when
+        String result = hashingExecutor.execute(() -> "hash");
+
+        // then
+        assertThat(result, equalTo("hash"));
+        assertThat(hashingExecutor.getCompletedTaskCount(), equalTo(1L));
+        assertThat(hashingExecutor.getRejectedTaskCount(), equalTo(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRethrowExceptionOfTask() {
+        // given
+        givenSettings(HashAlgorithm.SHA256, 1, 10);
+        hashingExecutor = new HashingExecutor(settings);
+
+        // when
+        hashingExecutor.execute(() -> {
+            throw new IllegalArgumentException("Invalid salt");
+        });
+    }
+
+    @Test
+    public void shouldRejectTasksIfQueueIsFull() throws Exception {
+        // given
+        givenSettings(HashAlgorithm.SHA256, 1, 1);
+        hashingExecutor = new HashingExecutor(settings);
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Boolean> runningTask = callers.submit(() -> hashingExecutor.execute(() -> {
+                latch.await();
+                return true;
+            }));
+            waitUntil(() -> hashingExecutor.getActiveTaskCount() == 1);
+            Future<Boolean> queuedTask = callers.submit(() -> hashingExecutor.execute(() -> true));
+            waitUntil(() -> hashingExecutor.getQueuedTaskCount() == 1);
+
+            // when
+            try {
+                hashingExecutor.execute(() -> true);
+                fail("Expected exception to be thrown");
+            } catch (HashingBusyException e) {
+                // then
+                assertThat(hashingExecutor.getRejectedTaskCount(), equalTo(1L));
+            }
+
+            latch.countDown();
+            assertThat(runningTask.get(), equalTo(true));
+            assertThat(queuedTask.get(), equalTo(true));
+            assertThat(hashingExecutor.getCompletedTaskCount(), equalTo(2L));
+        } finally {
+            latch.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRunTaskOnCallingThreadIfQueueIsFull() throws Exception {
+        // given
+        givenSettings(HashAlgorithm.SHA256, 1, 1);
+        hashingExecutor = new HashingExecutor(settings);
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        try {
+            callers.submit(() -> hashingExecutor.execute(() -> {
+                latch.await();
+                return true;
+            }));
+            waitUntil(() -> hashingExecutor.getActiveTaskCount() == 1);
+            callers.submit(() -> hashingExecutor.execute(() -> true));
+            waitUntil(() -> hashingExecutor.getQueuedTaskCount() == 1);
+
+            // when
+            String thread = hashingExecutor.executeWithoutRejection(() -> Thread.currentThread().getName());
+
+            // then
+            assertThat(thread, equalTo(Thread.currentThread().getName()));
+            assertThat(hashingExecutor.getRejectedTaskCount(), equalTo(1L));
+        } finally {
+            latch.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    private void givenSettings(HashAlgorithm algorithm, int workerThreads, int queueSize) {
+        given(settings.getProperty(SecuritySettings.PASSWORD_HASH)).willReturn(algorithm);
+        given(settings.getProperty(SecuritySettings.LEGACY_HASHES)).willReturn(Collections.emptySet());
+        given(settings.getProperty(SecuritySettings.HASHING_WORKER_THREADS)).willReturn(workerThreads);
+        given(settings.getProperty(SecuritySettings.HASHING_QUEUE_SIZE)).willReturn(queueSize);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                fail("Condition was not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
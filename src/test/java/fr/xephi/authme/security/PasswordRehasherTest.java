@@ -0,0 +1,99 @@
+package fr.xephi.authme.security;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.datasource.RehashedPassword;
+import fr.xephi.authme.security.crypts.EncryptionMethod;
+import fr.xephi.authme.security.crypts.HashedPassword;
+import fr.xephi.authme.service.BukkitService;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Test for {@link PasswordRehasher}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PasswordRehasherTest {
+
+    @InjectMocks
+    private PasswordRehasher passwordRehasher;
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private BukkitService bukkitService;
+    @Mock
+    private HashingExecutor hashingExecutor;
+    @Mock
+    private EncryptionMethod method;
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldComputeHashesInBackgroundAndSaveThemInOneBatch() {
+        // given
+        given(hashingExecutor.submit(any(Runnable.class))).willAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return true;
+        });
+        HashedPassword bobbyOld = new HashedPassword("$2a$08$bobby");
+        HashedPassword bobbyNew = new HashedPassword("$2a$10$bobby");
+        HashedPassword tinaOld = new HashedPassword("$2a$08$tina");
+        HashedPassword tinaNew = new HashedPassword("$2a$10$tina");
+        given(method.computeHash("pass1", "bobby")).willReturn(bobbyNew);
+        given(method.computeHash("pass2", "tina")).willReturn(tinaNew);
+        given(dataSource.updateRehashedPasswords(anyCollection())).willReturn(2);
+
+        // when
+        passwordRehasher.rehash("bobby", "pass1", bobbyOld, method);
+        passwordRehasher.rehash("tina", "pass2", tinaOld, method);
+        passwordRehasher.savePendingRehashes();
+
+        // then
+        verify(bukkitService, times(1)).runTaskLaterAsynchronously(any(Runnable.class), anyLong());
+        ArgumentCaptor<Collection<RehashedPassword>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(dataSource).updateRehashedPasswords(captor.capture());
+        List<String> savedHashes = captor.getValue().stream()
+            .map(rehash -> rehash.getOldPassword().getHash() + " -> " + rehash.getNewPassword().getHash())
+            .collect(Collectors.toList());
+        assertThat(savedHashes, containsInAnyOrder("$2a$08$bobby -> $2a$10$bobby", "$2a$08$tina -> $2a$10$tina"));
+        assertThat(passwordRehasher.getSavedRehashCount(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldSkipRehashIfHashingQueueIsFull() {
+        // given
+        given(hashingExecutor.submit(any(Runnable.class))).willReturn(false);
+
+        // when
+        passwordRehasher.rehash("bobby", "pass1", new HashedPassword("old"), method);
+        passwordRehasher.savePendingRehashes();
+
+        // then
+        verifyNoInteractions(method, bukkitService, dataSource);
+    }
+}
@@ -10,6 +10,7 @@ import fr.xephi.authme.ReflectionTestUtils;
 import fr.xephi.authme.TestHelper;
 import fr.xephi.authme.datasource.DataSource;
 import fr.xephi.authme.events.PasswordEncryptionEvent;
+import fr.xephi.authme.security.crypts.BCrypt;
 import fr.xephi.authme.security.crypts.EncryptionMethod;
 import fr.xephi.authme.security.crypts.HashedPassword;
 import fr.xephi.authme.security.crypts.Joomla;
@@ -26,10 +27,12 @@ import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Set;
+import java.util.concurrent.Callable;
 
 import static com.google.common.collect.Sets.newHashSet;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.equalToIgnoringCase;
 import static org.hamcrest.Matchers.instanceOf;
@@ -68,6 +71,15 @@ public class PasswordSecurityTest {
     @Mock
     private EncryptionMethod method;
 
+    @Mock
+    private HashingExecutor hashingExecutor;
+
+    @Mock
+    private HashCostCalibrator hashCostCalibrator;
+
+    @Mock
+    private PasswordRehasher passwordRehasher;
+
     private Class<?> caughtClassInEvent;
 
     @BeforeClass
@@ -96,6 +108,8 @@ public class PasswordSecurityTest {
         given(settings.getProperty(SecuritySettings.PASSWORD_HASH)).willReturn(HashAlgorithm.BCRYPT);
         given(settings.getProperty(SecuritySettings.LEGACY_HASHES)).willReturn(Collections.emptySet());
         given(settings.getProperty(HooksSettings.BCRYPT_LOG2_ROUND)).willReturn(8);
+        given(hashingExecutor.execute(any(Callable.class)))
+            .willAnswer(invocation -> ((Callable<?>) invocation.getArgument(0)).call());
 
         Injector injector = new InjectorBuilder()
             .addDefaultHandlers("fr.xephi.authme.security.crypts")
@@ -180,12 +194,9 @@ public class PasswordSecurityTest {
         String playerName = "somePlayer";
         String playerLowerCase = playerName.toLowerCase();
         String clearTextPass = "Test";
-        // MD5 hash for "Test"
-        HashedPassword newPassword = new HashedPassword("0cbc6611f5540bd0809a388dc95a615b");
 
         given(dataSource.getPassword(argThat(equalToIgnoringCase(playerName)))).willReturn(password);
         given(method.comparePassword(clearTextPass, password, playerLowerCase)).willReturn(false);
-        given(method.computeHash(clearTextPass, playerLowerCase)).willReturn(newPassword);
         given(settings.getProperty(SecuritySettings.PASSWORD_HASH)).willReturn(HashAlgorithm.MD5);
         given(settings.getProperty(SecuritySettings.LEGACY_HASHES)).willReturn(newHashSet(HashAlgorithm.BCRYPT));
         passwordSecurity.reload();
@@ -201,7 +212,7 @@ public class PasswordSecurityTest {
         verify(dataSource).getPassword(argThat(equalToIgnoringCase(playerName)));
         verify(pluginManager, times(2)).callEvent(any(PasswordEncryptionEvent.class));
         verify(method).comparePassword(clearTextPass, password, playerLowerCase);
-        verify(dataSource).updatePassword(playerLowerCase, newPassword);
+        verify(passwordRehasher).rehash(playerLowerCase, clearTextPass, password, method);
     }
 
     @Test
@@ -222,7 +233,41 @@ public class PasswordSecurityTest {
 
         // then
         assertThat(result, equalTo(false));
-        verify(dataSource, never()).updatePassword(anyString(), any(HashedPassword.class));
+        verify(passwordRehasher, never()).rehash(anyString(), anyString(), any(HashedPassword.class), any());
+    }
+
+    @Test
+    public void shouldRehashPasswordWithOutdatedParameters() {
+        // given
+        HashedPassword password = new HashedPassword("$TEST$8$SOME_HASH", null);
+        String playerName = "Tester";
+        String playerLowerCase = playerName.toLowerCase();
+        String clearTextPass = "myPassTest";
+        given(method.comparePassword(clearTextPass, password, playerLowerCase)).willReturn(true);
+        given(method.needsRehash(password)).willReturn(true);
+
+        // when
+        boolean result = passwordSecurity.comparePassword(clearTextPass, password, playerName);
+
+        // then
+        assertThat(result, equalTo(true));
+        verify(passwordRehasher).rehash(playerLowerCase, clearTextPass, password, method);
+    }
+
+    @Test
+    public void shouldNotRehashPasswordWithCurrentParameters() {
+        // given
+        HashedPassword password = new HashedPassword("$TEST$10$SOME_HASH", null);
+        String playerName = "Tester";
+        String clearTextPass = "myPassTest";
+        given(method.comparePassword(clearTextPass, password, "tester")).willReturn(true);
+
+        // when
+        boolean result = passwordSecurity.comparePassword(clearTextPass, password, playerName);
+
+        // then
+        assertThat(result, equalTo(true));
+        verify(passwordRehasher, never()).rehash(anyString(), anyString(), any(HashedPassword.class), any());
     }
 
     @Test
@@ -281,8 +326,9 @@ public class PasswordSecurityTest {
         // then
         assertThat(ReflectionTestUtils.getFieldValue(PasswordSecurity.class, passwordSecurity, "encryptionMethod"),
             instanceOf(Md5.class));
-        Set<HashAlgorithm> legacyHashesSet = newHashSet(HashAlgorithm.CUSTOM, HashAlgorithm.BCRYPT);
-        assertThat(ReflectionTestUtils.getFieldValue(PasswordSecurity.class, passwordSecurity, "legacyAlgorithms"),
-            equalTo(legacyHashesSet));
+        // CUSTOM has no encryption method, so only BCRYPT remains
+        Collection<EncryptionMethod> legacyMethods =
+            ReflectionTestUtils.getFieldValue(PasswordSecurity.class, passwordSecurity, "legacyMethods");
+        assertThat(legacyMethods, contains(instanceOf(BCrypt.class)));
     }
 }
@@ -1,6 +1,9 @@
 package fr.xephi.authme.security.crypts;
 
+import org.junit.Test;
+
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assume.assumeThat;
 
 /**
@@ -21,6 +24,30 @@ public class Argon2Test extends AbstractEncryptionMethodTest {
             IS_LIBRARY_LOADED, equalTo(true));
     }
 
+    @Test
+    public void shouldRequireRehashForWeakerParameters() {
+        // given
+        HashedPassword hash = new HashedPassword(
+            "$argon2i$v=19$m=65536,t=2,p=1$dOP8NiXsPTcMgzI4Z8Rbew$ShdowtoTEWTL5UTFz1UgQOigb9JOlm4ZxWPA6WbIeUw");
+
+        // when / then
+        assertThat(new Argon2().needsRehash(hash), equalTo(false));
+        assertThat(new Argon2(3, 65536, 1).needsRehash(hash), equalTo(true));
+        assertThat(new Argon2(2, 131072, 1).needsRehash(hash), equalTo(true));
+        assertThat(new Argon2(2, 65536, 2).needsRehash(hash), equalTo(false));
+    }
+
+    @Test
+    public void shouldNotRequireRehashForStrongerParameters() {
+        // given
+        HashedPassword hash = new HashedPassword(
+            "$argon2i$v=19$m=65536,t=2,p=1$dOP8NiXsPTcMgzI4Z8Rbew$ShdowtoTEWTL5UTFz1UgQOigb9JOlm4ZxWPA6WbIeUw");
+
+        // when / then
+        assertThat(new Argon2(1, 65536, 1).needsRehash(hash), equalTo(false));
+        assertThat(new Argon2(2, 32768, 1).needsRehash(hash), equalTo(false));
+    }
+
     @Override
     protected boolean testHashEqualityForSameSalt() {
         // Argon2 has a salt but it is handled internally
@@ -4,6 +4,7 @@ import fr.xephi.authme.settings.Settings;
 import fr.xephi.authme.settings.properties.HooksSettings;
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
@@ -35,6 +36,21 @@ public class BCryptTest extends AbstractEncryptionMethodTest {
         assertThat(result.getHash(), startsWith("$2a$08$"));
     }
 
+    @Test
+    public void shouldRequireRehashForLowerCostFactor() {
+        // given
+        BCrypt bCrypt = new BCrypt(mockSettings());
+        HashedPassword currentHash = bCrypt.computeHash("test", null);
+        HashedPassword weakerHash = new HashedPassword("$2a$06$DCq7YPn5Rq63x1Lad4cll.TV4S6ytwfsfvkgY8jIucDrjc8deX1s.");
+        HashedPassword strongerHash =
+            new HashedPassword("$2a$10$6iATmYgwJVc3YONhVcZFve3Cfb5GnwvKhJ20r.hMjmcNkIT9.Uh9K");
+
+        // when / then
+        assertThat(bCrypt.needsRehash(currentHash), equalTo(false));
+        assertThat(bCrypt.needsRehash(weakerHash), equalTo(true));
+        assertThat(bCrypt.needsRehash(strongerHash), equalTo(false));
+    }
+
     private static Settings mockSettings() {
         Settings settings = mock(Settings.class);
         given(settings.getProperty(HooksSettings.BCRYPT_LOG2_ROUND)).willReturn(8);
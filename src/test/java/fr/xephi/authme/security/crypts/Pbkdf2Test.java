@@ -36,6 +36,20 @@ public class Pbkdf2Test extends AbstractEncryptionMethodTest {
         assertThat(isMatch, equalTo(true));
     }
 
+    @Test
+    public void shouldOnlyRequireRehashForFewerRounds() {
+        // given
+        Pbkdf2 pbkdf2 = new Pbkdf2(mockSettings());
+        HashedPassword fewerRounds = new HashedPassword("pbkdf2_sha256$1000$b25801311edf$093E38B16DFF");
+        HashedPassword sameRounds = new HashedPassword("pbkdf2_sha256$4128$3469b0d48b702046$DC8A54351008");
+        HashedPassword moreRounds = new HashedPassword("pbkdf2_sha256$10000$b25801311edf$093E38B16DFF");
+
+        // when / then
+        assertThat(pbkdf2.needsRehash(fewerRounds), equalTo(true));
+        assertThat(pbkdf2.needsRehash(sameRounds), equalTo(false));
+        assertThat(pbkdf2.needsRehash(moreRounds), equalTo(false));
+    }
+
     private static Settings mockSettings() {
         Settings settings = mock(Settings.class);
         given(settings.getProperty(SecuritySettings.PBKDF2_NUMBER_OF_ROUNDS)).willReturn(4128);
@@ -16,12 +16,14 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static fr.xephi.authme.service.BukkitServiceTestHelper.setBukkitServiceToScheduleSyncDelayedTaskWithDelay;
 import static fr.xephi.authme.service.BukkitServiceTestHelper.setBukkitServiceToScheduleSyncTaskFromOptionallyAsyncTask;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -49,6 +51,8 @@ public class AntiBotServiceTest {
     private PermissionsManager permissionsManager;
     @Mock
     private BukkitService bukkitService;
+    @Mock
+    private GeoIpService geoIpService;
 
     @BeforeInjecting
     public void initSettings() {
@@ -57,6 +61,7 @@ public class AntiBotServiceTest {
         given(settings.getProperty(ProtectionSettings.ANTIBOT_SENSIBILITY)).willReturn(5);
         given(settings.getProperty(ProtectionSettings.ENABLE_ANTIBOT)).willReturn(true);
         given(settings.getProperty(ProtectionSettings.ANTIBOT_DELAY)).willReturn(8);
+        given(settings.getProperty(ProtectionSettings.ENABLE_ADAPTIVE_ANTIBOT)).willReturn(false);
         setBukkitServiceToScheduleSyncDelayedTaskWithDelay(bukkitService);
     }
 
@@ -73,7 +78,8 @@ public class AntiBotServiceTest {
         given(settings.getProperty(ProtectionSettings.ENABLE_ANTIBOT)).willReturn(false);
 
         // when
-        AntiBotService antiBotService = new AntiBotService(settings, messages, permissionsManager, bukkitService);
+        AntiBotService antiBotService =
+            new AntiBotService(settings, messages, permissionsManager, bukkitService, geoIpService);
 
         // then
         assertThat(antiBotService.getAntiBotStatus(), equalTo(AntiBotService.AntiBotStatus.DISABLED));
@@ -102,7 +108,8 @@ public class AntiBotServiceTest {
     public void shouldNotActivateAntibotForDisabledSetting() {
         // given - disabled antibot
         given(settings.getProperty(ProtectionSettings.ENABLE_ANTIBOT)).willReturn(false);
-        AntiBotService antiBotService = new AntiBotService(settings, messages, permissionsManager, bukkitService);
+        AntiBotService antiBotService =
+            new AntiBotService(settings, messages, permissionsManager, bukkitService, geoIpService);
 
         // when
         antiBotService.overrideAntiBotStatus(true);
@@ -129,7 +136,7 @@ public class AntiBotServiceTest {
     @Test
     public void shouldAcceptPlayerToJoin() {
         // given / when
-        boolean result = antiBotService.shouldKick();
+        boolean result = antiBotService.shouldKick("44.144.41.4");
 
         // then
         assertThat(result, equalTo(false));
@@ -140,20 +147,47 @@ public class AntiBotServiceTest {
         // given
         int sensitivity = 10;
         given(settings.getProperty(ProtectionSettings.ANTIBOT_SENSIBILITY)).willReturn(sensitivity);
-        AntiBotService antiBotService = new AntiBotService(settings, messages, permissionsManager, bukkitService);
+        AntiBotService antiBotService =
+            new AntiBotService(settings, messages, permissionsManager, bukkitService, geoIpService);
 
         for (int i = 0; i < sensitivity; ++i) {
-            antiBotService.shouldKick();
+            antiBotService.shouldKick("44.144.41.4");
         }
         assertThat(antiBotService.getAntiBotStatus(), equalTo(AntiBotService.AntiBotStatus.LISTENING));
 
         // when
-        antiBotService.shouldKick();
+        antiBotService.shouldKick("44.144.41.4");
 
         // then
         assertThat(antiBotService.getAntiBotStatus(), equalTo(AntiBotService.AntiBotStatus.ACTIVE));
     }
 
+    @Test
+    public void shouldOnlyKickPlayersFromSubnetsWithTooManyJoins() {
+        // given
+        given(settings.getProperty(ProtectionSettings.ENABLE_ADAPTIVE_ANTIBOT)).willReturn(true);
+        given(settings.getProperty(ProtectionSettings.ADAPTIVE_ANTIBOT_HALF_LIFE)).willReturn(60);
+        given(settings.getProperty(ProtectionSettings.ADAPTIVE_ANTIBOT_SUBNET_RATE)).willReturn(3);
+        given(settings.getProperty(ProtectionSettings.ADAPTIVE_ANTIBOT_COUNTRY_RATE)).willReturn(0);
+        AntiBotService antiBotService =
+            new AntiBotService(settings, messages, permissionsManager, bukkitService, geoIpService);
+
+        // when
+        List<Boolean> results = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            results.add(antiBotService.shouldKick("203.0.113." + i));
+        }
+        boolean otherSubnetResult = antiBotService.shouldKick("198.51.100.7");
+
+        // then
+        assertThat(results.get(0), equalTo(false));
+        assertThat(results.get(7), equalTo(true));
+        assertThat(otherSubnetResult, equalTo(false));
+        assertThat(antiBotService.getAntiBotStatus(), equalTo(AntiBotService.AntiBotStatus.LISTENING));
+        assertThat(antiBotService.getJoinRateTracker().getThrottledJoinCount(), greaterThan(0L));
+        verifyNoInteractions(geoIpService);
+    }
+
     @Test
     public void shouldInformPlayersOnActivation() {
         // given - listening antibot
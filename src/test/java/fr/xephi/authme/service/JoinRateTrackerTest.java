@@ -0,0 +1,125 @@
+package fr.xephi.authme.service;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Test for {@link JoinRateTracker}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JoinRateTrackerTest {
+
+    @Mock
+    private GeoIpService geoIpService;
+
+    private final AtomicLong time = new AtomicLong(1_000_000L);
+
+    @Test
+    public void shouldThrottleSubnetWithTooManyJoins() {
+        // given
+        JoinRateTracker tracker = new JoinRateTracker(geoIpService, 60_000L, 3, 0, time::get);
+        for (int i = 0; i < 10; ++i) {
+            tracker.recordJoin("203.0.113." + i);
+        }
+
+        // when
+        boolean isSameSubnetThrottled = tracker.recordJoin("203.0.113.200");
+        boolean isOtherSubnetThrottled = tracker.recordJoin("203.0.114.1");
+
+        // then
+        assertThat(isSameSubnetThrottled, equalTo(true));
+        assertThat(isOtherSubnetThrottled, equalTo(false));
+        assertThat(tracker.getThrottledJoinCount(), equalTo(7L));
+        assertThat(tracker.getHighestRates(1).keySet(), contains("203.0.113.0/24"));
+        verifyNoInteractions(geoIpService);
+    }
+
+    @Test
+    public void shouldAllowSubnetAgainAfterRateDecayed() {
+        // given
+        JoinRateTracker tracker = new JoinRateTracker(geoIpService, 10_000L, 5, 0, time::get);
+        for (int i = 0; i < 10; ++i) {
+            tracker.recordJoin("2001:db8:a:1::" + i);
+        }
+        boolean wasThrottled = tracker.recordJoin("2001:db8:a:ff::1");
+        time.addAndGet(60_000L);
+
+        // when
+        boolean isThrottled = tracker.recordJoin("2001:db8:a:ff::1");
+
+        // then
+        assertThat(wasThrottled, equalTo(true));
+        assertThat(isThrottled, equalTo(false));
+    }
+
+    @Test
+    public void shouldThrottleCountryWithTooManyJoins() {
+        // given
+        given(geoIpService.getCountryCode("198.51.100.1")).willReturn("XX");
+        given(geoIpService.getCountryCode("192.0.2.1")).willReturn("XX");
+        given(geoIpService.getCountryCode("203.0.113.1")).willReturn("XX");
+        JoinRateTracker tracker = new JoinRateTracker(geoIpService, 60_000L, 100, 1.5, time::get);
+        tracker.recordJoin("198.51.100.1");
+        tracker.recordJoin("192.0.2.1");
+
+        // when
+        boolean isThrottled = tracker.recordJoin("203.0.113.1");
+
+        // then
+        assertThat(isThrottled, equalTo(true));
+        assertThat(tracker.getHighestRates(1).keySet(), contains("country XX"));
+    }
+
+    @Test
+    public void shouldIgnoreLocalAddresses() {
+        // given
+        JoinRateTracker tracker = new JoinRateTracker(geoIpService, 60_000L, 1, 1, time::get);
+
+        // when
+        for (int i = 0; i < 10; ++i) {
+            tracker.recordJoin("127.0.0.1");
+        }
+
+        // then
+        assertThat(tracker.getTrackedBucketCount(), equalTo(0));
+        verifyNoInteractions(geoIpService);
+    }
+
+    @Test
+    public void shouldRemoveIdleBuckets() {
+        // given
+        JoinRateTracker tracker = new JoinRateTracker(geoIpService, 1_000L, 10, 0, time::get);
+        tracker.recordJoin("203.0.113.4");
+        time.addAndGet(500L);
+        tracker.recordJoin("198.51.100.4");
+        time.addAndGet(20_000L);
+        tracker.recordJoin("192.0.2.4");
+
+        // when
+        tracker.removeIdleBuckets();
+
+        // then
+        Map<String, Double> rates = tracker.getHighestRates(10);
+        assertThat(rates.keySet(), contains("192.0.2.0/24"));
+    }
+
+    @Test
+    public void shouldReturnSubnet() {
+        // given / when / then
+        assertThat(JoinRateTracker.getSubnet("203.0.113.77"), equalTo("203.0.113.0/24"));
+        assertThat(JoinRateTracker.getSubnet("2001:db8:a:1::5"), equalTo("2001:db8:a::/48"));
+        assertThat(JoinRateTracker.getSubnet("not an ip"), nullValue());
+    }
+}
@@ -15,10 +15,12 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Arrays;
+import java.util.function.Consumer;
 
 import static fr.xephi.authme.AuthMeMatchers.equalToHash;
 import static org.hamcrest.Matchers.equalToIgnoringCase;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
@@ -53,7 +55,7 @@ public class MigrationServiceTest {
         PlayerAuth auth1 = authWithNickAndHash("bobby", "test");
         PlayerAuth auth2 = authWithNickAndHash("user", "myPassword");
         PlayerAuth auth3 = authWithNickAndHash("Tester12", "$tester12_pw");
-        given(dataSource.getAllAuths()).willReturn(Arrays.asList(auth1, auth2, auth3));
+        givenAuths(auth1, auth2, auth3);
         setSha256MockToUppercase(sha256);
         given(settings.getProperty(SecuritySettings.PASSWORD_HASH)).willReturn(HashAlgorithm.PLAINTEXT);
 
@@ -62,7 +64,7 @@ public class MigrationServiceTest {
 
         // then
         verify(sha256, times(3)).computeHash(anyString(), anyString());
-        verify(dataSource).getAllAuths(); // need to verify this because we use verifyNoMoreInteractions() after
+        verify(dataSource).forEachAuth(any()); // need to verify this because we use verifyNoMoreInteractions() after
         verify(dataSource).updatePassword(auth1);
         assertThat(auth1.getPassword(), equalToHash("TEST"));
         verify(dataSource).updatePassword(auth2);
@@ -78,7 +80,7 @@ public class MigrationServiceTest {
         // given
         PlayerAuth auth1 = authWithNickAndHash("testUser", "abc1234");
         PlayerAuth auth2 = authWithNickAndHash("minecraft", "$SHA$f28930ae09823eba4cd98a3");
-        given(dataSource.getAllAuths()).willReturn(Arrays.asList(auth1, auth2));
+        givenAuths(auth1, auth2);
         setSha256MockToUppercase(sha256);
         given(settings.getProperty(SecuritySettings.PASSWORD_HASH)).willReturn(HashAlgorithm.PLAINTEXT);
 
@@ -88,7 +90,7 @@ public class MigrationServiceTest {
         // then
         verify(sha256).computeHash(eq("abc1234"), argThat(equalToIgnoringCase("testUser")));
         verifyNoMoreInteractions(sha256);
-        verify(dataSource).getAllAuths(); // need to verify this because we use verifyNoMoreInteractions() after
+        verify(dataSource).forEachAuth(any()); // need to verify this because we use verifyNoMoreInteractions() after
         verify(dataSource).updatePassword(auth1);
         assertThat(auth1.getPassword(), equalToHash("ABC1234"));
         verifyNoMoreInteractions(dataSource);
@@ -121,4 +123,12 @@ public class MigrationServiceTest {
             return new HashedPassword(plainPassword.toUpperCase(), null);
         });
     }
+
+    private void givenAuths(PlayerAuth... auths) {
+        given(dataSource.forEachAuth(any())).willAnswer(invocation -> {
+            Consumer<PlayerAuth> action = invocation.getArgument(0);
+            Arrays.asList(auths).forEach(action);
+            return true;
+        });
+    }
 }
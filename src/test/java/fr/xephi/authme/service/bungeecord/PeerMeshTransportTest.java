@@ -0,0 +1,151 @@
+package fr.xephi.authme.service.bungeecord;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.data.auth.AuthDelta;
+import fr.xephi.authme.data.auth.PlayerAuth;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link PeerMeshTransport}, with transports connected over localhost.
+ */
+public class PeerMeshTransportTest {
+
+    private static final long NO_AUTOMATIC_FLUSH = 60_000L;
+
+    private final List<PeerMeshTransport> transports = new ArrayList<>();
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @After
+    public void closeTransports() {
+        transports.forEach(PeerMeshTransport::close);
+    }
+
+    @Test
+    public void shouldSendCoalescedDeltasToPeer() throws IOException, InterruptedException {
+        // given
+        BlockingQueue<AuthDelta> received = new LinkedBlockingQueue<>();
+        PeerMeshTransport receiver = startTransport(0, Collections.emptyList(), "s3cr3t", received::add);
+        PeerMeshTransport sender = startTransport(0,
+            Collections.singletonList("127.0.0.1:" + receiver.getLocalPort()), "s3cr3t", delta -> { });
+        PlayerAuth auth = PlayerAuth.builder().name("Bobby").email("bobby@example.org").lastIp("11.22.33.44").build();
+
+        // when
+        sender.publish(AuthDelta.update(auth, EnumSet.of(PlayerAuth.Field.EMAIL), 1L));
+        sender.publish(AuthDelta.update(auth, EnumSet.of(PlayerAuth.Field.LAST_IP), 2L));
+        sender.publish(AuthDelta.remove("tina", 3L));
+        sender.flush();
+
+        // then
+        AuthDelta first = received.poll(5, TimeUnit.SECONDS);
+        AuthDelta second = received.poll(5, TimeUnit.SECONDS);
+        AuthDelta bobbyDelta = "bobby".equals(first.getName()) ? first : second;
+        AuthDelta tinaDelta = bobbyDelta == first ? second : first;
+        assertThat(bobbyDelta.getVersion(), equalTo(2L));
+        assertThat(bobbyDelta.getFields(), containsInAnyOrder(PlayerAuth.Field.EMAIL, PlayerAuth.Field.LAST_IP));
+        assertThat(bobbyDelta.getValues().getEmail(), equalTo("bobby@example.org"));
+        assertThat(bobbyDelta.getValues().getLastIp(), equalTo("11.22.33.44"));
+        assertThat(tinaDelta.getKind(), equalTo(AuthDelta.Kind.REMOVE));
+        assertThat(received.poll(100, TimeUnit.MILLISECONDS), nullValue());
+        assertThat(sender.getSentDeltaCount(), equalTo(2L));
+        assertThat(receiver.getReceivedDeltaCount(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldRejectDeltasSignedWithOtherSecret() throws IOException, InterruptedException {
+        // given
+        BlockingQueue<AuthDelta> received = new LinkedBlockingQueue<>();
+        PeerMeshTransport receiver = startTransport(0, Collections.emptyList(), "s3cr3t", received::add);
+        PeerMeshTransport sender = startTransport(0,
+            Collections.singletonList("127.0.0.1:" + receiver.getLocalPort()), "wrong", delta -> { });
+
+        // when
+        sender.publish(AuthDelta.reload("bobby", 1L));
+        sender.flush();
+
+        // then
+        assertThat(received.poll(500, TimeUnit.MILLISECONDS), nullValue());
+        assertThat(receiver.getReceivedDeltaCount(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldIgnoreOwnDeltas() throws IOException, InterruptedException {
+        // given
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        BlockingQueue<AuthDelta> received = new LinkedBlockingQueue<>();
+        PeerMeshTransport transport = startTransport(port,
+            Collections.singletonList("127.0.0.1:" + port), "s3cr3t", received::add);
+
+        // when
+        transport.publish(AuthDelta.reload("tina", 1L));
+        transport.flush();
+
+        // then
+        assertThat(received.poll(500, TimeUnit.MILLISECONDS), nullValue());
+        assertThat(transport.getSentDeltaCount(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldRejectReplayedFrame() throws IOException, InterruptedException {
+        // given
+        BlockingQueue<AuthDelta> received = new LinkedBlockingQueue<>();
+        PeerMeshTransport receiver = startTransport(0, Collections.emptyList(), "s3cr3t", received::add);
+        PeerMeshTransport sender = startTransport(0, Collections.emptyList(), "s3cr3t", delta -> { });
+        byte[] hello = sender.createFrame(Collections.emptyList());
+        byte[] frame = sender.createFrame(Collections.singletonList(AuthDelta.reload("bobby", 1L)));
+
+        // when
+        try (Socket socket = new Socket("127.0.0.1", receiver.getLocalPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(0x41754D65);
+            out.writeInt(2);
+            out.write(hello);
+            out.write(frame);
+            out.write(frame);
+            out.flush();
+
+            // then
+            assertThat(received.poll(5, TimeUnit.SECONDS).getName(), equalTo("bobby"));
+            // the connection is closed after the replayed frame
+            socket.setSoTimeout(5000);
+            assertThat(socket.getInputStream().read(), equalTo(-1));
+        }
+        assertThat(received.poll(100, TimeUnit.MILLISECONDS), nullValue());
+        assertThat(receiver.getReceivedDeltaCount(), equalTo(1L));
+    }
+
+    private PeerMeshTransport startTransport(int port, List<String> peers, String secret,
+                                             Consumer<AuthDelta> handler) throws IOException {
+        PeerMeshTransport transport =
+            new PeerMeshTransport("127.0.0.1:" + port, peers, secret, NO_AUTOMATIC_FLUSH, handler);
+        transports.add(transport);
+        transport.start();
+        return transport;
+    }
+}
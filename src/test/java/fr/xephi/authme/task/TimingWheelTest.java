@@ -0,0 +1,147 @@
+package fr.xephi.authme.task;
+
+import fr.xephi.authme.TestHelper;
+import fr.xephi.authme.service.BukkitService;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test for {@link TimingWheel}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TimingWheelTest {
+
+    @InjectMocks
+    private TimingWheel timingWheel;
+
+    @Mock
+    private BukkitService bukkitService;
+
+    @BeforeClass
+    public static void initLogger() {
+        TestHelper.setupLogger();
+    }
+
+    @Test
+    public void shouldRunTasksAtTheirDeadline() {
+        // given
+        List<Long> runs = new ArrayList<>();
+        long[] tick = {0};
+        timingWheel.schedule(new RecordingTask(runs, tick), 3);
+        timingWheel.schedule(new RecordingTask(runs, tick), 300);
+        timingWheel.schedule(new RecordingTask(runs, tick), 20_000);
+
+        // when
+        advance(timingWheel, tick, 20_000);
+
+        // then
+        assertThat(runs, contains(3L, 300L, 20_000L));
+        assertThat(timingWheel.size(), equalTo(0));
+    }
+
+    @Test
+    public void shouldRunRepeatingTaskUntilCancelled() {
+        // given
+        List<Long> runs = new ArrayList<>();
+        long[] tick = {0};
+        RecordingTask task = new RecordingTask(runs, tick);
+        timingWheel.scheduleRepeating(task, 40, 100);
+
+        // when
+        advance(timingWheel, tick, 340);
+        task.cancel();
+        advance(timingWheel, tick, 500);
+
+        // then
+        assertThat(runs, contains(40L, 140L, 240L, 340L));
+        assertThat(timingWheel.size(), equalTo(0));
+    }
+
+    @Test
+    public void shouldNotRunCancelledTask() {
+        // given
+        List<Long> runs = new ArrayList<>();
+        long[] tick = {0};
+        RecordingTask task = new RecordingTask(runs, tick);
+        timingWheel.schedule(task, 600);
+
+        // when
+        advance(timingWheel, tick, 200);
+        task.cancel();
+        advance(timingWheel, tick, 600);
+
+        // then
+        assertThat(runs, empty());
+        assertThat(task.isCancelled(), equalTo(true));
+        assertThat(timingWheel.size(), equalTo(0));
+    }
+
+    @Test
+    public void shouldStartAndStopDriverTask() {
+        // given
+        BukkitTask driverTask = mock(BukkitTask.class);
+        given(bukkitService.runTaskTimer(any(BukkitRunnable.class), eq(1L), eq(1L))).willReturn(driverTask);
+        long[] tick = {0};
+
+        // when
+        timingWheel.schedule(new RecordingTask(new ArrayList<>(), tick), 1);
+        timingWheel.schedule(new RecordingTask(new ArrayList<>(), tick), 2);
+        advance(timingWheel, tick, 2);
+
+        // then
+        verify(bukkitService, times(1)).runTaskTimer(any(BukkitRunnable.class), eq(1L), eq(1L));
+        verify(driverTask).cancel();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAllowToScheduleTaskTwice() {
+        // given
+        RecordingTask task = new RecordingTask(new ArrayList<>(), new long[1]);
+        timingWheel.schedule(task, 10);
+
+        // when
+        timingWheel.schedule(task, 20);
+    }
+
+    private static void advance(TimingWheel timingWheel, long[] tick, long untilTick) {
+        while (tick[0] < untilTick) {
+            ++tick[0];
+            timingWheel.tick();
+        }
+    }
+
+    private static final class RecordingTask extends WheelTask {
+        private final List<Long> runs;
+        private final long[] tick;
+
+        RecordingTask(List<Long> runs, long[] tick) {
+            this.runs = runs;
+            this.tick = tick;
+        }
+
+        @Override
+        public void run() {
+            runs.add(tick[0]);
+        }
+    }
+}
@@ -100,6 +100,7 @@ public class PurgeServiceTest {
         given(settings.getProperty(PurgeSettings.DAYS_BEFORE_REMOVE_PLAYER)).willReturn(60);
         Set<String> playerNames = newHashSet("alpha", "bravo", "charlie", "delta");
         given(dataSource.getRecordsToPurge(anyLong())).willReturn(playerNames);
+        givenPurgeChunkSettings();
 
         // when
         purgeService.runAutoPurge();
@@ -139,6 +140,7 @@ public class PurgeServiceTest {
         Player sender = mock(Player.class);
         UUID uuid = UUID.randomUUID();
         given(sender.getUniqueId()).willReturn(uuid);
+        givenPurgeChunkSettings();
 
         // when
         purgeService.runPurge(sender, delay);
@@ -170,11 +172,20 @@ public class PurgeServiceTest {
         List<OfflinePlayer> offlinePlayers = Arrays.asList(
             mock(OfflinePlayer.class), mock(OfflinePlayer.class), mock(OfflinePlayer.class));
 
+        given(executor.executePurge(offlinePlayers, names)).willReturn(2);
+
         // when
-        purgeService.executePurge(offlinePlayers, names);
+        int deleted = purgeService.executePurge(offlinePlayers, names);
 
         // then
         verify(executor).executePurge(offlinePlayers, names);
+        assertThat(deleted, equalTo(2));
+        assertThat(purgeService.getPurgedAccounts(), equalTo(2L));
+    }
+
+    private void givenPurgeChunkSettings() {
+        given(settings.getProperty(PurgeSettings.PURGE_CHUNK_SIZE)).willReturn(500);
+        given(settings.getProperty(PurgeSettings.PURGE_CHUNK_PAUSE)).willReturn(10);
     }
 
     private void assertCorrectPurgeTimestamp(long timestamp, int configuredDays) {
@@ -196,5 +207,7 @@ public class PurgeServiceTest {
         Set<String> namesInTask = ReflectionTestUtils.getFieldValue(PurgeTask.class, task, "toPurge");
         assertThat(senderInTask, equalTo(senderUuid));
         assertThat(namesInTask, containsInAnyOrder(names.toArray()));
+        assertThat(ReflectionTestUtils.getFieldValue(PurgeTask.class, task, "chunkSize"), equalTo(500));
+        assertThat(ReflectionTestUtils.getFieldValue(PurgeTask.class, task, "pauseTicks"), equalTo(10));
     }
 }
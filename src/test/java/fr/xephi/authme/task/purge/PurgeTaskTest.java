@@ -35,6 +35,7 @@ import static com.google.common.collect.Sets.newHashSet;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -45,6 +46,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
 /**
@@ -88,7 +90,7 @@ public class PurgeTaskTest {
             mockOfflinePlayer("Golf", false),  mockOfflinePlayer("123456", false), mockOfflinePlayer("HOTEL", false));
         reset(purgeService, permissionsManager);
         setPermissionsBehavior();
-        PurgeTask task = new PurgeTask(purgeService, permissionsManager, null, names, players);
+        PurgeTask task = new PurgeTask(purgeService, permissionsManager, null, names, players, 500, 0);
 
         // when (1 - first run, 5 players per run)
         task.run();
@@ -137,7 +139,7 @@ public class PurgeTaskTest {
         reset(purgeService, permissionsManager);
         setPermissionsBehavior();
 
-        PurgeTask task = new PurgeTask(purgeService, permissionsManager, null, names, players);
+        PurgeTask task = new PurgeTask(purgeService, permissionsManager, null, names, players, 500, 0);
 
         // when
         task.run();
@@ -153,7 +155,7 @@ public class PurgeTaskTest {
         Player sender = mock(Player.class);
         UUID uuid = UUID.randomUUID();
         given(sender.getUniqueId()).willReturn(uuid);
-        PurgeTask task = new PurgeTask(purgeService, permissionsManager, sender, names, new OfflinePlayer[0]);
+        PurgeTask task = new PurgeTask(purgeService, permissionsManager, sender, names, new OfflinePlayer[0], 500, 0);
 
         BukkitTask bukkitTask = mock(BukkitTask.class);
         given(bukkitTask.getTaskId()).willReturn(10049);
@@ -179,7 +181,7 @@ public class PurgeTaskTest {
     public void shouldStopTaskAndInformConsoleUser() {
         // given
         Set<String> names = newHashSet("name1", "name2");
-        PurgeTask task = new PurgeTask(purgeService, permissionsManager, null, names, new OfflinePlayer[0]);
+        PurgeTask task = new PurgeTask(purgeService, permissionsManager, null, names, new OfflinePlayer[0], 500, 0);
 
         BukkitTask bukkitTask = mock(BukkitTask.class);
         given(bukkitTask.getTaskId()).willReturn(10049);
@@ -202,6 +204,42 @@ public class PurgeTaskTest {
         verify(consoleSender).sendMessage(argThat(containsString("Database has been purged successfully")));
     }
 
+    @Test
+    public void shouldPurgeNamesInChunksWithPause() {
+        // given
+        Set<String> names = newHashSet("name1", "name2", "name3", "name4", "name5");
+        Server server = mock(Server.class);
+        ReflectionTestUtils.setField(Bukkit.class, null, "server", server);
+        ConsoleCommandSender consoleSender = mock(ConsoleCommandSender.class);
+        given(server.getConsoleSender()).willReturn(consoleSender);
+        PurgeTask task = new PurgeTask(purgeService, permissionsManager, null, names, new OfflinePlayer[0], 2, 1);
+
+        // when (1) - first chunk
+        task.run();
+
+        // then (1)
+        verify(purgeService).executePurge(playerCaptor.capture(), namesCaptor.capture());
+        assertThat(namesCaptor.getValue(), hasSize(2));
+        assertThat(names, hasSize(3));
+        verify(consoleSender).sendMessage(argThat(containsString("Purge progress 2/5")));
+
+        // when (2) - pause
+        reset(purgeService);
+        task.run();
+
+        // then (2)
+        verifyNoInteractions(purgeService);
+
+        // when (3) - second chunk
+        task.run();
+
+        // then (3)
+        verify(purgeService).executePurge(playerCaptor.capture(), namesCaptor.capture());
+        assertThat(namesCaptor.getValue(), hasSize(2));
+        assertThat(names, hasSize(1));
+        // progress of the second chunk is not reported since the last message was sent just now
+        verify(consoleSender, never()).sendMessage(argThat(containsString("Purge progress 4/5")));
+    }
 
     private OfflinePlayer mockOfflinePlayer(String name, boolean hasBypassPermission) {
         OfflinePlayer player = mock(OfflinePlayer.class);
@@ -0,0 +1,58 @@
+package fr.xephi.authme.util.expiring;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link DecayingRate}.
+ */
+public class DecayingRateTest {
+
+    @Test
+    public void shouldHalveRateAfterHalfLife() {
+        // given
+        DecayingRate rate = new DecayingRate(10_000L);
+        rate.record(100_000L);
+        double initialRate = rate.record(100_000L);
+
+        // when
+        double rateAfterHalfLife = rate.getRatePerMinute(110_000L);
+        double rateAfterTwoHalfLives = rate.getRatePerMinute(120_000L);
+
+        // then
+        assertThat(rateAfterHalfLife, closeTo(initialRate / 2, 0.0001));
+        assertThat(rateAfterTwoHalfLives, closeTo(initialRate / 4, 0.0001));
+    }
+
+    @Test
+    public void shouldConvergeToActualRate() {
+        // given
+        DecayingRate rate = new DecayingRate(5_000L);
+        long time = 1_000_000L;
+
+        // when - 2 events per second for 2 minutes
+        for (int i = 0; i < 240; ++i) {
+            time += 500L;
+            rate.record(time);
+        }
+
+        // then
+        assertThat(rate.getRatePerMinute(time), closeTo(120.0, 10.0));
+    }
+
+    @Test
+    public void shouldNotIncreaseWeightForPastTime() {
+        // given
+        DecayingRate rate = new DecayingRate(1_000L);
+        double rateAfterEvent = rate.record(50_000L);
+
+        // when
+        double rateWithPastTime = rate.getRatePerMinute(40_000L);
+
+        // then
+        assertThat(rateWithPastTime, equalTo(rateAfterEvent));
+    }
+}
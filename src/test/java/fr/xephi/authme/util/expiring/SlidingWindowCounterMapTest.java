@@ -0,0 +1,72 @@
+package fr.xephi.authme.util.expiring;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link SlidingWindowCounterMap}.
+ */
+public class SlidingWindowCounterMapTest {
+
+    @Test
+    public void shouldCountPerKeyAndInTotal() {
+        // given
+        SlidingWindowCounterMap<String> counters = new SlidingWindowCounterMap<>(60_000L, System::currentTimeMillis);
+
+        // when
+        counters.increment("bobby");
+        counters.increment("bobby");
+        counters.increment("tina");
+
+        // then
+        assertThat(counters.get("bobby"), equalTo(2));
+        assertThat(counters.get("tina"), equalTo(1));
+        assertThat(counters.get("other"), equalTo(0));
+        assertThat(counters.total(), equalTo(3));
+    }
+
+    @Test
+    public void shouldRemoveKeyFromTotal() {
+        // given
+        AtomicLong time = new AtomicLong(1_000_000L);
+        SlidingWindowCounterMap<String> counters = new SlidingWindowCounterMap<>(60_000L, time::get);
+        counters.increment("bobby");
+        time.addAndGet(20_000L);
+        counters.increment("bobby");
+        counters.increment("tina");
+
+        // when
+        counters.remove("bobby");
+
+        // then
+        assertThat(counters.get("bobby"), equalTo(0));
+        assertThat(counters.total(), equalTo(1));
+    }
+
+    @Test
+    public void shouldRemoveExpiredEntries() {
+        // given
+        AtomicLong time = new AtomicLong(1_000_000L);
+        SlidingWindowCounterMap<String> counters = new SlidingWindowCounterMap<>(60_000L, time::get);
+        counters.increment("bobby");
+        time.addAndGet(40_000L);
+        counters.increment("tina");
+        time.addAndGet(30_000L);
+
+        // when
+        counters.removeExpiredEntries();
+
+        // then
+        assertThat(counters.get("bobby"), equalTo(0));
+        assertThat(counters.get("tina"), equalTo(1));
+        assertThat(counters.total(), equalTo(1));
+        assertThat(counters.isEmpty(), equalTo(false));
+        time.addAndGet(60_000L);
+        counters.removeExpiredEntries();
+        assertThat(counters.isEmpty(), equalTo(true));
+    }
+}
@@ -0,0 +1,121 @@
+package fr.xephi.authme.util.expiring;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link SlidingWindowCounter}.
+ */
+public class SlidingWindowCounterTest {
+
+    @Test
+    public void shouldCountEventsInWindow() {
+        // given
+        AtomicLong time = new AtomicLong(50_000L);
+        SlidingWindowCounter counter = new SlidingWindowCounter(10_000L, 10, time::get);
+
+        // when
+        counter.increment();
+        time.addAndGet(4_000L);
+        counter.add(3);
+        time.addAndGet(5_500L);
+        int countBeforeExpiration = counter.get();
+        time.addAndGet(500L);
+        int countAfterFirstExpiration = counter.get();
+        time.addAndGet(4_000L);
+        int countAfterAllExpired = counter.get();
+
+        // then
+        assertThat(countBeforeExpiration, equalTo(4));
+        assertThat(countAfterFirstExpiration, equalTo(3));
+        assertThat(countAfterAllExpired, equalTo(0));
+        assertThat(counter.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void shouldReuseExpiredBuckets() {
+        // given
+        AtomicLong time = new AtomicLong(0L);
+        SlidingWindowCounter counter = new SlidingWindowCounter(1_000L, 4, time::get);
+        counter.add(7);
+
+        // when
+        time.set(1_000L);
+        counter.increment();
+
+        // then
+        assertThat(counter.get(), equalTo(1));
+    }
+
+    @Test
+    public void shouldSubtractCountsOfOtherCounter() {
+        // given
+        AtomicLong time = new AtomicLong(123_456L);
+        SlidingWindowCounter total = new SlidingWindowCounter(60_000L, 10, time::get);
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000L, 10, time::get);
+        total.add(5);
+        counter.add(2);
+        time.addAndGet(30_000L);
+        total.add(4);
+        counter.add(3);
+
+        // when
+        total.subtract(counter);
+
+        // then
+        assertThat(total.get(), equalTo(4));
+    }
+
+    @Test
+    public void shouldExpireImmediatelyForNonPositiveWindow() {
+        // given
+        SlidingWindowCounter counter = new SlidingWindowCounter(0, TimeUnit.SECONDS);
+
+        // when
+        counter.increment();
+
+        // then
+        assertThat(counter.get(), equalTo(0));
+    }
+
+    @Test
+    public void shouldResetCounts() {
+        // given
+        SlidingWindowCounter counter = new SlidingWindowCounter(5, TimeUnit.MINUTES);
+        counter.add(12);
+
+        // when
+        counter.reset();
+
+        // then
+        assertThat(counter.get(), equalTo(0));
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentIncrements() throws InterruptedException {
+        // given
+        SlidingWindowCounter counter = new SlidingWindowCounter(1, TimeUnit.HOURS);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        for (int i = 0; i < 4; ++i) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10_000; ++j) {
+                    counter.increment();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        // then
+        assertThat(counter.get(), equalTo(40_000));
+    }
+}
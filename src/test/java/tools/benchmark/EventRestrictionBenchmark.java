@@ -0,0 +1,158 @@
+package tools.benchmark;
+
+import ch.jalu.injector.Injector;
+import ch.jalu.injector.InjectorBuilder;
+import fr.xephi.authme.data.auth.PlayerAuth;
+import fr.xephi.authme.data.auth.PlayerCache;
+import fr.xephi.authme.datasource.DataSource;
+import fr.xephi.authme.service.ValidationService;
+import fr.xephi.authme.settings.Settings;
+import fr.xephi.authme.settings.properties.RegistrationSettings;
+import org.bukkit.entity.Player;
+import tools.utils.AutoToolTask;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the cost per event of {@code ListenerService#shouldCancelEvent(Player)}, once with the player's
+ * restriction state kept between events and once with the state being discarded after each event, so that
+ * the name and NPC checks are evaluated on every event. The service is created by the injector with mocked
+ * settings, data source and validation service; registration is forced, so the data source is never queried.
+ * The listener service is package-private, so it is called through a method handle; the players are proxies
+ * which only return their name and UUID.
+ */
+public class EventRestrictionBenchmark implements AutoToolTask {
+
+    private static final String LISTENER_SERVICE_CLASS = "fr.xephi.authme.listener.ListenerService";
+    private static final int PLAYERS = 200;
+    private static final int EVENTS = 20_000_000;
+    private static final int ROUNDS = 5;
+
+    private final Player[] players = new Player[PLAYERS];
+    private Object listenerService;
+    private MethodHandle shouldCancelEvent;
+    private MethodHandle invalidateRestrictionState;
+
+    @Override
+    public String getTaskName() {
+        return "eventRestrictionBenchmark";
+    }
+
+    @Override
+    public void executeDefault() {
+        Injector injector = createInjector();
+        PlayerCache playerCache = injector.getSingleton(PlayerCache.class);
+        for (int i = 0; i < PLAYERS; ++i) {
+            players[i] = createPlayer("Player" + i, UUID.randomUUID());
+            if (i % 2 == 0) {
+                playerCache.updatePlayer(PlayerAuth.builder().name("Player" + i).build());
+            }
+        }
+        initializeListenerService(injector);
+
+        System.out.println("Round | state kept      | state discarded");
+        for (int round = 1; round <= ROUNDS; ++round) {
+            Result kept = measure(false);
+            Result discarded = measure(true);
+            System.out.format("%-5d | %6.1f ns %5.1f B | %6.1f ns %5.1f B%n", round,
+                kept.nanosPerEvent, kept.bytesPerEvent, discarded.nanosPerEvent, discarded.bytesPerEvent);
+        }
+    }
+
+    private Result measure(boolean discardState) {
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int canceled = 0;
+        try {
+            for (int i = 0; i < EVENTS; ++i) {
+                Player player = players[i % PLAYERS];
+                if ((boolean) shouldCancelEvent.invokeExact(listenerService, player)) {
+                    ++canceled;
+                }
+                if (discardState) {
+                    invalidateRestrictionState.invokeExact(listenerService, player);
+                }
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to call the listener service", e);
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+        if (canceled != EVENTS / 2) {
+            throw new IllegalStateException("Unexpected number of canceled events: " + canceled);
+        }
+        return new Result((double) nanos / EVENTS, (double) bytes / EVENTS);
+    }
+
+    private void initializeListenerService(Injector injector) {
+        try {
+            Class<?> serviceClass = Class.forName(LISTENER_SERVICE_CLASS);
+            listenerService = injector.getSingleton(serviceClass);
+            shouldCancelEvent = getMethodHandle(serviceClass, "shouldCancelEvent", boolean.class);
+            invalidateRestrictionState = getMethodHandle(serviceClass, "invalidateRestrictionState", void.class);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not get the listener service", e);
+        }
+    }
+
+    private static MethodHandle getMethodHandle(Class<?> serviceClass, String name, Class<?> returnType)
+            throws ReflectiveOperationException {
+        Method method = serviceClass.getDeclaredMethod(name, Player.class);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method)
+            .asType(MethodType.methodType(returnType, Object.class, Player.class));
+    }
+
+    private static Injector createInjector() {
+        Settings settings = mock(Settings.class);
+        given(settings.getProperty(RegistrationSettings.FORCE)).willReturn(true);
+
+        Injector injector = new InjectorBuilder().addDefaultHandlers("fr.xephi.authme").create();
+        injector.register(Settings.class, settings);
+        injector.register(DataSource.class, mock(DataSource.class));
+        injector.register(ValidationService.class, mock(ValidationService.class));
+        return injector;
+    }
+
+    private static Player createPlayer(String name, UUID uuid) {
+        return (Player) Proxy.newProxyInstance(EventRestrictionBenchmark.class.getClassLoader(),
+            new Class<?>[]{Player.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getName":
+                        return name;
+                    case "getUniqueId":
+                        return uuid;
+                    case "hasMetadata":
+                        return false;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    private static final class Result {
+        private final double nanosPerEvent;
+        private final double bytesPerEvent;
+
+        Result(double nanosPerEvent, double bytesPerEvent) {
+            this.nanosPerEvent = nanosPerEvent;
+            this.bytesPerEvent = bytesPerEvent;
+        }
+    }
+}
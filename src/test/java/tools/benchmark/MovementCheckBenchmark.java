@@ -0,0 +1,116 @@
+package tools.benchmark;
+
+import fr.xephi.authme.data.limbo.MovementAnchor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import tools.utils.AutoToolTask;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+
+/**
+ * Compares the cost of checking whether an unauthenticated player has left the allowed movement radius
+ * by looking up the spawn and the player's location on each move, as {@code PlayerListener#onPlayerMove}
+ * did before, with the cost of checking the event's target against the player's {@link MovementAnchor}.
+ * The spawn lookup is replicated with the default spawn priority: each priority is normalized and the world's
+ * spawn is retrieved twice; the server creates a new location for the world spawn and the player's location.
+ */
+public class MovementCheckBenchmark implements AutoToolTask {
+
+    private static final int MOVES = 20_000_000;
+    private static final int ROUNDS = 5;
+    private static final int RADIUS = 100;
+
+    private final World world = (World) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[]{World.class}, (proxy, method, args) -> {
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+            return null;
+        });
+    private final Location spawn = new Location(world, 0.5, 64, 0.5);
+    private final String[] spawnPriority = {"authme", "essentials", "cmi", "multiverse", "default"};
+    private final Location[] targets = new Location[256];
+
+    @Override
+    public String getTaskName() {
+        return "movementCheckBenchmark";
+    }
+
+    @Override
+    public void executeDefault() {
+        for (int i = 0; i < targets.length; ++i) {
+            // Every fourth location is outside of the radius
+            double offset = i % 4 == 0 ? RADIUS + 5 : i % 60;
+            targets[i] = new Location(world, offset, 64 + i % 3, -offset / 2);
+        }
+        MovementAnchor anchor = new MovementAnchor(spawn, RADIUS);
+
+        System.out.println("Round | spawn lookup and distance | movement anchor");
+        for (int round = 1; round <= ROUNDS; ++round) {
+            Result lookup = measure(this::isOutsideByLookup);
+            Result anchored = measure(target -> !anchor.isWithinRadius(target));
+            System.out.format("%-5d | %13.1f ns %6.1f B | %6.1f ns %5.1f B%n", round,
+                lookup.nanosPerMove, lookup.bytesPerMove, anchored.nanosPerMove, anchored.bytesPerMove);
+        }
+    }
+
+    private Result measure(MoveCheck check) {
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int teleports = 0;
+        for (int i = 0; i < MOVES; ++i) {
+            if (check.isOutsideOfRadius(targets[i & (targets.length - 1)])) {
+                ++teleports;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+        if (teleports != MOVES / 4) {
+            throw new IllegalStateException("Unexpected number of teleports: " + teleports);
+        }
+        return new Result((double) nanos / MOVES, (double) bytes / MOVES);
+    }
+
+    // Mirrors the previous implementation with SpawnLoader#getSpawnLocation and Player#getLocation
+    private boolean isOutsideByLookup(Location target) {
+        Location spawnLocation = getSpawnLocation();
+        Location playerLocation = target.clone();
+        return !world.equals(spawnLocation.getWorld()) || spawnLocation.distance(playerLocation) > RADIUS;
+    }
+
+    private Location getSpawnLocation() {
+        for (String priority : spawnPriority) {
+            switch (priority.toLowerCase().trim()) {
+                case "default":
+                    if (spawn.clone() != null) {
+                        return spawn.clone();
+                    }
+                    break;
+                default:
+                    // No AuthMe, Essentials, CMI or Multiverse spawn
+            }
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface MoveCheck {
+        boolean isOutsideOfRadius(Location target);
+    }
+
+    private static final class Result {
+        private final double nanosPerMove;
+        private final double bytesPerMove;
+
+        Result(double nanosPerMove, double bytesPerMove) {
+            this.nanosPerMove = nanosPerMove;
+            this.bytesPerMove = bytesPerMove;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package tools.benchmark;
+
+import tools.utils.AutoToolTask;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the latency of looking up accounts by name in SQLite with {@code LOWER(name)=LOWER(?)},
+ * which scans the table, and with {@code name=? COLLATE NOCASE} on a case-insensitive index.
+ */
+public class SqLiteNameLookupBenchmark implements AutoToolTask {
+
+    private static final int[] ROW_COUNTS = {10_000, 100_000, 1_000_000};
+    private static final int INDEXED_LOOKUPS = 10_000;
+    private static final int SCANNING_LOOKUPS = 50;
+
+    private final Random random = new Random(42);
+
+    @Override
+    public String getTaskName() {
+        return "sqliteNameLookupBenchmark";
+    }
+
+    @Override
+    public void executeDefault() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            System.out.println("Rows       | LOWER(name)=LOWER(?) | name=? COLLATE NOCASE");
+            for (int rows : ROW_COUNTS) {
+                runBenchmark(rows);
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void runBenchmark(int rows) throws SQLException {
+        try (Connection con = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            createTable(con, rows);
+            double scanMicros = measureLookups(con,
+                "SELECT * FROM authme WHERE LOWER(username)=LOWER(?);", rows, SCANNING_LOOKUPS);
+            double indexMicros = measureLookups(con,
+                "SELECT * FROM authme WHERE username=? COLLATE NOCASE;", rows, INDEXED_LOOKUPS);
+            System.out.format("%-10d | %17.1f us | %18.1f us%n", rows, scanMicros, indexMicros);
+        }
+    }
+
+    private static void createTable(Connection con, int rows) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE authme (id INTEGER AUTO_INCREMENT, username VARCHAR(255) NOT NULL UNIQUE, "
+                + "realname VARCHAR(255) NOT NULL DEFAULT 'Player', password VARCHAR(255) NOT NULL DEFAULT '', "
+                + "CONSTRAINT table_const_prim PRIMARY KEY (id));");
+            st.execute("CREATE INDEX authme_username_nocase ON authme (username COLLATE NOCASE);");
+        }
+
+        con.setAutoCommit(false);
+        try (PreparedStatement pst = con.prepareStatement(
+            "INSERT INTO authme (id, username, realname, password) VALUES (?, ?, ?, ?);")) {
+            for (int i = 0; i < rows; ++i) {
+                pst.setInt(1, i);
+                pst.setString(2, "player" + i);
+                pst.setString(3, "Player" + i);
+                pst.setString(4, "$SHA$11aa0706173d7272$dbba966");
+                pst.addBatch();
+                if (i % 10_000 == 0) {
+                    pst.executeBatch();
+                }
+            }
+            pst.executeBatch();
+        }
+        con.commit();
+        con.setAutoCommit(true);
+    }
+
+    /**
+     * Runs the given query for random existing names and returns the average time per lookup.
+     *
+     * @return average lookup time in microseconds
+     */
+    private double measureLookups(Connection con, String sql, int rows, int lookups) throws SQLException {
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            // Warm up
+            lookUp(pst, "Player0");
+
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; ++i) {
+                String name = "Player" + random.nextInt(rows);
+                if (!lookUp(pst, i % 2 == 0 ? name : name.toUpperCase(Locale.ROOT))) {
+                    throw new IllegalStateException("Did not find " + name);
+                }
+            }
+            return (System.nanoTime() - start) / 1000.0 / lookups;
+        }
+    }
+
+    private static boolean lookUp(PreparedStatement pst, String name) throws SQLException {
+        pst.setString(1, name);
+        try (ResultSet rs = pst.executeQuery()) {
+            return rs.next();
+        }
+    }
+}